@@ -0,0 +1,52 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.Entities.ClientIdCounter;
+import com.messismo.bar.Repositories.ClientIdCounterRepository;
+import com.messismo.bar.Repositories.UserRepository;
+import com.messismo.bar.Services.ClientIdService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * ClientIdService.generateUniqueClientId, one block reservation every BLOCK_SIZE ids, independent of the number of clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientIdServiceBenchmark {
+
+    private ClientIdService clientIdService;
+
+    private ClientIdCounter counter;
+
+    @Setup
+    public void setup() {
+        counter = new ClientIdCounter(ClientIdCounter.SINGLETON_ID, 0L);
+        ClientIdCounterRepository clientIdCounterRepository = SyntheticData.stub(ClientIdCounterRepository.class);
+        when(clientIdCounterRepository.findForUpdate(ClientIdCounter.SINGLETON_ID)).thenReturn(Optional.of(counter));
+        TransactionTemplate transactionTemplate = SyntheticData.stub(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        clientIdService = new ClientIdService(SyntheticData.stub(UserRepository.class), clientIdCounterRepository, transactionTemplate, 42L);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        // EL RANGO DE 8 DIGITOS NO SE AGOTA DURANTE LA MEDICION
+        counter.setNextValue(0L);
+    }
+
+    @Benchmark
+    public String generateUniqueClientId() {
+        return clientIdService.generateUniqueClientId();
+    }
+}
@@ -0,0 +1,107 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Order;
+import com.messismo.bar.Entities.ProductOrder;
+import com.messismo.bar.Services.DashboardAccumulator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Series plus the four donuts over an in-memory order list: the previous one-scan-per-donut code against the accumulator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardAccumulatorBenchmark {
+
+    private static final int LINES_PER_ORDER = 4;
+
+    @Param({"1000000"})
+    public int lines;
+
+    @Param({"20"})
+    public int categoryCount;
+
+    private List<Category> categories;
+
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        categories = SyntheticData.categories(categoryCount);
+        orders = SyntheticData.orders(lines / LINES_PER_ORDER, LINES_PER_ORDER, 200, categories, 365 * 3, 42L);
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        DashboardAccumulator<Integer> accumulator = DashboardAccumulator.sorted(LocalDateTime::getYear, null);
+        accumulator.addCategories(categories);
+        for (Order order : orders) {
+            accumulator.add(order);
+        }
+        HashMap<String, Object> response = new HashMap<>();
+        accumulator.putSeries(response);
+        accumulator.putDonuts(response);
+        blackhole.consume(response);
+    }
+
+    @Benchmark
+    public void fourScans(Blackhole blackhole) {
+        HashMap<String, Object> response = new HashMap<>();
+        TreeMap<Integer, Integer> quantityByYear = new TreeMap<>();
+        TreeMap<Integer, Double> earningsByYear = new TreeMap<>();
+        for (Order order : orders) {
+            int year = order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate().getYear();
+            quantityByYear.put(year, quantityByYear.getOrDefault(year, 0) + 1);
+            earningsByYear.put(year, earningsByYear.getOrDefault(year, 0.0) + order.getTotalPrice() - order.getTotalCost());
+        }
+        response.put("orderByQuantity", quantityByYear);
+        response.put("orderByEarnings", earningsByYear);
+        HashMap<String, Integer> productSalesMap = new HashMap<>();
+        for (Order order : orders) {
+            for (ProductOrder productOrder : order.getProductOrders()) {
+                productSalesMap.put(productOrder.getProductName(), productSalesMap.getOrDefault(productOrder.getProductName(), 0) + productOrder.getQuantity());
+            }
+        }
+        response.put("quantityProductDonut", productSalesMap);
+        HashMap<String, Double> productProfitsMap = new HashMap<>();
+        for (Order order : orders) {
+            for (ProductOrder productOrder : order.getProductOrders()) {
+                double productProfit = (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost()) * productOrder.getQuantity();
+                productProfitsMap.put(productOrder.getProductName(), productProfitsMap.getOrDefault(productOrder.getProductName(), 0.0) + productProfit);
+            }
+        }
+        response.put("earningProductDonut", productProfitsMap);
+        HashMap<String, Integer> categorySalesMap = new HashMap<>();
+        for (Order order : orders) {
+            for (ProductOrder productOrder : order.getProductOrders()) {
+                Category category = productOrder.getCategory();
+                categorySalesMap.put(category.getName(), categorySalesMap.getOrDefault(category.getName(), 0) + productOrder.getQuantity());
+            }
+        }
+        response.put("quantityCategoryDonut", categorySalesMap);
+        HashMap<String, Object> categoryEarningsMap = new HashMap<>();
+        for (Category category : categories) {
+            double categoryEarnings = 0.0;
+            for (Order order : orders) {
+                for (ProductOrder productOrder : order.getProductOrders()) {
+                    if (productOrder.getCategory().equals(category)) {
+                        categoryEarnings += productOrder.getQuantity() * (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost());
+                    }
+                }
+            }
+            categoryEarningsMap.put(category.getName(), categoryEarnings);
+        }
+        response.put("earningCategoryDonut", categoryEarningsMap);
+        blackhole.consume(response);
+    }
+}
@@ -0,0 +1,83 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.DTOs.DashboardRequestDTO;
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.SalesRollup;
+import com.messismo.bar.Repositories.CategoryRepository;
+import com.messismo.bar.Repositories.OrderRepository;
+import com.messismo.bar.Repositories.SalesRollupRepository;
+import com.messismo.bar.Services.DashboardService;
+import com.messismo.bar.Services.SalesRollupService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * DashboardService.getDashboardInformation for the four granularities, served from in-memory daily rollups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardServiceBenchmark {
+
+    @Param({"10000", "100000"})
+    public int orders;
+
+    @Param({"yearly", "monthly", "weekly", "daily"})
+    public String granularity;
+
+    @Param({"20"})
+    public int categoryCount;
+
+    private DashboardService dashboardService;
+
+    private DashboardRequestDTO request;
+
+    @Setup
+    public void setup() {
+        List<Category> categories = SyntheticData.categories(categoryCount);
+        List<SalesRollup> dailyRollups = SalesRollupService.aggregate(SyntheticData.orders(orders, 4, 200, categories, 365 * 3, 42L)).stream().filter(rollup -> rollup.getGranularity() == SalesRollup.Granularity.DAY).toList();
+        SalesRollupRepository salesRollupRepository = SyntheticData.stub(SalesRollupRepository.class);
+        CategoryRepository categoryRepository = SyntheticData.stub(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(categories);
+        Map<String, SalesRollup> yearlyRollups = new LinkedHashMap<>();
+        for (SalesRollup rollup : dailyRollups) {
+            SalesRollup yearly = new SalesRollup(rollup.getBucketStart().getYear(), rollup.getDimension(), rollup.getDimensionKey(), rollup.getProductName(), rollup.getCategoryId(), rollup.getCategoryName(), 0L, 0.00, 0.00, 0L);
+            yearlyRollups.computeIfAbsent(yearly.getBucketStart().getYear() + "|" + yearly.getDimensionKey(), key -> yearly).add(rollup);
+        }
+        when(salesRollupRepository.sumDailyByYear()).thenReturn(new ArrayList<>(yearlyRollups.values()));
+        when(salesRollupRepository.findBetween(eq(SalesRollup.Granularity.DAY), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime start = invocation.getArgument(1);
+            LocalDateTime end = invocation.getArgument(2);
+            return dailyRollups.stream().filter(rollup -> !rollup.getBucketStart().isBefore(start) && rollup.getBucketStart().isBefore(end)).toList();
+        });
+        dashboardService = new DashboardService(SyntheticData.stub(OrderRepository.class), categoryRepository, salesRollupRepository);
+        LocalDate today = LocalDate.now();
+        String dateRequested = switch (granularity) {
+            case "monthly" -> String.valueOf(today.getYear());
+            case "weekly" -> today.minusDays(7).toString();
+            case "daily" -> today.toString().substring(0, 7);
+            default -> "";
+        };
+        request = DashboardRequestDTO.builder().dateRequested(dateRequested).categoryList(List.of()).build();
+    }
+
+    @Benchmark
+    public HashMap<String, Object> getDashboardInformation() throws Exception {
+        return dashboardService.getDashboardInformation(request);
+    }
+}
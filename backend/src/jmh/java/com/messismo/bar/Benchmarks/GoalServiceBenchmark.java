@@ -0,0 +1,68 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.DTOs.GoalFilterRequestDTO;
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Goal;
+import com.messismo.bar.Entities.Order;
+import com.messismo.bar.Repositories.*;
+import com.messismo.bar.Services.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * GoalService.getGoals, now a plain read of the stored progress, against updateGoals, which recomputes every goal
+ * from the full order list and is only used for repairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GoalServiceBenchmark {
+
+    @Param({"10", "100"})
+    public int goals;
+
+    @Param({"10000", "100000"})
+    public int orders;
+
+    private GoalService goalService;
+
+    private final GoalFilterRequestDTO noFilter = new GoalFilterRequestDTO(List.of(), List.of());
+
+    @Setup
+    public void setup() {
+        List<Category> categories = SyntheticData.categories(20);
+        List<Order> orderList = SyntheticData.orders(orders, 4, 200, categories, 365, 42L);
+        List<Goal> goalList = SyntheticData.goals(goals, 200, categories);
+        GoalRepository goalRepository = SyntheticData.stub(GoalRepository.class);
+        OrderRepository orderRepository = SyntheticData.stub(OrderRepository.class);
+        when(goalRepository.findAll()).thenReturn(goalList);
+        // EL STUB FILTRA EN MEMORIA LO QUE EN LA BASE RESUELVE idx_orders_date_created
+        when(orderRepository.findBetween(any(), any())).thenAnswer(invocation -> {
+            Date start = invocation.getArgument(0);
+            Date end = invocation.getArgument(1);
+            return orderList.stream().filter(order -> order.getDateCreated().after(start) && order.getDateCreated().before(end)).toList();
+        });
+        OrderService orderService = new OrderService(orderRepository, SyntheticData.stub(ProductRepository.class), SyntheticData.stub(UserRepository.class), SyntheticData.stub(ProductOrderRepository.class), SyntheticData.stub(PointsService.class), SyntheticData.stub(BenefitService.class), SyntheticData.stub(BenefitRepository.class), SyntheticData.stub(SalesRollupService.class), SyntheticData.stub(GoalProgressService.class), SyntheticData.stub(TransactionTemplate.class), SyntheticData.stub(MenuCache.class));
+        goalService = new GoalService(goalRepository, orderService, SyntheticData.stub(ProductService.class), SyntheticData.stub(CategoryService.class), SyntheticData.stub(GoalProgressService.class));
+    }
+
+    @Benchmark
+    public List<Goal> getGoals() throws Exception {
+        return goalService.getGoals(noFilter);
+    }
+
+    @Benchmark
+    public List<Goal> updateGoals() {
+        return goalService.updateGoals();
+    }
+}
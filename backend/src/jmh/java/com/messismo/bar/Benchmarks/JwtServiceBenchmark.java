@@ -0,0 +1,51 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Services.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtService token parsing, run by the authentication filter on every request. Single threaded, so ops/s is tokens verified per second per core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+
+    private User user;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService("ee2ecef84938596217bd811c807a4eb225d510874e922e5e2e692d8a6e4464bf", 86400000, 604800000);
+        user = User.builder().id(1L).username("benchmark").email("benchmark@messismo.com").password("Password1").role(Role.VALIDATEDEMPLOYEE).build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    // LO QUE HACE JwtAuthenticationFilter POR REQUEST
+    @Benchmark
+    public boolean verifyForRequest() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return claims.getSubject() != null && !jwtService.isRefreshToken(claims);
+    }
+}
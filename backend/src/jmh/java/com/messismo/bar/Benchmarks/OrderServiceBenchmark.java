@@ -0,0 +1,79 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.DTOs.OrderRequestDTO;
+import com.messismo.bar.DTOs.ProductOrderDTO;
+import com.messismo.bar.Entities.Product;
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Repositories.*;
+import com.messismo.bar.Services.BenefitService;
+import com.messismo.bar.Services.GoalProgressService;
+import com.messismo.bar.Services.MenuCache;
+import com.messismo.bar.Services.OrderService;
+import com.messismo.bar.Services.PointsService;
+import com.messismo.bar.Services.SalesRollupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * OrderService.addNewOrder for orders of growing size, with the repositories and the transaction stubbed out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    @Param({"1000"})
+    public int products;
+
+    private OrderService orderService;
+
+    private List<Product> productList;
+
+    private OrderRequestDTO orderRequestDTO;
+
+    @Setup
+    public void setup() {
+        productList = SyntheticData.products(products, SyntheticData.categories(20), 42L);
+        List<ProductOrderDTO> productOrderDTOs = SyntheticData.productOrderDTOs(productList, lines, 7L);
+        orderRequestDTO = OrderRequestDTO.builder().registeredEmployeeEmail("employee@mail.com").dateCreated(new Date()).productOrders(productOrderDTOs).build();
+        ProductRepository productRepository = SyntheticData.stub(ProductRepository.class);
+        // CADA LLAMADA DEVUELVE LOS PRODUCTOS PEDIDOS CON STOCK REPUESTO, LOS IDS SON LA POSICION + 1
+        when(productRepository.findAllForUpdate(any())).thenAnswer(invocation -> {
+            List<Product> locked = new ArrayList<>();
+            for (Long productId : (Collection<Long>) invocation.getArgument(0)) {
+                Product product = productList.get((int) (productId - 1));
+                product.setStock(1_000_000);
+                locked.add(product);
+            }
+            return locked;
+        });
+        TransactionTemplate transactionTemplate = SyntheticData.stub(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        UserRepository userRepository = SyntheticData.stub(UserRepository.class);
+        when(userRepository.findByEmail("employee@mail.com")).thenReturn(Optional.of(User.builder().id(1L).username("employee").email("employee@mail.com").role(Role.EMPLOYEE).build()));
+        orderService = new OrderService(SyntheticData.stub(OrderRepository.class), productRepository, userRepository, SyntheticData.stub(ProductOrderRepository.class), SyntheticData.stub(PointsService.class), SyntheticData.stub(BenefitService.class), SyntheticData.stub(BenefitRepository.class), SyntheticData.stub(SalesRollupService.class), SyntheticData.stub(GoalProgressService.class), transactionTemplate, SyntheticData.stub(MenuCache.class));
+    }
+
+    @Benchmark
+    public String addNewOrder() throws Exception {
+        return orderService.addNewOrder(orderRequestDTO);
+    }
+}
@@ -0,0 +1,78 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Product;
+import com.messismo.bar.Repositories.CategoryRepository;
+import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Services.CategoryService;
+import com.messismo.bar.Services.MenuCache;
+import com.messismo.bar.Services.ProductNameIndex;
+import com.messismo.bar.Services.ProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * The name part of ProductService.filterProducts: the old linear scan that lowercases every name, against the trigram
+ * lookup in ProductNameIndex. The other filters run in the database and are not measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int products;
+
+    @Param({"duct 12", "1"})
+    public String fragment;
+
+    private ProductService productService;
+
+    private ProductNameIndex productNameIndex;
+
+    private List<Product> productList;
+
+    @Setup
+    public void setup() {
+        List<Category> categories = SyntheticData.categories(20);
+        productList = SyntheticData.products(products, categories, 42L);
+        ProductRepository productRepository = SyntheticData.stub(ProductRepository.class);
+        List<ProductRepository.ProductName> names = new ArrayList<>(productList.size());
+        for (Product product : productList) {
+            names.add(new ProductRepository.ProductName() {
+                @Override
+                public Long getProductId() {
+                    return product.getProductId();
+                }
+
+                @Override
+                public String getName() {
+                    return product.getName();
+                }
+            });
+        }
+        when(productRepository.findAllNames()).thenReturn(names);
+        productNameIndex = new ProductNameIndex(productRepository);
+        productService = new ProductService(productRepository, SyntheticData.stub(CategoryRepository.class), SyntheticData.stub(CategoryService.class), productNameIndex, SyntheticData.stub(MenuCache.class));
+        productNameIndex.findIdsContaining(fragment);
+    }
+
+    @Benchmark
+    public List<Product> filterByNameScan() {
+        return productService.filterByName(productList, fragment);
+    }
+
+    @Benchmark
+    public Set<Long> nameIndexLookup() {
+        return productNameIndex.findIdsContaining(fragment);
+    }
+}
@@ -0,0 +1,101 @@
+package com.messismo.bar.Benchmarks;
+
+import com.messismo.bar.DTOs.ProductOrderDTO;
+import com.messismo.bar.Entities.*;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+/**
+ * Deterministic generators for the benchmarks. The same seed always builds the same data set.
+ */
+public final class SyntheticData {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private SyntheticData() {
+    }
+
+    public static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            categories.add(Category.builder().categoryId((long) i + 1).name("Category " + i).build());
+        }
+        return categories;
+    }
+
+    /**
+     * Orders spread over the last {@code days} days, each with {@code linesPerOrder} lines taken from {@code products}
+     * products distributed over the given categories.
+     */
+    public static List<Order> orders(int orderCount, int linesPerOrder, int products, List<Category> categories, int days, long seed) {
+        Random random = new Random(seed);
+        long now = System.currentTimeMillis();
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            List<ProductOrder> lines = new ArrayList<>(linesPerOrder);
+            double totalPrice = 0.00;
+            double totalCost = 0.00;
+            for (int j = 0; j < linesPerOrder; j++) {
+                int product = random.nextInt(products);
+                double unitPrice = 100.00 + product % 50;
+                double unitCost = unitPrice / 2;
+                int quantity = 1 + random.nextInt(4);
+                lines.add(new ProductOrder("Product " + product, unitPrice, unitCost, categories.get(product % categories.size()), quantity));
+                totalPrice += unitPrice * quantity;
+                totalCost += unitCost * quantity;
+            }
+            Date dateCreated = new Date(now - (long) (random.nextDouble() * days * DAY_MILLIS));
+            orders.add(Order.builder().id((long) i + 1).dateCreated(dateCreated).productOrders(lines).totalPrice(totalPrice).totalCost(totalCost).status("Closed").build());
+        }
+        return orders;
+    }
+
+    public static List<Product> products(int count, List<Category> categories, long seed) {
+        Random random = new Random(seed);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double unitPrice = 100.00 + random.nextInt(5000);
+            products.add(Product.builder().productId((long) i + 1).name("Product " + i).unitPrice(unitPrice).unitCost(unitPrice / 2).description("Synthetic product " + i).stock(random.nextInt(1000)).category(categories.get(i % categories.size())).build());
+        }
+        return products;
+    }
+
+    public static List<ProductOrderDTO> productOrderDTOs(List<Product> products, int lines, long seed) {
+        Random random = new Random(seed);
+        List<ProductOrderDTO> productOrderDTOs = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            productOrderDTOs.add(ProductOrderDTO.builder().product(products.get(random.nextInt(products.size()))).quantity(1).build());
+        }
+        return productOrderDTOs;
+    }
+
+    /**
+     * One month goals, half of them still running, alternating between Total, Product and Category objectives.
+     */
+    public static List<Goal> goals(int count, int products, List<Category> categories) {
+        long now = System.currentTimeMillis();
+        List<Goal> goals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Date startingDate = new Date(now - (i + 1) * 15L * DAY_MILLIS);
+            Date endingDate = new Date(startingDate.getTime() + 30L * DAY_MILLIS);
+            String objectType = switch (i % 3) {
+                case 0 -> "Total";
+                case 1 -> "Product";
+                default -> "Category";
+            };
+            String goalObject = switch (i % 3) {
+                case 0 -> "";
+                case 1 -> "Product " + (i % products);
+                default -> categories.get(i % categories.size()).getName();
+            };
+            goals.add(Goal.builder().goalId((long) i + 1).name("Goal " + i).startingDate(startingDate).endingDate(endingDate).objectType(objectType).goalObject(goalObject).goalObjective(1_000_000.00).currentGoal(0.00).status("Upcoming").achieved("Not Achieved").build());
+        }
+        return goals;
+    }
+
+    // LOS STUBS NO GUARDAN LAS INVOCACIONES, SINO LA MEMORIA CRECE DURANTE LA MEDICION
+    public static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+}
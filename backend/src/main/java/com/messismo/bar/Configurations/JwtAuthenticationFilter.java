@@ -1,8 +1,9 @@
 package com.messismo.bar.Configurations;
 
-import com.messismo.bar.Repositories.TokenRepository;
 import com.messismo.bar.Services.JwtService;
-import com.messismo.bar.Services.UserService;
+import com.messismo.bar.Services.TokenRevocationService;
+import com.messismo.bar.Services.UserDetailsCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,8 +24,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserService userDetailsService;
-    private final TokenRepository tokenRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
@@ -34,22 +35,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final Claims claims;
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            var isTokenValid = tokenRepository.findByToken(jwt).map(t -> !t.isExpired() && !t.isRevoked()).orElse(false);
-            if (jwtService.isTokenValid(jwt, userDetails) && isTokenValid) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        // FIRMA Y VENCIMIENTO SE VERIFICAN UNA SOLA VEZ, SIN CONSULTAS A LA BASE PARA TOKENS VALIDOS
+        claims = jwtService.extractAllClaims(jwt);
+        if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null && isAccessToken(jwt, claims) && !tokenRevocationService.isRevoked(jwt)) {
+            UserDetails userDetails = userDetailsCache.get(claims.getSubject());
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         filterChain.doFilter(request, response);
     }
+
+    // SOLO LOS TOKENS SIN token_type (ANTERIORES AL CLAIM) CONSULTAN LA TABLA
+    private boolean isAccessToken(String jwt, Claims claims) {
+        if (jwtService.isAccessToken(claims)) {
+            return true;
+        }
+        return jwtService.hasNoTokenType(claims) && tokenRevocationService.isStoredAccessToken(jwt);
+    }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.messismo.bar.Controllers;
 
 import com.messismo.bar.DTOs.UserIdDTO;
 import com.messismo.bar.Exceptions.CannotUpgradeToManager;
+import com.messismo.bar.Services.PointsLedgerService;
+import com.messismo.bar.Services.TokenSweeperService;
 import com.messismo.bar.Services.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -19,6 +21,10 @@ public class AdminController {
 
     private final UserService userService;
 
+    private final TokenSweeperService tokenSweeperService;
+
+    private final PointsLedgerService pointsLedgerService;
+
     @PutMapping("/validateAdmin")
     public ResponseEntity<?> validateAdmin(@RequestBody UserIdDTO userIdDTO) {
         if (userIdDTO.getUserId() == null) {
@@ -32,4 +38,31 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
+
+    @GetMapping("/tokenMetrics")
+    public ResponseEntity<?> getTokenMetrics() {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(tokenSweeperService.getMetrics());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/reconcilePoints")
+    public ResponseEntity<?> reconcilePoints() {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(pointsLedgerService.reconcile());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/pointsBalance/{clientId}")
+    public ResponseEntity<?> getPointsBalance(@PathVariable String clientId) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(pointsLedgerService.getBalanceDrift(clientId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
 }
@@ -1,21 +1,21 @@
 package com.messismo.bar.Controllers;
 
 import com.messismo.bar.DTOs.ClientProfileDTO;
-import com.messismo.bar.DTOs.ProductClientViewDTO;
+import com.messismo.bar.Entities.TransactionType;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Services.MenuCache;
 import com.messismo.bar.Services.OrderService;
 import com.messismo.bar.Services.PointsService;
-import com.messismo.bar.Services.ProductService;
 import com.messismo.bar.Services.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,27 +24,16 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasAnyRole('CLIENT')")
 public class ClientController {
 
-    private final ProductService productService;
+    private final MenuCache menuCache;
     private final UserService userService;
     private final OrderService orderService;
     private final PointsService pointsService;
 
     @GetMapping("/products")
-    public ResponseEntity<?> getProductsForClient() {
+    public ResponseEntity<?> getProductsForClient(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            // Solo devolver información básica de productos para clientes
-            List<ProductClientViewDTO> clientProducts = productService.getAllProducts()
-                    .stream()
-                    .map(product -> ProductClientViewDTO.builder()
-                            .productId(product.getProductId())
-                            .name(product.getName())
-                            .description(product.getDescription())
-                            .unitPrice(product.getUnitPrice())
-                            .category(product.getCategory().getName())
-                            .build())
-                    .collect(Collectors.toList());
-            
-            return ResponseEntity.status(HttpStatus.OK).body(clientProducts);
+            // Solo información básica de productos para clientes, ya serializada por MenuCache
+            return MenuResponses.of(menuCache.getClientMenu(), ifNoneMatch);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving products");
         }
@@ -84,11 +73,13 @@ public class ClientController {
     }
 
     @GetMapping("/points/history")
-    public ResponseEntity<?> getPointsHistory(Authentication authentication) {
+    public ResponseEntity<?> getPointsHistory(Authentication authentication, @RequestParam(required = false) TransactionType type, @RequestParam(required = false) Long beforeCreatedAt, @RequestParam(required = false) Long beforeId, @RequestParam(required = false) Integer pageSize) {
         try {
-            String email = authentication.getName();
-            ClientProfileDTO profile = userService.getClientProfile(email);
-            return ResponseEntity.status(HttpStatus.OK).body(pointsService.getTransactionHistory(profile.getClientId()));
+            // El principal ya es el User cargado por JwtAuthenticationFilter, no hace falta buscarlo de nuevo
+            String clientId = ((User) authentication.getPrincipal()).getClientId();
+            return ResponseEntity.status(HttpStatus.OK).body(pointsService.getTransactionHistoryPage(clientId, type, beforeCreatedAt, beforeId, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving points history");
         }
@@ -97,11 +97,29 @@ public class ManagerController {
         return ResponseEntity.status(HttpStatus.OK).body(userService.getAllEmployees());
     }
 
+    @PostMapping("/filterEmployees")
+    public ResponseEntity<?> filterEmployees(@RequestBody EmployeeFilterDTO employeeFilterDTO) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(userService.getEmployeePage(employeeFilterDTO));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/getAllClients")
     public ResponseEntity<?> getAllClients() {
         return ResponseEntity.status(HttpStatus.OK).body(userService.getAllClients());
     }
 
+    @PostMapping("/filterClients")
+    public ResponseEntity<?> filterClients(@RequestBody ClientFilterDTO clientFilterDTO) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(userService.getClientPage(clientFilterDTO));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     @PutMapping("/validateEmployee")
     public ResponseEntity<String> validateEmployee(@RequestBody UserIdDTO userIdDTO) {
         if (userIdDTO.getUserId() == null) {
@@ -0,0 +1,39 @@
+package com.messismo.bar.Controllers;
+
+import com.messismo.bar.Services.MenuCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Answers a MenuCache listing with its ETag, or 304 without body when the client already has that version.
+ */
+final class MenuResponses {
+
+    private MenuResponses() {
+    }
+
+    static ResponseEntity<?> of(MenuCache.Snapshot snapshot, String ifNoneMatch) {
+        if (matches(ifNoneMatch, snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).eTag(snapshot.etag()).cacheControl(CacheControl.noCache()).contentType(MediaType.APPLICATION_JSON).body(snapshot.json());
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.messismo.bar.Controllers;
 
+import com.messismo.bar.DTOs.ClientFilterDTO;
 import com.messismo.bar.Entities.Settings;
 import com.messismo.bar.Services.SettingsService;
 import com.messismo.bar.Services.UserService;
@@ -94,6 +95,17 @@ public class SettingsController {
     public ResponseEntity<?> getClients() {
         return ResponseEntity.status(HttpStatus.OK).body(userService.getAllClients());
     }
+
+    // Lista de clientes paginada, con búsqueda y orden (accesible para VALIDATEDEMPLOYEE)
+    @PostMapping("/clients/filter")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('VALIDATEDEMPLOYEE')")
+    public ResponseEntity<?> filterClients(@RequestBody ClientFilterDTO clientFilterDTO) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(userService.getClientPage(clientFilterDTO));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
     
     // Obtener historial de cambios de una configuración (solo ADMIN/MANAGER)
     @GetMapping("/{key}/history")
@@ -1,15 +1,22 @@
 package com.messismo.bar.Controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.messismo.bar.DTOs.*;
 import com.messismo.bar.Exceptions.*;
-import com.messismo.bar.Services.CategoryService;
+import com.messismo.bar.Services.MenuCache;
 import com.messismo.bar.Services.OrderService;
 import com.messismo.bar.Services.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,10 +27,12 @@ public class ValidatedEmployeeController {
 
     private final ProductService productService;
 
-    private final CategoryService categoryService;
-
     private final OrderService orderService;
 
+    private final MenuCache menuCache;
+
+    private final ObjectMapper objectMapper;
+
     @PostMapping("/product/addProduct")
     public ResponseEntity<?> addProduct(@RequestBody ProductDTO productDTO) {
         if (productDTO.getCategory() == null || productDTO.getName() == null || productDTO.getName().isEmpty() || productDTO.getUnitPrice() == null || productDTO.getDescription() == null || productDTO.getStock() == null || productDTO.getUnitCost() == null || productDTO.getNewCategory() == null) {
@@ -42,8 +51,8 @@ public class ValidatedEmployeeController {
     }
 
     @GetMapping("/getAllProducts")
-    public ResponseEntity<?> getAllProducts() {
-        return ResponseEntity.status(HttpStatus.OK).body(productService.getAllProducts());
+    public ResponseEntity<?> getAllProducts(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return MenuResponses.of(menuCache.getProducts(), ifNoneMatch);
     }
 
     @PostMapping("/filterProducts")
@@ -58,15 +67,15 @@ public class ValidatedEmployeeController {
     }
 
     @GetMapping("/getAllCategories")
-    public ResponseEntity<?> getAllCategories() {
-        return ResponseEntity.status(HttpStatus.OK).body(categoryService.getAllCategories());
+    public ResponseEntity<?> getAllCategories(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return MenuResponses.of(menuCache.getCategories(), ifNoneMatch);
     }
 
     @PostMapping("/addNewOrder")
     public ResponseEntity<?> addNewOrder(@RequestBody OrderRequestDTO orderRequestDTO) {
         try {
             return ResponseEntity.status(HttpStatus.CREATED).body(orderService.addNewOrder(orderRequestDTO));
-        } catch (UserNotFoundException | ProductQuantityBelowAvailableStock e) {
+        } catch (UserNotFoundException | ProductQuantityBelowAvailableStock | ProductNotFoundException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (ClientIdNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -101,7 +110,7 @@ public class ValidatedEmployeeController {
     public ResponseEntity<?> modifyOrder(@RequestBody ModifyOrderDTO modifyOrderDTO) {
         try {
             return ResponseEntity.status(HttpStatus.OK).body(orderService.modifyOrder(modifyOrderDTO));
-        } catch (ProductQuantityBelowAvailableStock | OrderNotFoundException e) {
+        } catch (ProductQuantityBelowAvailableStock | ProductNotFoundException | OrderNotFoundException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
@@ -113,4 +122,34 @@ public class ValidatedEmployeeController {
         return ResponseEntity.status(HttpStatus.OK).body(orderService.getAllOrders());
     }
 
+    @PostMapping("orders/filterOrders")
+    public ResponseEntity<?> filterOrders(@RequestBody OrderFilterDTO orderFilterDTO) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(orderService.getOrderPage(orderFilterDTO));
+        } catch (EndingDateMustBeAfterStartingDateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    // UNA ORDEN POR LINEA (NDJSON), SE ESCRIBE A MEDIDA QUE SE LEE CADA PAGINA
+    @PostMapping(value = "orders/exportOrders", produces = "application/x-ndjson")
+    public ResponseEntity<?> exportOrders(@RequestBody OrderFilterDTO orderFilterDTO) {
+        try {
+            orderService.validateOrderFilter(orderFilterDTO);
+        } catch (EndingDateMustBeAfterStartingDateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+        StreamingResponseBody body = outputStream -> orderService.forEachOrderSummary(orderFilterDTO, orderSummaryDTO -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(orderSummaryDTO));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
 }
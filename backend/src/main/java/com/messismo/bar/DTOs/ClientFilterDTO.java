@@ -0,0 +1,23 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientFilterDTO {
+
+    private String search; // BUSCA EN username, email Y clientId, VACIO PARA TODOS
+
+    private String sortBy; // username, email, clientId O currentPoints
+
+    private Boolean descending;
+
+    private Integer page; // nextPage DE LA PAGINA ANTERIOR, VACIO PARA LA PRIMERA
+
+    private Integer pageSize;
+}
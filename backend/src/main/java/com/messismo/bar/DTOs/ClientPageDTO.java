@@ -0,0 +1,19 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientPageDTO {
+
+    private List<UserDTO> clients;
+
+    private Integer nextPage; // NULL EN LA ULTIMA PAGINA
+}
@@ -0,0 +1,22 @@
+package com.messismo.bar.DTOs;
+
+import com.messismo.bar.Entities.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeFilterDTO {
+
+    private String search; // BUSCA EN username Y email, VACIO PARA TODOS
+
+    private Role role; // VACIO PARA TODOS LOS ROLES DE EMPLEADO
+
+    private Integer page; // nextPage DE LA PAGINA ANTERIOR, VACIO PARA LA PRIMERA
+
+    private Integer pageSize;
+}
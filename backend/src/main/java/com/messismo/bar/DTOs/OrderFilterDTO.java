@@ -0,0 +1,27 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderFilterDTO {
+
+    private String status; // OPEN O CLOSED, VACIO PARA TODAS
+
+    private String employeeEmail;
+
+    private Date startingDate; // INCLUSIVE
+
+    private Date endingDate; // EXCLUSIVE
+
+    private Long afterOrderId; // nextOrderId DE LA PAGINA ANTERIOR, VACIO PARA LA PRIMERA
+
+    private Integer pageSize;
+}
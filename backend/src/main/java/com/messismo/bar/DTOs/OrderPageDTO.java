@@ -0,0 +1,19 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPageDTO {
+
+    private List<OrderSummaryDTO> orders;
+
+    private Long nextOrderId; // NULL EN LA ULTIMA PAGINA
+}
@@ -0,0 +1,39 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSalesDTO {
+
+    private Date dateCreated;
+
+    private Long categoryId;
+
+    private String categoryName;
+
+    private String productName;
+
+    private Long quantity;
+
+    private Double revenue;
+
+    private Double cost;
+
+    // TOTALES DE UNA ORDEN
+    public OrderSalesDTO(Date dateCreated, Double revenue, Double cost) {
+        this(dateCreated, null, null, null, 0L, revenue, cost);
+    }
+
+    // VENTAS DE UNA ORDEN EN UNA CATEGORIA
+    public OrderSalesDTO(Date dateCreated, Long categoryId, String categoryName, Long quantity, Double revenue, Double cost) {
+        this(dateCreated, categoryId, categoryName, null, quantity, revenue, cost);
+    }
+}
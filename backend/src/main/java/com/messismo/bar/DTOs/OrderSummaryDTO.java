@@ -0,0 +1,33 @@
+package com.messismo.bar.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSummaryDTO {
+
+    private Long orderId;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date dateCreated;
+
+    private String status;
+
+    private String employeeEmail;
+
+    private Long clientId;
+
+    private Double totalPrice;
+
+    private Double totalCost;
+
+    private Integer productLines;
+}
@@ -0,0 +1,21 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PointsDriftDTO {
+
+    private String clientId;
+
+    private Double accountBalance;
+
+    private Double ledgerBalance;
+
+    private Double drift; // accountBalance - ledgerBalance
+}
@@ -0,0 +1,28 @@
+package com.messismo.bar.DTOs;
+
+import com.messismo.bar.Entities.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PointsHistoryEntryDTO {
+
+    private Long id;
+
+    private TransactionType type;
+
+    private Double amount; // SPENT NEGATIVO
+
+    private String source;
+
+    private String description;
+
+    private Date createdAt;
+}
@@ -0,0 +1,21 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PointsHistoryPageDTO {
+
+    private List<PointsHistoryEntryDTO> transactions;
+
+    private Long nextCreatedAt; // MILISEGUNDOS, NULL EN LA ULTIMA PAGINA
+
+    private Long nextId; // NULL EN LA ULTIMA PAGINA
+}
@@ -0,0 +1,30 @@
+package com.messismo.bar.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PointsReconciliationDTO {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date snapshotTakenAt;
+
+    private Long checkedAccounts;
+
+    private Long snapshots;
+
+    private Long driftedAccounts;
+
+    private Double totalDrift; // SUMA DE LOS VALORES ABSOLUTOS
+
+    private List<PointsDriftDTO> drifts; // HASTA PointsLedgerService.MAX_REPORTED_DRIFTS
+}
@@ -0,0 +1,27 @@
+package com.messismo.bar.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketDTO {
+
+    private Integer year;
+
+    private Integer month;
+
+    private Integer day;
+
+    private Long orderCount;
+
+    public LocalDate getDate() {
+        return LocalDate.of(year, month, day);
+    }
+}
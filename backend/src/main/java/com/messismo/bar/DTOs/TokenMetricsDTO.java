@@ -0,0 +1,25 @@
+package com.messismo.bar.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenMetricsDTO {
+
+    private Long storedTokens;
+
+    private Long purgedLastSweep;
+
+    private Long purgedTotal;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date lastSweep;
+}
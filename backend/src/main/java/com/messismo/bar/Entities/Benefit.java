@@ -1,24 +1,37 @@
 package com.messismo.bar.Entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "benefits")
+@Table(name = "benefits", indexes = @Index(name = "idx_benefits_type_points_active", columnList = "type, pointsRequired, active"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Benefit {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,6 +58,20 @@ public class Benefit {
     // Product IDs (JSON array)
     @Column(columnDefinition = "TEXT")
     private String productIds; // JSON: [1, 2, 3]
+
+    // Copias normalizadas de applicableDays y productIds, se completan al crear el beneficio
+    // Bit 0 = MONDAY ... bit 6 = SUNDAY
+    @JsonIgnore
+    @Column(name = "days_mask")
+    private Integer daysMask;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ElementCollection
+    @CollectionTable(name = "benefit_products", joinColumns = @JoinColumn(name = "benefit_id"), indexes = @Index(name = "idx_benefit_products_product", columnList = "product_id, benefit_id"))
+    @Column(name = "product_id", nullable = false)
+    private Set<Long> products;
     
     // Audit fields
     @Column(nullable = false)
@@ -57,12 +84,72 @@ public class Benefit {
     @Column(nullable = false)
     private Boolean active = true; // Soft delete flag
     
+    // LOS BENEFICIOS SOLO SE CREAN Y SE DAN DE BAJA, ALCANZA CON COMPLETAR LAS COPIAS AL INSERTAR
+    // (LAS FILAS ANTERIORES A LAS COPIAS LAS COMPLETA BenefitService.fillMissingStructuredFields)
+    @PrePersist
+    public void fillStructuredFields() {
+        daysMask = daysMask(parseDays(applicableDays));
+        products = new HashSet<>(parseProductIds(productIds));
+    }
+
     // Helper method to check if benefit is applicable on a specific day
     public boolean isApplicableOnDay(String day) {
-        if (applicableDays == null || applicableDays.isEmpty()) {
+        try {
+            DayOfWeek dayOfWeek = DayOfWeek.valueOf(day.toUpperCase());
+            if (daysMask != null) {
+                return (daysMask & dayBit(dayOfWeek)) != 0;
+            }
+            return parseDays(applicableDays).contains(dayOfWeek);
+        } catch (IllegalArgumentException e) {
             return false;
         }
-        return applicableDays.contains("EVERYDAY") || applicableDays.contains(day.toUpperCase());
+    }
+
+    public static int dayBit(DayOfWeek day) {
+        return 1 << day.ordinal();
+    }
+
+    public static int daysMask(Set<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= dayBit(day);
+        }
+        return mask;
+    }
+
+    // JSON DE IDS A LISTA, UN JSON INVALIDO NO TIENE PRODUCTOS Y LOS null SE IGNORAN
+    public static List<Long> parseProductIds(String productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return JSON.readValue(productIds, new TypeReference<List<Long>>() {}).stream().filter(Objects::nonNull).toList();
+        } catch (JsonProcessingException e) {
+            return List.of();
+        }
+    }
+
+    // JSON DE DIAS A EnumSet, "EVERYDAY" SON LOS SIETE Y LOS NOMBRES DESCONOCIDOS SE IGNORAN
+    public static EnumSet<DayOfWeek> parseDays(String applicableDays) {
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (applicableDays == null || applicableDays.isEmpty()) {
+            return days;
+        }
+        try {
+            for (String name : JSON.readValue(applicableDays, new TypeReference<List<String>>() {})) {
+                if ("EVERYDAY".equalsIgnoreCase(name)) {
+                    return EnumSet.allOf(DayOfWeek.class);
+                }
+                try {
+                    days.add(DayOfWeek.valueOf(name.toUpperCase()));
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    // DIA INVALIDO, NO APLICA
+                }
+            }
+        } catch (JsonProcessingException e) {
+            return EnumSet.noneOf(DayOfWeek.class);
+        }
+        return days;
     }
     
     public enum BenefitType {
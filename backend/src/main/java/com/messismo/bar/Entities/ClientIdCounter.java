@@ -0,0 +1,26 @@
+package com.messismo.bar.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "client_id_counter")
+public class ClientIdCounter {
+
+    // UNA SOLA FILA, ClientIdService LA BLOQUEA PARA RESERVAR CADA BLOQUE
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -47,4 +47,21 @@ public class Goal {
 
     @Column(name="achieved")  // ACHIEVED O NOT ACHIEVED
     private String achieved;
+
+    // EL ESTADO SALE DE LAS FECHAS, LA COLUMNA SOLO SE USA SI FALTAN
+    public String getStatus() {
+        return statusAt(new Date());
+    }
+
+    public String statusAt(Date date) {
+        if (startingDate == null || endingDate == null) {
+            return status;
+        } else if (date.after(startingDate) && date.before(endingDate)) {
+            return "In Process";
+        } else if (date.after(endingDate)) {
+            return "Expired";
+        } else {
+            return "Upcoming";
+        }
+    }
 }
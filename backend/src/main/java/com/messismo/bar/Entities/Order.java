@@ -16,11 +16,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_date_created", columnList = "date_created"))
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long id;
 
@@ -33,7 +34,9 @@ public class Order {
     @Column(name = "date_created")
     private Date dateCreated;
 
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    // LAZY: LAS CONSULTAS QUE USAN LAS LINEAS LAS PIDEN CON UN ENTITY GRAPH (VER OrderRepository)
+    // PERSIST: LAS LINEAS NUEVAS SE INSERTAN EN EL MISMO FLUSH QUE LA ORDEN
+    @OneToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     private List<ProductOrder> productOrders;
 
     @Column(name = "total_price")
@@ -0,0 +1,42 @@
+package com.messismo.bar.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+// SALDO DE UN CLIENTE CON TODAS LAS TRANSACCIONES HASTA taken_at, EL RESTO SE SUMA DESDE points_transactions
+@Table(name = "points_balance_snapshots", indexes = @Index(name = "idx_points_balance_snapshots_client_taken", columnList = "client_id, taken_at"))
+public class PointsBalanceSnapshot {
+
+    @Id
+    // SECUENCIA CON BLOQUES DE 50: LA RECONCILIACION GUARDA UNA FILA POR CLIENTE EN BATCH
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_balance_snapshots_seq")
+    @SequenceGenerator(name = "points_balance_snapshots_seq", sequenceName = "points_balance_snapshots_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "client_id", nullable = false)
+    private String clientId;
+
+    @Column(name = "balance", nullable = false)
+    private Double balance;
+
+    @Column(name = "total_earned", nullable = false)
+    private Double totalEarned;
+
+    @Column(name = "total_spent", nullable = false)
+    private Double totalSpent;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "taken_at", nullable = false)
+    private Date takenAt;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
 
 import java.util.Date;
 
@@ -13,11 +14,15 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "points_transactions")
+@Immutable
+// SOLO SE AGREGAN FILAS: EL SALDO ES LA SUMA DE amount (EARNED POSITIVO, SPENT NEGATIVO)
+@Table(name = "points_transactions", indexes = @Index(name = "idx_points_transactions_client_created", columnList = "client_id, created_at"))
 public class PointsTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // SECUENCIA CON BLOQUES DE 50 PARA QUE LAS TRANSACCIONES DE UNA ORDEN SE INSERTEN EN UN BATCH
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_transactions_seq")
+    @SequenceGenerator(name = "points_transactions_seq", sequenceName = "points_transactions_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
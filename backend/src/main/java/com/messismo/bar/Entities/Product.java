@@ -12,7 +12,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {@Index(name = "idx_products_name", columnList = "name"), @Index(name = "idx_products_category_id", columnList = "category_id")})
 public class Product {
 
     @Id
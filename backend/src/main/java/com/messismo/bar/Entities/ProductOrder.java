@@ -15,7 +15,9 @@ import lombok.NoArgsConstructor;
 public class ProductOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // SECUENCIA CON BLOQUES DE 50: IDENTITY IMPIDE QUE HIBERNATE AGRUPE LOS INSERTS EN UN BATCH
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_order_seq")
+    @SequenceGenerator(name = "product_order_seq", sequenceName = "product_order_seq", allocationSize = 50)
     @Column(name = "productOrderId")
     private Long productOrderId;
 
@@ -28,7 +30,7 @@ public class ProductOrder {
     @Column(name = "productUnitPrice")
     private Double productUnitPrice;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category", referencedColumnName = "category_id")
     private Category category;
 
@@ -0,0 +1,91 @@
+package com.messismo.bar.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sales_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_rollups_bucket_key", columnNames = {"granularity", "bucket_start", "dimension_key"}),
+        indexes = @Index(name = "idx_sales_rollups_granularity_bucket", columnList = "granularity, bucket_start"))
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false)
+    private Granularity granularity; // HOUR, DAY
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false)
+    private Dimension dimension; // TOTAL, PRODUCT, CATEGORY
+
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "category_name")
+    private String categoryName;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    @Column(name = "revenue", nullable = false)
+    private Double revenue;
+
+    @Column(name = "cost", nullable = false)
+    private Double cost;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount; // ORDERS THAT CONTRIBUTED TO THIS ROW
+
+    // SUMA DE UN AÑO DE FILAS DIARIAS, LA ARMA SalesRollupRepository.sumDailyByYear Y NO SE GUARDA
+    public SalesRollup(Integer year, Dimension dimension, String dimensionKey, String productName, Long categoryId, String categoryName, Long quantity, Double revenue, Double cost, Long orderCount) {
+        this(null, Granularity.DAY, LocalDateTime.of(year, 1, 1, 0, 0), dimension, dimensionKey, productName, categoryId, categoryName, quantity, revenue, cost, orderCount);
+    }
+
+    public double getEarnings() {
+        return this.revenue - this.cost;
+    }
+
+    public void add(SalesRollup other) {
+        this.quantity += other.getQuantity();
+        this.revenue += other.getRevenue();
+        this.cost += other.getCost();
+        this.orderCount += other.getOrderCount();
+    }
+
+    public SalesRollup copy() {
+        return SalesRollup.builder().granularity(granularity).bucketStart(bucketStart).dimension(dimension).dimensionKey(dimensionKey).productName(productName).categoryId(categoryId).categoryName(categoryName).quantity(quantity).revenue(revenue).cost(cost).orderCount(orderCount).build();
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    public enum Dimension {
+        TOTAL,
+        PRODUCT,
+        CATEGORY
+    }
+}
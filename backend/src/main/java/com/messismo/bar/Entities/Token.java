@@ -6,11 +6,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Date;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {@Index(name = "idx_token_user_id", columnList = "user_id"), @Index(name = "idx_token_expires_at", columnList = "expires_at")})
 public class Token {
 
     @Id
@@ -28,13 +31,18 @@ public class Token {
 
     public boolean expired;
 
+    // VENCIMIENTO DEL JWT, PASADO ESTE MOMENTO TokenSweeperService BORRA LA FILA
+    @Column(name = "expires_at")
+    public Date expiresAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     public User user;
 
-    public Token(String token, User user) {
+    public Token(String token, User user, Date expiresAt) {
         this.token = token;
         this.user = user;
+        this.expiresAt = expiresAt;
         this.revoked = false;
         this.expired = false;
         this.tokenType = TokenType.BEARER;
@@ -3,8 +3,10 @@ package com.messismo.bar.Repositories;
 import com.messismo.bar.Entities.Benefit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,12 +25,20 @@ public interface BenefitRepository extends JpaRepository<Benefit, Long> {
     @Query("SELECT b FROM Benefit b WHERE b.pointsRequired <= ?1 AND b.active = true")
     List<Benefit> findByPointsRequiredLessThanEqual(Integer points);
     
-    // Find duplicate benefits (exact same configuration)
-    @Query("SELECT b FROM Benefit b WHERE b.type = ?1 AND b.pointsRequired = ?2 AND " +
+    // Benefits saved before days_mask and benefit_products existed
+    List<Benefit> findByDaysMaskIsNull();
+
+    // Find duplicate candidates (same columns and days); the caller compares the already fetched products
+    @Query("SELECT DISTINCT b FROM Benefit b LEFT JOIN FETCH b.products WHERE b.type = ?1 AND b.pointsRequired = ?2 AND " +
            "((?3 IS NULL AND b.discountType IS NULL) OR b.discountType = ?3) AND " +
            "((?4 IS NULL AND b.discountValue IS NULL) OR b.discountValue = ?4) AND " +
-           "b.applicableDays = ?5 AND " +
-           "((?6 IS NULL AND b.productIds IS NULL) OR b.productIds = ?6) AND " +
+           "b.daysMask = ?5 AND " +
            "b.active = true")
-    List<Benefit> findDuplicateBenefits(Benefit.BenefitType type, Integer pointsRequired, Benefit.DiscountType discountType, Double discountValue, String applicableDays, String productIds);
+    List<Benefit> findDuplicateCandidates(Benefit.BenefitType type, Integer pointsRequired, Benefit.DiscountType discountType, Double discountValue, Integer daysMask);
+
+    // Names among productNames that an active FREE_PRODUCT benefit gives away on the day of dayBit
+    @Query("SELECT DISTINCT p.name FROM Benefit b JOIN b.products productId JOIN Product p ON p.productId = productId " +
+           "WHERE b.id = :benefitId AND b.active = true AND b.type = FREE_PRODUCT " +
+           "AND MOD(b.daysMask / :dayBit, 2) = 1 AND p.name IN :productNames")
+    List<String> findFreeProductNames(@Param("benefitId") Long benefitId, @Param("dayBit") int dayBit, @Param("productNames") Collection<String> productNames);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.messismo.bar.Repositories;
+
+import com.messismo.bar.Entities.ClientIdCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ClientIdCounterRepository extends JpaRepository<ClientIdCounter, Long> {
+
+    // BLOQUEA LA FILA HASTA EL COMMIT, DOS INSTANCIAS NUNCA RESERVAN EL MISMO BLOQUE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ClientIdCounter c WHERE c.id = :id")
+    Optional<ClientIdCounter> findForUpdate(@Param("id") Long id);
+}
@@ -2,11 +2,26 @@ package com.messismo.bar.Repositories;
 
 import com.messismo.bar.Entities.Goal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GoalRepository extends JpaRepository<Goal, Long> {
     Optional<Goal> findByGoalId(Long goalId);
+
+    // MISMOS LIMITES EXCLUSIVOS QUE getAllOrdersBetweenTwoDates
+    @Query("SELECT g FROM Goal g WHERE g.startingDate < :date AND g.endingDate > :date")
+    List<Goal> findContaining(@Param("date") Date date);
+
+    @Modifying
+    @Query("UPDATE Goal g SET g.currentGoal = COALESCE(g.currentGoal, 0) + :amount, " +
+           "g.achieved = CASE WHEN COALESCE(g.currentGoal, 0) + :amount >= g.goalObjective THEN 'Achieved' ELSE g.achieved END " +
+           "WHERE g.goalId = :goalId")
+    int addProgress(@Param("goalId") Long goalId, @Param("amount") Double amount);
 }
@@ -1,12 +1,68 @@
 package com.messismo.bar.Repositories;
 
+import com.messismo.bar.DTOs.OrderSalesDTO;
+import com.messismo.bar.DTOs.OrderSummaryDTO;
+import com.messismo.bar.DTOs.SalesBucketDTO;
 import com.messismo.bar.Entities.Order;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    @EntityGraph(attributePaths = {"productOrders", "productOrders.category"})
+    List<Order> findAll();
+
+    @EntityGraph(attributePaths = {"productOrders", "productOrders.category"})
+    Optional<Order> findById(Long id);
+
     List<Order> findByClientId(Long clientId);
+
+    // LIMITES EXCLUSIVOS, USA idx_orders_date_created
+    @EntityGraph(attributePaths = {"productOrders", "productOrders.category"})
+    @Query("SELECT o FROM Order o WHERE o.dateCreated > :start AND o.dateCreated < :end ORDER BY o.dateCreated, o.id")
+    List<Order> findBetween(@Param("start") Date start, @Param("end") Date end);
+
+    // PAGINADO POR CLAVE (dateCreated, id): CADA PAGINA ARRANCA DESPUES DE LA ULTIMA ORDEN LEIDA
+    // SOLO IDS PARA QUE EL LIMIT VAYA A LA BASE, LAS ORDENES SE CARGAN DESPUES CON findWithProductOrdersByIdIn
+    @Query("SELECT o.id FROM Order o WHERE o.dateCreated > :start AND o.dateCreated < :end " +
+           "AND (o.dateCreated > :lastDate OR (o.dateCreated = :lastDate AND o.id > :lastId)) " +
+           "ORDER BY o.dateCreated, o.id")
+    List<Long> findIdsBetweenAfter(@Param("start") Date start, @Param("end") Date end, @Param("lastDate") Date lastDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"productOrders", "productOrders.category"})
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.dateCreated, o.id")
+    List<Order> findWithProductOrdersByIdIn(@Param("ids") Collection<Long> ids);
+
+    // MAS NUEVAS PRIMERO, CADA PAGINA ARRANCA DEBAJO DEL ULTIMO ID LEIDO
+    @Query("SELECT new com.messismo.bar.DTOs.OrderSummaryDTO(o.id, o.dateCreated, o.status, u.email, o.clientId, o.totalPrice, o.totalCost, SIZE(o.productOrders)) " +
+           "FROM Order o JOIN o.user u WHERE o.id < :beforeId AND o.dateCreated >= :start AND o.dateCreated < :end " +
+           "AND (:status IS NULL OR o.status = :status) AND (:employeeEmail IS NULL OR u.email = :employeeEmail) " +
+           "ORDER BY o.id DESC")
+    List<OrderSummaryDTO> findSummaries(@Param("beforeId") Long beforeId, @Param("start") Date start, @Param("end") Date end, @Param("status") String status, @Param("employeeEmail") String employeeEmail, Pageable pageable);
+
+    // UNA FILA POR ORDEN SIN ENTIDADES, SalesRollupService ARMA LA HORA Y EL DIA EN LA MISMA ZONA QUE LOS INCREMENTOS
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.messismo.bar.DTOs.OrderSalesDTO(o.dateCreated, o.totalPrice, o.totalCost) FROM Order o")
+    Stream<OrderSalesDTO> streamSales();
+
+    // UNA ORDEN CON VARIAS CATEGORIAS PEDIDAS SE CUENTA UNA SOLA VEZ
+    @Query("SELECT new com.messismo.bar.DTOs.SalesBucketDTO(year(o.dateCreated), month(o.dateCreated), day(o.dateCreated), COUNT(o)) " +
+           "FROM Order o WHERE o.dateCreated >= :start AND o.dateCreated < :end AND o.id IN " +
+           "(SELECT o2.id FROM Order o2 JOIN o2.productOrders po WHERE po.category.categoryId IN :categoryIds) " +
+           "GROUP BY year(o.dateCreated), month(o.dateCreated), day(o.dateCreated)")
+    List<SalesBucketDTO> countOrdersWithAnyCategoryByDayBetween(@Param("start") Date start, @Param("end") Date end, @Param("categoryIds") Collection<Long> categoryIds);
 }
@@ -1,10 +1,19 @@
 package com.messismo.bar.Repositories;
 
 import com.messismo.bar.Entities.PointsAccount;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PointsAccountRepository extends JpaRepository<PointsAccount, Long> {
@@ -12,4 +21,24 @@ public interface PointsAccountRepository extends JpaRepository<PointsAccount, Lo
     Optional<PointsAccount> findByClientId(String clientId);
     
     boolean existsByClientId(String clientId);
-}
\ No newline at end of file
+
+    // SUMA Y RESTA EN LA BASE EN UN SOLO UPDATE, LA CONDICION IMPIDE GASTAR MAS DE LO QUE HABIA ANTES DE LA ORDEN
+    // LOS CAST EXPLICITOS EVITAN QUE HIBERNATE GENERE "float($p)", QUE H2 NO ACEPTA
+    @Modifying
+    @Query("UPDATE PointsAccount a SET a.currentBalance = a.currentBalance + CAST(:earned AS Double) - CAST(:spent AS Double), " +
+           "a.totalEarned = a.totalEarned + CAST(:earned AS Double), a.totalSpent = a.totalSpent + CAST(:spent AS Double), a.updatedAt = :now " +
+           "WHERE a.clientId = :clientId AND a.currentBalance >= :spent")
+    int applyDelta(@Param("clientId") String clientId, @Param("earned") Double earned, @Param("spent") Double spent, @Param("now") Date now);
+
+    // SIN ENTIDADES ADMINISTRADAS, LA RECONCILIACION RECORRE TODAS LAS CUENTAS SIN LLENAR LA SESION
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a.clientId AS clientId, a.currentBalance AS currentBalance FROM PointsAccount a")
+    Stream<AccountBalance> streamBalances();
+
+    interface AccountBalance {
+
+        String getClientId();
+
+        Double getCurrentBalance();
+    }
+}
@@ -0,0 +1,22 @@
+package com.messismo.bar.Repositories;
+
+import com.messismo.bar.Entities.PointsBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+@Repository
+public interface PointsBalanceSnapshotRepository extends JpaRepository<PointsBalanceSnapshot, Long> {
+
+    Optional<PointsBalanceSnapshot> findFirstByClientIdOrderByTakenAtDesc(String clientId);
+
+    // LOS SNAPSHOTS ANTERIORES YA ESTAN INCLUIDOS EN EL ULTIMO
+    @Modifying
+    @Query("DELETE FROM PointsBalanceSnapshot s WHERE s.takenAt < :takenAt")
+    int deleteTakenBefore(@Param("takenAt") Date takenAt);
+}
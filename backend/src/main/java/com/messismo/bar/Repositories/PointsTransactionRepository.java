@@ -1,13 +1,22 @@
 package com.messismo.bar.Repositories;
 
+import com.messismo.bar.DTOs.PointsHistoryEntryDTO;
 import com.messismo.bar.Entities.PointsTransaction;
 import com.messismo.bar.Entities.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PointsTransactionRepository extends JpaRepository<PointsTransaction, Long> {
@@ -18,4 +27,44 @@ public interface PointsTransactionRepository extends JpaRepository<PointsTransac
     
     @Query("SELECT SUM(pt.amount) FROM PointsTransaction pt WHERE pt.clientId = :clientId AND pt.type = :type")
     Double getTotalAmountByClientIdAndType(@Param("clientId") String clientId, @Param("type") TransactionType type);
-}
\ No newline at end of file
+
+    // KEYSET DESCENDENTE SOBRE idx_points_transactions_client_created, EL COSTO NO DEPENDE DE LA PAGINA PEDIDA
+    @Query("SELECT new com.messismo.bar.DTOs.PointsHistoryEntryDTO(t.id, t.type, t.amount, t.source, t.description, t.createdAt) " +
+           "FROM PointsTransaction t WHERE t.clientId = :clientId AND (:type IS NULL OR t.type = :type) " +
+           "AND (t.createdAt < :beforeCreatedAt OR (t.createdAt = :beforeCreatedAt AND t.id < :beforeId)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<PointsHistoryEntryDTO> findHistoryBefore(@Param("clientId") String clientId, @Param("type") TransactionType type, @Param("beforeCreatedAt") Date beforeCreatedAt, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    String CLIENT_TOTALS = "SELECT t.clientId AS clientId, SUM(t.amount) AS balance, " +
+            "SUM(CASE WHEN t.type = com.messismo.bar.Entities.TransactionType.EARNED THEN t.amount ELSE 0.0 END) AS totalEarned, " +
+            "SUM(CASE WHEN t.type = com.messismo.bar.Entities.TransactionType.SPENT THEN -t.amount ELSE 0.0 END) AS totalSpent " +
+            "FROM PointsTransaction t ";
+
+    // COLA POSTERIOR A UN SNAPSHOT, USA idx_points_transactions_client_created
+    @Query("SELECT COALESCE(SUM(t.amount), 0.0) FROM PointsTransaction t WHERE t.clientId = :clientId AND t.createdAt > :after")
+    Double sumAfter(@Param("clientId") String clientId, @Param("after") Date after);
+
+    // UNA SOLA PASADA SOBRE TODO EL LOG, LA BASE DEVUELVE UNA FILA POR CLIENTE
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(CLIENT_TOTALS + "WHERE t.createdAt <= :until GROUP BY t.clientId")
+    Stream<ClientTotals> streamTotalsUntil(@Param("until") Date until);
+
+    @Query(CLIENT_TOTALS + "WHERE t.createdAt > :after GROUP BY t.clientId")
+    List<ClientTotals> findTotalsAfter(@Param("after") Date after);
+
+    // spendPoints ESCRIBIA LOS SPENT EN POSITIVO. NATIVA: LA ENTIDAD ES @Immutable Y EL SIGNO SOLO SE CAMBIA UNA VEZ
+    @Modifying
+    @Query(value = "UPDATE points_transactions SET amount = -amount WHERE transaction_type = 'SPENT' AND amount > 0", nativeQuery = true)
+    int negateLegacySpentAmounts();
+
+    interface ClientTotals {
+
+        String getClientId();
+
+        Double getBalance();
+
+        Double getTotalEarned();
+
+        Double getTotalSpent();
+    }
+}
@@ -1,11 +1,33 @@
 package com.messismo.bar.Repositories;
 
+import com.messismo.bar.DTOs.OrderSalesDTO;
 import com.messismo.bar.Entities.ProductOrder;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ProductOrderRepository extends JpaRepository<ProductOrder, Long> {
 
+    // UNA FILA POR ORDEN Y PRODUCTO, LA ORDEN SE CUENTA UNA VEZ AUNQUE REPITA EL PRODUCTO EN VARIAS LINEAS
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.messismo.bar.DTOs.OrderSalesDTO(o.dateCreated, c.categoryId, c.name, po.productName, " +
+           "SUM(po.quantity), SUM(po.quantity * po.productUnitPrice), SUM(po.quantity * po.productUnitCost)) " +
+           "FROM Order o JOIN o.productOrders po JOIN po.category c " +
+           "GROUP BY o.id, o.dateCreated, c.categoryId, c.name, po.productName")
+    Stream<OrderSalesDTO> streamProductSales();
 
+    // UNA FILA POR ORDEN Y CATEGORIA
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.messismo.bar.DTOs.OrderSalesDTO(o.dateCreated, c.categoryId, c.name, " +
+           "SUM(po.quantity), SUM(po.quantity * po.productUnitPrice), SUM(po.quantity * po.productUnitCost)) " +
+           "FROM Order o JOIN o.productOrders po JOIN po.category c " +
+           "GROUP BY o.id, o.dateCreated, c.categoryId, c.name")
+    Stream<OrderSalesDTO> streamCategorySales();
 }
@@ -2,17 +2,43 @@ package com.messismo.bar.Repositories;
 
 import com.messismo.bar.Entities.Category;
 import com.messismo.bar.Entities.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     Optional<Product> findByName(String name);
 
     Optional<Product> findByProductId(Long productId);
 
     List<Product> findByCategory(Category category);
+
+    // BLOQUEA LAS FILAS HASTA EL COMMIT, EN ORDEN DE ID PARA QUE DOS ORDENES NO SE BLOQUEEN MUTUAMENTE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productId IN :productIds ORDER BY p.productId")
+    List<Product> findAllForUpdate(@Param("productIds") Collection<Long> productIds);
+
+    // SOLO LO QUE NECESITA ProductNameIndex
+    @Query("SELECT p.productId AS productId, p.name AS name FROM Product p")
+    List<ProductName> findAllNames();
+
+    // NOMBRES DE VARIOS PRODUCTOS EN UNA SOLA CONSULTA
+    @Query("SELECT p.productId AS productId, p.name AS name FROM Product p WHERE p.productId IN :productIds")
+    List<ProductName> findNamesByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    interface ProductName {
+
+        Long getProductId();
+
+        String getName();
+    }
 }
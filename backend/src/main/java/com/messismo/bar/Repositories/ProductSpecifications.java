@@ -0,0 +1,52 @@
+package com.messismo.bar.Repositories;
+
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Predicates for ProductService.filterProducts. A null or zero bound means "no filter", like the filter screen sends it.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> idIn(Collection<Long> productIds) {
+        return (root, query, builder) -> productIds == null ? null : root.get("productId").in(productIds);
+    }
+
+    public static Specification<Product> categoryIn(Collection<Category> categories) {
+        return (root, query, builder) -> categories == null ? null : root.get("category").in(categories);
+    }
+
+    public static Specification<Product> unitPriceAbove(Double minUnitPrice) {
+        return (root, query, builder) -> isUnset(minUnitPrice) ? null : builder.greaterThan(root.get("unitPrice"), minUnitPrice);
+    }
+
+    public static Specification<Product> unitPriceBelow(Double maxUnitPrice) {
+        return (root, query, builder) -> isUnset(maxUnitPrice) ? null : builder.lessThan(root.get("unitPrice"), maxUnitPrice);
+    }
+
+    public static Specification<Product> unitCostAbove(Double minUnitCost) {
+        return (root, query, builder) -> isUnset(minUnitCost) ? null : builder.greaterThan(root.get("unitCost"), minUnitCost);
+    }
+
+    public static Specification<Product> unitCostBelow(Double maxUnitCost) {
+        return (root, query, builder) -> isUnset(maxUnitCost) ? null : builder.lessThan(root.get("unitCost"), maxUnitCost);
+    }
+
+    public static Specification<Product> stockAbove(Integer minStock) {
+        return (root, query, builder) -> minStock == null || minStock == 0 ? null : builder.greaterThan(root.get("stock"), minStock);
+    }
+
+    public static Specification<Product> stockBelow(Integer maxStock) {
+        return (root, query, builder) -> maxStock == null || maxStock == 0 ? null : builder.lessThan(root.get("stock"), maxStock);
+    }
+
+    private static boolean isUnset(Double bound) {
+        return bound == null || bound == 0.00;
+    }
+}
@@ -0,0 +1,30 @@
+package com.messismo.bar.Repositories;
+
+import com.messismo.bar.Entities.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    // UNA FILA POR AÑO Y CLAVE, EL RESUMEN ANUAL NO CRECE CON LOS DIAS DE HISTORIA
+    @Query("SELECT new com.messismo.bar.Entities.SalesRollup(year(r.bucketStart), r.dimension, r.dimensionKey, MAX(r.productName), r.categoryId, MAX(r.categoryName), " +
+           "SUM(r.quantity), SUM(r.revenue), SUM(r.cost), SUM(r.orderCount)) " +
+           "FROM SalesRollup r WHERE r.granularity = DAY GROUP BY year(r.bucketStart), r.dimension, r.dimensionKey, r.categoryId")
+    List<SalesRollup> sumDailyByYear();
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end")
+    List<SalesRollup> findBetween(@Param("granularity") SalesRollup.Granularity granularity, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("UPDATE SalesRollup r SET r.quantity = r.quantity + :quantity, r.revenue = r.revenue + :revenue, r.cost = r.cost + :cost, r.orderCount = r.orderCount + :orderCount " +
+           "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart AND r.dimensionKey = :dimensionKey")
+    int increment(@Param("granularity") SalesRollup.Granularity granularity, @Param("bucketStart") LocalDateTime bucketStart, @Param("dimensionKey") String dimensionKey,
+                  @Param("quantity") Long quantity, @Param("revenue") Double revenue, @Param("cost") Double cost, @Param("orderCount") Long orderCount);
+}
@@ -1,20 +1,28 @@
 package com.messismo.bar.Repositories;
 
 import com.messismo.bar.Entities.Token;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 public interface TokenRepository extends JpaRepository<Token, Long> {
 
-    @Query(value = """
-            select t from Token t inner join User u\s
-            on t.user.id = u.id\s
-            where u.id = :id and (t.expired = false or t.revoked = false)\s
-            """)
-    List<Token> findAllValidTokenByUser(Long id);
+    @Query("select t from Token t where t.user.id = :id and t.expired = false and t.revoked = false")
+    List<Token> findAllValidTokenByUser(@Param("id") Long id);
 
     Optional<Token> findByToken(String token);
+
+    @Query("select t.token from Token t where t.revoked = true or t.expired = true")
+    List<String> findRevokedTokens();
+
+    @Query("select t.id from Token t where t.expiresAt < :now order by t.id")
+    List<Long> findExpiredIds(@Param("now") Date now, Pageable pageable);
+
+    // FILAS ANTERIORES A LA COLUMNA expires_at
+    List<Token> findByExpiresAtIsNull(Pageable pageable);
 }
@@ -1,12 +1,18 @@
 package com.messismo.bar.Repositories;
 
+import com.messismo.bar.DTOs.UserDTO;
+import com.messismo.bar.Entities.Role;
 import com.messismo.bar.Entities.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 
 @Repository
@@ -17,8 +23,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
     
-    @Query("SELECT u.clientId FROM User u WHERE u.clientId IS NOT NULL")
-    Set<String> findAllClientIds();
-    
     Optional<User> findByClientId(String clientId);
+
+    boolean existsByClientId(String clientId);
+
+    String CLIENTS_WITH_POINTS = "SELECT new com.messismo.bar.DTOs.UserDTO(u.id, u.username, u.email, u.role, u.clientId, COALESCE(p.currentBalance, 0.0)) " +
+                                 "FROM User u LEFT JOIN PointsAccount p ON p.clientId = u.clientId WHERE u.role = com.messismo.bar.Entities.Role.CLIENT";
+
+    // CLIENTES CON SU SALDO EN UNA SOLA CONSULTA
+    @Query(CLIENTS_WITH_POINTS + " ORDER BY u.id")
+    List<UserDTO> findAllClientsWithPoints();
+
+    // search YA VIENE EN MINUSCULAS, ENTRE % Y CON LOS COMODINES ESCAPADOS CON !
+    @Query(CLIENTS_WITH_POINTS + " AND (:search IS NULL OR LOWER(u.username) LIKE :search ESCAPE '!' " +
+           "OR LOWER(u.email) LIKE :search ESCAPE '!' OR LOWER(u.clientId) LIKE :search ESCAPE '!')")
+    Slice<UserDTO> findClientsWithPoints(@Param("search") String search, Pageable pageable);
+
+    String USERS_WITH_ROLE = "SELECT new com.messismo.bar.DTOs.UserDTO(u.id, u.username, u.email, u.role, u.clientId, CAST(NULL AS Double)) " +
+                             "FROM User u WHERE u.role IN :roles";
+
+    @Query(USERS_WITH_ROLE + " ORDER BY u.id")
+    List<UserDTO> findAllByRoleIn(@Param("roles") Collection<Role> roles);
+
+    // MISMO FORMATO DE search QUE findClientsWithPoints
+    @Query(USERS_WITH_ROLE + " AND (:search IS NULL OR LOWER(u.username) LIKE :search ESCAPE '!' OR LOWER(u.email) LIKE :search ESCAPE '!')")
+    Slice<UserDTO> findByRoleIn(@Param("roles") Collection<Role> roles, @Param("search") String search, Pageable pageable);
 }
@@ -8,6 +8,7 @@ import com.messismo.bar.Entities.User;
 import com.messismo.bar.Exceptions.UserAlreadyExistsException;
 import com.messismo.bar.Repositories.TokenRepository;
 import com.messismo.bar.Repositories.UserRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -34,6 +35,8 @@ public class AuthenticationService {
     
     private final PointsService pointsService;
 
+    private final TokenRevocationService tokenRevocationService;
+
     public AuthenticationResponseDTO register(RegisterRequestDTO request) throws Exception {
         try {
             Optional<User> employeeByUsername = userRepository.findByUsername(request.getUsername());
@@ -86,7 +89,7 @@ public class AuthenticationService {
     }
 
     private void saveUserToken(User user, String jwtToken) {
-        Token token = new Token(jwtToken, user);
+        Token token = new Token(jwtToken, user, jwtService.extractClaim(jwtToken, Claims::getExpiration));
         tokenRepository.save(token);
     }
 
@@ -97,6 +100,7 @@ public class AuthenticationService {
             token.removeValidation();
         });
         tokenRepository.saveAll(validUserTokens);
+        validUserTokens.forEach(token -> tokenRevocationService.revoke(token.getToken()));
     }
 
 }
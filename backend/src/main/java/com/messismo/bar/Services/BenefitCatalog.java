@@ -0,0 +1,170 @@
+package com.messismo.bar.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.messismo.bar.DTOs.BenefitResponseDTO;
+import com.messismo.bar.Entities.Benefit;
+import com.messismo.bar.Repositories.BenefitRepository;
+import com.messismo.bar.Repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Active benefits with their days and products already parsed, for the listings every client asks for before closing
+ * an order. Rebuilt on the first read after BenefitService creates or deletes a benefit, and at least every
+ * {@link #TIME_TO_LIVE_MILLIS} so writes from other instances show up.
+ */
+@Service
+@RequiredArgsConstructor
+public class BenefitCatalog {
+
+    public static final long TIME_TO_LIVE_MILLIS = 30000;
+
+    private static final String UNKNOWN_PRODUCT = "Unknown Product";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final BenefitRepository benefitRepository;
+
+    private final ProductRepository productRepository;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public List<BenefitResponseDTO> getActive() {
+        return current().entries().stream().map(Entry::response).toList();
+    }
+
+    public List<BenefitResponseDTO> getByType(Benefit.BenefitType type) {
+        return current().entries().stream().filter(entry -> entry.type() == type).map(Entry::response).toList();
+    }
+
+    /**
+     * Benefits valid on the given day that cost at most {@code points}, cheapest first. One binary search over the
+     * day's thresholds; the result is a view of the snapshot's already rendered list.
+     */
+    public List<BenefitResponseDTO> getForPoints(int points, DayOfWeek day) {
+        DayIndex index = current().byDay().get(day);
+        return index.responses().subList(0, upperBound(index.thresholds(), points));
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Converts benefits read outside the catalog, resolving every product name with a single query.
+     */
+    public List<BenefitResponseDTO> toResponses(List<Benefit> benefits) {
+        return entriesOf(benefits).stream().map(Entry::response).toList();
+    }
+
+    private Snapshot current() {
+        long expectedVersion = version.get();
+        Snapshot cached = snapshot.get();
+        if (cached != null && cached.version() == expectedVersion && System.currentTimeMillis() - cached.builtAt() < TIME_TO_LIVE_MILLIS) {
+            return cached;
+        }
+        // LA VERSION SE LEE ANTES DE CONSULTAR, UNA ESCRITURA DURANTE LA CARGA DEJA EL SNAPSHOT VENCIDO
+        List<Entry> entries = entriesOf(benefitRepository.findByActiveTrue());
+        Snapshot rebuilt = new Snapshot(expectedVersion, System.currentTimeMillis(), entries, indexByDay(entries));
+        snapshot.set(rebuilt);
+        return rebuilt;
+    }
+
+    // POR DIA, LOS BENEFICIOS ORDENADOS POR PUNTOS Y SUS UMBRALES EN UN ARRAY PARALELO
+    private static Map<DayOfWeek, DayIndex> indexByDay(List<Entry> entries) {
+        List<Entry> byPoints = entries.stream().sorted(Comparator.comparingInt(Entry::pointsRequired)).toList();
+        Map<DayOfWeek, DayIndex> byDay = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            List<Entry> valid = byPoints.stream().filter(entry -> entry.days().contains(day)).toList();
+            int[] thresholds = valid.stream().mapToInt(Entry::pointsRequired).toArray();
+            byDay.put(day, new DayIndex(thresholds, valid.stream().map(Entry::response).toList()));
+        }
+        return byDay;
+    }
+
+    // CANTIDAD DE UMBRALES MENORES O IGUALES A points
+    private static int upperBound(int[] thresholds, int points) {
+        int low = 0;
+        int high = thresholds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (thresholds[middle] <= points) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Entry> entriesOf(List<Benefit> benefits) {
+        long[][] productIdsByBenefit = new long[benefits.size()][];
+        Set<Long> freeProductIds = new HashSet<>();
+        for (int i = 0; i < benefits.size(); i++) {
+            productIdsByBenefit[i] = Benefit.parseProductIds(benefits.get(i).getProductIds()).stream().mapToLong(Long::longValue).toArray();
+            if (benefits.get(i).getType() == Benefit.BenefitType.FREE_PRODUCT) {
+                Arrays.stream(productIdsByBenefit[i]).forEach(freeProductIds::add);
+            }
+        }
+        Map<Long, String> productNames = new HashMap<>();
+        if (!freeProductIds.isEmpty()) {
+            productRepository.findNamesByProductIdIn(freeProductIds).forEach(product -> productNames.put(product.getProductId(), product.getName()));
+        }
+        List<Entry> entries = new ArrayList<>(benefits.size());
+        for (int i = 0; i < benefits.size(); i++) {
+            Benefit benefit = benefits.get(i);
+            long[] productIds = productIdsByBenefit[i];
+            EnumSet<DayOfWeek> days = Benefit.parseDays(benefit.getApplicableDays());
+            entries.add(new Entry(toResponse(benefit, productIds, productNames), benefit.getType(), benefit.getPointsRequired() == null ? 0 : benefit.getPointsRequired(), days, productIds));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    private BenefitResponseDTO toResponse(Benefit benefit, long[] productIds, Map<Long, String> productNames) {
+        List<Long> productIdList = Arrays.stream(productIds).boxed().toList();
+        List<String> names = null;
+        if (benefit.getType() == Benefit.BenefitType.FREE_PRODUCT && productIds.length > 0) {
+            names = productIdList.stream().map(id -> productNames.getOrDefault(id, UNKNOWN_PRODUCT)).toList();
+        }
+        return BenefitResponseDTO.builder()
+                .id(benefit.getId())
+                .type(benefit.getType())
+                .pointsRequired(benefit.getPointsRequired())
+                .discountType(benefit.getDiscountType())
+                .discountValue(benefit.getDiscountValue())
+                .applicableDays(parseStrings(benefit.getApplicableDays()))
+                .productIds(productIdList)
+                .productNames(names)
+                .createdBy(benefit.getCreatedBy())
+                .createdAt(benefit.getCreatedAt())
+                .active(benefit.getActive())
+                .build();
+    }
+
+    private static List<String> parseStrings(String json) {
+        if (json == null || json.isEmpty()) return List.of();
+        try {
+            return JSON.readValue(json, new TypeReference<List<String>>() {});
+        } catch (JsonProcessingException e) {
+            return List.of();
+        }
+    }
+
+    private record Entry(BenefitResponseDTO response, Benefit.BenefitType type, int pointsRequired, EnumSet<DayOfWeek> days, long[] productIds) {
+    }
+
+    private record DayIndex(int[] thresholds, List<BenefitResponseDTO> responses) {
+    }
+
+    private record Snapshot(long version, long builtAt, List<Entry> entries, Map<DayOfWeek, DayIndex> byDay) {
+    }
+}
@@ -1,36 +1,38 @@
 package com.messismo.bar.Services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.messismo.bar.DTOs.BenefitRequestDTO;
 import com.messismo.bar.DTOs.BenefitResponseDTO;
 import com.messismo.bar.Entities.Benefit;
 import com.messismo.bar.Repositories.BenefitRepository;
+import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
+@Log
 public class BenefitService {
 
     @Autowired
     private BenefitRepository benefitRepository;
     
     @Autowired
-    private com.messismo.bar.Repositories.ProductRepository productRepository;
+    private BenefitCatalog benefitCatalog;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Get all active benefits
     public List<BenefitResponseDTO> getAllActiveBenefits() {
-        return benefitRepository.findByActiveTrue().stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return benefitCatalog.getActive();
     }
 
     // Get benefit by ID
@@ -59,14 +61,7 @@ public class BenefitService {
         System.out.println("ApplicableDays: " + applicableDaysJson);
         System.out.println("ProductIds: " + productIdsJson);
         
-        List<Benefit> duplicates = benefitRepository.findDuplicateBenefits(
-            requestDTO.getType(),
-            requestDTO.getPointsRequired(),
-            requestDTO.getDiscountType(),
-            requestDTO.getDiscountValue(),
-            applicableDaysJson,
-            productIdsJson
-        );
+        List<Benefit> duplicates = findDuplicates(requestDTO, applicableDaysJson);
         
         System.out.println("Found duplicates: " + duplicates.size());
         for (Benefit dup : duplicates) {
@@ -91,22 +86,15 @@ public class BenefitService {
                 .build();
         
         Benefit savedBenefit = benefitRepository.save(benefit);
+        benefitCatalog.invalidate();
         return convertToResponseDTO(savedBenefit);
     }
 
     // Check for duplicate benefits (for frontend validation)
     public boolean isDuplicateBenefit(BenefitRequestDTO requestDTO) {
         String applicableDaysJson = listToJson(requestDTO.getApplicableDays());
-        String productIdsJson = longListToJson(requestDTO.getProductIds());
         
-        List<Benefit> duplicates = benefitRepository.findDuplicateBenefits(
-            requestDTO.getType(),
-            requestDTO.getPointsRequired(),
-            requestDTO.getDiscountType(),
-            requestDTO.getDiscountValue(),
-            applicableDaysJson,
-            productIdsJson
-        );
+        List<Benefit> duplicates = findDuplicates(requestDTO, applicableDaysJson);
         
         return !duplicates.isEmpty();
     }
@@ -118,28 +106,47 @@ public class BenefitService {
             Benefit benefit = benefitOpt.get();
             benefit.setActive(false);
             benefitRepository.save(benefit);
+            benefitCatalog.invalidate();
             return true;
         }
         return false;
     }
 
+    // Fill days_mask and benefit_products for benefits saved before they existed, the queries that use them skip those rows
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingStructuredFields() {
+        try {
+            List<Benefit> benefits = benefitRepository.findByDaysMaskIsNull();
+            if (benefits.isEmpty()) {
+                return;
+            }
+            benefits.forEach(Benefit::fillStructuredFields);
+            benefitRepository.saveAll(benefits);
+            log.info("Benefits backfilled with days mask and products: " + benefits.size());
+        } catch (RuntimeException e) {
+            // SIN LA COLUMNA days_mask (V010 SIN APLICAR) NO HAY NADA QUE COMPLETAR, LA APLICACION ARRANCA IGUAL
+            log.warning("Benefits could not be backfilled: " + e.getMessage());
+        }
+    }
+
     // Get benefits by type
     public List<BenefitResponseDTO> getBenefitsByType(Benefit.BenefitType type) {
-        return benefitRepository.findByTypeAndActiveTrue(type).stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return benefitCatalog.getByType(type);
     }
 
     // Get benefits available for specific points and current day
     public List<BenefitResponseDTO> getBenefitsForPoints(Integer points) {
-        String currentDay = java.time.LocalDate.now().getDayOfWeek().name();
-        
-        List<Benefit> allBenefits = benefitRepository.findByPointsRequiredLessThanEqual(points);
-        
-        return allBenefits.stream()
-                .filter(benefit -> benefit.isApplicableOnDay(currentDay))
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return benefitCatalog.getForPoints(points, java.time.LocalDate.now().getDayOfWeek());
+    }
+
+    // Same columns, same days and same products, in any order
+    private List<Benefit> findDuplicates(BenefitRequestDTO requestDTO, String applicableDaysJson) {
+        Set<Long> productIds = requestDTO.getProductIds() == null ? Set.of() : new HashSet<>(requestDTO.getProductIds());
+        int daysMask = Benefit.daysMask(Benefit.parseDays(applicableDaysJson));
+        return benefitRepository.findDuplicateCandidates(requestDTO.getType(), requestDTO.getPointsRequired(), requestDTO.getDiscountType(), requestDTO.getDiscountValue(), daysMask)
+                .stream()
+                .filter(benefit -> productIds.equals(benefit.getProducts() == null ? Set.of() : benefit.getProducts()))
+                .toList();
     }
 
     // Helper method to get current user email
@@ -153,31 +160,7 @@ public class BenefitService {
 
     // Convert entity to response DTO
     private BenefitResponseDTO convertToResponseDTO(Benefit benefit) {
-        List<Long> productIds = jsonToLongList(benefit.getProductIds());
-        List<String> productNames = null;
-        
-        // Get product names for FREE_PRODUCT benefits
-        if (benefit.getType() == Benefit.BenefitType.FREE_PRODUCT && productIds != null && !productIds.isEmpty()) {
-            productNames = productIds.stream()
-                    .map(id -> productRepository.findById(id)
-                            .map(product -> product.getName())
-                            .orElse("Unknown Product"))
-                    .collect(Collectors.toList());
-        }
-        
-        return BenefitResponseDTO.builder()
-                .id(benefit.getId())
-                .type(benefit.getType())
-                .pointsRequired(benefit.getPointsRequired())
-                .discountType(benefit.getDiscountType())
-                .discountValue(benefit.getDiscountValue())
-                .applicableDays(jsonToStringList(benefit.getApplicableDays()))
-                .productIds(productIds)
-                .productNames(productNames)
-                .createdBy(benefit.getCreatedBy())
-                .createdAt(benefit.getCreatedAt())
-                .active(benefit.getActive())
-                .build();
+        return benefitCatalog.toResponses(List.of(benefit)).get(0);
     }
 
     // JSON conversion helper methods
@@ -198,22 +181,4 @@ public class BenefitService {
             return null;
         }
     }
-
-    private List<String> jsonToStringList(String json) {
-        if (json == null || json.isEmpty()) return List.of();
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
-        } catch (JsonProcessingException e) {
-            return List.of();
-        }
-    }
-
-    private List<Long> jsonToLongList(String json) {
-        if (json == null || json.isEmpty()) return List.of();
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<Long>>() {});
-        } catch (JsonProcessingException e) {
-            return List.of();
-        }
-    }
 }
\ No newline at end of file
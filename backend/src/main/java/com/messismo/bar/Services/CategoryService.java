@@ -19,6 +19,8 @@ public class CategoryService {
 
     private final ProductRepository productRepository;
 
+    private final MenuCache menuCache;
+
     public String addCategory(CategoryRequestDTO categoryRequestDTO) throws Exception {
         try {
             Optional<Category> existingCategory = categoryRepository.findByName(categoryRequestDTO.getCategoryName());
@@ -27,6 +29,7 @@ public class CategoryService {
             }
             Category newCategory = Category.builder().name(categoryRequestDTO.getCategoryName()).build();
             categoryRepository.save(newCategory);
+            menuCache.invalidateCatalog();
             return "Category created successfully";
         } catch (ExistingCategoryFoundException e) {
             throw e;
@@ -40,6 +43,7 @@ public class CategoryService {
             Category category = categoryRepository.findByName(categoryRequestDTO.getCategoryName()).orElseThrow(() -> new CategoryNotFoundException("Provided category DOES NOT match any category name"));
             if (productRepository.findByCategory(category).isEmpty()) {
                 categoryRepository.delete(category);
+                menuCache.invalidateCatalog();
                 return "Category deleted successfully";
             } else {
                 throw new CategoryHasAtLeastOneProductAssociated("The provided category has associated one or more products. Please delete them first");
@@ -1,57 +1,112 @@
 package com.messismo.bar.Services;
 
+import com.messismo.bar.Entities.ClientIdCounter;
+import com.messismo.bar.Repositories.ClientIdCounterRepository;
 import com.messismo.bar.Repositories.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Random;
-import java.util.Set;
-
+/**
+ * Hands out 8 digit client ids without reading the ids already taken.
+ * A counter row reserves blocks of BLOCK_SIZE values, and each value goes through a keyed Feistel permutation of the 8 digit range,
+ * so consecutive signups get unrelated ids and two values never map to the same id.
+ */
 @Service
-@RequiredArgsConstructor
 public class ClientIdService {
 
+    public static final int BLOCK_SIZE = 100;
+
+    public static final long FIRST_ID = 10000000L;
+
+    public static final long ID_SPACE = 90000000L;
+
+    // HALF * HALF >= ID_SPACE, LOS VALORES QUE CAEN FUERA SE VUELVEN A PERMUTAR (CYCLE WALKING)
+    private static final long HALF = 9487L;
+
+    private static final int ROUNDS = 4;
+
     private final UserRepository userRepository;
-    private final Random random = new Random();
-
-    public String generateUniqueClientId() {
-        Set<String> existingIds = userRepository.findAllClientIds();
-        
-        // Empezar con 4 dígitos
-        int digits = 4;
-        int maxAttempts = 100; // Evitar bucle infinito
-        
-        while (digits <= 10) { // Límite razonable
-            int minValue = (int) Math.pow(10, digits - 1);
-            int maxValue = (int) Math.pow(10, digits) - 1;
-            
-            // Si ya no hay números disponibles en esta cantidad de dígitos
-            if (existingIds.size() >= (maxValue - minValue + 1)) {
-                digits++;
-                continue;
+
+    private final ClientIdCounterRepository clientIdCounterRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long[] roundKeys = new long[ROUNDS];
+
+    private long nextValue;
+
+    private long blockEnd;
+
+    public ClientIdService(UserRepository userRepository, ClientIdCounterRepository clientIdCounterRepository, TransactionTemplate transactionTemplate, @Value("${client.id.key:7046029254386353131}") long key) {
+        this.userRepository = userRepository;
+        this.clientIdCounterRepository = clientIdCounterRepository;
+        this.transactionTemplate = transactionTemplate;
+        for (int round = 0; round < ROUNDS; round++) {
+            key = mix(key + round);
+            roundKeys[round] = key;
+        }
+    }
+
+    public synchronized String generateUniqueClientId() {
+        while (true) {
+            if (nextValue >= blockEnd) {
+                reserveBlock();
             }
-            
-            String newId;
-            int attempts = 0;
-            
-            do {
-                int randomNumber = random.nextInt(maxValue - minValue + 1) + minValue;
-                newId = String.valueOf(randomNumber);
-                attempts++;
-                
-                if (attempts > maxAttempts) {
-                    // Si no encuentra un ID libre, pasar al siguiente nivel de dígitos
-                    break;
-                }
-            } while (existingIds.contains(newId));
-            
-            if (attempts <= maxAttempts && !existingIds.contains(newId)) {
-                return newId;
+            String clientId = String.valueOf(FIRST_ID + permute(nextValue++));
+            // LOS IDS ALEATORIOS ANTERIORES (4 A 7 DIGITOS CASI SIEMPRE) PUEDEN OCUPAR ALGUNO: CONSULTA POR INDICE, NO POR TABLA
+            if (!userRepository.existsByClientId(clientId)) {
+                return clientId;
             }
-            
-            digits++;
         }
-        
-        throw new RuntimeException("Unable to generate unique client ID");
     }
-}
\ No newline at end of file
+
+    public long permute(long value) {
+        do {
+            value = feistel(value);
+        } while (value >= ID_SPACE);
+        return value;
+    }
+
+    private void reserveBlock() {
+        Long start;
+        try {
+            start = transactionTemplate.execute(status -> takeBlock());
+        } catch (DataIntegrityViolationException e) {
+            // OTRA INSTANCIA CREO LA FILA DEL CONTADOR AL MISMO TIEMPO, AHORA YA EXISTE
+            start = transactionTemplate.execute(status -> takeBlock());
+        }
+        if (start == null || start + BLOCK_SIZE > ID_SPACE) {
+            throw new RuntimeException("Unable to generate unique client ID");
+        }
+        nextValue = start;
+        blockEnd = start + BLOCK_SIZE;
+    }
+
+    private Long takeBlock() {
+        ClientIdCounter counter = clientIdCounterRepository.findForUpdate(ClientIdCounter.SINGLETON_ID).orElseGet(() -> clientIdCounterRepository.saveAndFlush(new ClientIdCounter(ClientIdCounter.SINGLETON_ID, 0L)));
+        long reserved = counter.getNextValue();
+        counter.setNextValue(reserved + BLOCK_SIZE);
+        clientIdCounterRepository.save(counter);
+        return reserved;
+    }
+
+    private long feistel(long value) {
+        long left = value / HALF;
+        long right = value % HALF;
+        for (int round = 0; round < ROUNDS; round++) {
+            long mixed = (left + Math.floorMod(mix(right ^ roundKeys[round]), HALF)) % HALF;
+            left = right;
+            right = mixed;
+        }
+        return left * HALF + right;
+    }
+
+    // FINALIZADOR DE SPLITMIX64
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
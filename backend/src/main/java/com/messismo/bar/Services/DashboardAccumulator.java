@@ -0,0 +1,232 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Order;
+import com.messismo.bar.Entities.ProductOrder;
+import com.messismo.bar.Entities.SalesRollup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Builds the dashboard series and the four donuts in a single pass over rollup rows or order lines.
+ * Categories are keyed by id; names are only used when the response maps are built.
+ */
+public class DashboardAccumulator<K> {
+
+    private final Function<LocalDateTime, K> bucketOf;
+
+    private final Set<Long> categoryFilter = new HashSet<>();
+
+    private final Map<K, Integer> quantitySeries;
+
+    private final Map<K, Double> earningsSeries;
+
+    private final Map<String, Integer> productQuantities = new HashMap<>();
+
+    private final Map<String, Double> productEarnings = new HashMap<>();
+
+    private final Map<Long, CategoryTotals> categoryTotals = new HashMap<>();
+
+    private DashboardAccumulator(Function<LocalDateTime, K> bucketOf, List<Category> categoryList, Map<K, Integer> quantitySeries, Map<K, Double> earningsSeries) {
+        this.bucketOf = bucketOf;
+        this.quantitySeries = quantitySeries;
+        this.earningsSeries = earningsSeries;
+        if (categoryList != null) {
+            for (Category category : categoryList) {
+                categoryFilter.add(category.getCategoryId());
+            }
+        }
+    }
+
+    public static <K extends Comparable<K>> DashboardAccumulator<K> sorted(Function<LocalDateTime, K> bucketOf, List<Category> categoryList) {
+        return new DashboardAccumulator<>(bucketOf, categoryList, new TreeMap<>(), new TreeMap<>());
+    }
+
+    // PARA ETIQUETAS QUE NO ORDENAN BIEN COMO TEXTO (EJ: dd/MM CRUZANDO DE AÑO)
+    public static <K> DashboardAccumulator<K> inLabelOrder(Function<LocalDateTime, K> bucketOf, List<Category> categoryList) {
+        return new DashboardAccumulator<>(bucketOf, categoryList, new LinkedHashMap<>(), new LinkedHashMap<>());
+    }
+
+    public static DashboardAccumulator<String> donutsOnly() {
+        return inLabelOrder(dateTime -> null, null);
+    }
+
+    public K bucketOf(LocalDateTime dateTime) {
+        return bucketOf.apply(dateTime);
+    }
+
+    public boolean isFiltered() {
+        return !categoryFilter.isEmpty();
+    }
+
+    public boolean matches(Long categoryId) {
+        return categoryFilter.isEmpty() || categoryFilter.contains(categoryId);
+    }
+
+    public void addLabel(K label) {
+        quantitySeries.putIfAbsent(label, 0);
+        earningsSeries.putIfAbsent(label, 0.0);
+    }
+
+    public void addLabels(Collection<K> labels) {
+        labels.forEach(this::addLabel);
+    }
+
+    // CATEGORIAS SIN VENTAS TAMBIEN APARECEN EN EL DONUT DE GANANCIAS
+    public void addCategories(Collection<Category> categories) {
+        for (Category category : categories) {
+            categoryTotals.computeIfAbsent(category.getCategoryId(), id -> new CategoryTotals(category.getName()));
+        }
+    }
+
+    /**
+     * Adds a daily or hourly rollup row. Without a filter the series comes from the order totals, with a filter from the
+     * requested categories; order counts for a filtered series are added separately with {@link #addOrders}.
+     */
+    public void add(SalesRollup rollup) {
+        switch (rollup.getDimension()) {
+            case TOTAL -> {
+                if (!isFiltered()) {
+                    addToSeries(bucketOf.apply(rollup.getBucketStart()), rollup.getOrderCount().intValue(), rollup.getEarnings());
+                }
+            }
+            case CATEGORY -> {
+                if (matches(rollup.getCategoryId())) {
+                    if (isFiltered()) {
+                        addToSeries(bucketOf.apply(rollup.getBucketStart()), 0, rollup.getEarnings());
+                    }
+                    addToCategory(rollup.getCategoryId(), rollup.getCategoryName(), rollup.getQuantity().intValue(), rollup.getEarnings());
+                }
+            }
+            case PRODUCT -> {
+                if (matches(rollup.getCategoryId())) {
+                    addToProduct(rollup.getProductName(), rollup.getQuantity().intValue(), rollup.getEarnings());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an order and its lines. Orders without a date only feed the donuts.
+     */
+    public void add(Order order) {
+        boolean anyMatch = false;
+        double matchingEarnings = 0.0;
+        for (ProductOrder productOrder : order.getProductOrders()) {
+            Category category = productOrder.getCategory();
+            if (!matches(category.getCategoryId())) {
+                continue;
+            }
+            anyMatch = true;
+            double earnings = productOrder.getQuantity() * (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost());
+            matchingEarnings += earnings;
+            addToProduct(productOrder.getProductName(), productOrder.getQuantity(), earnings);
+            addToCategory(category.getCategoryId(), category.getName(), productOrder.getQuantity(), earnings);
+        }
+        if (order.getDateCreated() == null) {
+            return;
+        }
+        K bucket = bucketOf.apply(order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        if (!isFiltered()) {
+            addToSeries(bucket, 1, order.getTotalPrice() - order.getTotalCost());
+        } else if (anyMatch) {
+            addToSeries(bucket, 1, matchingEarnings);
+        }
+    }
+
+    public void addOrders(K label, long orderCount) {
+        addToSeries(label, (int) orderCount, 0.0);
+    }
+
+    public Map<K, Integer> getQuantitySeries() {
+        return quantitySeries;
+    }
+
+    public Map<K, Double> getEarningsSeries() {
+        return earningsSeries;
+    }
+
+    public Map<K, Double> getAverageSeries() {
+        Map<K, Double> averageSeries = quantitySeries instanceof TreeMap ? new TreeMap<>() : new LinkedHashMap<>();
+        for (Map.Entry<K, Double> entry : earningsSeries.entrySet()) {
+            int quantity = quantitySeries.getOrDefault(entry.getKey(), 0);
+            double average = quantity > 0 ? entry.getValue() / quantity : 0.0;
+            averageSeries.put(entry.getKey(), (double) Math.round(average * 100.00) / 100.00);
+        }
+        return averageSeries;
+    }
+
+    public HashMap<String, Integer> getQuantityProductDonut() {
+        return new HashMap<>(productQuantities);
+    }
+
+    public HashMap<String, Double> getEarningProductDonut() {
+        return new HashMap<>(productEarnings);
+    }
+
+    public HashMap<String, Object> getQuantityCategoryDonut() {
+        HashMap<String, Object> donut = new HashMap<>();
+        for (CategoryTotals totals : categoryTotals.values()) {
+            if (totals.sold) {
+                donut.merge(totals.name, totals.quantity, (a, b) -> (Integer) a + (Integer) b);
+            }
+        }
+        return donut;
+    }
+
+    public HashMap<String, Object> getEarningCategoryDonut() {
+        HashMap<String, Object> donut = new HashMap<>();
+        for (CategoryTotals totals : categoryTotals.values()) {
+            donut.merge(totals.name, totals.earnings, (a, b) -> (Double) a + (Double) b);
+        }
+        return donut;
+    }
+
+    public void putSeries(Map<String, Object> response) {
+        response.put("orderByQuantity", getQuantitySeries());
+        response.put("orderByEarnings", getEarningsSeries());
+        response.put("averageByOrder", getAverageSeries());
+    }
+
+    public void putDonuts(Map<String, Object> response) {
+        response.put("quantityProductDonut", getQuantityProductDonut());
+        response.put("earningProductDonut", getEarningProductDonut());
+        response.put("quantityCategoryDonut", getQuantityCategoryDonut());
+        response.put("earningCategoryDonut", getEarningCategoryDonut());
+    }
+
+    private void addToSeries(K bucket, int orders, double earnings) {
+        quantitySeries.merge(bucket, orders, Integer::sum);
+        earningsSeries.merge(bucket, earnings, Double::sum);
+    }
+
+    private void addToProduct(String productName, int quantity, double earnings) {
+        productQuantities.merge(productName, quantity, Integer::sum);
+        productEarnings.merge(productName, earnings, Double::sum);
+    }
+
+    private void addToCategory(Long categoryId, String categoryName, int quantity, double earnings) {
+        CategoryTotals totals = categoryTotals.computeIfAbsent(categoryId, id -> new CategoryTotals(categoryName));
+        totals.quantity += quantity;
+        totals.earnings += earnings;
+        totals.sold = true;
+    }
+
+    private static class CategoryTotals {
+
+        private final String name;
+
+        private int quantity;
+
+        private double earnings;
+
+        private boolean sold;
+
+        private CategoryTotals(String name) {
+            this.name = name;
+        }
+    }
+}
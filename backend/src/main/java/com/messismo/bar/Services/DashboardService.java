@@ -1,18 +1,21 @@
 package com.messismo.bar.Services;
 
 import com.messismo.bar.DTOs.DashboardRequestDTO;
+import com.messismo.bar.DTOs.SalesBucketDTO;
 import com.messismo.bar.Entities.Category;
 import com.messismo.bar.Entities.Order;
-import com.messismo.bar.Entities.ProductOrder;
+import com.messismo.bar.Entities.SalesRollup;
 import com.messismo.bar.Exceptions.InvalidDashboardRequestedDate;
 import com.messismo.bar.Repositories.CategoryRepository;
 import com.messismo.bar.Repositories.OrderRepository;
+import com.messismo.bar.Repositories.SalesRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -25,6 +28,8 @@ public class DashboardService {
 
     private final CategoryRepository categoryRepository;
 
+    private final SalesRollupRepository salesRollupRepository;
+
 
     public HashMap<String, Object>  getDashboardInformation(DashboardRequestDTO dashboardRequestDTO) throws Exception {
         try {
@@ -49,271 +54,111 @@ public class DashboardService {
     }
 
 
-    private List<Order> filterByCategory2(List<Order> allOrders, List<Category> categoryList) {
-        if (categoryList.isEmpty() || categoryList == null) {
-            return allOrders;
-        } else {
-            List<Order> filteredOrders = new ArrayList<>();
-            for (Order order : allOrders) {
-                Order newOrder = Order.builder().status(order.getStatus()).dateCreated(order.getDateCreated()).id(order.getId()).user(order.getUser()).build();
-                List<ProductOrder> productOrderList = new ArrayList<>();
-                double orderPrice = 0.00;
-                double orderCost = 0.00;
-                for (ProductOrder productOrder : order.getProductOrders()) {
-                    if (productOrderHasAnyCategory(categoryList, productOrder.getCategory())) {
-                        orderPrice += (productOrder.getProductUnitPrice() * productOrder.getQuantity());
-                        orderCost += (productOrder.getProductUnitCost() * productOrder.getQuantity());
-                        productOrderList.add(productOrder);
-                    }
-                }
-                if (orderPrice > 0.00 && orderCost > 0.00 && !productOrderList.isEmpty()) {
-                    newOrder.setProductOrders(productOrderList);
-                    newOrder.setTotalPrice(orderPrice);
-                    newOrder.setTotalCost(orderCost);
-                    filteredOrders.add(newOrder);
-                }
-            }
-            return filteredOrders;
-        }
-    }
-
-    private boolean productOrderHasAnyCategory(List<Category> categoryList, Category category) {
-        for (Category category1 : categoryList) {
-            if (Objects.equals(category.getName(), category1.getName())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-
     private HashMap<String, Object> getYearlyInformation(List<Category> categoryList) { // DESDE AÑO INICIAL HASTA AÑO ACTUAL
-        List<Order> allOrderList = orderRepository.findAll();
-        List<Order> filteredOrdersByCategories = filterByCategory2(allOrderList, categoryList);
-        LocalDate minDate = filteredOrdersByCategories.stream().map(order -> order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate()).min(Comparator.naturalOrder()).orElse(LocalDate.now());
-        LocalDate maxDate = filteredOrdersByCategories.stream().map(order -> order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate()).max(Comparator.naturalOrder()).orElse(LocalDate.now());
+        DashboardAccumulator<Integer> accumulator = DashboardAccumulator.sorted(LocalDateTime::getYear, categoryList);
+        accumulator.addCategories(categoryRepository.findAll());
+        salesRollupRepository.sumDailyByYear().forEach(accumulator::add);
+        Set<Integer> yearsWithSales = accumulator.getEarningsSeries().keySet();
+        int firstYear = yearsWithSales.isEmpty() ? LocalDate.now().getYear() : Collections.min(yearsWithSales);
+        int lastYear = yearsWithSales.isEmpty() ? LocalDate.now().getYear() : Collections.max(yearsWithSales);
         List<Integer> years = new ArrayList<>();
-        LocalDate currentDate = minDate;
-        while (!currentDate.isAfter(maxDate)) {
-            years.add(currentDate.getYear());
-            currentDate = currentDate.plusYears(1);
+        for (int year = firstYear; year <= lastYear; year++) {
+            years.add(year);
         }
-        TreeMap<Integer, Integer> ordersByYearQuantity = new TreeMap<>();
-        TreeMap<Integer, Double> ordersByYearEarnings = new TreeMap<>();
-        TreeMap<Integer, Double> averageByOrder = new TreeMap<>();
-        for (Integer year : years) {
-            ordersByYearQuantity.put(year, 0);
-            ordersByYearEarnings.put(year, 0.0);
-        }
-        for (Order order : filteredOrdersByCategories) {
-            LocalDate orderDate = order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            int year = orderDate.getYear();
-            ordersByYearQuantity.put(year, ordersByYearQuantity.get(year) + 1);
-            double earnings = ordersByYearEarnings.get(year) + (order.getTotalPrice() - order.getTotalCost());
-            ordersByYearEarnings.put(year, earnings);
-        }
-        for (Integer year : years) {
-            int quantity = ordersByYearQuantity.get(year);
-            double earnings = ordersByYearEarnings.get(year);
-            double average = quantity > 0 ? earnings / quantity : 0.0;
-            average = (double) Math.round(average * 100.00) / 100.00;
-            averageByOrder.put(year, average);
+        accumulator.addLabels(years);
+        if (accumulator.isFiltered()) {
+            for (SalesBucketDTO bucket : orderCountsWithAnyCategory(categoryList, LocalDate.of(firstYear, 1, 1), LocalDate.of(lastYear + 1, 1, 1))) {
+                accumulator.addOrders(bucket.getYear(), bucket.getOrderCount());
+            }
         }
         HashMap<String, Object> response = new HashMap<>();
-        response.put("orderByQuantity", ordersByYearQuantity);
-        response.put("orderByEarnings", ordersByYearEarnings);
-        response.put("averageByOrder", averageByOrder);
-        response.put("quantityProductDonut", getQuantityProductDonut(filteredOrdersByCategories));
-        response.put("earningProductDonut", getEarningProductDonut(filteredOrdersByCategories));
-        response.put("quantityCategoryDonut", getQuantityCategoryDonut(filteredOrdersByCategories));
-        response.put("earningCategoryDonut", getEarningCategoryDonut(filteredOrdersByCategories));
+        accumulator.putSeries(response);
+        accumulator.putDonuts(response);
         response.put("labels", new ArrayList<>(years));
         return response;
     }
 
     public HashMap<String, Object> getDailyInformation(String dateRequested, List<Category> categoryList) { // ESE MES DESDE DIA 1 HASTA UN MES MAS
-        List<Order> allOrderList = orderRepository.findAll();
-        List<Order> filteredOrdersByCategories = filterByCategory2(allOrderList, categoryList);
-        List<Order> filteredOrders = new ArrayList<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("dd");
         LocalDate requestedDate = LocalDate.parse(dateRequested + "-01", formatter);
-        int year = requestedDate.getYear();
-        int month = requestedDate.getMonthValue();
-        int lastDayOfMonth = requestedDate.lengthOfMonth();
-        TreeMap<String, Integer> orderByDayQuantity = new TreeMap<>();
-        TreeMap<String, Double> orderByDayEarnings = new TreeMap<>();
-        TreeMap<String, Double> averageByOrder = new TreeMap<>();
-        for (int day = 1; day <= lastDayOfMonth; day++) {
-            LocalDate currentDate = LocalDate.of(year, month, day);
-            String formattedDate = currentDate.format(DateTimeFormatter.ofPattern("dd"));
-            orderByDayQuantity.put(formattedDate, 0);
-            orderByDayEarnings.put(formattedDate, 0.0);
-        }
-        for (Order order : filteredOrdersByCategories) {
-            LocalDate orderDate = order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            if (orderDate.getYear() == year && orderDate.getMonthValue() == month) {
-                filteredOrders.add(order);
-                String formattedDate = orderDate.format(DateTimeFormatter.ofPattern("dd"));
-                orderByDayQuantity.put(formattedDate, orderByDayQuantity.get(formattedDate) + 1);
-                double currentEarnings = orderByDayEarnings.get(formattedDate) + (order.getTotalPrice() - order.getTotalCost());
-                orderByDayEarnings.put(formattedDate, currentEarnings);
-            }
-        }
-        for (String day : orderByDayEarnings.keySet()) {
-            double earnings = orderByDayEarnings.get(day);
-            int quantity = orderByDayQuantity.get(day);
-            double average = quantity > 0 ? earnings / quantity : 0.0;
-            average = (double) Math.round(average * 100.00) / 100.00;
-            averageByOrder.put(day, average);
-        }
-        HashMap<String, Object> result = new HashMap<>();
-        result.put("orderByEarnings", orderByDayEarnings);
-        result.put("orderByQuantity", orderByDayQuantity);
-        result.put("averageByOrder", averageByOrder);
-        result.put("quantityProductDonut", getQuantityProductDonut(filteredOrders));
-        result.put("earningProductDonut", getEarningProductDonut(filteredOrders));
-        result.put("quantityCategoryDonut", getQuantityCategoryDonut(filteredOrders));
-        result.put("earningCategoryDonut", getEarningCategoryDonut(filteredOrders));
-        result.put("labels", new ArrayList<>(orderByDayEarnings.keySet()));
+        LocalDate endDate = requestedDate.plusMonths(1);
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.sorted(dateTime -> dateTime.format(dayFormatter), categoryList);
+        HashMap<String, Object> result = getRangeInformation(accumulator, requestedDate, endDate, categoryList);
+        result.put("labels", new ArrayList<>(accumulator.getEarningsSeries().keySet()));
         return result;
     }
 
     public HashMap<String, Object> getWeeklyInformation(String dateRequested, List<Category> categoryList) { // ESE DIA HASTA UNA SEMANA MAS
-        List<Order> filteredOrders = new ArrayList<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("dd/MM");
         LocalDate requestedDate = LocalDate.parse(dateRequested, formatter);
-        LocalDate endDate = requestedDate.plusDays(6);
-        Map<String, Integer> orderByDateQuantity = new LinkedHashMap<>();
-        Map<String, Double> orderByDateEarnings = new LinkedHashMap<>();
-        Map<String, Double> averageByOrder = new LinkedHashMap<>();
-        LocalDate currentDate = requestedDate;
-        while (!currentDate.isAfter(endDate)) {
-            String formattedDate = currentDate.format(DateTimeFormatter.ofPattern("dd/MM"));
-            orderByDateQuantity.put(formattedDate, 0);
-            orderByDateEarnings.put(formattedDate, 0.0);
-            currentDate = currentDate.plusDays(1);
-        }
-        List<Order> allOrderList = orderRepository.findAll();
-        List<Order> filteredOrdersByCategories = filterByCategory2(allOrderList, categoryList);
-        for (Order order : filteredOrdersByCategories) {
-            LocalDate orderDate = order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            if (!orderDate.isBefore(requestedDate) && !orderDate.isAfter(endDate)) {
-                filteredOrders.add(order);
-                String formattedDate = orderDate.format(DateTimeFormatter.ofPattern("dd/MM"));
-                orderByDateQuantity.put(formattedDate, orderByDateQuantity.get(formattedDate) + 1);
-                double currentEarnings = orderByDateEarnings.get(formattedDate) + (order.getTotalPrice() - order.getTotalCost());
-                orderByDateEarnings.put(formattedDate, currentEarnings);
-            }
-        }
-        for (String day : orderByDateEarnings.keySet()) {
-            double earnings = orderByDateEarnings.get(day);
-            int quantity = orderByDateQuantity.get(day);
-            double average = quantity > 0 ? earnings / quantity : 0.0;
-            average = (double) Math.round(average * 100.00) / 100.00;
-            averageByOrder.put(day, average);
-        }
-        HashMap<String, Object> result = new HashMap<>();
-        result.put("orderByEarnings", orderByDateEarnings);
-        result.put("orderByQuantity", orderByDateQuantity);
-        result.put("averageByOrder", averageByOrder);
-        result.put("quantityProductDonut", getQuantityProductDonut(filteredOrders));
-        result.put("earningProductDonut", getEarningProductDonut(filteredOrders));
-        result.put("quantityCategoryDonut", getQuantityCategoryDonut(filteredOrders));
-        result.put("earningCategoryDonut", getEarningCategoryDonut(filteredOrders));
-        result.put("labels", new ArrayList<>(orderByDateEarnings.keySet()));
+        LocalDate endDate = requestedDate.plusDays(7);
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.inLabelOrder(dateTime -> dateTime.format(dayFormatter), categoryList);
+        HashMap<String, Object> result = getRangeInformation(accumulator, requestedDate, endDate, categoryList);
+        result.put("labels", new ArrayList<>(accumulator.getEarningsSeries().keySet()));
         return result;
     }
 
     public HashMap<String, Object> getMonthlyInformation(String yearRequested, List<Category> categoryList) { // ESE AÑO HASTA UN AÑO MAS
-        List<Order> filteredOrders = new ArrayList<>();
-        List<Order> allOrderList = orderRepository.findAll();
-        List<Order> filteredOrdersByCategories = filterByCategory2(allOrderList, categoryList);
         List<String> labels = List.of("01", "02", "03", "04", "05", "06", "07", "08", "09", "10", "11", "12");
         int year = Integer.parseInt(yearRequested);
         LocalDate startDate = LocalDate.of(year, 1, 1);
         LocalDate endDate = LocalDate.of(year + 1, 1, 1);
-        TreeMap<String, Integer> ordersByMonthQuantity = new TreeMap<>();
-        TreeMap<String, Double> ordersByMonthEarnings = new TreeMap<>();
-        TreeMap<String, Double> averageByOrder = new TreeMap<>();
-        for (String label : labels) {
-            ordersByMonthQuantity.put(label, 0);
-            ordersByMonthEarnings.put(label, 0.00);
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.sorted(dateTime -> String.format("%02d", dateTime.getMonthValue()), categoryList);
+        HashMap<String, Object> response = getRangeInformation(accumulator, startDate, endDate, categoryList);
+        response.put("labels", labels);
+        return response;
+    }
+
+    // UNA SOLA PASADA SOBRE LOS ROLLUPS DIARIOS DEL RANGO [startDate, endDate)
+    private HashMap<String, Object> getRangeInformation(DashboardAccumulator<String> accumulator, LocalDate startDate, LocalDate endDate, List<Category> categoryList) {
+        for (LocalDate currentDate = startDate; currentDate.isBefore(endDate); currentDate = currentDate.plusDays(1)) {
+            accumulator.addLabel(accumulator.bucketOf(currentDate.atStartOfDay()));
         }
-        for (Order order : filteredOrdersByCategories) {
-            LocalDate orderDate = order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            if (orderDate.isAfter(startDate) && orderDate.isBefore(endDate)) {
-                filteredOrders.add(order);
-                String month = String.format("%02d", orderDate.getMonthValue());
-                ordersByMonthQuantity.put(month, ordersByMonthQuantity.get(month) + 1);
-                ordersByMonthEarnings.put(month, ordersByMonthEarnings.get(month) + (order.getTotalPrice() - order.getTotalCost()));
+        accumulator.addCategories(categoryRepository.findAll());
+        salesRollupRepository.findBetween(SalesRollup.Granularity.DAY, startDate.atStartOfDay(), endDate.atStartOfDay()).forEach(accumulator::add);
+        if (accumulator.isFiltered()) {
+            for (SalesBucketDTO bucket : orderCountsWithAnyCategory(categoryList, startDate, endDate)) {
+                accumulator.addOrders(accumulator.bucketOf(bucket.getDate().atStartOfDay()), bucket.getOrderCount());
             }
         }
-        for (String month : labels) {
-            int quantity = ordersByMonthQuantity.get(month);
-            double earnings = ordersByMonthEarnings.get(month);
-            double average = quantity > 0 ? earnings / quantity : 0.0;
-            average = (double) Math.round(average * 100.00) / 100.00;
-            averageByOrder.put(month, average);
-        }
         HashMap<String, Object> response = new HashMap<>();
-        response.put("orderByQuantity", ordersByMonthQuantity);
-        response.put("orderByEarnings", ordersByMonthEarnings);
-        response.put("averageByOrder", averageByOrder);
-        response.put("quantityProductDonut", getQuantityProductDonut(filteredOrders));
-        response.put("earningProductDonut", getEarningProductDonut(filteredOrders));
-        response.put("quantityCategoryDonut", getQuantityCategoryDonut(filteredOrders));
-        response.put("earningCategoryDonut", getEarningCategoryDonut(filteredOrders));
-        response.put("labels", labels);
+        accumulator.putSeries(response);
+        accumulator.putDonuts(response);
         return response;
     }
 
+    // UNA ORDEN CON VARIAS CATEGORIAS PEDIDAS SE CUENTA UNA SOLA VEZ
+    private List<SalesBucketDTO> orderCountsWithAnyCategory(List<Category> categoryList, LocalDate startDate, LocalDate endDate) {
+        Date start = Date.from(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date end = Date.from(endDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        List<Long> categoryIds = categoryList.stream().map(Category::getCategoryId).toList();
+        return orderRepository.countOrdersWithAnyCategoryByDayBetween(start, end, categoryIds);
+    }
+
     public HashMap<String, Object> getEarningCategoryDonut(List<Order> orders) {
-        HashMap<String, Object> categoryEarningsMap = new HashMap<>();
-        List<Category> categories = categoryRepository.findAll();
-        for (Category category : categories) {
-            String categoryName = category.getName();
-            double categoryEarnings = 0.0;
-            for (Order order : orders) {
-                for (ProductOrder productOrder : order.getProductOrders()) {
-                    if (productOrder.getCategory().equals(category)) {
-                        categoryEarnings += productOrder.getQuantity() * (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost());
-                    }
-                }
-            }
-            categoryEarningsMap.put(categoryName, categoryEarnings);
-        }
-        return categoryEarningsMap;
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.donutsOnly();
+        accumulator.addCategories(categoryRepository.findAll());
+        orders.forEach(accumulator::add);
+        return accumulator.getEarningCategoryDonut();
     }
 
     public HashMap<String, Object> getQuantityCategoryDonut(List<Order> orders) {
-        HashMap<String, Integer> categorySalesMap = new HashMap<>();
-        for (Order order : orders) {
-            for (ProductOrder productOrder : order.getProductOrders()) {
-                Category category = productOrder.getCategory();
-                categorySalesMap.put(category.getName(), categorySalesMap.getOrDefault(category.getName(), 0) + productOrder.getQuantity());
-            }
-        }
-        return new HashMap<>(categorySalesMap);
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.donutsOnly();
+        orders.forEach(accumulator::add);
+        return accumulator.getQuantityCategoryDonut();
     }
 
     public HashMap<String, Double> getEarningProductDonut(List<Order> orders) {
-        HashMap<String, Double> productProfitsMap = new HashMap<>();
-        for (Order order : orders) {
-            for (ProductOrder productOrder : order.getProductOrders()) {
-                double productProfit = (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost()) * productOrder.getQuantity();
-                productProfitsMap.put(productOrder.getProductName(), productProfitsMap.getOrDefault(productOrder.getProductName(), 0.0) + productProfit);
-            }
-        }
-        return productProfitsMap;
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.donutsOnly();
+        orders.forEach(accumulator::add);
+        return accumulator.getEarningProductDonut();
     }
 
     public HashMap<String, Integer> getQuantityProductDonut(List<Order> orders) {
-        HashMap<String, Integer> productSalesMap = new HashMap<>();
-        for (Order order : orders) {
-            for (ProductOrder productOrder : order.getProductOrders()) {
-                productSalesMap.put(productOrder.getProductName(), productSalesMap.getOrDefault(productOrder.getProductName(), 0) + productOrder.getQuantity());
-            }
-        }
-        return productSalesMap;
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.donutsOnly();
+        orders.forEach(accumulator::add);
+        return accumulator.getQuantityProductDonut();
     }
 }
@@ -0,0 +1,101 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.Entities.Goal;
+import com.messismo.bar.Entities.Order;
+import com.messismo.bar.Entities.ProductOrder;
+import com.messismo.bar.Repositories.GoalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@RequiredArgsConstructor
+@Log
+public class GoalProgressService {
+
+    private final GoalRepository goalRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // ARRANCA EN true: UN INCREMENTO PUDO PERDERSE SI LA INSTANCIA ANTERIOR SE CAYO ENTRE LA ORDEN Y EL AVANCE
+    private final AtomicBoolean repairRequested = new AtomicBoolean(true);
+
+    /**
+     * Advances the goals whose window contains the order date with the earnings of a freshly created order.
+     */
+    public void recordNewOrder(Order order) {
+        apply(order.getDateCreated(), order.getProductOrders(), order.getTotalPrice() - order.getTotalCost());
+    }
+
+    /**
+     * Advances the goals with the lines appended to an existing order.
+     */
+    public void recordAddedProductOrders(Order order, List<ProductOrder> addedProductOrders, Double addedPrice, Double addedCost) {
+        apply(order.getDateCreated(), addedProductOrders, addedPrice - addedCost);
+    }
+
+    /**
+     * Moves Total goals when the final price changes after creation (e.g. a benefit discount on close).
+     */
+    public void recordPriceAdjustment(Order order, double priceDelta) {
+        if (priceDelta == 0.00) {
+            return;
+        }
+        apply(order.getDateCreated(), List.of(), priceDelta);
+    }
+
+    /**
+     * Returns whether an increment was lost since the last call, and clears the request. {@link GoalService#repairGoals}
+     * polls it and recomputes the progress from the orders when it is set.
+     */
+    public boolean takeRepairRequest() {
+        return repairRequested.getAndSet(false);
+    }
+
+    public void requestRepair() {
+        repairRequested.set(true);
+    }
+
+    public static double earningsFor(Goal goal, List<ProductOrder> productOrders, double totalEarnings) {
+        double earnings = 0.00;
+        if (Objects.equals(goal.getObjectType(), "Total")) {
+            earnings = totalEarnings;
+        } else if (Objects.equals(goal.getObjectType(), "Product")) {
+            for (ProductOrder productOrder : productOrders) {
+                if (Objects.equals(productOrder.getProductName(), goal.getGoalObject())) {
+                    earnings += (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost()) * productOrder.getQuantity();
+                }
+            }
+        } else if (Objects.equals(goal.getObjectType(), "Category")) {
+            for (ProductOrder productOrder : productOrders) {
+                if (Objects.equals(productOrder.getCategory().getName(), goal.getGoalObject())) {
+                    earnings += (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost()) * productOrder.getQuantity();
+                }
+            }
+        }
+        return earnings;
+    }
+
+    private void apply(Date dateCreated, List<ProductOrder> productOrders, double totalEarnings) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Goal goal : goalRepository.findContaining(dateCreated)) {
+                    double earnings = earningsFor(goal, productOrders, totalEarnings);
+                    if (earnings != 0.00) {
+                        goalRepository.addProgress(goal.getGoalId(), earnings);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // LA ORDEN YA ESTA GUARDADA, GoalService.repairGoals RECALCULA EL PROGRESO COMPLETO EN LA PROXIMA PASADA
+            requestRepair();
+            log.warning("Goal progress could not be updated, a repair was requested: " + e.getMessage());
+        }
+    }
+}
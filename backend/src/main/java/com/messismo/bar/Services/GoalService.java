@@ -8,8 +8,10 @@ import com.messismo.bar.Entities.*;
 import com.messismo.bar.Exceptions.*;
 import com.messismo.bar.Repositories.GoalRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -20,6 +22,7 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Log
 public class GoalService {
 
     private final GoalRepository goalRepository;
@@ -30,13 +33,15 @@ public class GoalService {
 
     private final CategoryService categoryService;
 
+    private final GoalProgressService goalProgressService;
+
 
     public String addGoal(GoalDTO goalDTO) throws Exception {
         try {
             if (goalDTO.getStartingDate().after(goalDTO.getEndingDate())) {
                 throw new EndingDateMustBeAfterStartingDateException("Ending date must be after Starting date");
             }
-            List<Goal> goalList = updateGoals();
+            List<Goal> goalList = goalRepository.findAll();
             for (Goal goal : goalList) {
                 if ((goalDTO.getStartingDate().after(goal.getStartingDate()) && goalDTO.getStartingDate().before(goal.getEndingDate())) || (goalDTO.getEndingDate().after(goal.getStartingDate()) && goalDTO.getEndingDate().before(goal.getEndingDate())) || (goalDTO.getStartingDate().equals(goal.getStartingDate()) || goalDTO.getStartingDate().equals(goal.getEndingDate())) || (goalDTO.getEndingDate().equals(goal.getStartingDate()) || goalDTO.getEndingDate().equals(goal.getEndingDate()))) {
                     throw new ProvidedDatesMustNotCollideWithOtherDatesException("Ending date and Starting date must not collide with another goal dates");
@@ -48,8 +53,13 @@ public class GoalService {
                 Category category = categoryService.getCategoryByName(goalDTO.getGoalObject());
             }
             Goal newGoal = Goal.builder().name(goalDTO.getName()).startingDate(goalDTO.getStartingDate()).endingDate(goalDTO.getEndingDate()).objectType(goalDTO.getObjectType()).goalObject(goalDTO.getGoalObject()).goalObjective(goalDTO.getGoalObjective()).currentGoal(0.00).status("Upcoming").achieved("Not Achieved").build();
+            // LAS ORDENES YA EXISTENTES EN LA VENTANA SE CUENTAN UNA SOLA VEZ, LAS NUEVAS LAS SUMA GoalProgressService
+            if (newGoal.getStartingDate().before(new Date())) {
+                updateProgress(newGoal);
+            }
             goalRepository.save(newGoal);
-            updateGoals();
+            // UNA ORDEN CONFIRMADA ENTRE EL CALCULO Y EL SAVE NO LA VE NINGUNO DE LOS DOS, LA CORRIGE repairGoals
+            goalProgressService.requestRepair();
             return "Goal created successfully";
         } catch (ProvidedDatesMustNotCollideWithOtherDatesException | ProductNotFoundException | CategoryNotFoundException | EndingDateMustBeAfterStartingDateException e) {
             throw e;
@@ -60,7 +70,7 @@ public class GoalService {
 
     public List<Goal> getGoals(GoalFilterRequestDTO goalFilterRequestDTO) throws Exception {
         try {
-            List<Goal> allGoals = updateGoals();
+            List<Goal> allGoals = goalRepository.findAll();
             return allGoals.stream().filter(goal -> goalFilterRequestDTO.getStatus().isEmpty() || goalFilterRequestDTO.getStatus().contains(goal.getStatus())).filter(goal -> goalFilterRequestDTO.getAchieved().isEmpty() || goalFilterRequestDTO.getAchieved().contains(goal.getAchieved())).collect(Collectors.toList());
         } catch (Exception e) {
             throw new Exception("CANNOT get goals at the moment");
@@ -69,7 +79,6 @@ public class GoalService {
 
     public String deleteGoal(GoalDeleteDTO goalDeleteDTO) throws Exception {
         try {
-            updateGoals();
             Goal goal = goalRepository.findByGoalId(goalDeleteDTO.getGoalId()).orElseThrow(() -> new GoalIdNotFoundException("GoalId DOES NOT match any goalId"));
             if (Objects.equals(goal.getStatus(), "In Process")) {
                 throw new GoalInProcessCannotBeDeletedException("Goal is in process, it cannot be deleted");
@@ -86,12 +95,14 @@ public class GoalService {
 
     public String modifyGoal(GoalModifyDTO goalModifyDTO) throws Exception {
         try {
-            updateGoals();
             Goal goal = goalRepository.findByGoalId(goalModifyDTO.getGoalId()).orElseThrow(() -> new GoalIdNotFoundException("GoalId DOES NOT match any goalId"));
             if (Objects.equals(goal.getStatus(), "Expired")) {
                 throw new GoalExpiredCannotBeModifiedException("Goal is expired, it cannot be modified");
             } else {
                 goal.setGoalObjective(goalModifyDTO.getNewGoalObjective());
+                if (goal.getCurrentGoal() != null && goal.getCurrentGoal() >= goal.getGoalObjective()) {
+                    goal.setAchieved("Achieved");
+                }
                 goalRepository.save(goal);
                 return "Goal modify successfully";
             }
@@ -102,57 +113,59 @@ public class GoalService {
         }
     }
 
+    /**
+     * Recomputes the progress of every running or not yet achieved goal from the orders. Progress is normally kept up to
+     * date by {@link GoalProgressService}; this is only needed to repair it, and only changed goals are written.
+     */
     public List<Goal> updateGoals() {
-        Date actualDate = new Date();
         List<Goal> allGoals = goalRepository.findAll();
         for (Goal goal : allGoals) {
-            if (actualDate.after(goal.getStartingDate()) && actualDate.before(goal.getEndingDate())) {
-                goal.setStatus("In Process");
-            } else if (actualDate.before(goal.getStartingDate())) {
-                goal.setStatus("Upcoming");
-            } else if (actualDate.after(goal.getEndingDate())) {
-                goal.setStatus("Expired");
-            }
-            goalRepository.save(goal);
-        }
-        for (Goal goal : allGoals) {
-            double earnings = 0.00;
-            if ((Objects.equals(goal.getStatus(), "In Process")) || (Objects.equals(goal.getStatus(), "Expired") && Objects.equals(goal.getAchieved(), "Not Achieved"))) {
-                earnings = goalAchieved(goal);
-                if (earnings >= goal.getGoalObjective()) {
-                    goal.setAchieved("Achieved");
+            String status = goal.getStatus();
+            if ((Objects.equals(status, "In Process")) || (Objects.equals(status, "Expired") && Objects.equals(goal.getAchieved(), "Not Achieved"))) {
+                Double previousGoal = goal.getCurrentGoal();
+                String previousAchieved = goal.getAchieved();
+                updateProgress(goal);
+                if (!Objects.equals(previousGoal, goal.getCurrentGoal()) || !Objects.equals(previousAchieved, goal.getAchieved())) {
+                    goalRepository.save(goal);
                 }
-                goal.setCurrentGoal(earnings);
-                goalRepository.save(goal);
             }
         }
-        return goalRepository.findAll();
+        return allGoals;
+    }
+
+    /**
+     * Runs {@link #updateGoals} after startup and whenever {@link GoalProgressService} dropped an increment, so a lost
+     * update is corrected on the next pass instead of staying in the goal for good.
+     */
+    @Scheduled(fixedDelayString = "${goals.repair.interval:60000}", initialDelayString = "${goals.repair.interval:60000}")
+    public void repairGoals() {
+        if (!goalProgressService.takeRepairRequest()) {
+            return;
+        }
+        try {
+            updateGoals();
+        } catch (RuntimeException e) {
+            // SE REINTENTA EN LA PROXIMA PASADA
+            goalProgressService.requestRepair();
+            log.warning("Goal progress could not be repaired: " + e.getMessage());
+        }
+    }
+
+    private void updateProgress(Goal goal) {
+        double earnings = goalAchieved(goal);
+        if (earnings >= goal.getGoalObjective()) {
+            goal.setAchieved("Achieved");
+        }
+        goal.setCurrentGoal(earnings);
     }
 
 
     public Double goalAchieved(Goal goal) {
         List<Order> orderList = orderService.getAllOrdersBetweenTwoDates(goal.getStartingDate(), goal.getEndingDate());
+        boolean total = Objects.equals(goal.getObjectType(), "Total");
         double earnings = 0.00;
-        if (Objects.equals(goal.getObjectType(), "Total")) {
-            for (Order order : orderList) {
-                earnings += (order.getTotalPrice() - order.getTotalCost());
-            }
-        } else if (Objects.equals(goal.getObjectType(), "Product")) {
-            for (Order order : orderList) {
-                for (ProductOrder productOrder : order.getProductOrders()) {
-                    if (Objects.equals(productOrder.getProductName(), goal.getGoalObject())) {
-                        earnings += (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost()) * productOrder.getQuantity();
-                    }
-                }
-            }
-        } else if (Objects.equals(goal.getObjectType(), "Category")) {
-            for (Order order : orderList) {
-                for (ProductOrder productOrder : order.getProductOrders()) {
-                    if (Objects.equals(productOrder.getCategory().getName(), goal.getGoalObject())) {
-                        earnings += (productOrder.getProductUnitPrice() - productOrder.getProductUnitCost()) * productOrder.getQuantity();
-                    }
-                }
-            }
+        for (Order order : orderList) {
+            earnings += GoalProgressService.earningsFor(goal, order.getProductOrders(), total ? order.getTotalPrice() - order.getTotalCost() : 0.00);
         }
         return earnings;
     }
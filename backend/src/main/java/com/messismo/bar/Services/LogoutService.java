@@ -15,6 +15,8 @@ public class LogoutService implements LogoutHandler {
 
     private final TokenRepository tokenRepository;
 
+    private final TokenRevocationService tokenRevocationService;
+
     @Override
     public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
         final String authHeader = request.getHeader("Authorization");
@@ -27,6 +29,7 @@ public class LogoutService implements LogoutHandler {
         if (storedToken != null) {
             storedToken.removeValidation();
             tokenRepository.save(storedToken);
+            tokenRevocationService.revoke(jwt);
             SecurityContextHolder.clearContext();
         }
     }
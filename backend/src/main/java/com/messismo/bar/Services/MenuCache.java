@@ -0,0 +1,100 @@
+package com.messismo.bar.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.messismo.bar.DTOs.ProductClientViewDTO;
+import com.messismo.bar.Repositories.CategoryRepository;
+import com.messismo.bar.Repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Product and category listings already serialized, for the endpoints hit by every client phone and POS terminal. Each
+ * listing is rebuilt on the first read after a write through ProductService, CategoryService or an order taking stock,
+ * and at least every {@link #TIME_TO_LIVE_MILLIS} so writes from other instances show up.
+ */
+@Service
+@RequiredArgsConstructor
+public class MenuCache {
+
+    public static final long TIME_TO_LIVE_MILLIS = 30000;
+
+    private final ProductRepository productRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final ObjectMapper objectMapper;
+
+    // NOMBRES, PRECIOS, COSTOS Y CATEGORIAS
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    // SOLO STOCK, LO VE UNICAMENTE EL LISTADO DE EMPLEADOS
+    private final AtomicLong stockVersion = new AtomicLong();
+
+    private final AtomicReference<Snapshot> clientMenu = new AtomicReference<>();
+
+    private final AtomicReference<Snapshot> products = new AtomicReference<>();
+
+    private final AtomicReference<Snapshot> categories = new AtomicReference<>();
+
+    public Snapshot getClientMenu() {
+        return current(clientMenu, catalogVersion.get(), () -> productRepository.findAll().stream()
+                .map(product -> ProductClientViewDTO.builder()
+                        .productId(product.getProductId())
+                        .name(product.getName())
+                        .description(product.getDescription())
+                        .unitPrice(product.getUnitPrice())
+                        .category(product.getCategory().getName())
+                        .build())
+                .toList());
+    }
+
+    public Snapshot getProducts() {
+        // LAS DOS VERSIONES SOLO CRECEN, LA SUMA CAMBIA CON CUALQUIERA DE ELLAS
+        return current(products, catalogVersion.get() + stockVersion.get(), productRepository::findAll);
+    }
+
+    public Snapshot getCategories() {
+        return current(categories, catalogVersion.get(), categoryRepository::findAll);
+    }
+
+    public void invalidateCatalog() {
+        catalogVersion.incrementAndGet();
+    }
+
+    public void invalidateStock() {
+        stockVersion.incrementAndGet();
+    }
+
+    private Snapshot current(AtomicReference<Snapshot> holder, long version, Supplier<List<?>> loader) {
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = holder.get();
+        if (snapshot != null && snapshot.version() == version && now - snapshot.builtAt() < TIME_TO_LIVE_MILLIS) {
+            return snapshot;
+        }
+        // LA VERSION SE LEE ANTES DE CONSULTAR, UNA ESCRITURA DURANTE LA CARGA DEJA ESTA COPIA VENCIDA
+        List<?> rows = List.copyOf(loader.get());
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(rows);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Snapshot built = new Snapshot(version, now, rows, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        holder.set(built);
+        return built;
+    }
+
+    /**
+     * One listing as it was read. The ETag is a hash of the JSON, so it only changes when the content does.
+     */
+    public record Snapshot(long version, long builtAt, List<?> rows, byte[] json, String etag) {
+    }
+}
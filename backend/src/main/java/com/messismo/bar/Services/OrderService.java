@@ -5,14 +5,27 @@ import com.messismo.bar.Entities.*;
 import com.messismo.bar.Exceptions.*;
 import com.messismo.bar.Repositories.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    public static final int ORDER_PAGE_SIZE = 500;
+
+    public static final int DEFAULT_ORDER_PAGE_SIZE = 50;
+
+    private static final int MAX_STOCK_ATTEMPTS = 3;
+
+    // 9999-12-31, PARA FILTROS SIN FECHA DE FIN
+    private static final Date NO_ENDING_DATE = new Date(253402214400000L);
+
     private final OrderRepository orderRepository;
 
     private final ProductRepository productRepository;
@@ -27,6 +40,14 @@ public class OrderService {
     
     private final BenefitRepository benefitRepository;
 
+    private final SalesRollupService salesRollupService;
+
+    private final GoalProgressService goalProgressService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MenuCache menuCache;
+
     public String addNewOrder(OrderRequestDTO orderRequestDTO) throws Exception {
         try {
             User employee = userRepository.findByEmail(orderRequestDTO.getRegisteredEmployeeEmail()).orElseThrow(() -> new UserNotFoundException("No user has that email"));
@@ -37,11 +58,17 @@ public class OrderService {
                     .orElseThrow(() -> new ClientIdNotFoundException("Client ID " + orderRequestDTO.getClientId() + " not found"));
             }
             
-            NewProductOrderListDTO newProductOrderListDTO = createProductOrder(orderRequestDTO.getProductOrders());
-            Order newOrder = new Order(employee, orderRequestDTO.getDateCreated(), newProductOrderListDTO.getProductOrderList(), newProductOrderListDTO.getTotalPrice(), newProductOrderListDTO.getTotalCost(), orderRequestDTO.getClientId());
-            orderRepository.save(newOrder);
+            // EL STOCK Y LA ORDEN SE CONFIRMAN JUNTOS, SI LA ORDEN NO SE GUARDA EL STOCK VUELVE
+            Order[] saved = new Order[1];
+            createProductOrder(orderRequestDTO.getProductOrders(), newProductOrderListDTO -> {
+                saved[0] = new Order(employee, orderRequestDTO.getDateCreated(), newProductOrderListDTO.getProductOrderList(), newProductOrderListDTO.getTotalPrice(), newProductOrderListDTO.getTotalCost(), orderRequestDTO.getClientId());
+                orderRepository.save(saved[0]);
+            });
+            Order newOrder = saved[0];
+            salesRollupService.recordNewOrder(newOrder);
+            goalProgressService.recordNewOrder(newOrder);
             return "Order created successfully";
-        } catch (UserNotFoundException | ProductQuantityBelowAvailableStock | ClientIdNotFoundException e) {
+        } catch (UserNotFoundException | ProductQuantityBelowAvailableStock | ProductNotFoundException | ClientIdNotFoundException e) {
             throw e;
         } catch (Exception e) {
             throw new Exception("CANNOT create an order at the moment");
@@ -83,30 +110,25 @@ public class OrderService {
                 appliedBenefit = benefitRepository.findById(closeOrderDTO.getBenefitId())
                     .orElseThrow(() -> new RuntimeException("Benefit not found"));
                 
-                // Validar que el cliente tenga suficientes puntos
-                Double clientPoints = pointsService.getPointsAccount(String.valueOf(client.getClientId()))
-                    .map(account -> account.getCurrentBalance())
-                    .orElse(0.0);
-                    
-                if (clientPoints < appliedBenefit.getPointsRequired()) {
-                    throw new RuntimeException("Insufficient points for this benefit");
-                }
+                // El saldo suficiente lo valida pointsService.applyOrderPoints al descontar
                 
                 // Validar que el beneficio aplique para el día actual
-                String currentDay = java.time.LocalDate.now().getDayOfWeek().name();
-                if (!appliedBenefit.isApplicableOnDay(currentDay)) {
+                java.time.DayOfWeek currentDay = java.time.LocalDate.now().getDayOfWeek();
+                if (!appliedBenefit.isApplicableOnDay(currentDay.name())) {
                     throw new RuntimeException("This benefit is not available today");
                 }
                 
                 // Validar beneficios de producto gratis
+                Set<String> freeProducts = Set.of();
                 if (appliedBenefit.getType() == Benefit.BenefitType.FREE_PRODUCT) {
-                    if (!validateFreeProductBenefit(order, appliedBenefit)) {
+                    freeProducts = validateFreeProductBenefit(order, appliedBenefit, currentDay);
+                    if (freeProducts.isEmpty()) {
                         throw new RuntimeException("This order does not contain the required product for this benefit");
                     }
                 }
                 
                 // Calcular descuento según tipo de beneficio
-                finalTotalPrice = calculateDiscountedPrice(order, appliedBenefit);
+                finalTotalPrice = calculateDiscountedPrice(order, appliedBenefit, freeProducts);
                 pointsToUse = appliedBenefit.getPointsRequired();
                 
                 order.setAppliedBenefit(appliedBenefit);
@@ -117,27 +139,17 @@ public class OrderService {
             }
             
             order.close();
-            Order savedOrder = orderRepository.save(order);
-            
-            // Calcular y asignar puntos ganados (basado en el precio final)
-            if (savedOrder.getClientId() != null) {
-                Double pointsEarned = pointsService.addPointsForOrder(
-                    String.valueOf(savedOrder.getClientId()), 
-                    savedOrder.getTotalPrice(), 
-                    savedOrder.getId()
-                );
-                savedOrder.setPointsEarned(pointsEarned);
-                
-                // Descontar puntos usados del beneficio
-                if (pointsToUse > 0) {
-                    pointsService.usePointsForBenefit(
-                        String.valueOf(savedOrder.getClientId()),
-                        pointsToUse
-                    );
+            int pointsUsed = pointsToUse;
+            // LA ORDEN Y LOS PUNTOS SE GUARDAN EN UNA TRANSACCION, SI EL SALDO NO ALCANZA NO SE CIERRA NADA
+            Order savedOrder = transactionTemplate.execute(status -> {
+                if (order.getClientId() != null) {
+                    // Puntos ganados (basados en el precio final) y usados en el beneficio en un solo UPDATE
+                    order.setPointsEarned(pointsService.applyOrderPoints(String.valueOf(order.getClientId()), order.getId(), order.getTotalPrice(), pointsUsed));
                 }
-                
-                orderRepository.save(savedOrder);
-            }
+                return orderRepository.save(order);
+            });
+            salesRollupService.recordPriceAdjustment(savedOrder, finalTotalPrice - originalTotalPrice);
+            goalProgressService.recordPriceAdjustment(savedOrder, finalTotalPrice - originalTotalPrice);
             
             return "Order closed successfully";
         } catch (OrderNotFoundException | ClientIdNotFoundException e) {
@@ -153,13 +165,17 @@ public class OrderService {
     public String modifyOrder(ModifyOrderDTO modifyOrderDTO) throws Exception {
         try {
             Order order = orderRepository.findById(modifyOrderDTO.getOrderId()).orElseThrow(() -> new OrderNotFoundException("Order not found"));
-            NewProductOrderListDTO newProductOrderListDTO = createProductOrder(modifyOrderDTO.getProductOrders());
-            order.updateProductOrders(newProductOrderListDTO.getProductOrderList());
-            order.updateTotalPrice(newProductOrderListDTO.getTotalPrice());
-            order.updateTotalCost(newProductOrderListDTO.getTotalCost());
-            orderRepository.save(order);
+            List<ProductOrder> previousProductOrders = new ArrayList<>(order.getProductOrders());
+            NewProductOrderListDTO newProductOrderListDTO = createProductOrder(modifyOrderDTO.getProductOrders(), lines -> {
+                order.updateProductOrders(lines.getProductOrderList());
+                order.updateTotalPrice(lines.getTotalPrice());
+                order.updateTotalCost(lines.getTotalCost());
+                orderRepository.save(order);
+            });
+            salesRollupService.recordAddedProductOrders(order, previousProductOrders, newProductOrderListDTO.getProductOrderList(), newProductOrderListDTO.getTotalPrice(), newProductOrderListDTO.getTotalCost());
+            goalProgressService.recordAddedProductOrders(order, newProductOrderListDTO.getProductOrderList(), newProductOrderListDTO.getTotalPrice(), newProductOrderListDTO.getTotalCost());
             return "Order modified successfully";
-        } catch (ProductQuantityBelowAvailableStock | OrderNotFoundException e) {
+        } catch (ProductQuantityBelowAvailableStock | ProductNotFoundException | OrderNotFoundException e) {
             throw e;
         } catch (Exception e) {
             throw new Exception("CANNOT modify this order at the moment");
@@ -171,34 +187,149 @@ public class OrderService {
     }
 
     public List<Order> getAllOrdersBetweenTwoDates(Date startingDate, Date endingDate) {
-        List<Order> allOrders = orderRepository.findAll();
-        List<Order> filteredOrderByDate = new ArrayList<>();
-        for (Order order : allOrders) {
-            if (order.getDateCreated().after(startingDate) && order.getDateCreated().before(endingDate)) {
-                filteredOrderByDate.add(order);
+        return orderRepository.findBetween(startingDate, endingDate);
+    }
+
+    /**
+     * Walks the orders strictly between both dates in pages of {@link #ORDER_PAGE_SIZE}, so only one page is held in
+     * memory at a time.
+     */
+    public void forEachOrderBetweenTwoDates(Date startingDate, Date endingDate, Consumer<Order> action) {
+        Date lastDate = startingDate;
+        Long lastId = 0L;
+        List<Long> pageIds;
+        do {
+            pageIds = orderRepository.findIdsBetweenAfter(startingDate, endingDate, lastDate, lastId, PageRequest.of(0, ORDER_PAGE_SIZE));
+            if (pageIds.isEmpty()) {
+                return;
+            }
+            List<Order> page = orderRepository.findWithProductOrdersByIdIn(pageIds);
+            if (page.isEmpty()) {
+                return;
+            }
+            for (Order order : page) {
+                action.accept(order);
+            }
+            Order last = page.get(page.size() - 1);
+            lastDate = last.getDateCreated();
+            lastId = last.getId();
+        } while (pageIds.size() == ORDER_PAGE_SIZE);
+    }
+
+    public OrderPageDTO getOrderPage(OrderFilterDTO orderFilterDTO) throws Exception {
+        try {
+            validateOrderFilter(orderFilterDTO);
+            int pageSize = orderFilterDTO.getPageSize() == null ? DEFAULT_ORDER_PAGE_SIZE : Math.min(Math.max(orderFilterDTO.getPageSize(), 1), ORDER_PAGE_SIZE);
+            // SE PIDE UNA FILA DE MAS PARA SABER SI HAY OTRA PAGINA
+            List<OrderSummaryDTO> summaries = findSummaries(orderFilterDTO, orderFilterDTO.getAfterOrderId(), pageSize + 1);
+            if (summaries.size() > pageSize) {
+                List<OrderSummaryDTO> page = new ArrayList<>(summaries.subList(0, pageSize));
+                return OrderPageDTO.builder().orders(page).nextOrderId(page.get(pageSize - 1).getOrderId()).build();
+            }
+            return OrderPageDTO.builder().orders(summaries).nextOrderId(null).build();
+        } catch (EndingDateMustBeAfterStartingDateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new Exception("CANNOT get orders at the moment");
+        }
+    }
+
+    /**
+     * Walks every order summary matching the filter, newest first, in pages of {@link #ORDER_PAGE_SIZE}. Used for the
+     * NDJSON export, so rows are handed over while the next pages are still in the database. The filter must already
+     * be checked with {@link #validateOrderFilter}.
+     */
+    public void forEachOrderSummary(OrderFilterDTO orderFilterDTO, Consumer<OrderSummaryDTO> action) {
+        Long afterOrderId = orderFilterDTO.getAfterOrderId();
+        List<OrderSummaryDTO> page;
+        do {
+            page = findSummaries(orderFilterDTO, afterOrderId, ORDER_PAGE_SIZE);
+            for (OrderSummaryDTO summary : page) {
+                action.accept(summary);
+            }
+            if (!page.isEmpty()) {
+                afterOrderId = page.get(page.size() - 1).getOrderId();
+            }
+        } while (page.size() == ORDER_PAGE_SIZE);
+    }
+
+    public void validateOrderFilter(OrderFilterDTO orderFilterDTO) throws EndingDateMustBeAfterStartingDateException {
+        if (orderFilterDTO.getStartingDate() != null && orderFilterDTO.getEndingDate() != null && orderFilterDTO.getStartingDate().after(orderFilterDTO.getEndingDate())) {
+            throw new EndingDateMustBeAfterStartingDateException("Ending date must be after Starting date");
+        }
+    }
+
+    private List<OrderSummaryDTO> findSummaries(OrderFilterDTO orderFilterDTO, Long afterOrderId, int limit) {
+        Long beforeId = afterOrderId == null ? Long.MAX_VALUE : afterOrderId;
+        Date start = orderFilterDTO.getStartingDate() == null ? new Date(0) : orderFilterDTO.getStartingDate();
+        Date end = orderFilterDTO.getEndingDate() == null ? NO_ENDING_DATE : orderFilterDTO.getEndingDate();
+        String status = orderFilterDTO.getStatus() == null || orderFilterDTO.getStatus().isEmpty() ? null : orderFilterDTO.getStatus();
+        String employeeEmail = orderFilterDTO.getEmployeeEmail() == null || orderFilterDTO.getEmployeeEmail().isEmpty() ? null : orderFilterDTO.getEmployeeEmail();
+        return orderRepository.findSummaries(beforeId, start, end, status, employeeEmail, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Takes the stock of every line and passes the built lines to {@code saveOrder}, all in one transaction. The product
+     * rows are locked with SELECT ... FOR UPDATE in id order and decremented in memory, so concurrent orders cannot
+     * oversell; the product sent by the client is only used for its id. The lines are inserted by cascade when
+     * {@code saveOrder} saves the order holding them, and if that save fails the stock is rolled back with it.
+     */
+    private NewProductOrderListDTO createProductOrder(List<ProductOrderDTO> productOrderDTOList, Consumer<NewProductOrderListDTO> saveOrder) throws ProductQuantityBelowAvailableStock, ProductNotFoundException {
+        // ORDEN FIJO POR ID PARA QUE DOS ORDENES CON LOS MISMOS PRODUCTOS NO SE BLOQUEEN MUTUAMENTE
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ProductOrderDTO productOrderDTO : productOrderDTOList) {
+            quantities.merge(productOrderDTO.getProduct().getProductId(), productOrderDTO.getQuantity(), Integer::sum);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                NewProductOrderListDTO newProductOrderListDTO = transactionTemplate.execute(status -> {
+                    NewProductOrderListDTO lines = takeStock(productOrderDTOList, quantities);
+                    saveOrder.accept(lines);
+                    return lines;
+                });
+                // DESPUES DEL COMMIT, SINO UNA LECTURA CONCURRENTE PODRIA GUARDAR EL STOCK VIEJO
+                menuCache.invalidateStock();
+                return newProductOrderListDTO;
+            } catch (OrderLineRejectedException e) {
+                if (e.getCause() instanceof ProductNotFoundException productNotFound) {
+                    throw productNotFound;
+                }
+                throw (ProductQuantityBelowAvailableStock) e.getCause();
+            } catch (ConcurrencyFailureException e) {
+                // DEADLOCK O TIMEOUT DE LOCK CONTRA OTRA ORDEN, EL ROLLBACK YA DEVOLVIO EL STOCK
+                if (attempt >= MAX_STOCK_ATTEMPTS) {
+                    throw e;
+                }
             }
         }
-        return filteredOrderByDate;
     }
 
-    public NewProductOrderListDTO createProductOrder(List<ProductOrderDTO> productOrderDTOList) throws ProductQuantityBelowAvailableStock {
+    private NewProductOrderListDTO takeStock(List<ProductOrderDTO> productOrderDTOList, Map<Long, Integer> quantities) {
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllForUpdate(quantities.keySet())) {
+            products.put(product.getProductId(), product);
+        }
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                throw new OrderLineRejectedException(new ProductNotFoundException("ProductId DOES NOT match any productId"));
+            }
+            if (product.getStock() < entry.getValue()) {
+                throw new OrderLineRejectedException(new ProductQuantityBelowAvailableStock("Not enough stock of a product"));
+            }
+            // LOS UPDATES DE STOCK SALEN EN UN SOLO BATCH AL HACER COMMIT
+            product.removeStock(entry.getValue());
+        }
         List<ProductOrder> productOrderList = new ArrayList<>();
         double totalPrice = 0.00;
         double totalCost = 0.00;
         for (ProductOrderDTO productOrderDTO : productOrderDTOList) {
-            if (productOrderDTO.getProduct().getStock() < productOrderDTO.getQuantity()) {
-                throw new ProductQuantityBelowAvailableStock("Not enough stock of a product");
-            } else {
-                Product product = productOrderDTO.getProduct();
-                product.removeStock(productOrderDTO.getQuantity());
-                productRepository.save(product);
-                totalPrice += (product.getUnitPrice() * productOrderDTO.getQuantity());
-                totalCost += (product.getUnitCost() * productOrderDTO.getQuantity());
-                ProductOrder productOrder = new ProductOrder(product.getName(), product.getUnitPrice(), product.getUnitCost(), product.getCategory(), productOrderDTO.getQuantity());
-                productOrderRepository.save(productOrder);
-                productOrderList.add(productOrder);
-            }
+            Product product = products.get(productOrderDTO.getProduct().getProductId());
+            totalPrice += (product.getUnitPrice() * productOrderDTO.getQuantity());
+            totalCost += (product.getUnitCost() * productOrderDTO.getQuantity());
+            productOrderList.add(new ProductOrder(product.getName(), product.getUnitPrice(), product.getUnitCost(), product.getCategory(), productOrderDTO.getQuantity()));
         }
+        // LAS LINEAS SE INSERTAN EN BATCH JUNTO CON LA ORDEN (CASCADE PERSIST EN Order)
         return NewProductOrderListDTO.builder().productOrderList(productOrderList).totalCost(totalCost).totalPrice(totalPrice).build();
     }
 
@@ -215,14 +346,14 @@ public class OrderService {
         }
     }
     
-    private double calculateDiscountedPrice(Order order, Benefit benefit) {
+    private double calculateDiscountedPrice(Order order, Benefit benefit, Set<String> freeProducts) {
         double originalPrice = order.getTotalPrice();
         
         switch (benefit.getType()) {
             case DISCOUNT:
                 return calculateDiscountAmount(originalPrice, benefit);
             case FREE_PRODUCT:
-                return calculateFreeProductDiscount(order, benefit);
+                return calculateFreeProductDiscount(order, freeProducts);
             default:
                 return originalPrice;
         }
@@ -240,78 +371,38 @@ public class OrderService {
         }
     }
     
-    private double calculateFreeProductDiscount(Order order, Benefit benefit) {
+    private double calculateFreeProductDiscount(Order order, Set<String> freeProducts) {
         double originalPrice = order.getTotalPrice();
         
-        try {
-            // Obtener la lista de product IDs del beneficio
-            List<Long> productIds = jsonToLongList(benefit.getProductIds());
-            if (productIds.isEmpty()) {
-                return originalPrice;
+        // Descontar el precio de UNA unidad del primer producto de la orden que regala el beneficio
+        for (ProductOrder productOrder : order.getProductOrders()) {
+            if (freeProducts.contains(productOrder.getProductName())) {
+                return Math.max(0, originalPrice - productOrder.getProductUnitPrice());
             }
-            
-            // Obtener el primer producto del beneficio
-            Long benefitProductId = productIds.get(0);
-            Product benefitProduct = productRepository.findById(benefitProductId).orElse(null);
-            
-            if (benefitProduct == null) {
-                return originalPrice;
-            }
-            
-            // Buscar el producto en la orden por nombre
-            for (ProductOrder productOrder : order.getProductOrders()) {
-                if (productOrder.getProductName().equals(benefitProduct.getName())) {
-                    // Descontar el precio de UNA unidad del producto
-                    double productPrice = productOrder.getProductUnitPrice();
-                    return Math.max(0, originalPrice - productPrice);
-                }
-            }
-        } catch (Exception e) {
-            // Si hay algún error, no aplicar descuento
-            return originalPrice;
         }
         
         // Si el producto no está en la orden, no aplicar descuento
         return originalPrice;
     }
     
-    // Validar si la orden contiene el producto requerido para el beneficio
-    private boolean validateFreeProductBenefit(Order order, Benefit benefit) {
-        try {
-            List<Long> productIds = jsonToLongList(benefit.getProductIds());
-            if (productIds.isEmpty()) {
-                return false;
-            }
-            
-            // Obtener el primer producto del beneficio
-            Long benefitProductId = productIds.get(0);
-            Product benefitProduct = productRepository.findById(benefitProductId).orElse(null);
-            
-            if (benefitProduct == null) {
-                return false;
-            }
-            
-            // Verificar si la orden contiene el producto
-            for (ProductOrder productOrder : order.getProductOrders()) {
-                if (productOrder.getProductName().equals(benefitProduct.getName())) {
-                    return true;
-                }
-            }
-            
-            return false;
-        } catch (Exception e) {
-            return false;
+    // Productos de la orden que regala el beneficio en el día dado, vacío si no lleva ninguno
+    private Set<String> validateFreeProductBenefit(Order order, Benefit benefit, java.time.DayOfWeek day) {
+        Set<String> productNames = new HashSet<>();
+        for (ProductOrder productOrder : order.getProductOrders()) {
+            productNames.add(productOrder.getProductName());
         }
+        if (productNames.isEmpty()) {
+            return Set.of();
+        }
+        // UNA CONSULTA POR EL INDICE DE benefit_products EN LUGAR DE PARSEAR EL JSON Y BUSCAR CADA PRODUCTO
+        return new HashSet<>(benefitRepository.findFreeProductNames(benefit.getId(), Benefit.dayBit(day), productNames));
     }
 
-    // Helper method para convertir JSON a List<Long>
-    private List<Long> jsonToLongList(String json) {
-        if (json == null || json.isEmpty()) return List.of();
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, new com.fasterxml.jackson.core.type.TypeReference<List<Long>>() {});
-        } catch (Exception e) {
-            return List.of();
+    // LLEVA LA EXCEPCION CHEQUEADA FUERA DEL TransactionTemplate, QUE HACE ROLLBACK AL VERLA
+    private static class OrderLineRejectedException extends RuntimeException {
+
+        private OrderLineRejectedException(Exception cause) {
+            super(cause);
         }
     }
 }
@@ -0,0 +1,182 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.DTOs.PointsDriftDTO;
+import com.messismo.bar.DTOs.PointsReconciliationDTO;
+import com.messismo.bar.Entities.PointsBalanceSnapshot;
+import com.messismo.bar.Repositories.PointsAccountRepository;
+import com.messismo.bar.Repositories.PointsBalanceSnapshotRepository;
+import com.messismo.bar.Repositories.PointsTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Balances rebuilt from the append-only points_transactions log. The reconciliation job sums the whole log in one
+ * grouped pass, stores the result as one snapshot per client and reports the accounts whose current_balance no longer
+ * matches it. Between runs a client's ledger balance is its latest snapshot plus the transactions after it.
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+public class PointsLedgerService {
+
+    public static final int SNAPSHOT_BATCH_SIZE = 500;
+
+    public static final int MAX_REPORTED_DRIFTS = 100;
+
+    // LAS TRANSACCIONES DEL ULTIMO MINUTO PUEDEN NO ESTAR CONFIRMADAS, QUEDAN EN LA COLA DEL PROXIMO SNAPSHOT
+    public static final long SETTLE_MILLIS = 60000;
+
+    private static final double TOLERANCE = 0.000001;
+
+    private final PointsAccountRepository pointsAccountRepository;
+
+    private final PointsTransactionRepository pointsTransactionRepository;
+
+    private final PointsBalanceSnapshotRepository pointsBalanceSnapshotRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicReference<PointsReconciliationDTO> lastReconciliation = new AtomicReference<>();
+
+    public double getLedgerBalance(String clientId) {
+        Optional<PointsBalanceSnapshot> snapshot = pointsBalanceSnapshotRepository.findFirstByClientIdOrderByTakenAtDesc(clientId);
+        Date after = snapshot.map(PointsBalanceSnapshot::getTakenAt).orElse(new Date(0));
+        return snapshot.map(PointsBalanceSnapshot::getBalance).orElse(0.0) + pointsTransactionRepository.sumAfter(clientId, after);
+    }
+
+    public PointsDriftDTO getBalanceDrift(String clientId) {
+        double accountBalance = pointsAccountRepository.findByClientId(clientId).map(account -> account.getCurrentBalance()).orElse(0.0);
+        return drift(clientId, accountBalance, getLedgerBalance(clientId));
+    }
+
+    public PointsReconciliationDTO getLastReconciliation() {
+        return lastReconciliation.get();
+    }
+
+    /**
+     * Stores as negative the SPENT amounts written before the ledger used signed amounts. Deployments with
+     * ddl-auto=update never run V009, without this the reconciliation reports every client that ever spent points.
+     * Only positive SPENT rows are touched, so running it again changes nothing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void negateLegacySpentAmounts() {
+        try {
+            Integer updated = transactionTemplate.execute(status -> pointsTransactionRepository.negateLegacySpentAmounts());
+            if (updated != null && updated > 0) {
+                log.info("Legacy SPENT points transactions stored as negative: " + updated);
+            }
+        } catch (RuntimeException e) {
+            // SIN LA TABLA NO HAY NADA QUE CORREGIR, LA APLICACION ARRANCA IGUAL
+            log.warning("Legacy SPENT points transactions could not be fixed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${points.reconciliation.interval:3600000}", initialDelayString = "${points.reconciliation.interval:3600000}")
+    public PointsReconciliationDTO reconcile() {
+        Date takenAt = new Date(System.currentTimeMillis() - SETTLE_MILLIS);
+        // SALDO, GANADO Y GASTADO HASTA takenAt POR CLIENTE
+        Map<String, double[]> ledger = new HashMap<>();
+        Map<String, Double> tail = new HashMap<>();
+        List<PointsDriftDTO> drifts = new ArrayList<>();
+        long[] checked = {0};
+        long[] drifted = {0};
+        double[] totalDrift = {0.0};
+        // LAS TRES LECTURAS VEN EL MISMO ESTADO, UNA ORDEN CERRADA EN EL MEDIO NO APARECE COMO DIFERENCIA
+        TransactionTemplate consistentRead = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        consistentRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        consistentRead.setReadOnly(true);
+        consistentRead.executeWithoutResult(status -> {
+            try (Stream<PointsTransactionRepository.ClientTotals> totals = pointsTransactionRepository.streamTotalsUntil(takenAt)) {
+                totals.forEach(row -> ledger.put(row.getClientId(), new double[]{row.getBalance(), row.getTotalEarned(), row.getTotalSpent()}));
+            }
+            pointsTransactionRepository.findTotalsAfter(takenAt).forEach(row -> tail.put(row.getClientId(), row.getBalance()));
+            Set<String> unmatched = new HashSet<>(ledger.keySet());
+            unmatched.addAll(tail.keySet());
+            try (Stream<PointsAccountRepository.AccountBalance> accounts = pointsAccountRepository.streamBalances()) {
+                accounts.forEach(account -> {
+                    unmatched.remove(account.getClientId());
+                    checked[0]++;
+                    double drift = record(drifts, account.getClientId(), account.getCurrentBalance(), ledgerBalance(ledger, tail, account.getClientId()));
+                    drifted[0] += drift > 0.0 ? 1 : 0;
+                    totalDrift[0] += drift;
+                });
+            }
+            // TRANSACCIONES DE CLIENTES SIN CUENTA
+            for (String clientId : unmatched) {
+                double drift = record(drifts, clientId, 0.0, ledgerBalance(ledger, tail, clientId));
+                drifted[0] += drift > 0.0 ? 1 : 0;
+                totalDrift[0] += drift;
+            }
+        });
+        long snapshots = saveSnapshots(ledger, takenAt);
+        PointsReconciliationDTO reconciliation = PointsReconciliationDTO.builder()
+                .snapshotTakenAt(takenAt)
+                .checkedAccounts(checked[0])
+                .snapshots(snapshots)
+                .driftedAccounts(drifted[0])
+                .totalDrift(totalDrift[0])
+                .drifts(drifts)
+                .build();
+        lastReconciliation.set(reconciliation);
+        if (drifted[0] > 0) {
+            log.warning("Points accounts out of sync with the ledger: " + drifted[0] + " (total drift " + totalDrift[0] + ")");
+        }
+        return reconciliation;
+    }
+
+    // CADA LOTE ES SU PROPIA TRANSACCION, LA SESION NO ACUMULA UN SNAPSHOT POR CLIENTE
+    private long saveSnapshots(Map<String, double[]> ledger, Date takenAt) {
+        List<PointsBalanceSnapshot> batch = new ArrayList<>(SNAPSHOT_BATCH_SIZE);
+        long saved = 0;
+        for (Map.Entry<String, double[]> entry : ledger.entrySet()) {
+            double[] totals = entry.getValue();
+            batch.add(PointsBalanceSnapshot.builder().clientId(entry.getKey()).balance(totals[0]).totalEarned(totals[1]).totalSpent(totals[2]).takenAt(takenAt).build());
+            if (batch.size() == SNAPSHOT_BATCH_SIZE) {
+                saved += saveBatch(batch);
+            }
+        }
+        saved += saveBatch(batch);
+        transactionTemplate.executeWithoutResult(status -> pointsBalanceSnapshotRepository.deleteTakenBefore(takenAt));
+        return saved;
+    }
+
+    private int saveBatch(List<PointsBalanceSnapshot> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            transactionTemplate.executeWithoutResult(status -> pointsBalanceSnapshotRepository.saveAll(batch));
+            batch.clear();
+        }
+        return size;
+    }
+
+    private static double ledgerBalance(Map<String, double[]> ledger, Map<String, Double> tail, String clientId) {
+        double[] totals = ledger.get(clientId);
+        return (totals == null ? 0.0 : totals[0]) + tail.getOrDefault(clientId, 0.0);
+    }
+
+    // DEVUELVE EL VALOR ABSOLUTO DE LA DIFERENCIA, SOLO SE GUARDAN LAS PRIMERAS MAX_REPORTED_DRIFTS
+    private static double record(List<PointsDriftDTO> drifts, String clientId, double accountBalance, double ledgerBalance) {
+        PointsDriftDTO drift = drift(clientId, accountBalance, ledgerBalance);
+        if (Math.abs(drift.getDrift()) <= TOLERANCE) {
+            return 0.0;
+        }
+        if (drifts.size() < MAX_REPORTED_DRIFTS) {
+            drifts.add(drift);
+        }
+        return Math.abs(drift.getDrift());
+    }
+
+    private static PointsDriftDTO drift(String clientId, double accountBalance, double ledgerBalance) {
+        return PointsDriftDTO.builder().clientId(clientId).accountBalance(accountBalance).ledgerBalance(ledgerBalance).drift(accountBalance - ledgerBalance).build();
+    }
+}
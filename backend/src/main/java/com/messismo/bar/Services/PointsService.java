@@ -1,14 +1,22 @@
 package com.messismo.bar.Services;
 
+import com.messismo.bar.DTOs.PointsHistoryEntryDTO;
+import com.messismo.bar.DTOs.PointsHistoryPageDTO;
 import com.messismo.bar.Entities.PointsAccount;
 import com.messismo.bar.Entities.PointsTransaction;
 import com.messismo.bar.Entities.TransactionType;
 import com.messismo.bar.Repositories.PointsAccountRepository;
 import com.messismo.bar.Repositories.PointsTransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,9 +25,17 @@ import java.util.Optional;
 @Transactional
 public class PointsService {
 
+    public static final int HISTORY_PAGE_SIZE = 100;
+
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+
+    // 9999-12-31, CURSOR DE LA PRIMERA PAGINA
+    private static final Date NO_ENDING_DATE = new Date(253402214400000L);
+
     private final PointsAccountRepository pointsAccountRepository;
     private final PointsTransactionRepository pointsTransactionRepository;
     private final SettingsService settingsService;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Crea una nueva cuenta de puntos para un cliente
@@ -41,46 +57,76 @@ public class PointsService {
     }
 
     /**
-     * Añade puntos a la cuenta de un cliente por una orden cerrada
+     * Aplica en un solo UPDATE los puntos ganados por una orden cerrada y los gastados en su beneficio, y registra
+     * ambas transacciones juntas. Debe llamarse dentro de la transacción que cierra la orden.
      */
-    public Double addPointsForOrder(String clientId, Double orderTotal, Long orderId) {
+    public Double applyOrderPoints(String clientId, Long orderId, Double orderTotal, int pointsToUse) {
         // Obtener la tasa de conversión dinámica desde configuración
         double conversionRate = settingsService.getPointsConversionRate();
         Double points = orderTotal / conversionRate;
-        
-        PointsAccount account = getOrCreateAccount(clientId);
-        account.addPoints(points);
-        pointsAccountRepository.save(account);
-        
-        // Registrar la transacción
-        PointsTransaction transaction = new PointsTransaction(
+        double spent = pointsToUse;
+
+        if (pointsAccountRepository.applyDelta(clientId, points, spent, new Date()) == 0) {
+            if (pointsToUse > 0) {
+                if (pointsAccountRepository.existsByClientId(clientId)) {
+                    throw new RuntimeException("Insufficient points for this benefit");
+                }
+                throw new RuntimeException("Points account not found for client: " + clientId);
+            }
+            // SIN GASTO EL UPDATE SOLO FALLA SI FALTA LA CUENTA, AUNQUE OTRO CIERRE LA HAYA CREADO DESPUES
+            createAccountIfAbsent(clientId);
+            pointsAccountRepository.applyDelta(clientId, points, 0.0, new Date());
+        }
+
+        // Registrar las transacciones en el mismo batch
+        List<PointsTransaction> transactions = new ArrayList<>(2);
+        transactions.add(new PointsTransaction(
             clientId, 
             TransactionType.EARNED, 
             points,
             "ORDER_#" + orderId,
             "Puntos ganados por orden de $" + String.format("%.2f", orderTotal) + 
             " (tasa: $" + String.format("%.0f", conversionRate) + " = 1 punto)"
-        );
-        pointsTransactionRepository.save(transaction);
+        ));
+        if (pointsToUse > 0) {
+            transactions.add(new PointsTransaction(
+                clientId,
+                TransactionType.SPENT,
+                -spent, // Negativo porque se están usando puntos
+                "benefit_application",
+                "Points used for benefit application"
+            ));
+        }
+        pointsTransactionRepository.saveAll(transactions);
         
         // Devolver los puntos calculados para que se guarden en la orden
         return points;
     }
 
+    // LA CUENTA SE CONFIRMA EN SU PROPIA TRANSACCION: SI DOS PRIMEROS CIERRES LA CREAN A LA VEZ, EL QUE PIERDE LA
+    // RESTRICCION UNICA DE client_id NO ARRASTRA AL ROLLBACK EL CIERRE DE SU ORDEN Y EL UPDATE SIGUIENTE LA ENCUENTRA
+    private void createAccountIfAbsent(String clientId) {
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            newTransaction.executeWithoutResult(status -> pointsAccountRepository.saveAndFlush(new PointsAccount(clientId)));
+        } catch (DataIntegrityViolationException e) {
+            // OTRO CIERRE CREO LA CUENTA AL MISMO TIEMPO, YA EXISTE
+        }
+    }
+
     /**
      * Gasta puntos de la cuenta de un cliente
      */
     public boolean spendPoints(String clientId, Double points, String source, String description) {
-        PointsAccount account = getOrCreateAccount(clientId);
+        getOrCreateAccount(clientId);
         
-        if (account.spendPoints(points)) {
-            pointsAccountRepository.save(account);
-            
+        if (pointsAccountRepository.applyDelta(clientId, 0.0, points, new Date()) > 0) {
             // Registrar la transacción
             PointsTransaction transaction = new PointsTransaction(
                 clientId,
                 TransactionType.SPENT,
-                points,
+                -points, // Negativo, el saldo es la suma del log
                 source,
                 description
             );
@@ -92,10 +138,24 @@ public class PointsService {
     }
 
     /**
-     * Obtiene el historial de transacciones de un cliente
+     * Obtiene una página del historial de un cliente, de la más nueva a la más vieja. El cursor es el par
+     * (nextCreatedAt, nextId) de la página anterior, vacío para la primera.
      */
-    public List<PointsTransaction> getTransactionHistory(String clientId) {
-        return pointsTransactionRepository.findByClientIdOrderByCreatedAtDesc(clientId);
+    public PointsHistoryPageDTO getTransactionHistoryPage(String clientId, TransactionType type, Long beforeCreatedAt, Long beforeId, Integer pageSize) {
+        if ((beforeCreatedAt == null) != (beforeId == null)) {
+            throw new IllegalArgumentException("beforeCreatedAt and beforeId must be sent together");
+        }
+        int size = pageSize == null ? DEFAULT_HISTORY_PAGE_SIZE : Math.min(Math.max(pageSize, 1), HISTORY_PAGE_SIZE);
+        Date cursorDate = beforeCreatedAt == null ? NO_ENDING_DATE : new Date(beforeCreatedAt);
+        long cursorId = beforeId == null ? Long.MAX_VALUE : beforeId;
+        // SE PIDE UNA FILA DE MAS PARA SABER SI HAY OTRA PAGINA
+        List<PointsHistoryEntryDTO> rows = pointsTransactionRepository.findHistoryBefore(clientId, type, cursorDate, cursorId, PageRequest.of(0, size + 1));
+        if (rows.size() > size) {
+            List<PointsHistoryEntryDTO> page = new ArrayList<>(rows.subList(0, size));
+            PointsHistoryEntryDTO last = page.get(size - 1);
+            return PointsHistoryPageDTO.builder().transactions(page).nextCreatedAt(last.getCreatedAt().getTime()).nextId(last.getId()).build();
+        }
+        return PointsHistoryPageDTO.builder().transactions(rows).nextCreatedAt(null).nextId(null).build();
     }
 
     /**
@@ -148,32 +208,4 @@ public class PointsService {
     public Double getCurrentConversionRate() {
         return settingsService.getPointsConversionRate();
     }
-    
-    /**
-     * Usa puntos de un cliente para aplicar un beneficio
-     */
-    public void usePointsForBenefit(String clientId, Integer pointsToUse) {
-        PointsAccount account = pointsAccountRepository.findByClientId(clientId)
-            .orElseThrow(() -> new RuntimeException("Points account not found for client: " + clientId));
-        
-        if (account.getCurrentBalance() < pointsToUse) {
-            throw new RuntimeException("Insufficient points balance");
-        }
-        
-        // Crear transacción de uso de puntos
-        PointsTransaction transaction = new PointsTransaction(
-            clientId,
-            TransactionType.SPENT,
-            -pointsToUse.doubleValue(), // Negativo porque se están usando puntos
-            "benefit_application",
-            "Points used for benefit application"
-        );
-        
-        // Actualizar balance
-        account.setCurrentBalance(account.getCurrentBalance() - pointsToUse);
-        
-        // Guardar transacción y actualizar cuenta
-        pointsTransactionRepository.save(transaction);
-        pointsAccountRepository.save(account);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.Repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trigram index over product names, used by ProductService.filterProducts so the name filter never lowercases or scans
+ * the whole catalog per request. Rebuilt after a product is added or deleted here, and periodically to pick up products
+ * changed by other instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+public class ProductNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final ProductRepository productRepository;
+
+    // SE INCREMENTA EN CADA invalidate, UN SNAPSHOT DE UNA GENERACION ANTERIOR NO SE USA
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Ids of the products whose name contains the fragment, ignoring case.
+     */
+    public Set<Long> findIdsContaining(String fragment) {
+        Snapshot current = snapshot;
+        if (current == null || current.generation() != generation.get()) {
+            current = rebuild();
+        }
+        String needle = fragment.toLowerCase();
+        Set<Long> response = new HashSet<>();
+        if (needle.length() < GRAM) {
+            // FRAGMENTO MUY CORTO PARA EL INDICE, SE RECORREN LOS NOMBRES YA EN MINUSCULAS
+            for (int i = 0; i < current.ids().length; i++) {
+                if (current.names()[i].contains(needle)) {
+                    response.add(current.ids()[i]);
+                }
+            }
+            return response;
+        }
+        int[] candidates = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            int[] positions = current.grams().get(needle.substring(i, i + GRAM));
+            if (positions == null) {
+                return response;
+            }
+            if (candidates == null || positions.length < candidates.length) {
+                candidates = positions;
+            }
+        }
+        // LA LISTA MAS CORTA ACOTA LOS CANDIDATOS, EL contains CONFIRMA EL FRAGMENTO COMPLETO
+        for (int position : candidates) {
+            if (current.names()[position].contains(needle)) {
+                response.add(current.ids()[position]);
+            }
+        }
+        return response;
+    }
+
+    // LLAMAR DESPUES DE CREAR, BORRAR O RENOMBRAR UN PRODUCTO
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Scheduled(fixedDelayString = "${products.index.refresh.interval:60000}", initialDelayString = "${products.index.refresh.interval:60000}")
+    public void refresh() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warning("Product name index could not be refreshed: " + e.getMessage());
+        }
+    }
+
+    private synchronized Snapshot rebuild() {
+        long started = generation.get();
+        List<ProductRepository.ProductName> products = productRepository.findAllNames();
+        long[] ids = new long[products.size()];
+        String[] names = new String[products.size()];
+        Map<String, List<Integer>> positionsByGram = new HashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            ids[i] = products.get(i).getProductId();
+            names[i] = products.get(i).getName() == null ? "" : products.get(i).getName().toLowerCase();
+            Set<String> seen = new HashSet<>();
+            for (int j = 0; j + GRAM <= names[i].length(); j++) {
+                String gram = names[i].substring(j, j + GRAM);
+                if (seen.add(gram)) {
+                    positionsByGram.computeIfAbsent(gram, key -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+        Map<String, int[]> grams = new HashMap<>();
+        positionsByGram.forEach((gram, positions) -> grams.put(gram, positions.stream().mapToInt(Integer::intValue).toArray()));
+        Snapshot built = new Snapshot(started, ids, names, grams);
+        // UN invalidate DURANTE LA LECTURA DEJA ESTOS DATOS VIEJOS, NO SE PUBLICAN Y LA PROXIMA BUSQUEDA RECONSTRUYE
+        if (generation.get() == started) {
+            snapshot = built;
+        }
+        return built;
+    }
+
+    private record Snapshot(long generation, long[] ids, String[] names, Map<String, int[]> grams) {
+    }
+}
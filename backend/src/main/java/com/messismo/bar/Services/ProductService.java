@@ -9,23 +9,33 @@ import com.messismo.bar.Exceptions.ExistingProductFoundException;
 import com.messismo.bar.Exceptions.ProductNotFoundException;
 import com.messismo.bar.Repositories.CategoryRepository;
 import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Repositories.ProductSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    public static final int MAX_IDS_IN_QUERY = 1000;
+
     private final ProductRepository productRepository;
 
     private final CategoryRepository categoryRepository;
 
     private final CategoryService categoryService;
 
+    private final ProductNameIndex productNameIndex;
+
+    private final MenuCache menuCache;
+
     public String addProduct(ProductDTO productDTO) throws Exception {
         try {
             Optional<Product> existingProduct = productRepository.findByName(productDTO.getName());
@@ -39,6 +49,8 @@ public class ProductService {
             Category category = categoryRepository.findByName(productDTO.getCategory()).orElseThrow(() -> new CategoryNotFoundException("Provided category name DOES NOT match any category name"));
             Product newProduct = new Product(productDTO.getName(), productDTO.getUnitPrice(), productDTO.getUnitCost(), productDTO.getDescription(), productDTO.getStock(), category);
             productRepository.save(newProduct);
+            productNameIndex.invalidate();
+            menuCache.invalidateCatalog();
             return "Product created successfully";
 
         } catch (CategoryNotFoundException | ExistingProductFoundException e) {
@@ -56,6 +68,8 @@ public class ProductService {
         try {
             Product product = productRepository.findByProductId(productId).orElseThrow(() -> new ProductNotFoundException("ProductId DOES NOT match any productId"));
             productRepository.delete(product);
+            productNameIndex.invalidate();
+            menuCache.invalidateCatalog();
             return "Product deleted successfully";
         } catch (ProductNotFoundException e) {
             throw e;
@@ -70,6 +84,7 @@ public class ProductService {
             Product product = productRepository.findByProductId(productPriceDTO.getProductId()).orElseThrow(() -> new ProductNotFoundException("ProductId DOES NOT match any productId"));
             product.updateUnitPrice(productPriceDTO.getUnitPrice());
             productRepository.save(product);
+            menuCache.invalidateCatalog();
             return "Product price updated successfully";
         } catch (ProductNotFoundException e) {
             throw e;
@@ -83,6 +98,7 @@ public class ProductService {
             Product product = productRepository.findByProductId(productPriceDTO.getProductId()).orElseThrow(() -> new ProductNotFoundException("ProductId DOES NOT match any productId"));
             product.updateUnitCost(productPriceDTO.getUnitPrice());
             productRepository.save(product);
+            menuCache.invalidateCatalog();
             return "Product cost updated successfully";
         } catch (ProductNotFoundException e) {
             throw e;
@@ -97,6 +113,7 @@ public class ProductService {
             Product product = productRepository.findByProductId(productStockDTO.getProductId()).orElseThrow(() -> new ProductNotFoundException("ProductId DOES NOT match any productId"));
             product.updateStock(productStockDTO.getOperation(), productStockDTO.getModifyStock());
             productRepository.save(product);
+            menuCache.invalidateStock();
             return "Product stock updated successfully";
         } catch (ProductNotFoundException e) {
             throw e;
@@ -107,23 +124,33 @@ public class ProductService {
 
     public List<Product> filterProducts(FilterProductDTO filterProductDTO) throws Exception {
         try {
-            List<Product> filteredProducts = new ArrayList<>();
-            List<Product> allProducts = productRepository.findAll();
-            filteredProducts = filterByName(allProducts, filterProductDTO.getProductName());
-            List<Product> filteredProductsByCategory = new ArrayList<>();
+            List<Category> categories = null;
             if (filterProductDTO.getCategories() != null) {
+                categories = new ArrayList<>();
                 for (String aCategory : filterProductDTO.getCategories()) {
-                    Category category = categoryRepository.findByName(aCategory).orElseThrow(() -> new CategoryNotFoundException("Provided category name DOES NOT match any category name"));
-                    filteredProductsByCategory.addAll(filterByCategory(filteredProducts, category));
+                    categories.add(categoryRepository.findByName(aCategory).orElseThrow(() -> new CategoryNotFoundException("Provided category name DOES NOT match any category name")));
                 }
-                filteredProducts = filteredProductsByCategory;
             }
-            filteredProducts = filterByMinUnitPrice(filteredProducts, filterProductDTO.getMinUnitPrice());
-            filteredProducts = filterByMaxUnitPrice(filteredProducts, filterProductDTO.getMaxUnitPrice());
-            filteredProducts = filterByMinUnitCost(filteredProducts, filterProductDTO.getMinUnitCost());
-            filteredProducts = filterByMaxUnitCost(filteredProducts, filterProductDTO.getMaxUnitCost());
-            filteredProducts = filterByMinStock(filteredProducts, filterProductDTO.getMinStock());
-            filteredProducts = filterByMaxStock(filteredProducts, filterProductDTO.getMaxStock());
+            String productName = filterProductDTO.getProductName();
+            Set<Long> matchingNames = productName == null || productName.isEmpty() ? null : productNameIndex.findIdsContaining(productName);
+            if (matchingNames != null && matchingNames.isEmpty()) {
+                return new ArrayList<>();
+            }
+            // POCOS NOMBRES VAN COMO IN A LA BASE, MUCHOS SE FILTRAN SOBRE EL RESULTADO PARA NO ARMAR UN IN GIGANTE
+            boolean namesInQuery = matchingNames != null && matchingNames.size() <= MAX_IDS_IN_QUERY;
+            Specification<Product> filter = Specification.allOf(
+                    ProductSpecifications.idIn(namesInQuery ? matchingNames : null),
+                    ProductSpecifications.categoryIn(categories),
+                    ProductSpecifications.unitPriceAbove(filterProductDTO.getMinUnitPrice()),
+                    ProductSpecifications.unitPriceBelow(filterProductDTO.getMaxUnitPrice()),
+                    ProductSpecifications.unitCostAbove(filterProductDTO.getMinUnitCost()),
+                    ProductSpecifications.unitCostBelow(filterProductDTO.getMaxUnitCost()),
+                    ProductSpecifications.stockAbove(filterProductDTO.getMinStock()),
+                    ProductSpecifications.stockBelow(filterProductDTO.getMaxStock()));
+            List<Product> filteredProducts = new ArrayList<>(productRepository.findAll(filter, Sort.by("productId")));
+            if (matchingNames != null && !namesInQuery) {
+                filteredProducts.removeIf(product -> !matchingNames.contains(product.getProductId()));
+            }
             return filteredProducts;
         } catch (CategoryNotFoundException e) {
             throw e;
@@ -132,36 +159,6 @@ public class ProductService {
         }
     }
 
-    private List<Product> filterByMaxUnitCost(List<Product> allProducts, Double maxUnitCost) {
-        List<Product> response = new ArrayList<>();
-        if (maxUnitCost == null || maxUnitCost == 0.00) {
-            response.addAll(allProducts);
-        } else {
-
-            for (Product product : allProducts) {
-                if (product.getUnitCost() < maxUnitCost) {
-                    response.add(product);
-                }
-            }
-        }
-        return response;
-    }
-
-    private List<Product> filterByMinUnitCost(List<Product> allProducts, Double minUnitCost) {
-        List<Product> response = new ArrayList<>();
-        if (minUnitCost == null || minUnitCost == 0.00) {
-            response.addAll(allProducts);
-        } else {
-
-            for (Product product : allProducts) {
-                if (product.getUnitCost() > minUnitCost) {
-                    response.add(product);
-                }
-            }
-        }
-        return response;
-    }
-
     public List<Product> filterByMaxStock(List<Product> allProducts, Integer maxStock) {
         List<Product> response = new ArrayList<>();
         if (maxStock == null || maxStock == 0) {
@@ -0,0 +1,250 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.DTOs.OrderSalesDTO;
+import com.messismo.bar.Entities.Order;
+import com.messismo.bar.Entities.ProductOrder;
+import com.messismo.bar.Entities.SalesRollup;
+import com.messismo.bar.Repositories.OrderRepository;
+import com.messismo.bar.Repositories.ProductOrderRepository;
+import com.messismo.bar.Repositories.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Log
+public class SalesRollupService {
+
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+
+    public static final String TOTAL_KEY = "total";
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final ProductOrderRepository productOrderRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${rollups.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    // SE PRENDE CUANDO SE PIERDE UN INCREMENTO, repairRollups RECONSTRUYE EN LA PROXIMA PASADA
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean(false);
+
+    /**
+     * Adds a freshly created order to the hourly and daily rollups.
+     */
+    public void recordNewOrder(Order order) {
+        Map<String, SalesRollup> deltas = new HashMap<>();
+        addContribution(deltas, order.getDateCreated(), order.getProductOrders(), Set.of(), order.getTotalPrice(), order.getTotalCost(), 1L);
+        applyDeltas(deltas.values());
+    }
+
+    /**
+     * Adds the lines appended to an existing order. Products and categories the order already had are not counted as a new order again.
+     */
+    public void recordAddedProductOrders(Order order, List<ProductOrder> previousProductOrders, List<ProductOrder> addedProductOrders, Double addedPrice, Double addedCost) {
+        Set<String> existingKeys = new HashSet<>();
+        for (ProductOrder productOrder : previousProductOrders) {
+            existingKeys.add(productKeyOf(productOrder));
+            existingKeys.add(categoryKeyOf(productOrder));
+        }
+        Map<String, SalesRollup> deltas = new HashMap<>();
+        addContribution(deltas, order.getDateCreated(), addedProductOrders, existingKeys, addedPrice, addedCost, 0L);
+        applyDeltas(deltas.values());
+    }
+
+    /**
+     * Moves the order level revenue when the final price changes after creation (e.g. a benefit discount on close).
+     */
+    public void recordPriceAdjustment(Order order, double priceDelta) {
+        if (priceDelta == 0.00) {
+            return;
+        }
+        Map<String, SalesRollup> deltas = new HashMap<>();
+        addContribution(deltas, order.getDateCreated(), List.of(), Set.of(), priceDelta, 0.00, 0L);
+        applyDeltas(deltas.values());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            if (rebuildOnStartup || (salesRollupRepository.count() == 0 && orderRepository.count() > 0)) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            // NO SE BLOQUEA EL ARRANQUE, repairRollups VUELVE A INTENTARLO
+            rebuildRequested.set(true);
+            log.warning("Sales rollups backfill failed, a rebuild was requested: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs {@link #rebuild} whenever an incremental update was dropped, so a lost delta is corrected on the next pass
+     * instead of staying in the dashboard for good.
+     */
+    @Scheduled(fixedDelayString = "${rollups.repair.interval:60000}", initialDelayString = "${rollups.repair.interval:60000}")
+    public void repairRollups() {
+        if (!rebuildRequested.getAndSet(false)) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // SE REINTENTA EN LA PROXIMA PASADA
+            rebuildRequested.set(true);
+            log.warning("Sales rollups could not be rebuilt: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes every rollup row from one row per order and per order line group, read as projections without loading
+     * Order entities. The hour and day buckets are computed here with the same zone as the incremental updates.
+     */
+    public void rebuild() {
+        Map<String, SalesRollup> rollups = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<OrderSalesDTO> orders = orderRepository.streamSales()) {
+                orders.forEach(sale -> mergeSale(rollups, sale, SalesRollup.Dimension.TOTAL, TOTAL_KEY, 0L, sale.getRevenue(), sale.getCost(), 1L));
+            }
+            try (Stream<OrderSalesDTO> products = productOrderRepository.streamProductSales()) {
+                products.forEach(sale -> {
+                    mergeSale(rollups, sale, SalesRollup.Dimension.PRODUCT, "product:" + sale.getCategoryId() + ":" + sale.getProductName(), sale.getQuantity(), sale.getRevenue(), sale.getCost(), 1L);
+                    // LA CANTIDAD TOTAL SALE DE LAS LINEAS
+                    mergeSale(rollups, sale, SalesRollup.Dimension.TOTAL, TOTAL_KEY, sale.getQuantity(), 0.00, 0.00, 0L);
+                });
+            }
+            try (Stream<OrderSalesDTO> categories = productOrderRepository.streamCategorySales()) {
+                categories.forEach(sale -> mergeSale(rollups, sale, SalesRollup.Dimension.CATEGORY, "category:" + sale.getCategoryId(), sale.getQuantity(), sale.getRevenue(), sale.getCost(), 1L));
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            salesRollupRepository.deleteAllInBatch();
+            salesRollupRepository.saveAll(rollups.values());
+        });
+        log.info("Sales rollups rebuilt: " + rollups.size() + " rows");
+    }
+
+    public static Collection<SalesRollup> aggregate(Collection<Order> orders) {
+        Map<String, SalesRollup> rollups = new HashMap<>();
+        for (Order order : orders) {
+            addContribution(rollups, order.getDateCreated(), order.getProductOrders(), Set.of(), order.getTotalPrice(), order.getTotalCost(), 1L);
+        }
+        return rollups.values();
+    }
+
+    public static LocalDateTime bucketStartOf(LocalDateTime dateTime, SalesRollup.Granularity granularity) {
+        return granularity == SalesRollup.Granularity.HOUR ? dateTime.truncatedTo(ChronoUnit.HOURS) : dateTime.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private void applyDeltas(Collection<SalesRollup> deltas) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> deltas.forEach(this::upsert));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // OTRA ORDEN CREO LA MISMA FILA EN PARALELO, SE REINTENTA COMO UPDATE
+                if (attempt >= MAX_UPSERT_ATTEMPTS) {
+                    rebuildRequested.set(true);
+                    log.warning("Sales rollups could not be updated, a rebuild was requested: " + e.getMessage());
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // LA ORDEN YA ESTA GUARDADA, NO SE PROPAGA EL ERROR
+                rebuildRequested.set(true);
+                log.warning("Sales rollups could not be updated, a rebuild was requested: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void upsert(SalesRollup delta) {
+        int updated = salesRollupRepository.increment(delta.getGranularity(), delta.getBucketStart(), delta.getDimensionKey(), delta.getQuantity(), delta.getRevenue(), delta.getCost(), delta.getOrderCount());
+        if (updated == 0) {
+            salesRollupRepository.save(delta.copy());
+        }
+    }
+
+    private static void addContribution(Map<String, SalesRollup> rollups, Date dateCreated, List<ProductOrder> productOrders, Set<String> existingKeys, double price, double cost, long orderCount) {
+        LocalDateTime createdAt = localDateTimeOf(dateCreated);
+        for (SalesRollup.Granularity granularity : SalesRollup.Granularity.values()) {
+            LocalDateTime bucketStart = bucketStartOf(createdAt, granularity);
+            Set<String> countedKeys = new HashSet<>(existingKeys);
+            long quantity = 0;
+            for (ProductOrder productOrder : productOrders) {
+                double lineRevenue = productOrder.getProductUnitPrice() * productOrder.getQuantity();
+                double lineCost = productOrder.getProductUnitCost() * productOrder.getQuantity();
+                quantity += productOrder.getQuantity();
+                String productKey = productKeyOf(productOrder);
+                merge(rollups, newRollup(granularity, bucketStart, SalesRollup.Dimension.PRODUCT, productKey, productOrder, productOrder.getQuantity(), lineRevenue, lineCost, countedKeys.add(productKey) ? 1L : 0L));
+                String categoryKey = categoryKeyOf(productOrder);
+                merge(rollups, newRollup(granularity, bucketStart, SalesRollup.Dimension.CATEGORY, categoryKey, productOrder, productOrder.getQuantity(), lineRevenue, lineCost, countedKeys.add(categoryKey) ? 1L : 0L));
+            }
+            merge(rollups, newRollup(granularity, bucketStart, SalesRollup.Dimension.TOTAL, TOTAL_KEY, null, quantity, price, cost, orderCount));
+        }
+    }
+
+    // LAS DOS ESCRITURAS (INCREMENTOS Y REBUILD) PASAN POR ACA, ASI UNA ORDEN CAE SIEMPRE EN LA MISMA HORA Y EL MISMO DIA
+    private static LocalDateTime localDateTimeOf(Date dateCreated) {
+        return dateCreated.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private static void mergeSale(Map<String, SalesRollup> rollups, OrderSalesDTO sale, SalesRollup.Dimension dimension, String key, long quantity, double revenue, double cost, long orderCount) {
+        LocalDateTime createdAt = localDateTimeOf(sale.getDateCreated());
+        for (SalesRollup.Granularity granularity : SalesRollup.Granularity.values()) {
+            SalesRollup rollup = SalesRollup.builder().granularity(granularity).bucketStart(bucketStartOf(createdAt, granularity)).dimension(dimension).dimensionKey(key).quantity(quantity).revenue(revenue).cost(cost).orderCount(orderCount).build();
+            if (dimension != SalesRollup.Dimension.TOTAL) {
+                rollup.setCategoryId(sale.getCategoryId());
+                rollup.setCategoryName(sale.getCategoryName());
+                rollup.setProductName(sale.getProductName());
+            }
+            merge(rollups, rollup);
+        }
+    }
+
+    private static SalesRollup newRollup(SalesRollup.Granularity granularity, LocalDateTime bucketStart, SalesRollup.Dimension dimension, String key, ProductOrder productOrder, long quantity, double revenue, double cost, long orderCount) {
+        SalesRollup rollup = SalesRollup.builder().granularity(granularity).bucketStart(bucketStart).dimension(dimension).dimensionKey(key).quantity(quantity).revenue(revenue).cost(cost).orderCount(orderCount).build();
+        if (productOrder != null) {
+            rollup.setCategoryId(productOrder.getCategory().getCategoryId());
+            rollup.setCategoryName(productOrder.getCategory().getName());
+            if (dimension == SalesRollup.Dimension.PRODUCT) {
+                rollup.setProductName(productOrder.getProductName());
+            }
+        }
+        return rollup;
+    }
+
+    private static void merge(Map<String, SalesRollup> rollups, SalesRollup delta) {
+        String mapKey = delta.getGranularity() + "|" + delta.getBucketStart() + "|" + delta.getDimensionKey();
+        SalesRollup existing = rollups.get(mapKey);
+        if (existing == null) {
+            rollups.put(mapKey, delta);
+        } else {
+            existing.add(delta);
+        }
+    }
+
+    private static String productKeyOf(ProductOrder productOrder) {
+        return "product:" + productOrder.getCategory().getCategoryId() + ":" + productOrder.getProductName();
+    }
+
+    private static String categoryKeyOf(ProductOrder productOrder) {
+        return "category:" + productOrder.getCategory().getCategoryId();
+    }
+}
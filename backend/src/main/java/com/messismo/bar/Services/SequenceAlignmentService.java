@@ -0,0 +1,60 @@
+package com.messismo.bar.Services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@RequiredArgsConstructor
+@Log
+public class SequenceAlignmentService {
+
+    // IGUAL AL allocationSize DE LAS ENTIDADES
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Moves the pooled sequences past the ids the identity columns generated before them. Deployments with
+     * ddl-auto=update never run the migration scripts, there Hibernate creates the sequences starting at 1.
+     * Runs before the first id is generated, so no block handed out by an older sequence value is still in use.
+     */
+    @PostConstruct
+    public void alignSequences() {
+        align("orders_seq", "orders", "order_id");
+        align("product_order_seq", "product_order", "product_order_id");
+        align("points_transactions_seq", "points_transactions", "id");
+    }
+
+    /**
+     * Restarts the sequence after MAX(idColumn) when its next block would reuse an existing id, a sequence that is
+     * already ahead is left alone.
+     */
+    public void align(String sequence, String table, String idColumn) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long maxId = ((Number) entityManager.createNativeQuery("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table).getSingleResult()).longValue();
+                long next = ((Number) entityManager.createNativeQuery(dialect().getSequenceSupport().getSequenceNextValString(sequence)).getSingleResult()).longValue();
+                // HIBERNATE USA CADA VALOR COMO EL TOPE DE UN BLOQUE: EL BLOQUE DE next EMPIEZA EN next - 49
+                if (next - ALLOCATION_SIZE < maxId) {
+                    entityManager.createNativeQuery("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ALLOCATION_SIZE)).executeUpdate();
+                    log.info("Sequence " + sequence + " moved past " + table + " id " + maxId);
+                }
+            });
+        } catch (RuntimeException e) {
+            // SIN LA TABLA O LA SECUENCIA NO HAY IDS QUE PISAR, LA APLICACION ARRANCA IGUAL
+            log.warning("Sequence " + sequence + " could not be aligned: " + e.getMessage());
+        }
+    }
+
+    private Dialect dialect() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+}
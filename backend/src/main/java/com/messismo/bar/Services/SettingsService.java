@@ -4,21 +4,29 @@ import com.messismo.bar.Entities.Settings;
 import com.messismo.bar.Entities.SettingsHistory;
 import com.messismo.bar.Repositories.SettingsRepository;
 import com.messismo.bar.Repositories.SettingsHistoryRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
+@Log
 public class SettingsService {
 
-    @Autowired
-    private SettingsRepository settingsRepository;
+    private final SettingsRepository settingsRepository;
     
-    @Autowired
-    private SettingsHistoryRepository settingsHistoryRepository;
+    private final SettingsHistoryRepository settingsHistoryRepository;
+
+    // COPIA INMUTABLE DE LA TABLA settings, SE REEMPLAZA ENTERA EN CADA RECARGA
+    private volatile SettingsSnapshot snapshot = SettingsSnapshot.of(Map.of());
 
     // Constante para la clave de conversión de puntos
     public static final String POINTS_CONVERSION_KEY = "points_conversion_rate";
@@ -35,6 +43,31 @@ public class SettingsService {
             );
             settingsRepository.save(defaultSetting);
         }
+        reloadSettings();
+    }
+
+    /**
+     * Relee la tabla de settings para tomar cambios hechos por otras instancias.
+     * La tabla tiene pocas filas, asi que una lectura completa es tan barata como consultar una version.
+     */
+    @Scheduled(fixedDelayString = "${settings.refresh.interval:5000}", initialDelayString = "${settings.refresh.interval:5000}")
+    public void refreshSettings() {
+        try {
+            reloadSettings();
+        } catch (RuntimeException e) {
+            // SE MANTIENE LA COPIA ANTERIOR HASTA LA PROXIMA CONSULTA
+            log.warning("Settings could not be refreshed: " + e.getMessage());
+        }
+    }
+
+    private void reloadSettings() {
+        Map<String, String> values = new HashMap<>();
+        for (Settings setting : settingsRepository.findAll()) {
+            values.put(setting.getKey(), setting.getValue());
+        }
+        if (!values.equals(snapshot.values())) {
+            snapshot = SettingsSnapshot.of(values);
+        }
     }
 
     public List<Settings> getAllSettings() {
@@ -68,25 +101,16 @@ public class SettingsService {
             setting.setDescription(description);
         }
         
-        return settingsRepository.save(setting);
+        Settings savedSetting = settingsRepository.save(setting);
+        // INVALIDAR EN EL MOMENTO PARA QUE ESTA INSTANCIA LEA EL VALOR NUEVO
+        reloadSettings();
+        return savedSetting;
     }
 
     // Método específico para obtener la tasa de conversión de puntos
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public double getPointsConversionRate() {
-        // Forzar lectura fresca desde la base de datos
-        Settings setting = settingsRepository.findByKey(POINTS_CONVERSION_KEY).orElse(null);
-        
-        if (setting != null) {
-            try {
-                double rate = Double.parseDouble(setting.getValue());
-                return rate;
-            } catch (NumberFormatException e) {
-                // Si hay error, usar valor por defecto
-                return Double.parseDouble(DEFAULT_POINTS_CONVERSION);
-            }
-        }
-        return Double.parseDouble(DEFAULT_POINTS_CONVERSION);
+        // Lectura de la copia en memoria, sin consultar la base de datos
+        return snapshot.pointsConversionRate();
     }
 
     // Método para actualizar la tasa de conversión de puntos
@@ -115,4 +139,22 @@ public class SettingsService {
     public List<SettingsHistory> getSettingsHistory(String key) {
         return settingsHistoryRepository.findByKeyOrderByChangedAtDesc(key);
     }
-}
\ No newline at end of file
+
+    private record SettingsSnapshot(Map<String, String> values, double pointsConversionRate) {
+
+        static SettingsSnapshot of(Map<String, String> values) {
+            return new SettingsSnapshot(Collections.unmodifiableMap(new HashMap<>(values)), parseRate(values.get(POINTS_CONVERSION_KEY)));
+        }
+
+        private static double parseRate(String value) {
+            if (value != null) {
+                try {
+                    return Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    // Si hay error, usar valor por defecto
+                }
+            }
+            return Double.parseDouble(DEFAULT_POINTS_CONVERSION);
+        }
+    }
+}
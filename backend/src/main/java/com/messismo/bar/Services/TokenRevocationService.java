@@ -0,0 +1,61 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.Repositories.TokenRepository;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Log
+public class TokenRevocationService {
+
+    private final TokenRepository tokenRepository;
+
+    private final JwtService jwtService;
+
+    // TOKEN REVOCADO -> VENCIMIENTO DEL JWT. UNA VEZ VENCIDO LA FIRMA YA LO RECHAZA Y SE PUEDE OLVIDAR
+    private final Map<String, Date> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the tokens revoked before this instance started, the table stays the source of truth across restarts.
+     */
+    @PostConstruct
+    public void loadRevokedTokens() {
+        tokenRepository.findRevokedTokens().forEach(this::revoke);
+        log.info("Revoked tokens still in force: " + revokedTokens.size());
+    }
+
+    public void revoke(String token) {
+        try {
+            revokedTokens.put(token, jwtService.extractAllClaims(token).getExpiration());
+        } catch (JwtException | IllegalArgumentException e) {
+            // VENCIDO O INVALIDO, EL FILTRO YA LO RECHAZA AL VERIFICAR LA FIRMA
+        }
+    }
+
+    public boolean isRevoked(String token) {
+        return revokedTokens.containsKey(token);
+    }
+
+    /**
+     * Fallback for tokens issued before the token_type claim existed: only access tokens were ever saved in the token
+     * table, so a token missing from it is an old refresh token. These tokens stop arriving once the last one expires.
+     */
+    public boolean isStoredAccessToken(String token) {
+        return tokenRepository.findByToken(token).isPresent();
+    }
+
+    @Scheduled(fixedRate = 600000) // CADA DIEZ MINUTOS
+    public void purgeExpiredTokens() {
+        Date now = new Date();
+        revokedTokens.values().removeIf(expiration -> expiration.before(now));
+    }
+}
@@ -0,0 +1,88 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.DTOs.TokenMetricsDTO;
+import com.messismo.bar.Entities.Token;
+import com.messismo.bar.Repositories.TokenRepository;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Deletes the rows of the token table whose JWT already expired, a new row is inserted on every login.
+ * Revoked tokens are kept until they expire so TokenRevocationService can reload them after a restart.
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+public class TokenSweeperService {
+
+    public static final int SWEEP_BATCH_SIZE = 500;
+
+    private final TokenRepository tokenRepository;
+
+    private final JwtService jwtService;
+
+    private final AtomicLong purgedLastSweep = new AtomicLong();
+
+    private final AtomicLong purgedTotal = new AtomicLong();
+
+    private final AtomicReference<Date> lastSweep = new AtomicReference<>();
+
+    @Scheduled(fixedDelay = 3600000, initialDelay = 60000) // CADA UNA HORA
+    public void sweepExpiredTokens() {
+        Date now = new Date();
+        fillMissingExpirations();
+        long purged = 0;
+        List<Long> expiredIds;
+        do {
+            // CADA LOTE ES SU PROPIA TRANSACCION, NO SE BLOQUEA LA TABLA DURANTE TODO EL BARRIDO
+            expiredIds = tokenRepository.findExpiredIds(now, PageRequest.of(0, SWEEP_BATCH_SIZE));
+            if (!expiredIds.isEmpty()) {
+                tokenRepository.deleteAllByIdInBatch(expiredIds);
+                purged += expiredIds.size();
+            }
+        } while (expiredIds.size() == SWEEP_BATCH_SIZE);
+        purgedLastSweep.set(purged);
+        purgedTotal.addAndGet(purged);
+        lastSweep.set(now);
+        log.info("Expired tokens purged: " + purged);
+    }
+
+    public TokenMetricsDTO getMetrics() {
+        return TokenMetricsDTO.builder().storedTokens(tokenRepository.count()).purgedLastSweep(purgedLastSweep.get()).purgedTotal(purgedTotal.get()).lastSweep(lastSweep.get()).build();
+    }
+
+    // LAS FILAS GUARDADAS ANTES DE LA COLUMNA expires_at TOMAN EL VENCIMIENTO DEL PROPIO JWT
+    private void fillMissingExpirations() {
+        List<Token> tokens;
+        do {
+            tokens = tokenRepository.findByExpiresAtIsNull(PageRequest.of(0, SWEEP_BATCH_SIZE));
+            for (Token token : tokens) {
+                token.setExpiresAt(expirationOf(token.getToken()));
+            }
+            tokenRepository.saveAll(tokens);
+        } while (tokens.size() == SWEEP_BATCH_SIZE);
+    }
+
+    private Date expirationOf(String token) {
+        Date expiration;
+        try {
+            expiration = jwtService.extractAllClaims(token).getExpiration();
+        } catch (ExpiredJwtException e) {
+            expiration = e.getClaims().getExpiration();
+        } catch (JwtException | IllegalArgumentException e) {
+            expiration = null;
+        }
+        // SIN VENCIMIENTO LEGIBLE NUNCA VA A AUTENTICAR: SE BORRA EN ESTE MISMO BARRIDO
+        return expiration != null ? expiration : new Date(0);
+    }
+}
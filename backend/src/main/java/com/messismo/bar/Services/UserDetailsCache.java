@@ -0,0 +1,52 @@
+package com.messismo.bar.Services;
+
+import com.messismo.bar.Repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users resolved by JwtAuthenticationFilter, kept for a few minutes so authenticated requests do not hit the users table.
+ * Login still goes through UserService, which always reads the stored password.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserDetailsCache {
+
+    public static final long TIME_TO_LIVE_MILLIS = 300000; // CINCO MINUTOS
+
+    public static final int MAX_USERS = 10000;
+
+    private final UserRepository userRepository;
+
+    private final Map<String, CachedUser> users = new ConcurrentHashMap<>();
+
+    public UserDetails get(String email) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedUser cached = users.get(email);
+        if (cached != null && now - cached.loadedAt() < TIME_TO_LIVE_MILLIS) {
+            return cached.user();
+        }
+        UserDetails user = userRepository.findByEmail(email).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (users.size() >= MAX_USERS) {
+            users.values().removeIf(entry -> now - entry.loadedAt() >= TIME_TO_LIVE_MILLIS);
+            if (users.size() >= MAX_USERS) {
+                users.clear();
+            }
+        }
+        users.put(email, new CachedUser(user, now));
+        return user;
+    }
+
+    // LLAMAR CUANDO CAMBIA EL ROL, SINO LOS PERMISOS VIEJOS DURAN HASTA EL TTL
+    public void evict(String email) {
+        users.remove(email);
+    }
+
+    private record CachedUser(UserDetails user, long loadedAt) {
+    }
+}
@@ -1,29 +1,50 @@
 package com.messismo.bar.Services;
 
+import com.messismo.bar.DTOs.ClientFilterDTO;
+import com.messismo.bar.DTOs.ClientPageDTO;
 import com.messismo.bar.DTOs.ClientProfileDTO;
+import com.messismo.bar.DTOs.EmployeeFilterDTO;
+import com.messismo.bar.DTOs.EmployeePageDTO;
 import com.messismo.bar.DTOs.UserDTO;
 import com.messismo.bar.DTOs.UserIdDTO;
+import com.messismo.bar.Entities.Role;
 import com.messismo.bar.Entities.User;
 import com.messismo.bar.Exceptions.CannotUpgradeToManager;
 import com.messismo.bar.Exceptions.CannotUpgradeToValidatedEmployee;
 import com.messismo.bar.Repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class UserService implements UserDetailsService {
 
+    public static final Set<Role> EMPLOYEE_ROLES = EnumSet.of(Role.EMPLOYEE, Role.VALIDATEDEMPLOYEE, Role.MANAGER, Role.ADMIN);
+
+    public static final int EMPLOYEE_PAGE_SIZE = 200;
+
+    public static final int DEFAULT_EMPLOYEE_PAGE_SIZE = 25;
+
+    public static final int CLIENT_PAGE_SIZE = 200;
+
+    public static final int DEFAULT_CLIENT_PAGE_SIZE = 25;
+
     private final UserRepository userRepository;
     private final PointsService pointsService;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -31,43 +52,63 @@ public class UserService implements UserDetailsService {
     }
 
     public List<UserDTO> getAllEmployees() {
-        List<User> allEmployees = userRepository.findAll();
-        List<UserDTO> response = new ArrayList<>();
-        for (User user : allEmployees) {
-            UserDTO newUserDTO = UserDTO.builder()
-                .id(user.getId())
-                .role(user.getRole())
-                .username(user.getFunctionalUsername())
-                .email(user.getEmail())
-                .clientId(user.getClientId())
-                .build();
-            response.add(newUserDTO);
+        return userRepository.findAllByRoleIn(EMPLOYEE_ROLES);
+    }
+
+    public EmployeePageDTO getEmployeePage(EmployeeFilterDTO employeeFilterDTO) throws Exception {
+        try {
+            int page = employeeFilterDTO.getPage() == null ? 0 : Math.max(employeeFilterDTO.getPage(), 0);
+            int pageSize = employeeFilterDTO.getPageSize() == null ? DEFAULT_EMPLOYEE_PAGE_SIZE : Math.min(Math.max(employeeFilterDTO.getPageSize(), 1), EMPLOYEE_PAGE_SIZE);
+            Set<Role> roles = employeeFilterDTO.getRole() == null ? EMPLOYEE_ROLES : EnumSet.of(employeeFilterDTO.getRole());
+            if (!EMPLOYEE_ROLES.containsAll(roles)) {
+                // UN ROL QUE NO ES DE EMPLEADO NO DEVUELVE CLIENTES
+                return EmployeePageDTO.builder().employees(List.of()).nextPage(null).build();
+            }
+            Sort sort = Sort.by("username").and(Sort.by("id"));
+            Slice<UserDTO> employees = userRepository.findByRoleIn(roles, searchPattern(employeeFilterDTO.getSearch()), PageRequest.of(page, pageSize, sort));
+            return EmployeePageDTO.builder().employees(employees.getContent()).nextPage(employees.hasNext() ? page + 1 : null).build();
+        } catch (Exception e) {
+            throw new Exception("CANNOT get employees at the moment");
         }
-        return response;
     }
 
     public List<UserDTO> getAllClients() {
-        List<User> allUsers = userRepository.findAll();
-        List<UserDTO> response = new ArrayList<>();
-        for (User user : allUsers) {
-            if (user.isClient()) {
-                // Obtener puntos actuales del cliente
-                Double currentPoints = pointsService.getPointsAccount(user.getClientId())
-                    .map(account -> account.getCurrentBalance())
-                    .orElse(0.0);
-                
-                UserDTO newUserDTO = UserDTO.builder()
-                    .id(user.getId())
-                    .role(user.getRole())
-                    .username(user.getFunctionalUsername())
-                    .email(user.getEmail())
-                    .clientId(user.getClientId())
-                    .currentPoints(currentPoints)
-                    .build();
-                response.add(newUserDTO);
-            }
+        return userRepository.findAllClientsWithPoints();
+    }
+
+    public ClientPageDTO getClientPage(ClientFilterDTO clientFilterDTO) throws Exception {
+        try {
+            int page = clientFilterDTO.getPage() == null ? 0 : Math.max(clientFilterDTO.getPage(), 0);
+            int pageSize = clientFilterDTO.getPageSize() == null ? DEFAULT_CLIENT_PAGE_SIZE : Math.min(Math.max(clientFilterDTO.getPageSize(), 1), CLIENT_PAGE_SIZE);
+            Sort sort = clientSort(clientFilterDTO.getSortBy(), Boolean.TRUE.equals(clientFilterDTO.getDescending()));
+            Slice<UserDTO> clients = userRepository.findClientsWithPoints(searchPattern(clientFilterDTO.getSearch()), PageRequest.of(page, pageSize, sort));
+            return ClientPageDTO.builder().clients(clients.getContent()).nextPage(clients.hasNext() ? page + 1 : null).build();
+        } catch (Exception e) {
+            throw new Exception("CANNOT get clients at the moment");
+        }
+    }
+
+    private Sort clientSort(String sortBy, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort;
+        if ("currentPoints".equals(sortBy)) {
+            // CLIENTES SIN CUENTA DE PUNTOS CUENTAN COMO SALDO 0
+            sort = JpaSort.unsafe(direction, "COALESCE(p.currentBalance, 0.0)");
+        } else if ("email".equals(sortBy) || "clientId".equals(sortBy)) {
+            sort = Sort.by(direction, sortBy);
+        } else {
+            sort = Sort.by(direction, "username");
+        }
+        // DESEMPATE POR ID PARA QUE LAS PAGINAS NO REPITAN NI SALTEEN CLIENTES
+        return sort.and(Sort.by(direction, "id"));
+    }
+
+    private String searchPattern(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
         }
-        return response;
+        String escaped = search.trim().toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return "%" + escaped + "%";
     }
 
     public String validateEmployee(UserIdDTO userIdDTO) throws Exception {
@@ -76,6 +117,7 @@ public class UserService implements UserDetailsService {
             if (user.isEmployee()) {
                 user.upgradeToValidateEmployee();
                 userRepository.save(user);
+                userDetailsCache.evict(user.getEmail());
                 return "User IS NOW a VALIDATED_EMPLOYEE";
             } else {
                 throw new CannotUpgradeToValidatedEmployee("User IS already a VALIDATED_EMPLOYEE OR SUPERIOR");
@@ -93,6 +135,7 @@ public class UserService implements UserDetailsService {
             if (user.isValidatedEmployee()) {
                 user.upgradeToManager();
                 userRepository.save(user);
+                userDetailsCache.evict(user.getEmail());
                 return "User IS NOW a MANAGER";
             } else {
                 throw new CannotUpgradeToManager("User MUST be first a VALIDATED_EMPLOYEE");
@@ -0,0 +1,12 @@
+-- Migration script for batched order inserts
+-- This script:
+-- 1. Creates the sequences used by orders and product_order (pooled, blocks of 50 ids)
+-- 2. Starts them after the ids already generated by the identity columns
+
+-- Step 1: Create the sequences with the same increment as the allocationSize of the entities
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_order_seq INCREMENT BY 50;
+
+-- Step 2: Hibernate uses each value as the top of a block of 50 ids, so the first block must end 50 ids after the current max
+SELECT setval('orders_seq', COALESCE((SELECT MAX(order_id) FROM orders), 0) + 50, false);
+SELECT setval('product_order_seq', COALESCE((SELECT MAX(product_order_id) FROM product_order), 0) + 50, false);
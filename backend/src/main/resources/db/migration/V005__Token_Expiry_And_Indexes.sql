@@ -0,0 +1,11 @@
+-- Migration script for the token sweeper
+-- This script:
+-- 1. Adds the expires_at column (filled from the JWT by TokenSweeperService on its first run)
+-- 2. Adds indexes on user_id and expires_at (token already has a unique index)
+
+-- Step 1: Add the expiry column
+ALTER TABLE token ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP(6);
+
+-- Step 2: Add the indexes used by findAllValidTokenByUser and the sweeper
+CREATE INDEX IF NOT EXISTS idx_token_user_id ON token (user_id);
+CREATE INDEX IF NOT EXISTS idx_token_expires_at ON token (expires_at);
@@ -0,0 +1,5 @@
+-- Migration script for the role-filtered user queries
+-- This script:
+-- 1. Adds an index on users.role, used by the employee directory and the client list
+
+CREATE INDEX IF NOT EXISTS idx_users_role ON users (role);
@@ -0,0 +1,7 @@
+-- Migration script for the product filter
+-- This script:
+-- 1. Adds an index on products.category_id, used by the category filter and CategoryService.deleteCategory
+-- 2. Adds an index on products.name, used by findByName when adding products and taking orders
+
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category_id);
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (name);
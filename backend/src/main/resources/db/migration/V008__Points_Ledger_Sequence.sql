@@ -0,0 +1,10 @@
+-- Migration script for batched points transaction inserts
+-- This script:
+-- 1. Creates the sequence used by points_transactions (pooled, blocks of 50 ids)
+-- 2. Starts it after the ids already generated by the identity column
+
+-- Step 1: Create the sequence with the same increment as the allocationSize of the entity
+CREATE SEQUENCE IF NOT EXISTS points_transactions_seq INCREMENT BY 50;
+
+-- Step 2: Hibernate uses each value as the top of a block of 50 ids, so the first block must end 50 ids after the current max
+SELECT setval('points_transactions_seq', COALESCE((SELECT MAX(id) FROM points_transactions), 0) + 50, false);
@@ -0,0 +1,23 @@
+-- Migration script for the append-only points ledger
+-- This script:
+-- 1. Stores every SPENT amount as negative, so a balance is the plain sum of the log
+-- 2. Adds an index on points_transactions (client_id, created_at), used for the tail after a snapshot and the history
+-- 3. Creates the balance snapshot table and its sequence (pooled, blocks of 50 ids)
+
+-- Step 1: spendPoints used to write positive SPENT amounts, the benefit path already wrote them negative
+UPDATE points_transactions SET amount = -amount WHERE transaction_type = 'SPENT' AND amount > 0;
+
+-- Step 2: Index for per-client range reads
+CREATE INDEX IF NOT EXISTS idx_points_transactions_client_created ON points_transactions (client_id, created_at);
+
+-- Step 3: Snapshot table, written by PointsLedgerService.reconcile
+CREATE SEQUENCE IF NOT EXISTS points_balance_snapshots_seq INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS points_balance_snapshots (
+    id BIGINT PRIMARY KEY,
+    client_id VARCHAR(255) NOT NULL,
+    balance DOUBLE PRECISION NOT NULL,
+    total_earned DOUBLE PRECISION NOT NULL,
+    total_spent DOUBLE PRECISION NOT NULL,
+    taken_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_points_balance_snapshots_client_taken ON points_balance_snapshots (client_id, taken_at);
@@ -0,0 +1,36 @@
+-- Migration script for structured benefit days and products
+-- This script:
+-- 1. Adds benefits.days_mask (bit 0 = MONDAY ... bit 6 = SUNDAY), filled from the applicable_days JSON
+-- 2. Creates benefit_products, one row per product of a benefit, filled from the product_ids JSON
+-- 3. Adds indexes for the free product check in OrderService and the duplicate check in BenefitService
+-- Databases that skip this script are backfilled at startup by BenefitService.fillMissingStructuredFields
+
+-- Step 1: Days bitmask
+ALTER TABLE benefits ADD COLUMN IF NOT EXISTS days_mask INTEGER;
+UPDATE benefits SET days_mask = CASE
+    WHEN applicable_days LIKE '%"EVERYDAY"%' THEN 127
+    ELSE (CASE WHEN applicable_days LIKE '%"MONDAY"%' THEN 1 ELSE 0 END)
+       + (CASE WHEN applicable_days LIKE '%"TUESDAY"%' THEN 2 ELSE 0 END)
+       + (CASE WHEN applicable_days LIKE '%"WEDNESDAY"%' THEN 4 ELSE 0 END)
+       + (CASE WHEN applicable_days LIKE '%"THURSDAY"%' THEN 8 ELSE 0 END)
+       + (CASE WHEN applicable_days LIKE '%"FRIDAY"%' THEN 16 ELSE 0 END)
+       + (CASE WHEN applicable_days LIKE '%"SATURDAY"%' THEN 32 ELSE 0 END)
+       + (CASE WHEN applicable_days LIKE '%"SUNDAY"%' THEN 64 ELSE 0 END)
+    END
+WHERE days_mask IS NULL;
+
+-- Step 2: Product join table (PostgreSQL JSON functions)
+CREATE TABLE IF NOT EXISTS benefit_products (
+    benefit_id BIGINT NOT NULL REFERENCES benefits(id),
+    product_id BIGINT NOT NULL,
+    PRIMARY KEY (benefit_id, product_id)
+);
+INSERT INTO benefit_products (benefit_id, product_id)
+SELECT DISTINCT b.id, CAST(p.value AS BIGINT)
+FROM benefits b, json_array_elements_text(CAST(b.product_ids AS json)) p
+WHERE b.product_ids IS NOT NULL AND b.product_ids <> ''
+ON CONFLICT DO NOTHING;
+
+-- Step 3: Indexes
+CREATE INDEX IF NOT EXISTS idx_benefit_products_product ON benefit_products (product_id, benefit_id);
+CREATE INDEX IF NOT EXISTS idx_benefits_type_points_active ON benefits (type, points_required, active);
@@ -0,0 +1,25 @@
+-- Migration script for the pre-aggregated sales used by the dashboard
+-- This script:
+-- 1. Creates sales_rollups, one row per (granularity, bucket_start, dimension_key), with HOUR and DAY buckets
+-- 2. Adds the index used to read a range of buckets of one granularity
+-- The rows are filled at startup by SalesRollupService when the table is empty, and kept up to date on every order
+
+-- Step 1: Rollup table
+CREATE TABLE IF NOT EXISTS sales_rollups (
+    rollup_id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(255) NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    dimension VARCHAR(255) NOT NULL,
+    dimension_key VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255),
+    category_id BIGINT,
+    category_name VARCHAR(255),
+    quantity BIGINT NOT NULL,
+    revenue DOUBLE PRECISION NOT NULL,
+    cost DOUBLE PRECISION NOT NULL,
+    order_count BIGINT NOT NULL,
+    CONSTRAINT uk_sales_rollups_bucket_key UNIQUE (granularity, bucket_start, dimension_key)
+);
+
+-- Step 2: Range index
+CREATE INDEX IF NOT EXISTS idx_sales_rollups_granularity_bucket ON sales_rollups (granularity, bucket_start);
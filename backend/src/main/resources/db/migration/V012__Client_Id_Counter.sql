@@ -0,0 +1,13 @@
+-- Migration script for the client id counter
+-- This script:
+-- 1. Creates client_id_counter, a single row that ClientIdService locks to reserve blocks of client ids
+-- 2. Inserts that row starting at 0, so the first signup does not have to create it
+
+-- Step 1: Counter table
+CREATE TABLE IF NOT EXISTS client_id_counter (
+    id BIGINT PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+-- Step 2: Singleton row (ClientIdCounter.SINGLETON_ID)
+INSERT INTO client_id_counter (id, next_value) VALUES (1, 0) ON CONFLICT DO NOTHING;
@@ -0,0 +1,126 @@
+package com.messismo.bar.ConfigurationsTests;
+
+import com.messismo.bar.Configurations.JwtAuthenticationFilter;
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Services.JwtService;
+import com.messismo.bar.Services.TokenRevocationService;
+import com.messismo.bar.Services.UserDetailsCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class JwtAuthenticationFilterTests {
+
+    @InjectMocks
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    private static final String SECRET = "ee2ecef84938596217bd811c807a4eb225d510874e922e5e2e692d8a6e4464bf";
+
+    @Spy
+    private JwtService jwtService = new JwtService(SECRET, 86400000, 604800000);
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        user = User.builder().id(1L).username("messi").email("messi@mail.com").password("password1").role(Role.VALIDATEDEMPLOYEE).build();
+        when(userDetailsCache.get("messi@mail.com")).thenReturn(user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testValidTokenAuthenticatesParsingItOnce() throws Exception {
+
+        String jwt = jwtService.generateToken(user);
+
+        jwtAuthenticationFilter.doFilter(requestWithToken(jwt), new MockHttpServletResponse(), new MockFilterChain());
+
+        Assertions.assertEquals(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(jwtService, times(1)).extractAllClaims(jwt);
+    }
+
+    @Test
+    public void testRevokedTokenDoesNotAuthenticate() throws Exception {
+
+        String jwt = jwtService.generateToken(user);
+        when(tokenRevocationService.isRevoked(jwt)).thenReturn(true);
+
+        jwtAuthenticationFilter.doFilter(requestWithToken(jwt), new MockHttpServletResponse(), new MockFilterChain());
+
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsCache, never()).get(any());
+    }
+
+    @Test
+    public void testRefreshTokenDoesNotAuthenticate() throws Exception {
+
+        jwtAuthenticationFilter.doFilter(requestWithToken(jwtService.generateRefreshToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void testTokenWithoutTypeOnlyAuthenticatesWhenStored() throws Exception {
+
+        String stored = untypedToken(86400000);
+        String refresh = untypedToken(604800000);
+        when(tokenRevocationService.isStoredAccessToken(stored)).thenReturn(true);
+
+        jwtAuthenticationFilter.doFilter(requestWithToken(refresh), new MockHttpServletResponse(), new MockFilterChain());
+        Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        jwtAuthenticationFilter.doFilter(requestWithToken(stored), new MockHttpServletResponse(), new MockFilterChain());
+        Assertions.assertEquals(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    public void testTypedAccessTokenDoesNotQueryTheTable() throws Exception {
+
+        jwtAuthenticationFilter.doFilter(requestWithToken(jwtService.generateToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(tokenRevocationService, never()).isStoredAccessToken(any());
+    }
+
+    // COMO LOS EMITIA JwtService ANTES DEL CLAIM token_type
+    private String untypedToken(long expiration) {
+        return Jwts.builder().setSubject("messi@mail.com").setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + expiration)).signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256).compact();
+    }
+
+    private MockHttpServletRequest requestWithToken(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/validatedEmployee/getAllProducts");
+        request.setServletPath("/api/v1/validatedEmployee/getAllProducts");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        return request;
+    }
+}
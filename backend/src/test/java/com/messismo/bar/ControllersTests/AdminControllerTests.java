@@ -1,8 +1,13 @@
 package com.messismo.bar.ControllersTests;
 
 import com.messismo.bar.Controllers.AdminController;
+import com.messismo.bar.DTOs.PointsDriftDTO;
+import com.messismo.bar.DTOs.PointsReconciliationDTO;
+import com.messismo.bar.DTOs.TokenMetricsDTO;
 import com.messismo.bar.DTOs.UserIdDTO;
 import com.messismo.bar.Exceptions.CannotUpgradeToManager;
+import com.messismo.bar.Services.PointsLedgerService;
+import com.messismo.bar.Services.TokenSweeperService;
 import com.messismo.bar.Services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +18,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -25,6 +32,12 @@ public class AdminControllerTests {
     @Mock
     private UserService userService;
 
+    @Mock
+    private TokenSweeperService tokenSweeperService;
+
+    @Mock
+    private PointsLedgerService pointsLedgerService;
+
     @BeforeEach
     public void setUp() {
 
@@ -89,4 +102,62 @@ public class AdminControllerTests {
         assertEquals("Some internal error", response.getBody());
 
     }
+
+    @Test
+    public void testGetTokenMetrics() {
+
+        TokenMetricsDTO metrics = TokenMetricsDTO.builder().storedTokens(10L).purgedLastSweep(2L).purgedTotal(5L).build();
+        when(tokenSweeperService.getMetrics()).thenReturn(metrics);
+        ResponseEntity<?> response = adminController.getTokenMetrics();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(metrics, response.getBody());
+
+    }
+
+    @Test
+    public void testGetTokenMetrics_InternalServerError() {
+
+        when(tokenSweeperService.getMetrics()).thenThrow(new RuntimeException("Database down"));
+        ResponseEntity<?> response = adminController.getTokenMetrics();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Database down", response.getBody());
+
+    }
+
+    @Test
+    public void testReconcilePoints() {
+
+        PointsReconciliationDTO reconciliation = PointsReconciliationDTO.builder().checkedAccounts(3L).snapshots(3L).driftedAccounts(0L).totalDrift(0.0).drifts(List.of()).build();
+        when(pointsLedgerService.reconcile()).thenReturn(reconciliation);
+        ResponseEntity<?> response = adminController.reconcilePoints();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(reconciliation, response.getBody());
+
+    }
+
+    @Test
+    public void testReconcilePoints_InternalServerError() {
+
+        when(pointsLedgerService.reconcile()).thenThrow(new RuntimeException("Database down"));
+        ResponseEntity<?> response = adminController.reconcilePoints();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Database down", response.getBody());
+
+    }
+
+    @Test
+    public void testGetPointsBalance() {
+
+        PointsDriftDTO drift = PointsDriftDTO.builder().clientId("1000").accountBalance(12.0).ledgerBalance(10.0).drift(2.0).build();
+        when(pointsLedgerService.getBalanceDrift("1000")).thenReturn(drift);
+        ResponseEntity<?> response = adminController.getPointsBalance("1000");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(drift, response.getBody());
+
+    }
 }
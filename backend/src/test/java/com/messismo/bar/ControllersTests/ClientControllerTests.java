@@ -2,16 +2,16 @@ package com.messismo.bar.ControllersTests;
 
 import com.messismo.bar.Controllers.ClientController;
 import com.messismo.bar.DTOs.ClientProfileDTO;
+import com.messismo.bar.DTOs.PointsHistoryEntryDTO;
+import com.messismo.bar.DTOs.PointsHistoryPageDTO;
 import com.messismo.bar.DTOs.ProductClientViewDTO;
 import com.messismo.bar.DTOs.ProductDTO;
-import com.messismo.bar.Entities.Category;
 import com.messismo.bar.Entities.Order;
-import com.messismo.bar.Entities.PointsTransaction;
 import com.messismo.bar.Entities.TransactionType;
-import com.messismo.bar.Entities.Product;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Services.MenuCache;
 import com.messismo.bar.Services.OrderService;
 import com.messismo.bar.Services.PointsService;
-import com.messismo.bar.Services.ProductService;
 import com.messismo.bar.Services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,9 +19,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -35,7 +37,7 @@ public class ClientControllerTests {
     private ClientController clientController;
 
     @Mock
-    private ProductService productService;
+    private MenuCache menuCache;
 
     @Mock
     private UserService userService;
@@ -52,7 +54,6 @@ public class ClientControllerTests {
     private ProductDTO sampleProduct;
     private ClientProfileDTO sampleClientProfile;
     private Order sampleOrder;
-    private PointsTransaction sampleTransaction;
 
     @BeforeEach
     public void setUp() {
@@ -77,50 +78,44 @@ public class ClientControllerTests {
         sampleOrder.setStatus("CLOSED");
         sampleOrder.setTotalPrice(25.99);
         sampleOrder.setClientId(1L);
-
-        sampleTransaction = new PointsTransaction("CLI001", TransactionType.EARNED, 100.0, "ORDER", "Order completion");
-        sampleTransaction.setId(1L);
     }
 
     @Test
     public void testGetProductsForClient_Success() {
-        Category category = new Category();
-        category.setName("Main Course");
-        Product product = Product.builder()
-                .productId(1L)
-                .name("Margherita Pizza")
-                .description("Classic pizza with tomato and mozzarella")
-                .unitPrice(15.99)
-                .category(category)
-                .build();
-        List<Product> products = Arrays.asList(product);
-        when(productService.getAllProducts()).thenReturn(products);
+        byte[] json = "[{\"productId\":1,\"name\":\"Margherita Pizza\"}]".getBytes(StandardCharsets.UTF_8);
+        List<ProductClientViewDTO> rows = List.of(ProductClientViewDTO.builder().productId(1L).name("Margherita Pizza").build());
+        when(menuCache.getClientMenu()).thenReturn(new MenuCache.Snapshot(1L, System.currentTimeMillis(), rows, json, "\"abc\""));
 
-        ResponseEntity<?> response = clientController.getProductsForClient();
+        ResponseEntity<?> response = clientController.getProductsForClient(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertTrue(response.getBody() instanceof List);
-        
-        @SuppressWarnings("unchecked")
-        List<ProductClientViewDTO> clientProducts = (List<ProductClientViewDTO>) response.getBody();
-        assertEquals(1, clientProducts.size());
-        assertEquals("Margherita Pizza", clientProducts.get(0).getName());
-        assertEquals(15.99, clientProducts.get(0).getUnitPrice());
-        
-        verify(productService, times(1)).getAllProducts();
+        assertArrayEquals(json, (byte[]) response.getBody());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        verify(menuCache, times(1)).getClientMenu();
+    }
+
+    @Test
+    public void testGetProductsForClient_NotModified() {
+        when(menuCache.getClientMenu()).thenReturn(new MenuCache.Snapshot(1L, System.currentTimeMillis(), List.of(), "[]".getBytes(StandardCharsets.UTF_8), "\"abc\""));
+
+        ResponseEntity<?> response = clientController.getProductsForClient("\"old\", W/\"abc\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
     }
 
     @Test
     public void testGetProductsForClient_ServiceException() {
-        when(productService.getAllProducts()).thenThrow(new RuntimeException("Database error"));
+        when(menuCache.getClientMenu()).thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = clientController.getProductsForClient();
+        ResponseEntity<?> response = clientController.getProductsForClient(null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Error retrieving products", response.getBody());
         
-        verify(productService, times(1)).getAllProducts();
+        verify(menuCache, times(1)).getClientMenu();
     }
 
     @Test
@@ -226,74 +221,57 @@ public class ClientControllerTests {
     }
 
     @Test
-    public void testGetPointsHistory_Success() throws Exception {
+    public void testGetClientOrders_EmptyList() throws Exception {
         String email = "john@client.com";
-        List<PointsTransaction> history = Arrays.asList(sampleTransaction);
+        List<Order> emptyOrders = Arrays.asList();
         when(authentication.getName()).thenReturn(email);
-        when(userService.getClientProfile(email)).thenReturn(sampleClientProfile);
-        when(pointsService.getTransactionHistory(sampleClientProfile.getClientId())).thenReturn(history);
+        when(orderService.getOrdersByClientEmail(email)).thenReturn(emptyOrders);
 
-        ResponseEntity<?> response = clientController.getPointsHistory(authentication);
+        ResponseEntity<?> response = clientController.getClientOrders(authentication);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(history, response.getBody());
+        assertEquals(emptyOrders, response.getBody());
         
         verify(authentication, times(1)).getName();
-        verify(userService, times(1)).getClientProfile(email);
-        verify(pointsService, times(1)).getTransactionHistory(sampleClientProfile.getClientId());
+        verify(orderService, times(1)).getOrdersByClientEmail(email);
     }
 
     @Test
-    public void testGetPointsHistory_ServiceException() throws Exception {
-        String email = "john@client.com";
-        when(authentication.getName()).thenReturn(email);
-        when(userService.getClientProfile(email)).thenReturn(sampleClientProfile);
-        when(pointsService.getTransactionHistory(sampleClientProfile.getClientId()))
-            .thenThrow(new RuntimeException("Database error"));
+    public void testGetPointsHistory_Success() throws Exception {
+        PointsHistoryPageDTO page = PointsHistoryPageDTO.builder()
+                .transactions(List.of(PointsHistoryEntryDTO.builder().id(1L).type(TransactionType.EARNED).amount(100.0).source("ORDER").build()))
+                .nextCreatedAt(1000L)
+                .nextId(1L)
+                .build();
+        when(authentication.getPrincipal()).thenReturn(new User("john_client", "john@client.com", "Password1", "CLI001"));
+        when(pointsService.getTransactionHistoryPage("CLI001", TransactionType.EARNED, 2000L, 5L, 1)).thenReturn(page);
 
-        ResponseEntity<?> response = clientController.getPointsHistory(authentication);
+        ResponseEntity<?> response = clientController.getPointsHistory(authentication, TransactionType.EARNED, 2000L, 5L, 1);
 
-        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-        assertEquals("Error retrieving points history", response.getBody());
-        
-        verify(authentication, times(1)).getName();
-        verify(userService, times(1)).getClientProfile(email);
-        verify(pointsService, times(1)).getTransactionHistory(sampleClientProfile.getClientId());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        verify(userService, never()).getClientProfile(anyString());
     }
 
     @Test
-    public void testGetClientOrders_EmptyList() throws Exception {
-        String email = "john@client.com";
-        List<Order> emptyOrders = Arrays.asList();
-        when(authentication.getName()).thenReturn(email);
-        when(orderService.getOrdersByClientEmail(email)).thenReturn(emptyOrders);
+    public void testGetPointsHistory_IncompleteCursor() throws Exception {
+        when(authentication.getPrincipal()).thenReturn(new User("john_client", "john@client.com", "Password1", "CLI001"));
+        when(pointsService.getTransactionHistoryPage("CLI001", null, 2000L, null, null)).thenThrow(new IllegalArgumentException("beforeCreatedAt and beforeId must be sent together"));
 
-        ResponseEntity<?> response = clientController.getClientOrders(authentication);
+        ResponseEntity<?> response = clientController.getPointsHistory(authentication, null, 2000L, null, null);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(emptyOrders, response.getBody());
-        
-        verify(authentication, times(1)).getName();
-        verify(orderService, times(1)).getOrdersByClientEmail(email);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("beforeCreatedAt and beforeId must be sent together", response.getBody());
     }
 
     @Test
-    public void testGetPointsHistory_EmptyHistory() throws Exception {
-        String email = "john@client.com";
-        List<PointsTransaction> emptyHistory = Arrays.asList();
-        when(authentication.getName()).thenReturn(email);
-        when(userService.getClientProfile(email)).thenReturn(sampleClientProfile);
-        when(pointsService.getTransactionHistory(sampleClientProfile.getClientId())).thenReturn(emptyHistory);
+    public void testGetPointsHistory_ServiceException() throws Exception {
+        when(authentication.getPrincipal()).thenReturn(new User("john_client", "john@client.com", "Password1", "CLI001"));
+        when(pointsService.getTransactionHistoryPage("CLI001", null, null, null, null)).thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<?> response = clientController.getPointsHistory(authentication);
+        ResponseEntity<?> response = clientController.getPointsHistory(authentication, null, null, null, null);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(emptyHistory, response.getBody());
-        
-        verify(authentication, times(1)).getName();
-        verify(userService, times(1)).getClientProfile(email);
-        verify(pointsService, times(1)).getTransactionHistory(sampleClientProfile.getClientId());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Error retrieving points history", response.getBody());
     }
-
-
 }
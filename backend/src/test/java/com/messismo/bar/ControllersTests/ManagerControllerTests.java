@@ -302,6 +302,56 @@ public class ManagerControllerTests {
 
     }
 
+    @Test
+    public void testFilterEmployees_Success() throws Exception {
+
+        EmployeeFilterDTO employeeFilterDTO = EmployeeFilterDTO.builder().search("employee").pageSize(2).build();
+        EmployeePageDTO employeePageDTO = EmployeePageDTO.builder().employees(List.of(UserDTO.builder().id(1L).username("employee1").build())).nextPage(null).build();
+        when(userService.getEmployeePage(employeeFilterDTO)).thenReturn(employeePageDTO);
+        ResponseEntity<?> response = managerController.filterEmployees(employeeFilterDTO);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(employeePageDTO, response.getBody());
+
+    }
+
+    @Test
+    public void testFilterEmployees_InternalServerError() throws Exception {
+
+        EmployeeFilterDTO employeeFilterDTO = new EmployeeFilterDTO();
+        when(userService.getEmployeePage(employeeFilterDTO)).thenThrow(new Exception("CANNOT get employees at the moment"));
+        ResponseEntity<?> response = managerController.filterEmployees(employeeFilterDTO);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("CANNOT get employees at the moment", response.getBody());
+
+    }
+
+    @Test
+    public void testFilterClients_Success() throws Exception {
+
+        ClientFilterDTO clientFilterDTO = ClientFilterDTO.builder().search("messi").sortBy("currentPoints").descending(true).pageSize(1).build();
+        ClientPageDTO clientPageDTO = ClientPageDTO.builder().clients(List.of(UserDTO.builder().id(4L).username("messi").clientId("10000001").currentPoints(30.00).build())).nextPage(1).build();
+        when(userService.getClientPage(clientFilterDTO)).thenReturn(clientPageDTO);
+        ResponseEntity<?> response = managerController.filterClients(clientFilterDTO);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(clientPageDTO, response.getBody());
+
+    }
+
+    @Test
+    public void testFilterClients_InternalServerError() throws Exception {
+
+        ClientFilterDTO clientFilterDTO = new ClientFilterDTO();
+        when(userService.getClientPage(clientFilterDTO)).thenThrow(new Exception("CANNOT get clients at the moment"));
+        ResponseEntity<?> response = managerController.filterClients(clientFilterDTO);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("CANNOT get clients at the moment", response.getBody());
+
+    }
+
     @Test
     public void testValidateEmployee_Success() throws Exception {
 
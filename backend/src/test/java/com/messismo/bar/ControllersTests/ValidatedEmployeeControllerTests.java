@@ -1,5 +1,6 @@
 package com.messismo.bar.ControllersTests;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.messismo.bar.Controllers.ValidatedEmployeeController;
 import com.messismo.bar.DTOs.*;
 import com.messismo.bar.Entities.*;
@@ -11,13 +12,18 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static junit.framework.TestCase.assertNotNull;
 import static org.junit.Assert.assertEquals;
@@ -33,11 +39,14 @@ public class ValidatedEmployeeControllerTests {
     private ProductService productService;
 
     @Mock
-    private CategoryService categoryService;
+    private MenuCache menuCache;
 
     @Mock
     private OrderService orderService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @BeforeEach
     public void setUp() {
 
@@ -164,12 +173,24 @@ public class ValidatedEmployeeControllerTests {
         Product product2 = new Product(2L,"Product2",15.0,7.0,"Description2",100,new Category(2L,"Category2"));
         Product product3 = new Product(3L,"Product3",20.0,10.0,"Description3",200,new Category(3L,"Category3"));
         List<Product> productList = Arrays.asList(product1,product2,product3);
-        when(productService.getAllProducts()).thenReturn(productList);
-        ResponseEntity<?> response = validatedEmployeeController.getAllProducts();
+        byte[] json = "[]".getBytes(StandardCharsets.UTF_8);
+        when(menuCache.getProducts()).thenReturn(new MenuCache.Snapshot(1L, System.currentTimeMillis(), productList, json, "\"products-v1\""));
+        ResponseEntity<?> response = validatedEmployeeController.getAllProducts(null);
 
-        verify(productService).getAllProducts();
+        verify(menuCache).getProducts();
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        Assertions.assertNotNull(response.getBody());
+        Assertions.assertEquals(json, response.getBody());
+        Assertions.assertEquals("\"products-v1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void testGetAllProducts_NotModified() {
+
+        when(menuCache.getProducts()).thenReturn(new MenuCache.Snapshot(1L, System.currentTimeMillis(), List.of(), "[]".getBytes(StandardCharsets.UTF_8), "\"products-v1\""));
+        ResponseEntity<?> response = validatedEmployeeController.getAllProducts("\"products-v1\"");
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        Assertions.assertNull(response.getBody());
     }
 
     @Test
@@ -221,11 +242,12 @@ public class ValidatedEmployeeControllerTests {
         Category category2 = new Category(2L,"Category2");
         Category category3 = new Category(3L,"Category3");
         List<Category> categoryList = Arrays.asList(category1,category2,category3);
-        when(categoryService.getAllCategories()).thenReturn(categoryList);
-        ResponseEntity<?> response = validatedEmployeeController.getAllCategories();
+        byte[] json = "[{\"categoryId\":1,\"name\":\"Category1\"}]".getBytes(StandardCharsets.UTF_8);
+        when(menuCache.getCategories()).thenReturn(new MenuCache.Snapshot(1L, System.currentTimeMillis(), categoryList, json, "\"categories-v1\""));
+        ResponseEntity<?> response = validatedEmployeeController.getAllCategories("\"categories-v0\"");
 
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        Assertions.assertEquals(categoryList, response.getBody());
+        Assertions.assertEquals(json, response.getBody());
 
     }
 
@@ -254,6 +276,18 @@ public class ValidatedEmployeeControllerTests {
 
     }
 
+    @Test
+    public void testAddNewOrder_Conflict_ProductNotFound() throws Exception {
+
+        OrderRequestDTO orderRequestDTO = new OrderRequestDTO("employee@example.com",new Date(),List.of(new ProductOrderDTO(new Product(1L,"Product1",10.0,7.0,"Description1",50,new Category(1L,"Category1")), 2)), null);
+        when(orderService.addNewOrder(orderRequestDTO)).thenThrow(new ProductNotFoundException("ProductId DOES NOT match any productId"));
+        ResponseEntity<?> response = validatedEmployeeController.addNewOrder(orderRequestDTO);
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Assertions.assertEquals("ProductId DOES NOT match any productId", response.getBody());
+
+    }
+
     @Test
     public void testAddNewOrder_Conflict_ProductQuantityBelowAvailableStock() throws Exception {
 
@@ -390,4 +424,77 @@ public class ValidatedEmployeeControllerTests {
     }
 
 
+    @Test
+    public void testFilterOrders_Success() throws Exception {
+
+        OrderFilterDTO orderFilterDTO = OrderFilterDTO.builder().status("Open").pageSize(2).build();
+        OrderPageDTO orderPageDTO = OrderPageDTO.builder().orders(List.of(OrderSummaryDTO.builder().orderId(5L).build(), OrderSummaryDTO.builder().orderId(4L).build())).nextOrderId(4L).build();
+        when(orderService.getOrderPage(orderFilterDTO)).thenReturn(orderPageDTO);
+        ResponseEntity<?> response = validatedEmployeeController.filterOrders(orderFilterDTO);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(orderPageDTO, response.getBody());
+
+    }
+
+    @Test
+    public void testFilterOrders_InvalidDates() throws Exception {
+
+        OrderFilterDTO orderFilterDTO = new OrderFilterDTO();
+        when(orderService.getOrderPage(orderFilterDTO)).thenThrow(new EndingDateMustBeAfterStartingDateException("Ending date must be after Starting date"));
+        ResponseEntity<?> response = validatedEmployeeController.filterOrders(orderFilterDTO);
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Assertions.assertEquals("Ending date must be after Starting date", response.getBody());
+
+    }
+
+    @Test
+    public void testFilterOrders_InternalServerError() throws Exception {
+
+        OrderFilterDTO orderFilterDTO = new OrderFilterDTO();
+        when(orderService.getOrderPage(orderFilterDTO)).thenThrow(new Exception("CANNOT get orders at the moment"));
+        ResponseEntity<?> response = validatedEmployeeController.filterOrders(orderFilterDTO);
+
+        Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        Assertions.assertEquals("CANNOT get orders at the moment", response.getBody());
+
+    }
+
+    @Test
+    public void testExportOrders_WritesOneOrderPerLine() throws Exception {
+
+        OrderFilterDTO orderFilterDTO = new OrderFilterDTO();
+        doAnswer(invocation -> {
+            Consumer<OrderSummaryDTO> action = invocation.getArgument(1);
+            action.accept(OrderSummaryDTO.builder().orderId(2L).status("Open").build());
+            action.accept(OrderSummaryDTO.builder().orderId(1L).status("Closed").build());
+            return null;
+        }).when(orderService).forEachOrderSummary(eq(orderFilterDTO), any());
+        ResponseEntity<?> response = validatedEmployeeController.exportOrders(orderFilterDTO);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(outputStream);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals(2L, objectMapper.readValue(lines[0], OrderSummaryDTO.class).getOrderId());
+        Assertions.assertEquals("Closed", objectMapper.readValue(lines[1], OrderSummaryDTO.class).getStatus());
+
+    }
+
+    @Test
+    public void testExportOrders_InvalidDates() throws Exception {
+
+        OrderFilterDTO orderFilterDTO = new OrderFilterDTO();
+        doThrow(new EndingDateMustBeAfterStartingDateException("Ending date must be after Starting date")).when(orderService).validateOrderFilter(orderFilterDTO);
+        ResponseEntity<?> response = validatedEmployeeController.exportOrders(orderFilterDTO);
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Assertions.assertEquals("Ending date must be after Starting date", response.getBody());
+        verify(orderService, never()).forEachOrderSummary(any(), any());
+
+    }
+
 }
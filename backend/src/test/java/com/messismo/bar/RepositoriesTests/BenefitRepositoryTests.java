@@ -0,0 +1,104 @@
+package com.messismo.bar.RepositoriesTests;
+
+import com.messismo.bar.Entities.Benefit;
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Product;
+import com.messismo.bar.Repositories.BenefitRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Set;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class BenefitRepositoryTests {
+
+    @Autowired
+    private BenefitRepository benefitRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Product wine;
+
+    private Product beer;
+
+    private Benefit freeDrink;
+
+    @BeforeEach
+    public void setup() {
+        Category drinks = entityManager.persist(Category.builder().name("Drinks").build());
+        wine = entityManager.persist(new Product("Vino", 50.00, 20.00, "Vino tinto", 10, drinks));
+        beer = entityManager.persist(new Product("Cerveza", 30.00, 10.00, "Cerveza rubia", 10, drinks));
+        freeDrink = benefitRepository.save(Benefit.builder().type(Benefit.BenefitType.FREE_PRODUCT).pointsRequired(200).applicableDays("[\"FRIDAY\", \"SATURDAY\"]").productIds("[" + wine.getProductId() + ", " + beer.getProductId() + "]").createdBy("manager@mail.com").active(true).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testStructuredFieldsAreFilledOnInsert() {
+
+        Benefit saved = benefitRepository.findById(freeDrink.getId()).orElseThrow();
+
+        Assertions.assertEquals(Benefit.dayBit(DayOfWeek.FRIDAY) | Benefit.dayBit(DayOfWeek.SATURDAY), saved.getDaysMask());
+        Assertions.assertEquals(Set.of(wine.getProductId(), beer.getProductId()), saved.getProducts());
+        Assertions.assertTrue(saved.isApplicableOnDay("saturday"));
+        Assertions.assertFalse(saved.isApplicableOnDay("MONDAY"));
+    }
+
+    @Test
+    public void testFindFreeProductNames() {
+
+        Assertions.assertEquals(List.of("Vino"), benefitRepository.findFreeProductNames(freeDrink.getId(), Benefit.dayBit(DayOfWeek.FRIDAY), Set.of("Vino", "Queso")));
+        Assertions.assertEquals(Set.of("Vino", "Cerveza"), Set.copyOf(benefitRepository.findFreeProductNames(freeDrink.getId(), Benefit.dayBit(DayOfWeek.SATURDAY), Set.of("Vino", "Cerveza"))));
+        Assertions.assertEquals(List.of(), benefitRepository.findFreeProductNames(freeDrink.getId(), Benefit.dayBit(DayOfWeek.MONDAY), Set.of("Vino")));
+        Assertions.assertEquals(List.of(), benefitRepository.findFreeProductNames(freeDrink.getId(), Benefit.dayBit(DayOfWeek.FRIDAY), Set.of("Queso")));
+    }
+
+    @Test
+    public void testFindFreeProductNamesIgnoresInactiveBenefits() {
+
+        Benefit benefit = benefitRepository.findById(freeDrink.getId()).orElseThrow();
+        benefit.setActive(false);
+        benefitRepository.saveAndFlush(benefit);
+
+        Assertions.assertEquals(List.of(), benefitRepository.findFreeProductNames(freeDrink.getId(), Benefit.dayBit(DayOfWeek.FRIDAY), Set.of("Vino")));
+    }
+
+    @Test
+    public void testLegacyRowsAreFoundAndFilledInPlace() {
+
+        // COMO QUEDA UNA FILA GUARDADA ANTES DE days_mask Y benefit_products
+        entityManager.getEntityManager().createNativeQuery("DELETE FROM benefit_products").executeUpdate();
+        entityManager.getEntityManager().createNativeQuery("UPDATE benefits SET days_mask = NULL").executeUpdate();
+        entityManager.clear();
+        Assertions.assertEquals(List.of(), benefitRepository.findFreeProductNames(freeDrink.getId(), Benefit.dayBit(DayOfWeek.FRIDAY), Set.of("Vino")));
+
+        List<Benefit> legacy = benefitRepository.findByDaysMaskIsNull();
+        legacy.forEach(Benefit::fillStructuredFields);
+        benefitRepository.saveAll(legacy);
+        entityManager.flush();
+        entityManager.clear();
+
+        Assertions.assertEquals(List.of(freeDrink.getId()), legacy.stream().map(Benefit::getId).toList());
+        Assertions.assertEquals(List.of(), benefitRepository.findByDaysMaskIsNull());
+        Assertions.assertEquals(List.of("Vino"), benefitRepository.findFreeProductNames(freeDrink.getId(), Benefit.dayBit(DayOfWeek.FRIDAY), Set.of("Vino")));
+    }
+
+    @Test
+    public void testFindDuplicateCandidatesMatchesDaysInAnyOrder() {
+
+        int sameDays = Benefit.daysMask(Benefit.parseDays("[\"SATURDAY\", \"FRIDAY\"]"));
+
+        List<Benefit> candidates = benefitRepository.findDuplicateCandidates(Benefit.BenefitType.FREE_PRODUCT, 200, null, null, sameDays);
+
+        Assertions.assertEquals(List.of(freeDrink.getId()), candidates.stream().map(Benefit::getId).toList());
+        Assertions.assertEquals(Set.of(wine.getProductId(), beer.getProductId()), candidates.get(0).getProducts());
+        Assertions.assertEquals(List.of(), benefitRepository.findDuplicateCandidates(Benefit.BenefitType.FREE_PRODUCT, 200, null, null, Benefit.dayBit(DayOfWeek.FRIDAY)));
+    }
+}
@@ -0,0 +1,168 @@
+package com.messismo.bar.RepositoriesTests;
+
+import com.messismo.bar.DTOs.OrderSalesDTO;
+import com.messismo.bar.DTOs.OrderSummaryDTO;
+import com.messismo.bar.Entities.*;
+import com.messismo.bar.Repositories.OrderRepository;
+import com.messismo.bar.Repositories.ProductOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class OrderRepositoryTests {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User employee;
+
+    private List<Category> categories;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = entityManager.persist(User.builder().username("employee").email("employee@mail.com").password("Password1").role(Role.EMPLOYEE).build());
+        categories = List.of(entityManager.persist(Category.builder().name("Drinks").build()), entityManager.persist(Category.builder().name("Food").build()), entityManager.persist(Category.builder().name("Desserts").build()));
+    }
+
+    @Test
+    public void testFindAllStatementCountDoesNotGrowWithOrders() {
+
+        long fewOrders = statementsToRead(5, orders -> orderRepository.findAll().forEach(readLines()));
+        long manyOrders = statementsToRead(50, orders -> orderRepository.findAll().forEach(readLines()));
+
+        Assertions.assertEquals(fewOrders, manyOrders);
+    }
+
+    @Test
+    public void testFindBetweenStatementCountDoesNotGrowWithOrders() {
+
+        Date start = new Date(0);
+        Date end = new Date(System.currentTimeMillis() + 3600 * 1000);
+        long fewOrders = statementsToRead(5, orders -> orderRepository.findBetween(start, end).forEach(readLines()));
+        long manyOrders = statementsToRead(50, orders -> orderRepository.findBetween(start, end).forEach(readLines()));
+
+        Assertions.assertEquals(fewOrders, manyOrders);
+    }
+
+    @Test
+    public void testFindByIdLoadsLinesAndCategoriesWithTheOrder() {
+
+        long statements = statementsToRead(1, orders -> readLines().accept(orderRepository.findById(orders.get(0).getId()).orElseThrow()));
+
+        Assertions.assertEquals(statementsToRead(1, orders -> orderRepository.findById(orders.get(0).getId())), statements);
+    }
+
+    @Test
+    public void testKeysetPageLoadsWithTwoStatements() {
+
+        Date start = new Date(0);
+        Date end = new Date(System.currentTimeMillis() + 3600 * 1000);
+        long statements = statementsToRead(50, orders -> {
+            List<Long> ids = orderRepository.findIdsBetweenAfter(start, end, start, 0L, PageRequest.of(0, 20));
+            List<Order> page = orderRepository.findWithProductOrdersByIdIn(ids);
+            Assertions.assertEquals(20, page.size());
+            page.forEach(readLines());
+        });
+
+        Assertions.assertEquals(2, statements);
+    }
+
+    @Test
+    public void testFindSummariesFiltersAndPagesNewestFirst() {
+
+        User otherEmployee = entityManager.persist(User.builder().username("other").email("other@mail.com").password("Password1").role(Role.EMPLOYEE).build());
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Order order = new Order(i % 3 == 0 ? otherEmployee : employee, new Date(System.currentTimeMillis() - i * 1000L), new ArrayList<>(List.of(entityManager.persist(new ProductOrder("Beer", 10.00, 4.00, categories.get(0), 1)))), 10.00, 4.00);
+            if (i % 2 == 0) {
+                order.close();
+            }
+            orders.add(entityManager.persist(order));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Date start = new Date(0);
+        Date end = new Date(System.currentTimeMillis() + 3600 * 1000);
+
+        List<OrderSummaryDTO> firstPage = orderRepository.findSummaries(Long.MAX_VALUE, start, end, null, null, PageRequest.of(0, 4));
+        Assertions.assertEquals(List.of(orders.get(5).getId(), orders.get(4).getId(), orders.get(3).getId(), orders.get(2).getId()), firstPage.stream().map(OrderSummaryDTO::getOrderId).toList());
+        Assertions.assertEquals(1, firstPage.get(0).getProductLines());
+        Assertions.assertEquals("employee@mail.com", firstPage.get(0).getEmployeeEmail());
+        List<OrderSummaryDTO> secondPage = orderRepository.findSummaries(firstPage.get(3).getOrderId(), start, end, null, null, PageRequest.of(0, 4));
+        Assertions.assertEquals(List.of(orders.get(1).getId(), orders.get(0).getId()), secondPage.stream().map(OrderSummaryDTO::getOrderId).toList());
+        List<OrderSummaryDTO> closedByOther = orderRepository.findSummaries(Long.MAX_VALUE, start, end, "Closed", "other@mail.com", PageRequest.of(0, 10));
+        Assertions.assertEquals(List.of(orders.get(0).getId()), closedByOther.stream().map(OrderSummaryDTO::getOrderId).toList());
+    }
+
+    @Test
+    public void testSalesStreamsReturnOneRowPerOrderAndGroup() {
+
+        Category drinks = categories.get(0);
+        Date dateCreated = new Date(System.currentTimeMillis() - 3600 * 1000);
+        // LA MISMA CERVEZA EN DOS LINEAS DE LA MISMA ORDEN
+        entityManager.persist(new Order(employee, dateCreated, new ArrayList<>(List.of(entityManager.persist(new ProductOrder("Beer", 10.00, 4.00, drinks, 1)), entityManager.persist(new ProductOrder("Beer", 10.00, 4.00, drinks, 2)), entityManager.persist(new ProductOrder("Wine", 20.00, 8.00, drinks, 1)))), 50.00, 20.00));
+        entityManager.persist(new Order(employee, dateCreated, new ArrayList<>(List.of(entityManager.persist(new ProductOrder("Beer", 10.00, 4.00, drinks, 1)))), 10.00, 4.00));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderSalesDTO> orders = orderRepository.streamSales().toList();
+        List<OrderSalesDTO> products = productOrderRepository.streamProductSales().toList();
+        List<OrderSalesDTO> categorySales = productOrderRepository.streamCategorySales().toList();
+
+        Assertions.assertEquals(2, orders.size());
+        Assertions.assertEquals(60.00, orders.stream().mapToDouble(OrderSalesDTO::getRevenue).sum());
+        Assertions.assertEquals(dateCreated.getTime(), orders.get(0).getDateCreated().getTime());
+        Assertions.assertEquals(3, products.size());
+        Assertions.assertEquals(List.of(1L, 3L), products.stream().filter(sale -> sale.getProductName().equals("Beer")).map(OrderSalesDTO::getQuantity).sorted().toList());
+        Assertions.assertEquals(2, categorySales.size());
+        Assertions.assertEquals(List.of(1L, 4L), categorySales.stream().map(OrderSalesDTO::getQuantity).sorted().toList());
+        Assertions.assertEquals(drinks.getName(), categorySales.get(0).getCategoryName());
+    }
+
+    private long statementsToRead(int orderCount, Consumer<List<Order>> read) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            List<ProductOrder> productOrders = new ArrayList<>();
+            for (Category category : categories) {
+                productOrders.add(entityManager.persist(new ProductOrder("Product " + category.getName(), 10.00, 4.00, category, 1)));
+            }
+            orders.add(entityManager.persist(new Order(employee, new Date(System.currentTimeMillis() - i * 1000L), productOrders, 30.00, 12.00)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        read.accept(orders);
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+
+    private Consumer<Order> readLines() {
+        return order -> order.getProductOrders().forEach(productOrder -> productOrder.getCategory().getName());
+    }
+}
@@ -0,0 +1,57 @@
+package com.messismo.bar.RepositoriesTests;
+
+import com.messismo.bar.Entities.SalesRollup;
+import com.messismo.bar.Repositories.SalesRollupRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class SalesRollupRepositoryTests {
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Test
+    public void testSumDailyByYearReturnsOneRowPerYearAndKey() {
+
+        salesRollupRepository.saveAll(List.of(
+                rollup(SalesRollup.Granularity.DAY, LocalDateTime.of(2022, 12, 31, 0, 0), SalesRollup.Dimension.TOTAL, "total", 5L, 50.00, 20.00, 2L),
+                rollup(SalesRollup.Granularity.DAY, LocalDateTime.of(2023, 1, 1, 0, 0), SalesRollup.Dimension.TOTAL, "total", 3L, 30.00, 10.00, 1L),
+                rollup(SalesRollup.Granularity.DAY, LocalDateTime.of(2023, 6, 15, 0, 0), SalesRollup.Dimension.TOTAL, "total", 4L, 40.00, 15.00, 2L),
+                rollup(SalesRollup.Granularity.DAY, LocalDateTime.of(2023, 6, 15, 0, 0), SalesRollup.Dimension.CATEGORY, "category:1", 4L, 40.00, 15.00, 2L),
+                // LAS HORAS REPITEN LO MISMO QUE LOS DIAS, NO SE SUMAN
+                rollup(SalesRollup.Granularity.HOUR, LocalDateTime.of(2023, 6, 15, 10, 0), SalesRollup.Dimension.TOTAL, "total", 4L, 40.00, 15.00, 2L)));
+
+        List<SalesRollup> yearly = salesRollupRepository.sumDailyByYear();
+
+        Assertions.assertEquals(3, yearly.size());
+        SalesRollup total2023 = find(yearly, 2023, "total");
+        Assertions.assertEquals(LocalDateTime.of(2023, 1, 1, 0, 0), total2023.getBucketStart());
+        Assertions.assertEquals(7L, total2023.getQuantity());
+        Assertions.assertEquals(70.00, total2023.getRevenue());
+        Assertions.assertEquals(25.00, total2023.getCost());
+        Assertions.assertEquals(3L, total2023.getOrderCount());
+        Assertions.assertEquals(2L, find(yearly, 2022, "total").getOrderCount());
+        SalesRollup drinks2023 = find(yearly, 2023, "category:1");
+        Assertions.assertEquals(1L, drinks2023.getCategoryId());
+        Assertions.assertEquals("Drinks", drinks2023.getCategoryName());
+    }
+
+    private SalesRollup find(List<SalesRollup> rollups, int year, String key) {
+        return rollups.stream().filter(rollup -> rollup.getBucketStart().getYear() == year && rollup.getDimensionKey().equals(key)).findFirst().orElseThrow();
+    }
+
+    private SalesRollup rollup(SalesRollup.Granularity granularity, LocalDateTime bucketStart, SalesRollup.Dimension dimension, String key, long quantity, double revenue, double cost, long orderCount) {
+        SalesRollup rollup = SalesRollup.builder().granularity(granularity).bucketStart(bucketStart).dimension(dimension).dimensionKey(key).quantity(quantity).revenue(revenue).cost(cost).orderCount(orderCount).build();
+        if (dimension == SalesRollup.Dimension.CATEGORY) {
+            rollup.setCategoryId(1L);
+            rollup.setCategoryName("Drinks");
+        }
+        return rollup;
+    }
+}
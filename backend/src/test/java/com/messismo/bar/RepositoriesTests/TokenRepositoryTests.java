@@ -0,0 +1,67 @@
+package com.messismo.bar.RepositoriesTests;
+
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.Token;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Repositories.TokenRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Date;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class TokenRepositoryTests {
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    private Date now;
+
+    @BeforeEach
+    public void setup() {
+        user = entityManager.persist(User.builder().username("employee").email("employee@mail.com").password("Password1").role(Role.EMPLOYEE).build());
+        now = new Date();
+    }
+
+    @Test
+    public void testFindAllValidTokenByUserSkipsRevokedTokens() {
+
+        Token valid = entityManager.persist(new Token("valid", user, inOneHour()));
+        Token revoked = new Token("revoked", user, inOneHour());
+        revoked.removeValidation();
+        entityManager.persist(revoked);
+
+        Assertions.assertEquals(List.of(valid), tokenRepository.findAllValidTokenByUser(user.getId()));
+    }
+
+    @Test
+    public void testFindExpiredIdsReturnsOnlyExpiredRowsInBatches() {
+
+        Token expired1 = entityManager.persist(new Token("expired1", user, anHourAgo()));
+        Token expired2 = entityManager.persist(new Token("expired2", user, anHourAgo()));
+        entityManager.persist(new Token("valid", user, inOneHour()));
+        entityManager.persist(new Token("legacy", user, null));
+
+        Assertions.assertEquals(List.of(expired1.getId()), tokenRepository.findExpiredIds(now, PageRequest.of(0, 1)));
+        Assertions.assertEquals(List.of(expired1.getId(), expired2.getId()), tokenRepository.findExpiredIds(now, PageRequest.of(0, 10)));
+    }
+
+    private Date inOneHour() {
+        return new Date(now.getTime() + 3600 * 1000);
+    }
+
+    private Date anHourAgo() {
+        return new Date(now.getTime() - 3600 * 1000);
+    }
+}
@@ -0,0 +1,127 @@
+package com.messismo.bar.RepositoriesTests;
+
+import com.messismo.bar.DTOs.UserDTO;
+import com.messismo.bar.Entities.PointsAccount;
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+
+import java.util.EnumSet;
+import java.util.List;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class UserRepositoryTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.persist(new User("employee", "employee@mail.com", "Password1"));
+        persistClient("messi", "messi@mail.com", "10000001", 30.00);
+        persistClient("dibu", "dibu@mail.com", "10000002", 120.00);
+        persistClient("julian", "julian@mail.com", "10000003", null);
+        persistClient("enzo_fernandez", "enzo@mail.com", "10000004", 5.00);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testFindAllClientsWithPointsUsesOneStatement() {
+
+        statistics.clear();
+        List<UserDTO> clients = userRepository.findAllClientsWithPoints();
+
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(List.of("messi", "dibu", "julian", "enzo_fernandez"), clients.stream().map(UserDTO::getUsername).toList());
+        Assertions.assertEquals(List.of(30.00, 120.00, 0.00, 5.00), clients.stream().map(UserDTO::getCurrentPoints).toList());
+        Assertions.assertTrue(clients.stream().allMatch(client -> client.getRole() == Role.CLIENT));
+    }
+
+    @Test
+    public void testFindClientsWithPointsSortsByBalanceAndPages() {
+
+        Sort byBalance = JpaSort.unsafe(Sort.Direction.DESC, "COALESCE(p.currentBalance, 0.0)").and(Sort.by(Sort.Direction.DESC, "id"));
+
+        Slice<UserDTO> firstPage = userRepository.findClientsWithPoints(null, PageRequest.of(0, 3, byBalance));
+        Slice<UserDTO> secondPage = userRepository.findClientsWithPoints(null, PageRequest.of(1, 3, byBalance));
+
+        Assertions.assertEquals(List.of("dibu", "messi", "enzo_fernandez"), firstPage.getContent().stream().map(UserDTO::getUsername).toList());
+        Assertions.assertTrue(firstPage.hasNext());
+        Assertions.assertEquals(List.of("julian"), secondPage.getContent().stream().map(UserDTO::getUsername).toList());
+        Assertions.assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    public void testFindClientsWithPointsSearchesUsernameEmailAndClientId() {
+
+        Sort byUsername = Sort.by("username").and(Sort.by("id"));
+
+        Assertions.assertEquals(List.of("dibu"), usernames(userRepository.findClientsWithPoints("%dibu@%", PageRequest.of(0, 10, byUsername))));
+        Assertions.assertEquals(List.of("julian"), usernames(userRepository.findClientsWithPoints("%00003%", PageRequest.of(0, 10, byUsername))));
+        Assertions.assertEquals(List.of("enzo_fernandez"), usernames(userRepository.findClientsWithPoints("%o!_f%", PageRequest.of(0, 10, byUsername))));
+        Assertions.assertEquals(List.of(), usernames(userRepository.findClientsWithPoints("%employee%", PageRequest.of(0, 10, byUsername))));
+    }
+
+    @Test
+    public void testFindAllByRoleInLeavesClientsOut() {
+
+        entityManager.persist(User.builder().username("manager").email("manager@mail.com").password("Password1").role(Role.MANAGER).build());
+
+        List<UserDTO> employees = userRepository.findAllByRoleIn(EnumSet.of(Role.EMPLOYEE, Role.VALIDATEDEMPLOYEE, Role.MANAGER, Role.ADMIN));
+
+        Assertions.assertEquals(List.of("employee", "manager"), employees.stream().map(UserDTO::getUsername).toList());
+        Assertions.assertTrue(employees.stream().allMatch(employee -> employee.getClientId() == null && employee.getCurrentPoints() == null));
+    }
+
+    @Test
+    public void testFindByRoleInFiltersRoleAndSearch() {
+
+        entityManager.persist(User.builder().username("manager").email("manager@mail.com").password("Password1").role(Role.MANAGER).build());
+        entityManager.persist(User.builder().username("cashier").email("cashier@mail.com").password("Password1").role(Role.EMPLOYEE).build());
+        Sort byUsername = Sort.by("username").and(Sort.by("id"));
+
+        Slice<UserDTO> firstPage = userRepository.findByRoleIn(EnumSet.of(Role.EMPLOYEE, Role.MANAGER), null, PageRequest.of(0, 2, byUsername));
+
+        Assertions.assertEquals(List.of("cashier", "employee"), usernames(firstPage));
+        Assertions.assertTrue(firstPage.hasNext());
+        Assertions.assertEquals(List.of("manager"), usernames(userRepository.findByRoleIn(EnumSet.of(Role.MANAGER), null, PageRequest.of(0, 2, byUsername))));
+        Assertions.assertEquals(List.of("cashier"), usernames(userRepository.findByRoleIn(EnumSet.of(Role.EMPLOYEE), "%cash%", PageRequest.of(0, 2, byUsername))));
+        Assertions.assertEquals(List.of(), usernames(userRepository.findByRoleIn(EnumSet.of(Role.EMPLOYEE), "%messi%", PageRequest.of(0, 2, byUsername))));
+    }
+
+    private List<String> usernames(Slice<UserDTO> clients) {
+        return clients.getContent().stream().map(UserDTO::getUsername).toList();
+    }
+
+    private void persistClient(String username, String email, String clientId, Double balance) {
+        entityManager.persist(new User(username, email, "Password1", clientId));
+        if (balance != null) {
+            PointsAccount account = new PointsAccount(clientId);
+            account.addPoints(balance);
+            entityManager.persist(account);
+        }
+    }
+}
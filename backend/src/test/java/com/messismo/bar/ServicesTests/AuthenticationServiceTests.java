@@ -10,6 +10,7 @@ import com.messismo.bar.Repositories.TokenRepository;
 import com.messismo.bar.Repositories.UserRepository;
 import com.messismo.bar.Services.AuthenticationService;
 import com.messismo.bar.Services.JwtService;
+import com.messismo.bar.Services.TokenRevocationService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -49,6 +50,9 @@ public class AuthenticationServiceTests {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @BeforeEach
     public void setUp() {
 
@@ -163,8 +167,8 @@ public class AuthenticationServiceTests {
     public void testRevokeAllUserTokens() {
 
         User user = User.builder().id(1L).build();
-        Token token1 = Token.builder().id(1L).revoked(false).expired(false).build();
-        Token token2 = Token.builder().id(2L).revoked(false).expired(false).build();
+        Token token1 = Token.builder().id(1L).token("jwt1").revoked(false).expired(false).build();
+        Token token2 = Token.builder().id(2L).token("jwt2").revoked(false).expired(false).build();
         List<Token> validTokens = new ArrayList<>();
         validTokens.add(token1);
         validTokens.add(token2);
@@ -176,6 +180,8 @@ public class AuthenticationServiceTests {
             Assertions.assertTrue(token.isExpired());
         }
         verify(tokenRepository, times(1)).saveAll(validTokens);
+        verify(tokenRevocationService, times(1)).revoke("jwt1");
+        verify(tokenRevocationService, times(1)).revoke("jwt2");
     }
 
 }
@@ -0,0 +1,132 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.BenefitResponseDTO;
+import com.messismo.bar.Entities.Benefit;
+import com.messismo.bar.Repositories.BenefitRepository;
+import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Services.BenefitCatalog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BenefitCatalogTests {
+
+    @InjectMocks
+    private BenefitCatalog benefitCatalog;
+
+    @Mock
+    private BenefitRepository benefitRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private Benefit mondayDiscount;
+
+    private Benefit everydayDiscount;
+
+    private Benefit freeWine;
+
+    private Benefit freeBeer;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        mondayDiscount = Benefit.builder().id(1L).type(Benefit.BenefitType.DISCOUNT).pointsRequired(100).discountType(Benefit.DiscountType.PERCENTAGE).discountValue(10.0).applicableDays("[\"MONDAY\"]").active(true).build();
+        everydayDiscount = Benefit.builder().id(2L).type(Benefit.BenefitType.DISCOUNT).pointsRequired(300).discountType(Benefit.DiscountType.FIXED_AMOUNT).discountValue(500.0).applicableDays("[\"EVERYDAY\"]").active(true).build();
+        freeWine = Benefit.builder().id(3L).type(Benefit.BenefitType.FREE_PRODUCT).pointsRequired(200).applicableDays("[\"FRIDAY\", \"SATURDAY\"]").productIds("[1, 2]").active(true).build();
+        freeBeer = Benefit.builder().id(4L).type(Benefit.BenefitType.FREE_PRODUCT).pointsRequired(150).applicableDays("[\"SATURDAY\"]").productIds("[2, 3]").active(true).build();
+        when(benefitRepository.findByActiveTrue()).thenReturn(List.of(mondayDiscount, everydayDiscount, freeWine, freeBeer));
+        when(productRepository.findNamesByProductIdIn(any())).thenReturn(List.of(productName(1L, "Vino"), productName(2L, "Cerveza")));
+    }
+
+    @Test
+    public void testProductNamesAreResolvedWithOneQuery() {
+
+        List<BenefitResponseDTO> benefits = benefitCatalog.getActive();
+
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L), benefits.stream().map(BenefitResponseDTO::getId).toList());
+        Assertions.assertEquals(List.of("Vino", "Cerveza"), benefits.get(2).getProductNames());
+        Assertions.assertEquals(List.of("Cerveza", "Unknown Product"), benefits.get(3).getProductNames());
+        Assertions.assertNull(benefits.get(0).getProductNames());
+        Assertions.assertEquals(List.of("EVERYDAY"), benefits.get(1).getApplicableDays());
+        verify(productRepository, times(1)).findNamesByProductIdIn(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    public void testReadsAreServedFromTheSnapshotUntilInvalidated() {
+
+        benefitCatalog.getActive();
+        benefitCatalog.getByType(Benefit.BenefitType.DISCOUNT);
+        benefitCatalog.getForPoints(1000, DayOfWeek.MONDAY);
+        verify(benefitRepository, times(1)).findByActiveTrue();
+        when(benefitRepository.findByActiveTrue()).thenReturn(List.of(mondayDiscount));
+
+        benefitCatalog.invalidate();
+
+        Assertions.assertEquals(List.of(1L), benefitCatalog.getActive().stream().map(BenefitResponseDTO::getId).toList());
+        verify(benefitRepository, times(2)).findByActiveTrue();
+    }
+
+    @Test
+    public void testGetByType() {
+
+        Assertions.assertEquals(List.of(3L, 4L), benefitCatalog.getByType(Benefit.BenefitType.FREE_PRODUCT).stream().map(BenefitResponseDTO::getId).toList());
+    }
+
+    @Test
+    public void testGetForPointsFiltersByPointsAndDay() {
+
+        Assertions.assertEquals(List.of(1L), benefitCatalog.getForPoints(150, DayOfWeek.MONDAY).stream().map(BenefitResponseDTO::getId).toList());
+        Assertions.assertEquals(List.of(4L), benefitCatalog.getForPoints(150, DayOfWeek.SATURDAY).stream().map(BenefitResponseDTO::getId).toList());
+        Assertions.assertEquals(List.of(4L, 3L, 2L), benefitCatalog.getForPoints(300, DayOfWeek.SATURDAY).stream().map(BenefitResponseDTO::getId).toList());
+        Assertions.assertEquals(List.of(), benefitCatalog.getForPoints(99, DayOfWeek.MONDAY));
+    }
+
+    @Test
+    public void testGetForPointsIncludesTheExactThreshold() {
+
+        Assertions.assertEquals(List.of(4L, 3L), benefitCatalog.getForPoints(200, DayOfWeek.SATURDAY).stream().map(BenefitResponseDTO::getId).toList());
+        Assertions.assertEquals(List.of(4L, 3L), benefitCatalog.getForPoints(299, DayOfWeek.SATURDAY).stream().map(BenefitResponseDTO::getId).toList());
+        Assertions.assertEquals(List.of(2L), benefitCatalog.getForPoints(Integer.MAX_VALUE, DayOfWeek.TUESDAY).stream().map(BenefitResponseDTO::getId).toList());
+        Assertions.assertEquals(List.of(), benefitCatalog.getForPoints(-10, DayOfWeek.SATURDAY));
+        verify(benefitRepository, times(1)).findByActiveTrue();
+    }
+
+    @Test
+    public void testParseDays() {
+
+        Assertions.assertEquals(EnumSet.allOf(DayOfWeek.class), Benefit.parseDays("[\"EVERYDAY\"]"));
+        Assertions.assertEquals(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.SUNDAY), Benefit.parseDays("[\"monday\", \"SUNDAY\", \"HOLIDAY\"]"));
+        Assertions.assertEquals(EnumSet.noneOf(DayOfWeek.class), Benefit.parseDays("not json"));
+        Assertions.assertEquals(EnumSet.noneOf(DayOfWeek.class), Benefit.parseDays(null));
+        Assertions.assertTrue(freeWine.isApplicableOnDay("friday"));
+        Assertions.assertFalse(freeWine.isApplicableOnDay("MONDAY"));
+        Assertions.assertFalse(freeWine.isApplicableOnDay("EVERYDAY"));
+    }
+
+    private ProductRepository.ProductName productName(Long productId, String name) {
+        return new ProductRepository.ProductName() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
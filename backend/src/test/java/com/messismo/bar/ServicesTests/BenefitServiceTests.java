@@ -5,6 +5,7 @@ import com.messismo.bar.DTOs.BenefitResponseDTO;
 import com.messismo.bar.Entities.Benefit;
 import com.messismo.bar.Repositories.BenefitRepository;
 import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Services.BenefitCatalog;
 import com.messismo.bar.Services.BenefitService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +18,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -52,6 +56,7 @@ public class BenefitServiceTests {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(benefitService, "benefitCatalog", new BenefitCatalog(benefitRepository, productRepository));
         discountBenefit = Benefit.builder()
                 .id(1L)
                 .type(Benefit.BenefitType.DISCOUNT)
@@ -160,6 +165,44 @@ public class BenefitServiceTests {
 
 
 
+    @Test
+    void testIsDuplicateBenefit_ComparesProductSets() {
+        Benefit sameProducts = Benefit.builder().id(5L).type(Benefit.BenefitType.FREE_PRODUCT).pointsRequired(200).products(Set.of(3L, 1L, 2L)).active(true).build();
+        Benefit otherProducts = Benefit.builder().id(6L).type(Benefit.BenefitType.FREE_PRODUCT).pointsRequired(200).products(Set.of(1L, 2L)).active(true).build();
+        when(benefitRepository.findDuplicateCandidates(Benefit.BenefitType.FREE_PRODUCT, 200, null, null, 0)).thenReturn(List.of(otherProducts), List.of(otherProducts, sameProducts));
+
+        assertFalse(benefitService.isDuplicateBenefit(freeProductRequestDTO));
+        assertTrue(benefitService.isDuplicateBenefit(freeProductRequestDTO));
+    }
+
+    @Test
+    void testIsDuplicateBenefit_DaysInAnyOrder() {
+        BenefitRequestDTO reordered = BenefitRequestDTO.builder().type(Benefit.BenefitType.DISCOUNT).pointsRequired(100).discountType(Benefit.DiscountType.PERCENTAGE).discountValue(10.0).applicableDays(Arrays.asList("TUESDAY", "MONDAY")).build();
+        int mondayAndTuesday = Benefit.dayBit(DayOfWeek.MONDAY) | Benefit.dayBit(DayOfWeek.TUESDAY);
+        when(benefitRepository.findDuplicateCandidates(Benefit.BenefitType.DISCOUNT, 100, Benefit.DiscountType.PERCENTAGE, 10.0, mondayAndTuesday)).thenReturn(List.of(discountBenefit));
+
+        assertTrue(benefitService.isDuplicateBenefit(reordered));
+    }
+
+    @Test
+    void testFillMissingStructuredFields() {
+        when(benefitRepository.findByDaysMaskIsNull()).thenReturn(List.of(freeProductBenefit));
+
+        benefitService.fillMissingStructuredFields();
+
+        assertNotNull(freeProductBenefit.getDaysMask());
+        assertEquals(Set.of(1L, 2L, 3L), freeProductBenefit.getProducts());
+        verify(benefitRepository, times(1)).saveAll(List.of(freeProductBenefit));
+    }
+
+    @Test
+    void testFillMissingStructuredFields_SchemaWithoutColumns() {
+        when(benefitRepository.findByDaysMaskIsNull()).thenThrow(new RuntimeException("Column DAYS_MASK not found"));
+
+        assertDoesNotThrow(() -> benefitService.fillMissingStructuredFields());
+        verify(benefitRepository, never()).saveAll(any());
+    }
+
     @Test
     void testDeleteBenefit_Success() {
         when(benefitRepository.findById(1L)).thenReturn(Optional.of(discountBenefit));
@@ -201,16 +244,14 @@ public class BenefitServiceTests {
 
     @Test
     void testGetBenefitsByType_Success() {
-        List<Benefit> discountBenefits = Arrays.asList(discountBenefit);
-        when(benefitRepository.findByTypeAndActiveTrue(Benefit.BenefitType.DISCOUNT))
-                .thenReturn(discountBenefits);
+        when(benefitRepository.findByActiveTrue()).thenReturn(Arrays.asList(discountBenefit, freeProductBenefit));
 
         List<BenefitResponseDTO> result = benefitService.getBenefitsByType(Benefit.BenefitType.DISCOUNT);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(Benefit.BenefitType.DISCOUNT, result.get(0).getType());
-        verify(benefitRepository, times(1)).findByTypeAndActiveTrue(Benefit.BenefitType.DISCOUNT);
+        verify(benefitRepository, times(1)).findByActiveTrue();
     }
 
     @Test
@@ -225,15 +266,15 @@ public class BenefitServiceTests {
                 .active(true)
                 .build();
         
-        List<Benefit> benefits = Arrays.asList(applicableBenefit);
-        when(benefitRepository.findByPointsRequiredLessThanEqual(150)).thenReturn(benefits);
+        List<Benefit> benefits = Arrays.asList(applicableBenefit, freeProductBenefit);
+        when(benefitRepository.findByActiveTrue()).thenReturn(benefits);
 
         List<BenefitResponseDTO> result = benefitService.getBenefitsForPoints(150);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertTrue(result.get(0).getPointsRequired() <= 150);
-        verify(benefitRepository, times(1)).findByPointsRequiredLessThanEqual(150);
+        verify(benefitRepository, times(1)).findByActiveTrue();
     }
 
     @Test
@@ -9,6 +9,7 @@ import com.messismo.bar.Exceptions.ExistingCategoryFoundException;
 import com.messismo.bar.Repositories.CategoryRepository;
 import com.messismo.bar.Repositories.ProductRepository;
 import com.messismo.bar.Services.CategoryService;
+import com.messismo.bar.Services.MenuCache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,9 @@ public class CategoryServiceTests {
     @InjectMocks
     private CategoryService categoryService;
 
+    @Mock
+    private MenuCache menuCache;
+
     @Mock
     private ProductRepository productRepository;
 
@@ -0,0 +1,75 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Repositories.ClientIdCounterRepository;
+import com.messismo.bar.Repositories.UserRepository;
+import com.messismo.bar.Services.ClientIdService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ClientIdServiceConcurrencyTests {
+
+    private static final int THREADS = 32;
+
+    private static final int SIGNUPS_PER_THREAD = 125;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClientIdCounterRepository clientIdCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanup() {
+        clientIdCounterRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentSignupsOnTwoInstancesNeverCollide() throws Exception {
+
+        // DOS INSTANCIAS DEL SERVICIO, COMO DOS NODOS CONTRA LA MISMA BASE
+        List<ClientIdService> instances = List.of(newInstance(), newInstance());
+        Set<String> clientIds = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ClientIdService instance = instances.get(i % 2);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < SIGNUPS_PER_THREAD; j++) {
+                    Assertions.assertTrue(clientIds.add(instance.generateUniqueClientId()));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(THREADS * SIGNUPS_PER_THREAD, clientIds.size());
+        Assertions.assertTrue(clientIds.stream().allMatch(clientId -> clientId.length() == 8));
+    }
+
+    private ClientIdService newInstance() {
+        return new ClientIdService(userRepository, clientIdCounterRepository, new TransactionTemplate(transactionManager), 42L);
+    }
+}
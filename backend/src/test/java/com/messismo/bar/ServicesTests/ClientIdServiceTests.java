@@ -0,0 +1,109 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Entities.ClientIdCounter;
+import com.messismo.bar.Repositories.ClientIdCounterRepository;
+import com.messismo.bar.Repositories.UserRepository;
+import com.messismo.bar.Services.ClientIdService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ClientIdServiceTests {
+
+    private ClientIdService clientIdService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ClientIdCounterRepository clientIdCounterRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ClientIdCounter counter;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        counter = new ClientIdCounter(ClientIdCounter.SINGLETON_ID, 0L);
+        when(clientIdCounterRepository.findForUpdate(ClientIdCounter.SINGLETON_ID)).thenReturn(Optional.of(counter));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        clientIdService = new ClientIdService(userRepository, clientIdCounterRepository, transactionTemplate, 42L);
+    }
+
+    @Test
+    public void testPermutationNeverRepeatsAndStaysInRange() {
+
+        Set<Long> permuted = new HashSet<>();
+        for (long value = 0; value < 200000; value++) {
+            long id = clientIdService.permute(value);
+            Assertions.assertTrue(id >= 0 && id < ClientIdService.ID_SPACE);
+            permuted.add(id);
+        }
+
+        Assertions.assertEquals(200000, permuted.size());
+    }
+
+    @Test
+    public void testIdsHaveEightDigitsAndAreNotSequential() {
+
+        String first = clientIdService.generateUniqueClientId();
+        String second = clientIdService.generateUniqueClientId();
+
+        Assertions.assertEquals(8, first.length());
+        Assertions.assertEquals(8, second.length());
+        Assertions.assertNotEquals(1, Math.abs(Long.parseLong(second) - Long.parseLong(first)));
+    }
+
+    @Test
+    public void testReservesOneBlockEveryBlockSizeIds() {
+
+        for (int i = 0; i < ClientIdService.BLOCK_SIZE + 1; i++) {
+            clientIdService.generateUniqueClientId();
+        }
+
+        verify(transactionTemplate, times(2)).execute(any());
+        Assertions.assertEquals(2L * ClientIdService.BLOCK_SIZE, counter.getNextValue());
+    }
+
+    @Test
+    public void testCreatesTheCounterRowOnFirstUse() {
+
+        when(clientIdCounterRepository.findForUpdate(ClientIdCounter.SINGLETON_ID)).thenReturn(Optional.empty());
+        when(clientIdCounterRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Assertions.assertEquals(String.valueOf(ClientIdService.FIRST_ID + clientIdService.permute(0)), clientIdService.generateUniqueClientId());
+    }
+
+    @Test
+    public void testSkipsIdsTakenByOlderClients() {
+
+        String taken = String.valueOf(ClientIdService.FIRST_ID + clientIdService.permute(0));
+        when(userRepository.existsByClientId(taken)).thenReturn(true);
+
+        Assertions.assertEquals(String.valueOf(ClientIdService.FIRST_ID + clientIdService.permute(1)), clientIdService.generateUniqueClientId());
+    }
+
+    @Test
+    public void testRunsOutOfIds() {
+
+        counter.setNextValue(ClientIdService.ID_SPACE);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> clientIdService.generateUniqueClientId());
+        Assertions.assertEquals("Unable to generate unique client ID", exception.getMessage());
+    }
+}
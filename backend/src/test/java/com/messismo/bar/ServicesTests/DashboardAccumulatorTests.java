@@ -0,0 +1,95 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Order;
+import com.messismo.bar.Entities.ProductOrder;
+import com.messismo.bar.Entities.SalesRollup;
+import com.messismo.bar.Services.DashboardAccumulator;
+import com.messismo.bar.Services.SalesRollupService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+public class DashboardAccumulatorTests {
+
+    private final Category drinks = Category.builder().categoryId(1L).name("Drinks").build();
+
+    private final Category food = Category.builder().categoryId(2L).name("Food").build();
+
+    @Test
+    public void testSeriesAndDonutsFromRollupsWithoutFilter() throws Exception {
+
+        DashboardAccumulator<Integer> accumulator = DashboardAccumulator.sorted(LocalDateTime::getMonthValue, new ArrayList<>());
+        dailyRollups(createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00), line("Pizza", food, 1, 30.00, 10.00)), createOrder("2023-06-01 12:00:00", line("Beer", drinks, 1, 10.00, 4.00))).forEach(accumulator::add);
+
+        Assertions.assertEquals(Map.of(5, 1, 6, 1), accumulator.getQuantitySeries());
+        Assertions.assertEquals(Map.of(5, 32.00, 6, 6.00), accumulator.getEarningsSeries());
+        Assertions.assertEquals(Map.of("Beer", 3, "Pizza", 1), accumulator.getQuantityProductDonut());
+        Assertions.assertEquals(Map.of("Drinks", 3, "Food", 1), accumulator.getQuantityCategoryDonut());
+        Assertions.assertEquals(Map.of("Drinks", 18.00, "Food", 20.00), accumulator.getEarningCategoryDonut());
+    }
+
+    @Test
+    public void testFilterByCategoryId() throws Exception {
+
+        Category renamedDrinks = Category.builder().categoryId(1L).name("Old drinks name").build();
+        DashboardAccumulator<Integer> accumulator = DashboardAccumulator.sorted(LocalDateTime::getMonthValue, List.of(renamedDrinks));
+        dailyRollups(createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00), line("Pizza", food, 1, 30.00, 10.00))).forEach(accumulator::add);
+        accumulator.addOrders(5, 1);
+
+        Assertions.assertEquals(Map.of(5, 1), accumulator.getQuantitySeries());
+        Assertions.assertEquals(Map.of(5, 12.00), accumulator.getEarningsSeries());
+        Assertions.assertEquals(Map.of("Beer", 2), accumulator.getQuantityProductDonut());
+        Assertions.assertEquals(Map.of("Drinks", 12.00), accumulator.getEarningCategoryDonut());
+    }
+
+    @Test
+    public void testOrdersFeedSeriesAndDonuts() throws Exception {
+
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.inLabelOrder(dateTime -> dateTime.format(DateTimeFormatter.ofPattern("dd/MM")), List.of(food));
+        accumulator.addLabels(List.of("31/12", "01/01"));
+        accumulator.add(createOrder("2023-12-31 21:00:00", line("Pizza", food, 2, 30.00, 10.00), line("Beer", drinks, 1, 10.00, 4.00)));
+        accumulator.add(createOrder("2024-01-01 01:00:00", line("Beer", drinks, 1, 10.00, 4.00)));
+
+        Assertions.assertEquals(List.of("31/12", "01/01"), new ArrayList<>(accumulator.getQuantitySeries().keySet()));
+        Assertions.assertEquals(1, accumulator.getQuantitySeries().get("31/12"));
+        Assertions.assertEquals(0, accumulator.getQuantitySeries().get("01/01"));
+        Assertions.assertEquals(40.00, accumulator.getEarningsSeries().get("31/12"));
+        Assertions.assertEquals(40.00, accumulator.getAverageSeries().get("31/12"));
+        Assertions.assertEquals(Map.of("Food", 2), accumulator.getQuantityCategoryDonut());
+    }
+
+    @Test
+    public void testEarningCategoryDonutIncludesCategoriesWithoutSales() throws Exception {
+
+        DashboardAccumulator<String> accumulator = DashboardAccumulator.donutsOnly();
+        accumulator.addCategories(List.of(drinks, food));
+        accumulator.add(createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00)));
+
+        Assertions.assertEquals(Map.of("Drinks", 12.00, "Food", 0.0), accumulator.getEarningCategoryDonut());
+        Assertions.assertEquals(Map.of("Drinks", 2), accumulator.getQuantityCategoryDonut());
+    }
+
+    private List<SalesRollup> dailyRollups(Order... orders) {
+        return SalesRollupService.aggregate(List.of(orders)).stream().filter(rollup -> rollup.getGranularity() == SalesRollup.Granularity.DAY).toList();
+    }
+
+    private Order createOrder(String date, ProductOrder... productOrders) throws Exception {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        double totalPrice = 0.00;
+        double totalCost = 0.00;
+        for (ProductOrder productOrder : productOrders) {
+            totalPrice += productOrder.getProductUnitPrice() * productOrder.getQuantity();
+            totalCost += productOrder.getProductUnitCost() * productOrder.getQuantity();
+        }
+        return Order.builder().dateCreated(dateFormat.parse(date)).productOrders(new ArrayList<>(List.of(productOrders))).totalPrice(totalPrice).totalCost(totalCost).status("Open").build();
+    }
+
+    private ProductOrder line(String productName, Category category, int quantity, double unitPrice, double unitCost) {
+        return new ProductOrder(productName, unitPrice, unitCost, category, quantity);
+    }
+}
@@ -1,12 +1,15 @@
 package com.messismo.bar.ServicesTests;
 
 import com.messismo.bar.DTOs.DashboardRequestDTO;
+import com.messismo.bar.DTOs.SalesBucketDTO;
 import com.messismo.bar.Entities.*;
 import com.messismo.bar.Exceptions.InvalidDashboardRequestedDate;
 import com.messismo.bar.Repositories.CategoryRepository;
 import com.messismo.bar.Repositories.OrderRepository;
 import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Repositories.SalesRollupRepository;
 import com.messismo.bar.Services.DashboardService;
+import com.messismo.bar.Services.SalesRollupService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,9 +17,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 
 import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 public class DashboardServiceTests {
@@ -33,6 +41,11 @@ public class DashboardServiceTests {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    private final Map<String, Long> categoryIds = new HashMap<>();
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
@@ -51,6 +64,7 @@ public class DashboardServiceTests {
         Category category13 = Category.builder().categoryId(13L).name("Bakery").build();
         Category category14 = Category.builder().categoryId(14L).name("Sweets").build();
         List<Category> categories = Arrays.asList(category1, category2, category3, category4, category5, category6, category7, category8, category9, category10, category11, category12, category13, category14);
+        categories.forEach(category -> categoryIds.put(category.getName(), category.getCategoryId()));
         when(categoryRepository.findAll()).thenReturn(categories);
     }
 
@@ -132,7 +146,7 @@ public class DashboardServiceTests {
 
         List<Order> fakeOrders = createFakeOrders();
 
-        when(orderRepository.findAll()).thenReturn(fakeOrders);
+        mockRollups(fakeOrders);
         DashboardRequestDTO request = DashboardRequestDTO.builder().categoryList(new ArrayList<>()).build();
         HashMap<String, Object> response = dashboardService.getDashboardInformation(request);
         HashMap<String, Integer> quantityCategoryDonut = new HashMap<>();
@@ -168,7 +182,7 @@ public class DashboardServiceTests {
     public void testGetDashboardInformationMonthly() throws Exception {
 
         List<Order> fakeOrders = createFakeOrders();
-        when(orderRepository.findAll()).thenReturn(fakeOrders);
+        mockRollups(fakeOrders);
         DashboardRequestDTO request = DashboardRequestDTO.builder().dateRequested("2023").categoryList(new ArrayList<>()).build();
         HashMap<String, Object> response = dashboardService.getDashboardInformation(request);
         HashMap<String, Integer> quantityCategoryDonut = new HashMap<>();
@@ -224,7 +238,7 @@ public class DashboardServiceTests {
     public void testGetDashboardInformationWeekly() throws Exception {
 
         List<Order> fakeOrders = createFakeOrders();
-        when(orderRepository.findAll()).thenReturn(fakeOrders);
+        mockRollups(fakeOrders);
         DashboardRequestDTO request = DashboardRequestDTO.builder().dateRequested("2023-05-10").categoryList(new ArrayList<>()).build();
         HashMap<String, Object> response = dashboardService.getDashboardInformation(request);
         HashMap<String, Integer> quantityCategoryDonut = new HashMap<>();
@@ -259,7 +273,7 @@ public class DashboardServiceTests {
     public void testGetDashboardInformationDaily() throws Exception {
 
         List<Order> fakeOrders = createFakeOrders();
-        when(orderRepository.findAll()).thenReturn(fakeOrders);
+        mockRollups(fakeOrders);
         DashboardRequestDTO request = DashboardRequestDTO.builder().dateRequested("2023-05").categoryList(new ArrayList<>()).build();
         HashMap<String, Object> response = dashboardService.getDashboardInformation(request);
         HashMap<String, Integer> quantityCategoryDonut = new HashMap<>();
@@ -348,7 +362,7 @@ public class DashboardServiceTests {
     public void testGetDashboardInformationCatch() {
 
         DashboardRequestDTO request = new DashboardRequestDTO();
-        when(orderRepository.findAll()).thenThrow(new RuntimeException("Simulated exception"));
+        when(salesRollupRepository.sumDailyByYear()).thenThrow(new RuntimeException("Simulated exception"));
 
         Exception exception = assertThrows(Exception.class, () -> {
             dashboardService.getDashboardInformation(request);
@@ -377,7 +391,7 @@ public class DashboardServiceTests {
         List<Category> allCategories = categoryRepository.findAll();
         String dateRequested = "2023-05";
         List<Order> fakeOrders = createFakeOrders();
-        when(orderRepository.findAll()).thenReturn(fakeOrders);
+        mockRollups(fakeOrders);
         HashMap<String, Object> result = dashboardService.getDailyInformation(dateRequested, allCategories);
 
         Assertions.assertNotNull(result.get("orderByQuantity"));
@@ -403,7 +417,7 @@ public class DashboardServiceTests {
         List<Category> allCategories = categoryRepository.findAll();
         String dateRequested = "2023-05-10";
         List<Order> fakeOrders = createFakeOrders();
-        when(orderRepository.findAll()).thenReturn(fakeOrders);
+        mockRollups(fakeOrders);
         HashMap<String, Object> result = dashboardService.getWeeklyInformation(dateRequested, allCategories);
 
         Assertions.assertNotNull(result.get("orderByQuantity"));
@@ -428,7 +442,7 @@ public class DashboardServiceTests {
         List<Category> allCategories = categoryRepository.findAll();
         String yearRequested = "2023";
         List<Order> fakeOrders = createFakeOrders();
-        when(orderRepository.findAll()).thenReturn(fakeOrders);
+        mockRollups(fakeOrders);
         HashMap<String, Object> result = dashboardService.getMonthlyInformation(yearRequested, allCategories);
 
         Assertions.assertNotNull(result.get("orderByQuantity"));
@@ -495,23 +509,43 @@ public class DashboardServiceTests {
     }
 
     private Category createFakeCategory(String categoryName) {
-        return Category.builder().name(categoryName).build();
+        Long categoryId = categoryIds.computeIfAbsent(categoryName, name -> (long) categoryIds.size() + 1);
+        return Category.builder().categoryId(categoryId).name(categoryName).build();
+    }
+
+    private void mockRollups(List<Order> orders) {
+        List<SalesRollup> dailyRollups = SalesRollupService.aggregate(orders).stream().filter(rollup -> rollup.getGranularity() == SalesRollup.Granularity.DAY).toList();
+        Map<String, SalesRollup> yearlyRollups = new LinkedHashMap<>();
+        for (SalesRollup rollup : dailyRollups) {
+            SalesRollup yearly = new SalesRollup(rollup.getBucketStart().getYear(), rollup.getDimension(), rollup.getDimensionKey(), rollup.getProductName(), rollup.getCategoryId(), rollup.getCategoryName(), 0L, 0.00, 0.00, 0L);
+            yearlyRollups.computeIfAbsent(yearly.getBucketStart().getYear() + "|" + yearly.getDimensionKey(), key -> yearly).add(rollup);
+        }
+        when(salesRollupRepository.sumDailyByYear()).thenReturn(new ArrayList<>(yearlyRollups.values()));
+        when(salesRollupRepository.findBetween(eq(SalesRollup.Granularity.DAY), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime start = invocation.getArgument(1);
+            LocalDateTime end = invocation.getArgument(2);
+            return dailyRollups.stream().filter(rollup -> !rollup.getBucketStart().isBefore(start) && rollup.getBucketStart().isBefore(end)).toList();
+        });
+        when(orderRepository.countOrdersWithAnyCategoryByDayBetween(any(), any(), any())).thenAnswer(invocation -> {
+            Date start = invocation.getArgument(0);
+            Date end = invocation.getArgument(1);
+            Collection<Long> categoryIds = invocation.getArgument(2);
+            Map<LocalDate, Long> counts = new TreeMap<>();
+            orders.stream().filter(order -> !order.getDateCreated().before(start) && order.getDateCreated().before(end)).filter(order -> order.getProductOrders().stream().anyMatch(productOrder -> categoryIds.contains(productOrder.getCategory().getCategoryId()))).forEach(order -> counts.merge(order.getDateCreated().toInstant().atZone(ZoneId.systemDefault()).toLocalDate(), 1L, Long::sum));
+            return counts.entrySet().stream().map(entry -> new SalesBucketDTO(entry.getKey().getYear(), entry.getKey().getMonthValue(), entry.getKey().getDayOfMonth(), entry.getValue())).toList();
+        });
     }
 
     private List<Category> createCategories() {
         List<Category> categories = new ArrayList<>();
-        Category pastries = new Category();
-        pastries.setName("Pastries");
-        categories.add(pastries);
-        Category beverages = new Category();
-        beverages.setName("Beverages");
-        categories.add(beverages);
+        categories.add(createFakeCategory("Pastries"));
+        categories.add(createFakeCategory("Beverages"));
         return categories;
     }
 
     private Order createOrderWithProductsAndCategory(String productName, String categoryName, int quantity, double unitPrice, double unitCost) {
         ProductOrder productOrder = new ProductOrder();
-        Category category = Category.builder().name(categoryName).build();
+        Category category = createFakeCategory(categoryName);
         Product product = Product.builder().name(productName).unitPrice(unitPrice).unitCost(unitCost).category(category).build();
         productOrder.setProductName(productName);
         productOrder.setCategory(category);
@@ -0,0 +1,125 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Goal;
+import com.messismo.bar.Entities.Order;
+import com.messismo.bar.Entities.ProductOrder;
+import com.messismo.bar.Repositories.GoalRepository;
+import com.messismo.bar.Services.GoalProgressService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.*;
+
+public class GoalProgressServiceTests {
+
+    @InjectMocks
+    private GoalProgressService goalProgressService;
+
+    @Mock
+    private GoalRepository goalRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final Category drinks = Category.builder().categoryId(1L).name("Drinks").build();
+
+    private final Category food = Category.builder().categoryId(2L).name("Food").build();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    public void testEarningsForEachGoalType() {
+
+        List<ProductOrder> productOrders = List.of(new ProductOrder("Beer", 10.00, 4.00, drinks, 2), new ProductOrder("Pizza", 30.00, 10.00, food, 1));
+
+        Assertions.assertEquals(32.00, GoalProgressService.earningsFor(goal(1L, "Total", "Total"), productOrders, 32.00));
+        Assertions.assertEquals(12.00, GoalProgressService.earningsFor(goal(2L, "Product", "Beer"), productOrders, 32.00));
+        Assertions.assertEquals(20.00, GoalProgressService.earningsFor(goal(3L, "Category", "Food"), productOrders, 32.00));
+        Assertions.assertEquals(0.00, GoalProgressService.earningsFor(goal(4L, "Product", "Wine"), productOrders, 32.00));
+    }
+
+    @Test
+    public void testRecordNewOrderAdvancesOnlyMatchingGoals() {
+
+        Order order = Order.builder().dateCreated(new Date()).productOrders(new ArrayList<>(List.of(new ProductOrder("Beer", 10.00, 4.00, drinks, 2)))).totalPrice(20.00).totalCost(8.00).build();
+        when(goalRepository.findContaining(order.getDateCreated())).thenReturn(List.of(goal(1L, "Total", "Total"), goal(2L, "Product", "Beer"), goal(3L, "Category", "Food")));
+
+        goalProgressService.recordNewOrder(order);
+
+        verify(goalRepository, times(1)).addProgress(1L, 12.00);
+        verify(goalRepository, times(1)).addProgress(2L, 12.00);
+        verify(goalRepository, never()).addProgress(eq(3L), anyDouble());
+    }
+
+    @Test
+    public void testRecordAddedProductOrdersOnlyCountsNewLines() {
+
+        Order order = Order.builder().dateCreated(new Date()).productOrders(new ArrayList<>(List.of(new ProductOrder("Beer", 10.00, 4.00, drinks, 2), new ProductOrder("Pizza", 30.00, 10.00, food, 1)))).totalPrice(50.00).totalCost(18.00).build();
+        when(goalRepository.findContaining(order.getDateCreated())).thenReturn(List.of(goal(1L, "Total", "Total"), goal(2L, "Category", "Food")));
+
+        goalProgressService.recordAddedProductOrders(order, List.of(new ProductOrder("Pizza", 30.00, 10.00, food, 1)), 30.00, 10.00);
+
+        verify(goalRepository, times(1)).addProgress(1L, 20.00);
+        verify(goalRepository, times(1)).addProgress(2L, 20.00);
+    }
+
+    @Test
+    public void testRecordPriceAdjustmentOnlyMovesTotalGoals() {
+
+        Order order = Order.builder().dateCreated(new Date()).productOrders(new ArrayList<>(List.of(new ProductOrder("Beer", 10.00, 4.00, drinks, 2)))).totalPrice(10.00).totalCost(8.00).build();
+        when(goalRepository.findContaining(order.getDateCreated())).thenReturn(List.of(goal(1L, "Total", "Total"), goal(2L, "Product", "Beer")));
+
+        goalProgressService.recordPriceAdjustment(order, -10.00);
+        goalProgressService.recordPriceAdjustment(order, 0.00);
+
+        verify(goalRepository, times(1)).addProgress(1L, -10.00);
+        verify(goalRepository, never()).addProgress(eq(2L), anyDouble());
+        verify(goalRepository, times(1)).findContaining(any());
+    }
+
+    @Test
+    public void testRecordNewOrderSwallowsRepositoryErrors() {
+
+        Order order = Order.builder().dateCreated(new Date()).productOrders(new ArrayList<>()).totalPrice(20.00).totalCost(8.00).build();
+        when(goalRepository.findContaining(any())).thenThrow(new RuntimeException("Database down"));
+
+        Assertions.assertDoesNotThrow(() -> goalProgressService.recordNewOrder(order));
+    }
+
+    @Test
+    public void testFailedIncrementRequestsARepair() {
+
+        Order order = Order.builder().dateCreated(new Date()).productOrders(new ArrayList<>()).totalPrice(20.00).totalCost(8.00).build();
+        when(goalRepository.findContaining(order.getDateCreated())).thenThrow(new RuntimeException("Database error"));
+        // LA PRIMERA PASADA DESPUES DE ARRANCAR SIEMPRE REPARA
+        Assertions.assertTrue(goalProgressService.takeRepairRequest());
+        Assertions.assertFalse(goalProgressService.takeRepairRequest());
+
+        goalProgressService.recordNewOrder(order);
+
+        Assertions.assertTrue(goalProgressService.takeRepairRequest());
+        Assertions.assertFalse(goalProgressService.takeRepairRequest());
+    }
+
+    private Goal goal(Long goalId, String objectType, String goalObject) {
+        return Goal.builder().goalId(goalId).objectType(objectType).goalObject(goalObject).goalObjective(100.00).currentGoal(0.00).achieved("Not Achieved").build();
+    }
+}
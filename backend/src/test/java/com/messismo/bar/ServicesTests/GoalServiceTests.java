@@ -10,12 +10,14 @@ import com.messismo.bar.Entities.ProductOrder;
 import com.messismo.bar.Exceptions.*;
 import com.messismo.bar.Repositories.GoalRepository;
 import com.messismo.bar.Services.CategoryService;
+import com.messismo.bar.Services.GoalProgressService;
 import com.messismo.bar.Services.GoalService;
 import com.messismo.bar.Services.OrderService;
 import com.messismo.bar.Services.ProductService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -46,6 +48,9 @@ public class GoalServiceTests {
     @Mock
     private GoalRepository goalRepository;
 
+    @Mock
+    private GoalProgressService goalProgressService;
+
 
     @BeforeEach
     public void setup() {
@@ -60,7 +65,7 @@ public class GoalServiceTests {
         achievedFilter.setAchieved(List.of("Expired"));
         List<Goal> allGoals = createMockGoalList();
 
-        when(goalService.updateGoals()).thenReturn(allGoals);
+        when(goalRepository.findAll()).thenReturn(allGoals);
         assertEquals(new ArrayList<>(), goalService.getGoals(achievedFilter));
 
     }
@@ -73,7 +78,7 @@ public class GoalServiceTests {
         achievedFilter.setAchieved(List.of());
         List<Goal> allGoals = createMockGoalList();
 
-        when(goalService.updateGoals()).thenReturn(allGoals);
+        when(goalRepository.findAll()).thenReturn(allGoals);
         assertEquals(allGoals, goalService.getGoals(achievedFilter));
 
     }
@@ -84,7 +89,7 @@ public class GoalServiceTests {
         GoalFilterRequestDTO achievedFilter = new GoalFilterRequestDTO();
         achievedFilter.setStatus(List.of());
         achievedFilter.setAchieved(List.of());
-        when(goalService.updateGoals()).thenThrow(new RuntimeException("CANNOT get goals at the moment") {
+        when(goalRepository.findAll()).thenThrow(new RuntimeException("CANNOT get goals at the moment") {
         });
         Exception exception = assertThrows(Exception.class, () -> {
             goalService.getGoals(achievedFilter);
@@ -188,6 +193,9 @@ public class GoalServiceTests {
 
         when(goalRepository.findAll()).thenReturn(goalList);
         assertEquals("Goal created successfully", goalService.addGoal(validDTO));
+        InOrder inOrder = inOrder(goalRepository, goalProgressService);
+        inOrder.verify(goalRepository).save(any(Goal.class));
+        inOrder.verify(goalProgressService).requestRepair();
 
     }
 
@@ -300,6 +308,80 @@ public class GoalServiceTests {
 
     }
 
+    @Test
+    public void testGoalServiceAddGoalStartedInThePastCountsExistingOrders() throws Exception {
+
+        Date startingDate = new Date(System.currentTimeMillis() - 3600 * 1000);
+        Date endingDate = new Date(System.currentTimeMillis() + 3600 * 1000);
+        GoalDTO validDTO = GoalDTO.builder().name("Valid Goal").startingDate(startingDate).endingDate(endingDate).objectType("Total").goalObject("Total").goalObjective(10.0).build();
+        List<Order> orderList = List.of(Order.builder().productOrders(new ArrayList<>()).totalPrice(30.00).totalCost(12.00).build());
+
+        when(goalRepository.findAll()).thenReturn(new ArrayList<>());
+        when(orderService.getAllOrdersBetweenTwoDates(startingDate, endingDate)).thenReturn(orderList);
+        assertEquals("Goal created successfully", goalService.addGoal(validDTO));
+        verify(goalRepository, times(1)).save(argThat(goal -> goal.getCurrentGoal() == 18.00 && Objects.equals(goal.getAchieved(), "Achieved")));
+
+    }
+
+    @Test
+    public void testGoalServiceGetGoalsDoesNotRecomputeProgress() throws Exception {
+
+        GoalFilterRequestDTO noFilter = new GoalFilterRequestDTO(new ArrayList<>(), new ArrayList<>());
+        Goal inProcess = Goal.builder().name("Goal1").currentGoal(5.00).goalObjective(25.00).objectType("Total").startingDate(new Date(System.currentTimeMillis() - 3600 * 1000)).endingDate(new Date(System.currentTimeMillis() + 3600 * 1000)).status("Upcoming").achieved("Not Achieved").build();
+
+        when(goalRepository.findAll()).thenReturn(List.of(inProcess));
+        List<Goal> goals = goalService.getGoals(noFilter);
+        assertEquals(1, goals.size());
+        assertEquals("In Process", goals.get(0).getStatus());
+        verify(orderService, never()).getAllOrdersBetweenTwoDates(any(), any());
+        verify(goalRepository, never()).save(any());
+
+    }
+
+    @Test
+    public void testGoalServiceUpdateGoalsOnlySavesChangedGoals() {
+
+        Date startingDate = new Date(System.currentTimeMillis() - 3600 * 1000);
+        Date endingDate = new Date(System.currentTimeMillis() + 3600 * 1000);
+        Goal upToDate = Goal.builder().name("Goal1").currentGoal(18.00).goalObjective(25.00).objectType("Total").startingDate(startingDate).endingDate(endingDate).achieved("Not Achieved").build();
+        List<Order> orderList = List.of(Order.builder().productOrders(new ArrayList<>()).totalPrice(30.00).totalCost(12.00).build());
+
+        when(goalRepository.findAll()).thenReturn(List.of(upToDate));
+        when(orderService.getAllOrdersBetweenTwoDates(startingDate, endingDate)).thenReturn(orderList);
+        goalService.updateGoals();
+        verify(goalRepository, never()).save(any());
+
+    }
+
+    @Test
+    public void testGoalServiceRepairGoalsOnlyRunsWhenRequested() {
+
+        Date startingDate = new Date(System.currentTimeMillis() - 3600 * 1000);
+        Date endingDate = new Date(System.currentTimeMillis() + 3600 * 1000);
+        Goal behind = Goal.builder().name("Goal1").currentGoal(0.00).goalObjective(25.00).objectType("Total").startingDate(startingDate).endingDate(endingDate).status("In Process").achieved("Not Achieved").build();
+        List<Order> orderList = List.of(Order.builder().productOrders(new ArrayList<>()).totalPrice(30.00).totalCost(12.00).build());
+
+        when(goalRepository.findAll()).thenReturn(List.of(behind));
+        when(orderService.getAllOrdersBetweenTwoDates(startingDate, endingDate)).thenReturn(orderList);
+        when(goalProgressService.takeRepairRequest()).thenReturn(false, true);
+        goalService.repairGoals();
+        verify(goalRepository, never()).findAll();
+        goalService.repairGoals();
+        assertEquals(18.00, behind.getCurrentGoal());
+        verify(goalRepository, times(1)).save(behind);
+
+    }
+
+    @Test
+    public void testGoalServiceRepairGoalsRequestsAnotherPassOnFailure() {
+
+        when(goalProgressService.takeRepairRequest()).thenReturn(true);
+        when(goalRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+        goalService.repairGoals();
+        verify(goalProgressService, times(1)).requestRepair();
+
+    }
+
     private List<Goal> createMockGoalList() throws ParseException {
         return Arrays.asList(Goal.builder().name("goal1").status("Expired").currentGoal(2.00).goalObjective(5.00).objectType("Product").goalObject("goalObject1").achieved("Not Achieved").endingDate(convertToFormat("2023-10-05 00:00:02")).startingDate(convertToFormat("2023-10-04 00:00:02")).build(), Goal.builder().name("goal2").status("Expired").currentGoal(2.00).goalObjective(5.00).objectType("Product").goalObject("goalObject2").achieved("Not Achieved").endingDate(convertToFormat("2023-10-03 00:00:02")).startingDate(convertToFormat("2023-10-02 00:00:02")).build(), Goal.builder().name("goal3").status("Expired").currentGoal(2.00).goalObjective(5.00).objectType("Product").goalObject("goalObject3").achieved("Not Achieved").endingDate(convertToFormat("2023-09-29 00:00:02")).startingDate(convertToFormat("2023-09-28 00:00:02")).build(), Goal.builder().name("goal4").status("Expired").currentGoal(2.00).goalObjective(5.00).objectType("Product").goalObject("goalObject4").achieved("Not Achieved").endingDate(convertToFormat("2023-09-27 00:00:02")).startingDate(convertToFormat("2023-09-26 00:00:02")).build());
     }
@@ -10,6 +10,7 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,7 +31,7 @@ public class JwtServiceTests {
 
     @BeforeEach
     public void setUp() {
-        jwtService = new JwtService();
+        jwtService = new JwtService("ee2ecef84938596217bd811c807a4eb225d510874e922e5e2e692d8a6e4464bf", 86400000, 604800000);
         byte[] keyBytes = Decoders.BASE64.decode("ee2ecef84938596217bd811c807a4eb225d510874e922e5e2e692d8a6e4464bf");
         signingKey = Keys.hmacShaKeyFor(keyBytes);
 
@@ -170,4 +171,39 @@ public class JwtServiceTests {
 
     }
 
+    @Test
+    public void testRefreshTokenIsMarkedAsRefresh() {
+
+        User user1 = User.builder().id(1L).username("admin").email("admin@mail.com").password("password1").role(Role.ADMIN).build();
+
+        Assertions.assertTrue(jwtService.isRefreshToken(jwtService.extractAllClaims(jwtService.generateRefreshToken(user1))));
+        Assertions.assertFalse(jwtService.isRefreshToken(jwtService.extractAllClaims(jwtService.generateToken(user1))));
+        Assertions.assertTrue(jwtService.isAccessToken(jwtService.extractAllClaims(jwtService.generateToken(user1))));
+        Assertions.assertFalse(jwtService.isAccessToken(jwtService.extractAllClaims(jwtService.generateRefreshToken(user1))));
+        Assertions.assertTrue(jwtService.isAccessToken(jwtService.extractAllClaims(jwtService.generateToken(Map.of("key1", "value1"), user1))));
+
+    }
+
+    @Test
+    public void testIsTokenValidWithParsedClaims() {
+
+        User user1 = User.builder().id(1L).username("admin").email("admin@mail.com").password("password1").role(Role.ADMIN).build();
+        User user2 = User.builder().id(2L).username("other").email("other@mail.com").password("password1").role(Role.ADMIN).build();
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(user1));
+
+        Assertions.assertTrue(jwtService.isTokenValid(claims, user1));
+        Assertions.assertFalse(jwtService.isTokenValid(claims, user2));
+
+    }
+
+    @Test
+    public void testTokenSignedWithAnotherSecretIsRejected() {
+
+        JwtService otherJwtService = new JwtService("c2VjcmV0LWtleS1mb3ItYW5vdGhlci1lbnZpcm9ubWVudC0zMi1ieXRlcw==", 86400000, 604800000);
+        String token = otherJwtService.generateToken(User.builder().id(1L).username("admin").email("admin@mail.com").password("password1").role(Role.ADMIN).build());
+
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(token));
+
+    }
+
 }
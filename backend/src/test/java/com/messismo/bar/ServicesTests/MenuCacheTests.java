@@ -0,0 +1,107 @@
+package com.messismo.bar.ServicesTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.messismo.bar.DTOs.ProductClientViewDTO;
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Product;
+import com.messismo.bar.Repositories.CategoryRepository;
+import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Services.MenuCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class MenuCacheTests {
+
+    @InjectMocks
+    private MenuCache menuCache;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private Category category;
+
+    private Product product;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        category = new Category(1L, "Bebidas");
+        product = new Product(1L, "Vino", 50.00, 20.00, "Vino tinto", 10, category);
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+    }
+
+    @Test
+    public void testClientMenuIsBuiltOnceAndHidesCostAndStock() {
+
+        MenuCache.Snapshot first = menuCache.getClientMenu();
+        MenuCache.Snapshot second = menuCache.getClientMenu();
+
+        Assertions.assertSame(first, second);
+        verify(productRepository, times(1)).findAll();
+        Assertions.assertEquals(List.of(ProductClientViewDTO.builder().productId(1L).name("Vino").description("Vino tinto").unitPrice(50.00).category("Bebidas").build()), first.rows());
+        String json = new String(first.json(), StandardCharsets.UTF_8);
+        Assertions.assertTrue(json.contains("\"name\":\"Vino\""));
+        Assertions.assertFalse(json.contains("unitCost"));
+        Assertions.assertFalse(json.contains("stock"));
+    }
+
+    @Test
+    public void testCatalogChangeRebuildsEveryListing() {
+
+        MenuCache.Snapshot clientMenu = menuCache.getClientMenu();
+        MenuCache.Snapshot products = menuCache.getProducts();
+        MenuCache.Snapshot categories = menuCache.getCategories();
+        when(productRepository.findAll()).thenReturn(List.of(new Product(1L, "Vino", 60.00, 20.00, "Vino tinto", 10, category)));
+
+        menuCache.invalidateCatalog();
+
+        Assertions.assertNotEquals(clientMenu.etag(), menuCache.getClientMenu().etag());
+        Assertions.assertNotEquals(products.etag(), menuCache.getProducts().etag());
+        Assertions.assertNotSame(categories, menuCache.getCategories());
+        Assertions.assertEquals(categories.etag(), menuCache.getCategories().etag());
+    }
+
+    @Test
+    public void testStockChangeOnlyRebuildsTheEmployeeListing() {
+
+        MenuCache.Snapshot clientMenu = menuCache.getClientMenu();
+        MenuCache.Snapshot products = menuCache.getProducts();
+        when(productRepository.findAll()).thenReturn(List.of(new Product(1L, "Vino", 50.00, 20.00, "Vino tinto", 9, category)));
+
+        menuCache.invalidateStock();
+
+        Assertions.assertSame(clientMenu, menuCache.getClientMenu());
+        Assertions.assertNotEquals(products.etag(), menuCache.getProducts().etag());
+        verify(productRepository, times(3)).findAll();
+    }
+
+    @Test
+    public void testEtagDependsOnlyOnContent() {
+
+        MenuCache.Snapshot before = menuCache.getClientMenu();
+
+        menuCache.invalidateCatalog();
+        MenuCache.Snapshot after = menuCache.getClientMenu();
+
+        Assertions.assertNotSame(before, after);
+        Assertions.assertEquals(before.etag(), after.etag());
+    }
+}
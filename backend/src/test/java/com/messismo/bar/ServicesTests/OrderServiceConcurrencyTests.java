@@ -0,0 +1,176 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.OrderRequestDTO;
+import com.messismo.bar.DTOs.ProductOrderDTO;
+import com.messismo.bar.Entities.*;
+import com.messismo.bar.Exceptions.ProductQuantityBelowAvailableStock;
+import com.messismo.bar.Repositories.*;
+import com.messismo.bar.Services.GoalProgressService;
+import com.messismo.bar.Services.MenuCache;
+import com.messismo.bar.Services.OrderService;
+import com.messismo.bar.Services.SalesRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderServiceConcurrencyTests {
+
+    private static final int THREADS = 64;
+
+    private static final int ORDERS_PER_THREAD = 5;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderService orderService;
+
+    private Category category;
+
+    @BeforeEach
+    public void setup() {
+        orderService = orderService(orderRepository);
+        category = categoryRepository.save(Category.builder().name("Bebidas").build());
+        userRepository.save(User.builder().username("employee").email("employee@mail.com").password("Password1").role(Role.EMPLOYEE).build());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        orderRepository.deleteAll();
+        productOrderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentOrdersNeverOversell() throws Exception {
+
+        Product wine = productRepository.save(new Product("Vino", 50.00, 20.00, "Vino tinto", 100, category));
+
+        int created = addConcurrently(orderService, () -> List.of(ProductOrderDTO.builder().product(wine).quantity(1).build()));
+
+        Assertions.assertEquals(100, created);
+        Assertions.assertEquals(0, productRepository.findByProductId(wine.getProductId()).orElseThrow().getStock());
+    }
+
+    @Test
+    public void testRejectedLineRollsBackTheWholeOrder() throws Exception {
+
+        Product wine = productRepository.save(new Product("Vino", 50.00, 20.00, "Vino tinto", 100, category));
+        Product cheese = productRepository.save(new Product("Queso", 30.00, 10.00, "Tabla de quesos", 60, category));
+
+        int created = addConcurrently(orderService, () -> List.of(ProductOrderDTO.builder().product(cheese).quantity(1).build(), ProductOrderDTO.builder().product(wine).quantity(1).build()));
+
+        Assertions.assertEquals(60, created);
+        Assertions.assertEquals(60, orderRepository.count());
+        Assertions.assertEquals(0, productRepository.findByProductId(cheese.getProductId()).orElseThrow().getStock());
+        Assertions.assertEquals(40, productRepository.findByProductId(wine.getProductId()).orElseThrow().getStock());
+    }
+
+    @Test
+    public void testConcurrentNewOrdersKeepOrdersLinesAndStockInStep() throws Exception {
+
+        Product wine = productRepository.save(new Product("Vino", 50.00, 20.00, "Vino tinto", 100, category));
+
+        int created = addConcurrently(orderService, () -> List.of(ProductOrderDTO.builder().product(wine).quantity(1).build()));
+
+        Assertions.assertEquals(100, created);
+        Assertions.assertEquals(100, orderRepository.count());
+        Assertions.assertEquals(100, productOrderRepository.count());
+        Assertions.assertEquals(0, productRepository.findByProductId(wine.getProductId()).orElseThrow().getStock());
+    }
+
+    @Test
+    public void testFailedOrderSaveGivesTheStockBack() {
+
+        Product wine = productRepository.save(new Product("Vino", 50.00, 20.00, "Vino tinto", 100, category));
+        OrderRepository failingOrderRepository = Mockito.mock(OrderRepository.class, AdditionalAnswers.delegatesTo(orderRepository));
+        doThrow(new DataIntegrityViolationException("Constraint violation")).when(failingOrderRepository).save(any());
+
+        Assertions.assertThrows(Exception.class, () -> orderService(failingOrderRepository).addNewOrder(newOrder(List.of(ProductOrderDTO.builder().product(wine).quantity(3).build()))));
+
+        Assertions.assertEquals(0, orderRepository.count());
+        Assertions.assertEquals(0, productOrderRepository.count());
+        Assertions.assertEquals(100, productRepository.findByProductId(wine.getProductId()).orElseThrow().getStock());
+    }
+
+    private OrderService orderService(OrderRepository orders) {
+        return new OrderService(orders, productRepository, userRepository, productOrderRepository, null, null, null, Mockito.mock(SalesRollupService.class), Mockito.mock(GoalProgressService.class), new TransactionTemplate(transactionManager), Mockito.mock(MenuCache.class));
+    }
+
+    private OrderRequestDTO newOrder(List<ProductOrderDTO> lines) {
+        return OrderRequestDTO.builder().registeredEmployeeEmail("employee@mail.com").dateCreated(new Date()).productOrders(lines).build();
+    }
+
+    private int addConcurrently(OrderService service, Callable<List<ProductOrderDTO>> lines) throws Exception {
+        return runConcurrently(() -> {
+            try {
+                service.addNewOrder(newOrder(lines.call()));
+                return true;
+            } catch (ProductQuantityBelowAvailableStock e) {
+                // SIN STOCK, ES EL RESULTADO ESPERADO UNA VEZ AGOTADO
+                return false;
+            }
+        });
+    }
+
+    private int runConcurrently(Callable<Boolean> order) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < ORDERS_PER_THREAD; j++) {
+                    if (order.call()) {
+                        created.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return created.get();
+    }
+}
@@ -0,0 +1,102 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.OrderRequestDTO;
+import com.messismo.bar.DTOs.ProductOrderDTO;
+import com.messismo.bar.Entities.*;
+import com.messismo.bar.Repositories.*;
+import com.messismo.bar.Services.GoalProgressService;
+import com.messismo.bar.Services.MenuCache;
+import com.messismo.bar.Services.OrderService;
+import com.messismo.bar.Services.SalesRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderServiceRoundTripTests {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private OrderService orderService;
+
+    private Category category;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        orderService = new OrderService(orderRepository, productRepository, userRepository, productOrderRepository, null, null, null, Mockito.mock(SalesRollupService.class), Mockito.mock(GoalProgressService.class), new TransactionTemplate(transactionManager), Mockito.mock(MenuCache.class));
+        category = categoryRepository.save(Category.builder().name("Bebidas").build());
+        userRepository.save(User.builder().username("employee").email("employee@mail.com").password("Password1").role(Role.EMPLOYEE).build());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        orderRepository.deleteAll();
+        productOrderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // ANTES DEL BATCH: 7 SENTENCIAS CON 1 LINEA Y 83 CON 20 (SELECT + UPDATE DE STOCK E INSERTS POR LINEA)
+    @Test
+    public void testStatementsPerOrderDoNotGrowWithLines() throws Exception {
+
+        long oneLine = statementsToCreateOrder(1);
+        long manyLines = statementsToCreateOrder(20);
+
+        Assertions.assertEquals(oneLine, manyLines);
+    }
+
+    private long statementsToCreateOrder(int lines) throws Exception {
+        List<ProductOrderDTO> productOrders = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Product product = productRepository.save(new Product("Product " + lines + "-" + i, 10.00, 4.00, "Description", 100, category));
+            productOrders.add(ProductOrderDTO.builder().product(product).quantity(2).build());
+        }
+        // ORDENES FUERA DE LA MEDICION: LA PRIMERA LECTURA DE UNA SECUENCIA POOLED SOLO RESERVA UN ID, LA SEGUNDA EL BLOQUE DE 50
+        for (int i = 0; i < 2; i++) {
+            orderService.addNewOrder(OrderRequestDTO.builder().registeredEmployeeEmail("employee@mail.com").dateCreated(new Date()).productOrders(productOrders.subList(0, 1)).build());
+        }
+        statistics.clear();
+        orderService.addNewOrder(OrderRequestDTO.builder().registeredEmployeeEmail("employee@mail.com").dateCreated(new Date()).productOrders(productOrders).build());
+        return statistics.getPrepareStatementCount();
+    }
+}
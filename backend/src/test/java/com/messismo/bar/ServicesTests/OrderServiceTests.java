@@ -1,32 +1,48 @@
 package com.messismo.bar.ServicesTests;
 
 import com.messismo.bar.DTOs.ModifyOrderDTO;
+import com.messismo.bar.DTOs.OrderFilterDTO;
 import com.messismo.bar.DTOs.OrderIdDTO;
+import com.messismo.bar.DTOs.OrderPageDTO;
 import com.messismo.bar.DTOs.OrderRequestDTO;
+import com.messismo.bar.DTOs.OrderSummaryDTO;
 import com.messismo.bar.DTOs.ProductOrderDTO;
 import com.messismo.bar.Entities.*;
 import com.messismo.bar.Exceptions.ClientIdNotFoundException;
+import com.messismo.bar.Exceptions.EndingDateMustBeAfterStartingDateException;
 import com.messismo.bar.Exceptions.OrderNotFoundException;
+import com.messismo.bar.Exceptions.ProductNotFoundException;
 import com.messismo.bar.Exceptions.ProductQuantityBelowAvailableStock;
 import com.messismo.bar.Exceptions.UserNotFoundException;
 import com.messismo.bar.Repositories.OrderRepository;
 import com.messismo.bar.Repositories.ProductOrderRepository;
 import com.messismo.bar.Repositories.ProductRepository;
 import com.messismo.bar.Repositories.UserRepository;
+import com.messismo.bar.Services.GoalProgressService;
+import com.messismo.bar.Services.MenuCache;
 import com.messismo.bar.Services.OrderService;
+import com.messismo.bar.Services.SalesRollupService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.Assert.assertThrows;
 import static org.mockito.Mockito.*;
@@ -48,10 +64,26 @@ public class OrderServiceTests {
     @Mock
     private ProductOrderRepository productOrderRepository;
 
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private GoalProgressService goalProgressService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MenuCache menuCache;
+
     @BeforeEach
     public void setUp() {
 
         MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> action = invocation.getArgument(0);
+            return action.doInTransaction(null);
+        });
     }
 
     @Test
@@ -66,6 +98,122 @@ public class OrderServiceTests {
 
     }
 
+    @Test
+    public void testGetAllOrdersBetweenTwoDatesUsesRangeQuery() {
+
+        Date startingDate = new Date(System.currentTimeMillis() - 3600 * 1000);
+        Date endingDate = new Date();
+        List<Order> mockOrders = List.of(Order.builder().id(1L).dateCreated(new Date(System.currentTimeMillis() - 1800 * 1000)).build());
+        when(orderRepository.findBetween(startingDate, endingDate)).thenReturn(mockOrders);
+
+        Assertions.assertEquals(mockOrders, orderService.getAllOrdersBetweenTwoDates(startingDate, endingDate));
+        verify(orderRepository, never()).findAll();
+
+    }
+
+    @Test
+    public void testForEachOrderBetweenTwoDatesWalksPagesByKey() {
+
+        Date startingDate = new Date(0);
+        Date endingDate = new Date();
+        List<Order> firstPage = new ArrayList<>();
+        for (long i = 1; i <= OrderService.ORDER_PAGE_SIZE; i++) {
+            firstPage.add(Order.builder().id(i).dateCreated(new Date(i * 1000)).build());
+        }
+        Order lastOfFirstPage = firstPage.get(firstPage.size() - 1);
+        List<Order> secondPage = List.of(Order.builder().id(OrderService.ORDER_PAGE_SIZE + 1L).dateCreated(lastOfFirstPage.getDateCreated()).build());
+        List<Long> firstPageIds = firstPage.stream().map(Order::getId).toList();
+        List<Long> secondPageIds = List.of(secondPage.get(0).getId());
+        when(orderRepository.findIdsBetweenAfter(eq(startingDate), eq(endingDate), eq(startingDate), eq(0L), any())).thenReturn(firstPageIds);
+        when(orderRepository.findIdsBetweenAfter(eq(startingDate), eq(endingDate), eq(lastOfFirstPage.getDateCreated()), eq(lastOfFirstPage.getId()), any())).thenReturn(secondPageIds);
+        when(orderRepository.findWithProductOrdersByIdIn(firstPageIds)).thenReturn(firstPage);
+        when(orderRepository.findWithProductOrdersByIdIn(secondPageIds)).thenReturn(secondPage);
+        List<Order> visited = new ArrayList<>();
+
+        orderService.forEachOrderBetweenTwoDates(startingDate, endingDate, visited::add);
+
+        Assertions.assertEquals(OrderService.ORDER_PAGE_SIZE + 1, visited.size());
+        verify(orderRepository, times(2)).findIdsBetweenAfter(any(), any(), any(), any(), any());
+
+    }
+
+    @Test
+    public void testGetOrderPageReturnsNextOrderIdWhenThereAreMoreOrders() throws Exception {
+
+        List<OrderSummaryDTO> summaries = List.of(OrderSummaryDTO.builder().orderId(9L).build(), OrderSummaryDTO.builder().orderId(7L).build(), OrderSummaryDTO.builder().orderId(4L).build());
+        when(orderRepository.findSummaries(eq(10L), any(), any(), eq("Open"), eq(null), eq(PageRequest.of(0, 3)))).thenReturn(summaries);
+
+        OrderPageDTO page = orderService.getOrderPage(OrderFilterDTO.builder().status("Open").employeeEmail("").afterOrderId(10L).pageSize(2).build());
+
+        Assertions.assertEquals(List.of(summaries.get(0), summaries.get(1)), page.getOrders());
+        Assertions.assertEquals(7L, page.getNextOrderId());
+
+    }
+
+    @Test
+    public void testGetOrderPageLastPage() throws Exception {
+
+        List<OrderSummaryDTO> summaries = List.of(OrderSummaryDTO.builder().orderId(2L).build());
+        when(orderRepository.findSummaries(eq(Long.MAX_VALUE), eq(new Date(0)), any(), eq(null), eq(null), eq(PageRequest.of(0, OrderService.DEFAULT_ORDER_PAGE_SIZE + 1)))).thenReturn(summaries);
+
+        OrderPageDTO page = orderService.getOrderPage(new OrderFilterDTO());
+
+        Assertions.assertEquals(summaries, page.getOrders());
+        Assertions.assertNull(page.getNextOrderId());
+
+    }
+
+    @Test
+    public void testGetOrderPageCapsPageSize() throws Exception {
+
+        when(orderRepository.findSummaries(any(), any(), any(), any(), any(), any())).thenReturn(new ArrayList<>());
+
+        orderService.getOrderPage(OrderFilterDTO.builder().pageSize(100000).build());
+
+        verify(orderRepository, times(1)).findSummaries(any(), any(), any(), any(), any(), eq(PageRequest.of(0, OrderService.ORDER_PAGE_SIZE + 1)));
+
+    }
+
+    @Test
+    public void testGetOrderPageInvalidDates() {
+
+        OrderFilterDTO orderFilterDTO = OrderFilterDTO.builder().startingDate(new Date()).endingDate(new Date(System.currentTimeMillis() - 3600 * 1000)).build();
+        EndingDateMustBeAfterStartingDateException exception = assertThrows(EndingDateMustBeAfterStartingDateException.class, () -> {
+            orderService.getOrderPage(orderFilterDTO);
+        });
+        Assertions.assertEquals("Ending date must be after Starting date", exception.getMessage());
+
+    }
+
+    @Test
+    public void testGetOrderPageException() {
+
+        when(orderRepository.findSummaries(any(), any(), any(), any(), any(), any())).thenThrow(new RuntimeException("Runtime Exception"));
+        Exception exception = assertThrows(Exception.class, () -> {
+            orderService.getOrderPage(new OrderFilterDTO());
+        });
+        Assertions.assertEquals("CANNOT get orders at the moment", exception.getMessage());
+
+    }
+
+    @Test
+    public void testForEachOrderSummaryWalksPagesById() {
+
+        List<OrderSummaryDTO> firstPage = new ArrayList<>();
+        for (long i = OrderService.ORDER_PAGE_SIZE + 1; i > 1; i--) {
+            firstPage.add(OrderSummaryDTO.builder().orderId(i).build());
+        }
+        when(orderRepository.findSummaries(eq(Long.MAX_VALUE), any(), any(), any(), any(), any())).thenReturn(firstPage);
+        when(orderRepository.findSummaries(eq(2L), any(), any(), any(), any(), any())).thenReturn(List.of(OrderSummaryDTO.builder().orderId(1L).build()));
+        List<OrderSummaryDTO> visited = new ArrayList<>();
+
+        orderService.forEachOrderSummary(new OrderFilterDTO(), visited::add);
+
+        Assertions.assertEquals(OrderService.ORDER_PAGE_SIZE + 1, visited.size());
+        Assertions.assertEquals(1L, visited.get(visited.size() - 1).getOrderId());
+
+    }
+
     @Test
     public void testAddNewOrder() throws Exception {
 
@@ -86,9 +234,12 @@ public class OrderServiceTests {
         OrderRequestDTO orderRequestDTO = OrderRequestDTO.builder().dateCreated(date1)
                 .registeredEmployeeEmail("employee@example.com").productOrders(productOrders).clientId(null).build();
 
+        productsInDatabase(product1, product2);
         when(userRepository.findByEmail("employee@example.com")).thenReturn(Optional.ofNullable(user));
         Assertions.assertEquals(orderService.addNewOrder(orderRequestDTO),
                 "Order created successfully");
+        verify(salesRollupService, times(1)).recordNewOrder(any(Order.class));
+        verify(goalProgressService, times(1)).recordNewOrder(any(Order.class));
 
     }
 
@@ -114,6 +265,7 @@ public class OrderServiceTests {
         OrderRequestDTO orderRequestDTO = OrderRequestDTO.builder().dateCreated(date1)
                 .registeredEmployeeEmail("employee@example.com").productOrders(productOrders).clientId(12345L).build();
 
+        productsInDatabase(product1, product2);
         when(userRepository.findByEmail("employee@example.com")).thenReturn(Optional.ofNullable(user));
         when(userRepository.findByClientId("12345")).thenReturn(Optional.ofNullable(client));
         Assertions.assertEquals(orderService.addNewOrder(orderRequestDTO),
@@ -186,6 +338,7 @@ public class OrderServiceTests {
         productOrders.add(productOrderDTO2);
         OrderRequestDTO orderRequestDTO = OrderRequestDTO.builder().dateCreated(date1).registeredEmployeeEmail("employee@example.com").productOrders(productOrders).clientId(null).build();
 
+        productsInDatabase(product1, product2);
         when(userRepository.findByEmail("employee@example.com")).thenReturn(Optional.ofNullable(user));
         ProductQuantityBelowAvailableStock exception = assertThrows(ProductQuantityBelowAvailableStock.class, () -> {
             orderService.addNewOrder(orderRequestDTO);
@@ -214,6 +367,7 @@ public class OrderServiceTests {
         OrderRequestDTO orderRequestDTO = OrderRequestDTO.builder().dateCreated(date1)
                 .registeredEmployeeEmail("employee@example.com").productOrders(productOrders).clientId(null).build();
 
+        productsInDatabase(product1, product2);
         when(userRepository.findByEmail("employee@example.com")).thenReturn(Optional.ofNullable(user));
 
         doThrow(new RuntimeException("Runtime Exception")).when(orderRepository).save(any());
@@ -283,6 +437,7 @@ public class OrderServiceTests {
         productOrderDTO.add(productOrderDTO1);
         ModifyOrderDTO modifyOrderDTO = ModifyOrderDTO.builder().orderId(166L).productOrders(productOrderDTO).build();
 
+        productsInDatabase(product);
         when(orderRepository.findById(existingOrder.getId())).thenReturn(Optional.of(existingOrder));
         ProductQuantityBelowAvailableStock exception = assertThrows(ProductQuantityBelowAvailableStock.class, () -> {
             orderService.modifyOrder(modifyOrderDTO);
@@ -315,6 +470,7 @@ public class OrderServiceTests {
         ProductOrderDTO productOrderDTO1 = ProductOrderDTO.builder().product(product).quantity(1).build();
         productOrderDTO.add(productOrderDTO1);
         ModifyOrderDTO modifyOrderDTO = ModifyOrderDTO.builder().orderId(166L).productOrders(productOrderDTO).build();
+        productsInDatabase(product);
         when(orderRepository.findById(existingOrder.getId())).thenReturn(Optional.of(existingOrder));
         doThrow(new RuntimeException("Runtime Exception")).when(orderRepository).save(any());
         Exception exception = assertThrows(Exception.class, () -> {
@@ -336,10 +492,127 @@ public class OrderServiceTests {
         ProductOrderDTO productOrderDTO1 = ProductOrderDTO.builder().product(product).quantity(1).build();
         productOrderDTO.add(productOrderDTO1);
         ModifyOrderDTO modifyOrderDTO = ModifyOrderDTO.builder().orderId(166L).productOrders(productOrderDTO).build();
+        productsInDatabase(product);
         when(orderRepository.findById(existingOrder.getId())).thenReturn(Optional.of(existingOrder));
         String response = orderService.modifyOrder(modifyOrderDTO);
 
         Assertions.assertEquals("Order modified successfully", response);
+        verify(salesRollupService, times(1)).recordAddedProductOrders(eq(existingOrder), eq(new ArrayList<>()), anyList(), eq(4500.00), eq(500.00));
+        verify(goalProgressService, times(1)).recordAddedProductOrders(eq(existingOrder), anyList(), eq(4500.00), eq(500.00));
+    }
+
+    @Test
+    public void testAddNewOrderUsesStockFromTheDatabase() {
+
+        Category category = Category.builder().categoryId(1L).name("Bebidas").build();
+        Product storedProduct = Product.builder().productId(1L).name("Vino").stock(1).category(category).unitPrice(50.00).unitCost(20.00).description("Vino tinto").build();
+        Product sentProduct = Product.builder().productId(1L).name("Vino").stock(100).category(category).unitPrice(1.00).unitCost(1.00).description("Vino tinto").build();
+        productsInDatabase(storedProduct);
+        employeeInDatabase();
+
+        ProductQuantityBelowAvailableStock exception = assertThrows(ProductQuantityBelowAvailableStock.class, () -> {
+            orderService.addNewOrder(orderRequest(sentProduct, 2));
+        });
+        Assertions.assertEquals("Not enough stock of a product", exception.getMessage());
+        Assertions.assertEquals(1, storedProduct.getStock());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(menuCache, never()).invalidateStock();
+
+    }
+
+    @Test
+    public void testAddNewOrderTakesPricesFromTheDatabaseAndMergesLines() throws Exception {
+
+        Category category = Category.builder().categoryId(1L).name("Bebidas").build();
+        Product storedProduct = Product.builder().productId(1L).name("Vino").stock(5).category(category).unitPrice(50.00).unitCost(20.00).description("Vino tinto").build();
+        Product sentProduct = Product.builder().productId(1L).name("Vino").stock(5).category(category).unitPrice(1.00).unitCost(1.00).description("Vino tinto").build();
+        productsInDatabase(storedProduct);
+        employeeInDatabase();
+
+        orderService.addNewOrder(orderRequest(sentProduct, 2, 3));
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, times(1)).save(saved.capture());
+        Assertions.assertEquals(250.00, saved.getValue().getTotalPrice());
+        Assertions.assertEquals(100.00, saved.getValue().getTotalCost());
+        Assertions.assertEquals(2, saved.getValue().getProductOrders().size());
+        Assertions.assertEquals(0, storedProduct.getStock());
+        verify(productRepository, times(1)).findAllForUpdate(Set.of(1L));
+        verify(menuCache, times(1)).invalidateStock();
+
+    }
+
+    @Test
+    public void testAddNewOrderProductNotFound() {
+
+        Product sentProduct = Product.builder().productId(99L).name("Fantasma").stock(5).unitPrice(1.00).unitCost(1.00).build();
+        productsInDatabase();
+        employeeInDatabase();
+
+        ProductNotFoundException exception = assertThrows(ProductNotFoundException.class, () -> {
+            orderService.addNewOrder(orderRequest(sentProduct, 1));
+        });
+        Assertions.assertEquals("ProductId DOES NOT match any productId", exception.getMessage());
+        verify(orderRepository, never()).save(any(Order.class));
+
+    }
+
+    @Test
+    public void testAddNewOrderRetriesOnLockConflict() throws Exception {
+
+        Category category = Category.builder().categoryId(1L).name("Bebidas").build();
+        Product storedProduct = Product.builder().productId(1L).name("Vino").stock(5).category(category).unitPrice(50.00).unitCost(20.00).description("Vino tinto").build();
+        productsInDatabase(storedProduct);
+        employeeInDatabase();
+        doThrow(new CannotAcquireLockException("Deadlock")).doAnswer(invocation -> {
+            TransactionCallback<?> action = invocation.getArgument(0);
+            return action.doInTransaction(null);
+        }).when(transactionTemplate).execute(any());
+
+        Assertions.assertEquals("Order created successfully", orderService.addNewOrder(orderRequest(storedProduct, 1)));
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, times(1)).save(saved.capture());
+        Assertions.assertEquals(50.00, saved.getValue().getTotalPrice());
+        verify(transactionTemplate, times(2)).execute(any());
+
+    }
+
+    @Test
+    public void testAddNewOrderGivesUpAfterRepeatedLockConflicts() {
+
+        Product storedProduct = Product.builder().productId(1L).name("Vino").stock(5).unitPrice(50.00).unitCost(20.00).build();
+        employeeInDatabase();
+        doThrow(new CannotAcquireLockException("Deadlock")).when(transactionTemplate).execute(any());
+
+        Exception exception = assertThrows(Exception.class, () -> {
+            orderService.addNewOrder(orderRequest(storedProduct, 1));
+        });
+        Assertions.assertEquals("CANNOT create an order at the moment", exception.getMessage());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(salesRollupService, never()).recordNewOrder(any(Order.class));
+
+    }
+
+    private void employeeInDatabase() {
+        User employee = User.builder().username("example").email("employee@example.com").password("password1").id(1L).role(Role.EMPLOYEE).build();
+        when(userRepository.findByEmail("employee@example.com")).thenReturn(Optional.of(employee));
+    }
+
+    private OrderRequestDTO orderRequest(Product product, int... quantities) {
+        List<ProductOrderDTO> productOrders = new ArrayList<>();
+        for (int quantity : quantities) {
+            productOrders.add(ProductOrderDTO.builder().product(product).quantity(quantity).build());
+        }
+        return OrderRequestDTO.builder().dateCreated(new Date()).registeredEmployeeEmail("employee@example.com").productOrders(productOrders).build();
+    }
+
+    // EL MOCK DEL REPOSITORIO DEVUELVE LOS PRODUCTOS PEDIDOS QUE ESTEN EN ESTA LISTA
+    private void productsInDatabase(Product... products) {
+        when(productRepository.findAllForUpdate(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> productIds = invocation.getArgument(0);
+            return Arrays.stream(products).filter(product -> productIds.contains(product.getProductId())).toList();
+        });
     }
 
 }
@@ -0,0 +1,161 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.CloseOrderDTO;
+import com.messismo.bar.Entities.*;
+import com.messismo.bar.Repositories.*;
+import com.messismo.bar.Services.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PointsLedgerConcurrencyTests {
+
+    private static final int THREADS = 32;
+
+    private static final String CLIENT_ID = "777";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BenefitRepository benefitRepository;
+
+    @Autowired
+    private PointsAccountRepository pointsAccountRepository;
+
+    @Autowired
+    private PointsTransactionRepository pointsTransactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderService orderService;
+
+    private User employee;
+
+    @BeforeEach
+    public void setup() {
+        SettingsService settingsService = Mockito.mock(SettingsService.class);
+        when(settingsService.getPointsConversionRate()).thenReturn(100.00);
+        PointsService pointsService = new PointsService(pointsAccountRepository, pointsTransactionRepository, settingsService, new TransactionTemplate(transactionManager));
+        orderService = new OrderService(orderRepository, null, userRepository, null, pointsService, null, benefitRepository, Mockito.mock(SalesRollupService.class), Mockito.mock(GoalProgressService.class), new TransactionTemplate(transactionManager), Mockito.mock(MenuCache.class));
+        employee = userRepository.save(User.builder().username("employee").email("employee@mail.com").password("Password1").role(Role.EMPLOYEE).build());
+        userRepository.save(new User("client", "client@mail.com", "Password1", CLIENT_ID));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        orderRepository.deleteAll();
+        benefitRepository.deleteAll();
+        pointsTransactionRepository.deleteAll();
+        pointsAccountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentClosesNeverLoseEarnedPoints() throws Exception {
+
+        pointsAccountRepository.save(new PointsAccount(CLIENT_ID));
+        List<Order> orders = openOrders(THREADS * 2, 1000.00);
+
+        int closed = closeConcurrently(orders, null);
+
+        PointsAccount account = pointsAccountRepository.findByClientId(CLIENT_ID).orElseThrow();
+        Assertions.assertEquals(THREADS * 2, closed);
+        Assertions.assertEquals(THREADS * 2 * 10.00, account.getCurrentBalance());
+        Assertions.assertEquals(THREADS * 2 * 10.00, account.getTotalEarned());
+        Assertions.assertEquals(THREADS * 2, pointsTransactionRepository.findByClientIdAndTypeOrderByCreatedAtDesc(CLIENT_ID, TransactionType.EARNED).size());
+    }
+
+    @Test
+    public void testConcurrentFirstClosesCreateASingleAccount() throws Exception {
+
+        // SIN CUENTA PREVIA, TODOS LOS CIERRES INTENTAN CREARLA
+        List<Order> orders = openOrders(THREADS, 1000.00);
+
+        int closed = closeConcurrently(orders, null);
+
+        PointsAccount account = pointsAccountRepository.findByClientId(CLIENT_ID).orElseThrow();
+        Assertions.assertEquals(THREADS, closed);
+        Assertions.assertEquals(1, pointsAccountRepository.count());
+        Assertions.assertEquals(THREADS * 10.00, account.getCurrentBalance());
+        Assertions.assertEquals(THREADS * 10.00, account.getTotalEarned());
+        Assertions.assertEquals(THREADS, pointsTransactionRepository.findByClientIdAndTypeOrderByCreatedAtDesc(CLIENT_ID, TransactionType.EARNED).size());
+        Assertions.assertEquals(THREADS, orderRepository.findAll().stream().filter(order -> "Closed".equals(order.getStatus())).count());
+    }
+
+    @Test
+    public void testConcurrentClosesNeverSpendTheSamePointsTwice() throws Exception {
+
+        PointsAccount initial = new PointsAccount(CLIENT_ID);
+        initial.addPoints(100.00);
+        pointsAccountRepository.save(initial);
+        Benefit benefit = benefitRepository.save(Benefit.builder().type(Benefit.BenefitType.DISCOUNT).pointsRequired(30).discountType(Benefit.DiscountType.FIXED_AMOUNT).discountValue(10.00).applicableDays("[\"EVERYDAY\"]").createdBy("manager@mail.com").active(true).build());
+        // SIN GANANCIA DE PUNTOS, ASI SOLO ALCANZAN TRES BENEFICIOS
+        List<Order> orders = openOrders(THREADS, 0.00);
+
+        int closed = closeConcurrently(orders, benefit.getId());
+
+        PointsAccount account = pointsAccountRepository.findByClientId(CLIENT_ID).orElseThrow();
+        Assertions.assertEquals(3, closed);
+        Assertions.assertEquals(10.00, account.getCurrentBalance());
+        Assertions.assertEquals(90.00, account.getTotalSpent());
+        Assertions.assertEquals(3, pointsTransactionRepository.findByClientIdAndTypeOrderByCreatedAtDesc(CLIENT_ID, TransactionType.SPENT).size());
+        Assertions.assertEquals(3, orderRepository.findAll().stream().filter(order -> "Closed".equals(order.getStatus())).count());
+    }
+
+    private List<Order> openOrders(int count, double totalPrice) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orders.add(orderRepository.save(new Order(employee, new Date(), new ArrayList<>(), totalPrice, 0.00)));
+        }
+        return orders;
+    }
+
+    private int closeConcurrently(List<Order> orders, Long benefitId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger closed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Order order : orders) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.closeOrderWithClient(CloseOrderDTO.builder().orderId(order.getId()).clientId(Long.valueOf(CLIENT_ID)).benefitId(benefitId).build());
+                    closed.incrementAndGet();
+                } catch (Exception e) {
+                    // SALDO INSUFICIENTE, ES EL RESULTADO ESPERADO UNA VEZ GASTADOS LOS PUNTOS
+                    Assertions.assertEquals("Insufficient points for this benefit", e.getMessage());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return closed.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.PointsDriftDTO;
+import com.messismo.bar.DTOs.PointsReconciliationDTO;
+import com.messismo.bar.Entities.PointsAccount;
+import com.messismo.bar.Entities.PointsTransaction;
+import com.messismo.bar.Entities.TransactionType;
+import com.messismo.bar.Repositories.PointsAccountRepository;
+import com.messismo.bar.Repositories.PointsBalanceSnapshotRepository;
+import com.messismo.bar.Repositories.PointsTransactionRepository;
+import com.messismo.bar.Services.PointsLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PointsLedgerServiceTests {
+
+    @Autowired
+    private PointsAccountRepository pointsAccountRepository;
+
+    @Autowired
+    private PointsTransactionRepository pointsTransactionRepository;
+
+    @Autowired
+    private PointsBalanceSnapshotRepository pointsBalanceSnapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PointsLedgerService pointsLedgerService;
+
+    private Date anHourAgo;
+
+    @BeforeEach
+    public void setup() {
+        pointsLedgerService = new PointsLedgerService(pointsAccountRepository, pointsTransactionRepository, pointsBalanceSnapshotRepository, new TransactionTemplate(transactionManager));
+        anHourAgo = new Date(System.currentTimeMillis() - 3600 * 1000);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        pointsBalanceSnapshotRepository.deleteAll();
+        pointsTransactionRepository.deleteAll();
+        pointsAccountRepository.deleteAll();
+    }
+
+    @Test
+    public void testReconcileWritesSnapshotsAndBalanceIsSnapshotPlusTail() {
+
+        account("1000", 25.0, 40.0, 15.0);
+        transaction("1000", TransactionType.EARNED, 40.0, anHourAgo);
+        transaction("1000", TransactionType.SPENT, -15.0, anHourAgo);
+
+        PointsReconciliationDTO reconciliation = pointsLedgerService.reconcile();
+
+        Assertions.assertEquals(1L, reconciliation.getCheckedAccounts());
+        Assertions.assertEquals(1L, reconciliation.getSnapshots());
+        Assertions.assertEquals(0L, reconciliation.getDriftedAccounts());
+        Assertions.assertEquals(List.of(), reconciliation.getDrifts());
+        Assertions.assertEquals(25.0, pointsBalanceSnapshotRepository.findFirstByClientIdOrderByTakenAtDesc("1000").orElseThrow().getBalance());
+        Assertions.assertEquals(15.0, pointsBalanceSnapshotRepository.findFirstByClientIdOrderByTakenAtDesc("1000").orElseThrow().getTotalSpent());
+        transaction("1000", TransactionType.EARNED, 5.0, new Date());
+        Assertions.assertEquals(30.0, pointsLedgerService.getLedgerBalance("1000"));
+    }
+
+    @Test
+    public void testReconcileReportsDrift() {
+
+        account("1000", 50.0, 50.0, 0.0);
+        account("2000", 10.0, 10.0, 0.0);
+        transaction("1000", TransactionType.EARNED, 40.0, anHourAgo);
+        transaction("2000", TransactionType.EARNED, 10.0, new Date());
+        transaction("3000", TransactionType.EARNED, 7.0, anHourAgo);
+
+        PointsReconciliationDTO reconciliation = pointsLedgerService.reconcile();
+
+        Assertions.assertEquals(2L, reconciliation.getCheckedAccounts());
+        Assertions.assertEquals(2L, reconciliation.getDriftedAccounts());
+        Assertions.assertEquals(17.0, reconciliation.getTotalDrift());
+        Assertions.assertTrue(reconciliation.getDrifts().contains(PointsDriftDTO.builder().clientId("1000").accountBalance(50.0).ledgerBalance(40.0).drift(10.0).build()));
+        Assertions.assertTrue(reconciliation.getDrifts().contains(PointsDriftDTO.builder().clientId("3000").accountBalance(0.0).ledgerBalance(7.0).drift(-7.0).build()));
+        Assertions.assertEquals(10.0, pointsLedgerService.getBalanceDrift("1000").getDrift());
+    }
+
+    @Test
+    public void testReconcileKeepsOnlyTheLatestSnapshot() {
+
+        account("1000", 40.0, 40.0, 0.0);
+        transaction("1000", TransactionType.EARNED, 40.0, anHourAgo);
+
+        pointsLedgerService.reconcile();
+        PointsReconciliationDTO second = pointsLedgerService.reconcile();
+
+        Assertions.assertEquals(1, pointsBalanceSnapshotRepository.count());
+        Assertions.assertEquals(second.getSnapshotTakenAt().getTime(), pointsBalanceSnapshotRepository.findAll().get(0).getTakenAt().getTime());
+        Assertions.assertEquals(40.0, pointsLedgerService.getLedgerBalance("1000"));
+    }
+
+    @Test
+    public void testLegacyPositiveSpentAmountsAreNegatedOnce() {
+
+        account("1000", 25.0, 40.0, 15.0);
+        transaction("1000", TransactionType.EARNED, 40.0, anHourAgo);
+        // ESCRITA POR EL spendPoints ANTERIOR, CON SIGNO POSITIVO
+        transaction("1000", TransactionType.SPENT, 15.0, anHourAgo);
+
+        pointsLedgerService.negateLegacySpentAmounts();
+        pointsLedgerService.negateLegacySpentAmounts();
+        PointsReconciliationDTO reconciliation = pointsLedgerService.reconcile();
+
+        Assertions.assertEquals(-15.0, pointsTransactionRepository.findByClientIdAndTypeOrderByCreatedAtDesc("1000", TransactionType.SPENT).get(0).getAmount());
+        Assertions.assertEquals(40.0, pointsTransactionRepository.findByClientIdAndTypeOrderByCreatedAtDesc("1000", TransactionType.EARNED).get(0).getAmount());
+        Assertions.assertEquals(0L, reconciliation.getDriftedAccounts());
+        Assertions.assertEquals(15.0, pointsBalanceSnapshotRepository.findFirstByClientIdOrderByTakenAtDesc("1000").orElseThrow().getTotalSpent());
+    }
+
+    private void account(String clientId, double balance, double earned, double spent) {
+        PointsAccount account = new PointsAccount(clientId);
+        account.setCurrentBalance(balance);
+        account.setTotalEarned(earned);
+        account.setTotalSpent(spent);
+        pointsAccountRepository.save(account);
+    }
+
+    private void transaction(String clientId, TransactionType type, double amount, Date createdAt) {
+        pointsTransactionRepository.save(PointsTransaction.builder().clientId(clientId).type(type).amount(amount).source("TEST").createdAt(createdAt).build());
+    }
+}
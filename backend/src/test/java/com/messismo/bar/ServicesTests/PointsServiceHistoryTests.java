@@ -0,0 +1,89 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.PointsHistoryEntryDTO;
+import com.messismo.bar.DTOs.PointsHistoryPageDTO;
+import com.messismo.bar.Entities.PointsTransaction;
+import com.messismo.bar.Entities.TransactionType;
+import com.messismo.bar.Repositories.PointsAccountRepository;
+import com.messismo.bar.Repositories.PointsTransactionRepository;
+import com.messismo.bar.Services.PointsService;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class PointsServiceHistoryTests {
+
+    @Autowired
+    private PointsAccountRepository pointsAccountRepository;
+
+    @Autowired
+    private PointsTransactionRepository pointsTransactionRepository;
+
+    private PointsService pointsService;
+
+    private List<PointsTransaction> transactions;
+
+    @BeforeEach
+    public void setup() {
+        pointsService = new PointsService(pointsAccountRepository, pointsTransactionRepository, null, null);
+        long now = System.currentTimeMillis();
+        transactions = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // DE A DOS CON LA MISMA FECHA, EL ID DESEMPATA
+            Date createdAt = new Date(now - (i / 2) * 1000L);
+            TransactionType type = i % 3 == 0 ? TransactionType.SPENT : TransactionType.EARNED;
+            transactions.add(pointsTransactionRepository.save(PointsTransaction.builder().clientId("1000").type(type).amount(type == TransactionType.SPENT ? -5.0 : 10.0).source("ORDER_#" + i).createdAt(createdAt).build()));
+        }
+        pointsTransactionRepository.save(PointsTransaction.builder().clientId("2000").type(TransactionType.EARNED).amount(1.0).source("ORDER_#99").createdAt(new Date(now)).build());
+    }
+
+    @Test
+    public void testPagesWalkTheWholeHistoryNewestFirst() {
+
+        List<String> sources = new ArrayList<>();
+        PointsHistoryPageDTO page = pointsService.getTransactionHistoryPage("1000", null, null, null, 3);
+        int pages = 1;
+        page.getTransactions().forEach(entry -> sources.add(entry.getSource()));
+        while (page.getNextId() != null) {
+            page = pointsService.getTransactionHistoryPage("1000", null, page.getNextCreatedAt(), page.getNextId(), 3);
+            page.getTransactions().forEach(entry -> sources.add(entry.getSource()));
+            pages++;
+        }
+
+        Assertions.assertEquals(3, pages);
+        Assertions.assertEquals(List.of("ORDER_#1", "ORDER_#0", "ORDER_#3", "ORDER_#2", "ORDER_#5", "ORDER_#4", "ORDER_#6"), sources);
+    }
+
+    @Test
+    public void testTypeFilter() {
+
+        PointsHistoryPageDTO page = pointsService.getTransactionHistoryPage("1000", TransactionType.SPENT, null, null, null);
+
+        Assertions.assertEquals(List.of("ORDER_#0", "ORDER_#3", "ORDER_#6"), page.getTransactions().stream().map(PointsHistoryEntryDTO::getSource).toList());
+        Assertions.assertNull(page.getNextCreatedAt());
+        Assertions.assertNull(page.getNextId());
+    }
+
+    @Test
+    public void testPageSizeIsCapped() {
+
+        PointsHistoryPageDTO page = pointsService.getTransactionHistoryPage("1000", null, null, null, 0);
+
+        Assertions.assertEquals(1, page.getTransactions().size());
+        Assertions.assertEquals(transactions.get(1).getId(), page.getNextId());
+    }
+
+    @Test
+    public void testIncompleteCursorIsRejected() {
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> pointsService.getTransactionHistoryPage("1000", null, System.currentTimeMillis(), null, null));
+    }
+}
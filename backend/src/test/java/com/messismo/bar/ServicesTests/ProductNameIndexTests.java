@@ -0,0 +1,103 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Services.ProductNameIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+public class ProductNameIndexTests {
+
+    @InjectMocks
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findAllNames()).thenReturn(List.of(name(1L, "Milanesa"), name(2L, "Milanesa Napolitana"), name(3L, "Pollo"), name(4L, "Pan")));
+    }
+
+    @Test
+    public void testFindIdsContainingMatchesSubstringsIgnoringCase() {
+
+        Assertions.assertEquals(Set.of(1L, 2L), productNameIndex.findIdsContaining("LANES"));
+        Assertions.assertEquals(Set.of(2L), productNameIndex.findIdsContaining("a napo"));
+        Assertions.assertEquals(Set.of(), productNameIndex.findIdsContaining("pizza"));
+        Assertions.assertEquals(Set.of(), productNameIndex.findIdsContaining("nesaa"));
+    }
+
+    @Test
+    public void testFindIdsContainingShortFragments() {
+
+        Assertions.assertEquals(Set.of(4L), productNameIndex.findIdsContaining("pa"));
+        Assertions.assertEquals(Set.of(1L, 2L, 4L), productNameIndex.findIdsContaining("AN"));
+        Assertions.assertEquals(Set.of(1L, 2L, 3L), productNameIndex.findIdsContaining("l"));
+    }
+
+    @Test
+    public void testIndexIsBuiltOnceUntilInvalidated() {
+
+        productNameIndex.findIdsContaining("pollo");
+        productNameIndex.findIdsContaining("milanesa");
+        verify(productRepository, times(1)).findAllNames();
+
+        when(productRepository.findAllNames()).thenReturn(List.of(name(5L, "Pollo al horno")));
+        productNameIndex.invalidate();
+
+        Assertions.assertEquals(Set.of(5L), productNameIndex.findIdsContaining("pollo"));
+        verify(productRepository, times(2)).findAllNames();
+    }
+
+    @Test
+    public void testInvalidateDuringARebuildDiscardsItsSnapshot() {
+
+        // UN PRODUCTO CREADO MIENTRAS SE LEEN LOS NOMBRES, LA LECTURA YA NO LO INCLUYE
+        when(productRepository.findAllNames()).thenAnswer(invocation -> {
+            productNameIndex.invalidate();
+            return List.of(name(3L, "Pollo"));
+        }).thenReturn(List.of(name(3L, "Pollo"), name(7L, "Pollo grillado")));
+
+        Assertions.assertEquals(Set.of(3L), productNameIndex.findIdsContaining("pollo"));
+        Assertions.assertEquals(Set.of(3L, 7L), productNameIndex.findIdsContaining("pollo"));
+        verify(productRepository, times(2)).findAllNames();
+    }
+
+    @Test
+    public void testRefreshRebuildsOnlyAnIndexInUse() {
+
+        productNameIndex.refresh();
+        verify(productRepository, never()).findAllNames();
+
+        productNameIndex.findIdsContaining("pan");
+        when(productRepository.findAllNames()).thenReturn(List.of(name(6L, "Pancho")));
+        productNameIndex.refresh();
+
+        Assertions.assertEquals(Set.of(6L), productNameIndex.findIdsContaining("pan"));
+    }
+
+    private ProductRepository.ProductName name(Long productId, String name) {
+        return new ProductRepository.ProductName() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.FilterProductDTO;
+import com.messismo.bar.Entities.Category;
+import com.messismo.bar.Entities.Product;
+import com.messismo.bar.Repositories.CategoryRepository;
+import com.messismo.bar.Repositories.ProductRepository;
+import com.messismo.bar.Services.ProductNameIndex;
+import com.messismo.bar.Services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class ProductServiceFilterTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private ProductService productService;
+
+    private Product product1;
+
+    private Product product2;
+
+    private Product product3;
+
+    private Product product4;
+
+    @BeforeEach
+    public void setUp() {
+
+        productService = new ProductService(productRepository, categoryRepository, null, new ProductNameIndex(productRepository), null);
+        Category category1 = categoryRepository.save(Category.builder().name("Entrada").build());
+        Category category2 = categoryRepository.save(Category.builder().name("Postre").build());
+        product1 = productRepository.save(new Product("Milanesa", 14.99, 5.00, "Milanesa con papas fritas", 50, category1));
+        product2 = productRepository.save(new Product("Milanesas", 44.99, 55.00, "Milanesas con papas fritas2", 25, category1));
+        product3 = productRepository.save(new Product("Pollo", 15.99, 15.00, "Pollo con papas fritas", 5, category1));
+        product4 = productRepository.save(new Product("Flan", 9.99, 2.00, "Flan con dulce de leche", 30, category2));
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByName() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().productName("Pollo").build();
+
+        assertEquals(List.of(product3), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByNameIgnoresCase() throws Exception {
+
+        assertEquals(List.of(product1, product2), productService.filterProducts(FilterProductDTO.builder().productName("NESA").build()));
+        assertEquals(List.of(product4), productService.filterProducts(FilterProductDTO.builder().productName("fl").build()));
+        assertEquals(List.of(), productService.filterProducts(FilterProductDTO.builder().productName("Pizza").build()));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByCategory() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().categories(List.of("Entrada")).build();
+
+        assertEquals(List.of(product1, product2, product3), productService.filterProducts(filterProductDTO));
+        assertEquals(List.of(product1, product2, product3, product4), productService.filterProducts(FilterProductDTO.builder().categories(List.of("Postre", "Entrada")).build()));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByMaxUnitPrice() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().maxUnitPrice(20.00).categories(List.of("Entrada")).build();
+
+        assertEquals(List.of(product1, product3), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByMinUnitPrice() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().minUnitPrice(20.00).build();
+
+        assertEquals(List.of(product2), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByMaxUnitCost() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().maxUnitCost(20.00).build();
+
+        assertEquals(List.of(product1, product3, product4), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByMinUnitCost() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().minUnitCost(50.00).build();
+
+        assertEquals(List.of(product2), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByMaxStock() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().maxStock(20).build();
+
+        assertEquals(List.of(product3), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProductsByMinStock() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().minStock(20).build();
+
+        assertEquals(List.of(product1, product2, product4), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProducts() throws Exception {
+
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().productName("Milanesa").categories(List.of("Entrada")).maxStock(30).minStock(0).maxUnitPrice(50.00).minUnitPrice(16.00).build();
+
+        assertEquals(List.of(product2), productService.filterProducts(filterProductDTO));
+
+    }
+
+    @Test
+    public void testProductServiceFilterProducts_ManyNameMatchesAreFilteredAfterTheQuery() throws Exception {
+
+        Category category = categoryRepository.findByName("Postre").orElseThrow();
+        List<Product> cakes = new ArrayList<>();
+        for (int i = 0; i < ProductService.MAX_IDS_IN_QUERY + 5; i++) {
+            cakes.add(new Product("Torta " + i, 10.00 + i, 3.00, "Torta", 10, category));
+        }
+        productRepository.saveAll(cakes);
+
+        List<Product> filtered = productService.filterProducts(FilterProductDTO.builder().productName("torta").maxUnitPrice(13.00).build());
+
+        assertEquals(List.of("Torta 0", "Torta 1", "Torta 2"), filtered.stream().map(Product::getName).toList());
+
+    }
+}
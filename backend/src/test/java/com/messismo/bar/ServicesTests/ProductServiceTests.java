@@ -10,6 +10,8 @@ import com.messismo.bar.Exceptions.ProductNotFoundException;
 import com.messismo.bar.Repositories.CategoryRepository;
 import com.messismo.bar.Repositories.ProductRepository;
 import com.messismo.bar.Services.CategoryService;
+import com.messismo.bar.Services.MenuCache;
+import com.messismo.bar.Services.ProductNameIndex;
 import com.messismo.bar.Services.ProductService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,11 +19,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.Assert.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,6 +45,12 @@ public class ProductServiceTests {
     @Mock
     private CategoryService categoryService;
 
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private MenuCache menuCache;
+
     @BeforeEach
     public void setUp() {
 
@@ -89,6 +100,8 @@ public class ProductServiceTests {
 
         assertEquals("Product created successfully", productService.addProduct(productDTO1));
         verify(productRepository, times(1)).findByName(productDTO1.getName());
+        verify(productNameIndex, times(1)).invalidate();
+        verify(menuCache, times(1)).invalidateCatalog();
 
     }
 
@@ -122,12 +135,14 @@ public class ProductServiceTests {
 
         assertEquals("Product deleted successfully", productService.deleteProduct(1L));
         verify(productRepository, times(1)).findByProductId(1L);
+        verify(productNameIndex, times(1)).invalidate();
+        verify(menuCache, times(1)).invalidateCatalog();
 
     }
     @Test
     public void testProductServiceDeleteProduct_Exception()  {
 
-        doThrow(new RuntimeException("Runtime Exception")).when(productRepository).delete(any());
+        doThrow(new RuntimeException("Runtime Exception")).when(productRepository).delete(any(Product.class));
         Exception exception = assertThrows(Exception.class, () -> {
             productService.deleteProduct(1L);
         });
@@ -524,19 +539,6 @@ public class ProductServiceTests {
 
     }
 
-    @Test
-    public void testProductServiceFilterProductsByName() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().productName("Pollo").build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product3 = Product.builder().productId(3L).name("Pollo").unitPrice(15.99).category(category1).stock(5).description("Pollo con papas fritas").unitCost(15.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product3);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
-
-    }
-
     @Test
     public void testGoalServiceAddGoal_Exception()  {
 
@@ -546,7 +548,8 @@ public class ProductServiceTests {
         List<Product> response = new ArrayList<>();
         response.add(product3);
 
-        doThrow(new RuntimeException("Runtime Exception")).when(productRepository).findAll();
+        when(productNameIndex.findIdsContaining("Pollo")).thenReturn(Set.of(3L));
+        doThrow(new RuntimeException("Runtime Exception")).when(productRepository).findAll(any(Specification.class), any(Sort.class));
         Exception exception = assertThrows(Exception.class, () -> {
             productService.filterProducts(filterProductDTO);
         });
@@ -556,116 +559,13 @@ public class ProductServiceTests {
 
 
     @Test
-    public void testProductServiceFilterProductsByCategory() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().categories(List.of("Entrada")).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product1 = Product.builder().productId(1L).name("Milanesa").unitPrice(14.99).category(category1).stock(50).description("Milanesa con papas fritas").unitCost(5.00).build();
-        Product product2 = Product.builder().productId(2L).name("Milanesas").unitPrice(44.99).category(category1).stock(25).description("Milanesas con papas fritas2").unitCost(55.00).build();
-        Product product3 = Product.builder().productId(3L).name("Pollo").unitPrice(15.99).category(category1).stock(5).description("Pollo con papas fritas").unitCost(15.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product1);
-        response.add(product2);
-        response.add(product3);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
-
-    }
-
-    @Test
-    public void testProductServiceFilterProductsByMaxUnitPrice() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().maxUnitPrice(20.00).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product1 = Product.builder().productId(1L).name("Milanesa").unitPrice(14.99).category(category1).stock(50).description("Milanesa con papas fritas").unitCost(5.00).build();
-        Product product3 = Product.builder().productId(3L).name("Pollo").unitPrice(15.99).category(category1).stock(5).description("Pollo con papas fritas").unitCost(15.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product1);
-        response.add(product3);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
-
-    }
-
-    @Test
-    public void testProductServiceFilterProductsByMinUnitPrice() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().minUnitPrice(20.00).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product2 = Product.builder().productId(2L).name("Milanesas").unitPrice(44.99).category(category1).stock(25).description("Milanesas con papas fritas2").unitCost(55.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product2);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
+    public void testProductServiceFilterProducts_NameWithoutMatchesSkipsTheQuery() throws Exception {
 
-    }
-
-    @Test
-    public void testProductServiceFilterProductsByMaxUnitCost() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().maxUnitCost(20.00).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product1 = Product.builder().productId(1L).name("Milanesa").unitPrice(14.99).category(category1).stock(50).description("Milanesa con papas fritas").unitCost(5.00).build();
-        Product product3 = Product.builder().productId(3L).name("Pollo").unitPrice(15.99).category(category1).stock(5).description("Pollo con papas fritas").unitCost(15.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product1);
-        response.add(product3);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
-
-    }
-
-    @Test
-    public void testProductServiceFilterProductsByMinUnitCost() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().minUnitCost(50.00).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product2 = Product.builder().productId(2L).name("Milanesas").unitPrice(44.99).category(category1).stock(25).description("Milanesas con papas fritas2").unitCost(55.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product2);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
-
-    }
-
-    @Test
-    public void testProductServiceFilterProductsByMaxStock() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().maxStock(20).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product3 = Product.builder().productId(3L).name("Pollo").unitPrice(15.99).category(category1).stock(5).description("Pollo con papas fritas").unitCost(15.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product3);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
-
-    }
-
-    @Test
-    public void testProductServiceFilterProductsByMinStock() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().minStock(20).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product1 = Product.builder().productId(1L).name("Milanesa").unitPrice(14.99).category(category1).stock(50).description("Milanesa con papas fritas").unitCost(5.00).build();
-        Product product2 = Product.builder().productId(2L).name("Milanesas").unitPrice(44.99).category(category1).stock(25).description("Milanesas con papas fritas2").unitCost(55.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product1);
-        response.add(product2);
-
-        assertEquals(response, productService.filterProducts(filterProductDTO));
-
-    }
-
-    @Test
-    public void testProductServiceFilterProducts() throws Exception {
-
-        FilterProductDTO filterProductDTO = FilterProductDTO.builder().productName("Milanesa").categories(List.of("Entrada")).maxStock(30).minStock(0).maxUnitPrice(50.00).minUnitPrice(16.00).build();
-        Category category1 = Category.builder().categoryId(1L).name("Entrada").build();
-        Product product2 = Product.builder().productId(2L).name("Milanesas").unitPrice(44.99).category(category1).stock(25).description("Milanesas con papas fritas2").unitCost(55.00).build();
-        List<Product> response = new ArrayList<>();
-        response.add(product2);
+        FilterProductDTO filterProductDTO = FilterProductDTO.builder().productName("Pizza").build();
+        when(productNameIndex.findIdsContaining("Pizza")).thenReturn(Set.of());
 
-        assertEquals(response, productService.filterProducts(filterProductDTO));
+        assertEquals(List.of(), productService.filterProducts(filterProductDTO));
+        verify(productRepository, never()).findAll(any(Specification.class), any(Sort.class));
 
     }
 
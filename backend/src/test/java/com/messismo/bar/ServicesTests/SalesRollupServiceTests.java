@@ -0,0 +1,266 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.OrderSalesDTO;
+import com.messismo.bar.Entities.*;
+import com.messismo.bar.Repositories.OrderRepository;
+import com.messismo.bar.Repositories.ProductOrderRepository;
+import com.messismo.bar.Repositories.SalesRollupRepository;
+import com.messismo.bar.Services.SalesRollupService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+public class SalesRollupServiceTests {
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductOrderRepository productOrderRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final Category drinks = Category.builder().categoryId(1L).name("Drinks").build();
+
+    private final Category food = Category.builder().categoryId(2L).name("Food").build();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(orderRepository.streamSales()).thenAnswer(invocation -> Stream.empty());
+        when(productOrderRepository.streamProductSales()).thenAnswer(invocation -> Stream.empty());
+        when(productOrderRepository.streamCategorySales()).thenAnswer(invocation -> Stream.empty());
+    }
+
+    @Test
+    public void testAggregateBuildsHourlyAndDailyRows() throws Exception {
+
+        Order order1 = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00), line("Wine", drinks, 1, 20.00, 8.00), line("Pizza", food, 1, 30.00, 10.00));
+        Order order2 = createOrder("2023-05-04 18:40:00", line("Beer", drinks, 3, 10.00, 4.00));
+        Collection<SalesRollup> rollups = SalesRollupService.aggregate(List.of(order1, order2));
+
+        SalesRollup dailyTotal = find(rollups, SalesRollup.Granularity.DAY, SalesRollupService.TOTAL_KEY);
+        Assertions.assertEquals(LocalDateTime.of(2023, 5, 4, 0, 0), dailyTotal.getBucketStart());
+        Assertions.assertEquals(2L, dailyTotal.getOrderCount());
+        Assertions.assertEquals(7L, dailyTotal.getQuantity());
+        Assertions.assertEquals(100.00, dailyTotal.getRevenue());
+        Assertions.assertEquals(38.00, dailyTotal.getCost());
+        SalesRollup dailyDrinks = find(rollups, SalesRollup.Granularity.DAY, "category:1");
+        Assertions.assertEquals(2L, dailyDrinks.getOrderCount());
+        Assertions.assertEquals(6L, dailyDrinks.getQuantity());
+        Assertions.assertEquals(42.00, dailyDrinks.getEarnings());
+        SalesRollup dailyBeer = find(rollups, SalesRollup.Granularity.DAY, "product:1:Beer");
+        Assertions.assertEquals(5L, dailyBeer.getQuantity());
+        Assertions.assertEquals("Drinks", dailyBeer.getCategoryName());
+        long hourlyTotals = rollups.stream().filter(rollup -> rollup.getGranularity() == SalesRollup.Granularity.HOUR && rollup.getDimension() == SalesRollup.Dimension.TOTAL).count();
+        Assertions.assertEquals(2, hourlyTotals);
+    }
+
+    @Test
+    public void testRecordNewOrderInsertsMissingRows() throws Exception {
+
+        Order order = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00));
+        when(salesRollupRepository.increment(any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        salesRollupService.recordNewOrder(order);
+
+        // TOTAL, PRODUCT Y CATEGORY PARA HORA Y DIA
+        verify(salesRollupRepository, times(6)).increment(any(), any(), any(), any(), any(), any(), any());
+        verify(salesRollupRepository, times(6)).save(any(SalesRollup.class));
+    }
+
+    @Test
+    public void testRecordNewOrderIncrementsExistingRows() throws Exception {
+
+        Order order = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00));
+        when(salesRollupRepository.increment(any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        salesRollupService.recordNewOrder(order);
+
+        verify(salesRollupRepository, times(1)).increment(SalesRollup.Granularity.DAY, LocalDateTime.of(2023, 5, 4, 0, 0), SalesRollupService.TOTAL_KEY, 2L, 20.00, 8.00, 1L);
+        verify(salesRollupRepository, never()).save(any(SalesRollup.class));
+    }
+
+    @Test
+    public void testRecordAddedProductOrdersDoesNotRecountExistingProducts() throws Exception {
+
+        ProductOrder existingLine = line("Beer", drinks, 2, 10.00, 4.00);
+        Order order = createOrder("2023-05-04 10:15:00", existingLine);
+        when(salesRollupRepository.increment(any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        salesRollupService.recordAddedProductOrders(order, List.of(existingLine), List.of(line("Beer", drinks, 1, 10.00, 4.00), line("Pizza", food, 1, 30.00, 10.00)), 40.00, 14.00);
+
+        LocalDateTime day = LocalDateTime.of(2023, 5, 4, 0, 0);
+        verify(salesRollupRepository).increment(SalesRollup.Granularity.DAY, day, SalesRollupService.TOTAL_KEY, 2L, 40.00, 14.00, 0L);
+        verify(salesRollupRepository).increment(SalesRollup.Granularity.DAY, day, "product:1:Beer", 1L, 10.00, 4.00, 0L);
+        verify(salesRollupRepository).increment(SalesRollup.Granularity.DAY, day, "product:2:Pizza", 1L, 30.00, 10.00, 1L);
+        verify(salesRollupRepository).increment(SalesRollup.Granularity.DAY, day, "category:2", 1L, 30.00, 10.00, 1L);
+    }
+
+    @Test
+    public void testRecordPriceAdjustmentOnlyMovesTotals() throws Exception {
+
+        Order order = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00));
+        when(salesRollupRepository.increment(any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        salesRollupService.recordPriceAdjustment(order, -5.00);
+
+        verify(salesRollupRepository, times(2)).increment(any(), any(), eq(SalesRollupService.TOTAL_KEY), eq(0L), eq(-5.00), eq(0.00), eq(0L));
+        verifyNoMoreInteractions(salesRollupRepository);
+    }
+
+    @Test
+    public void testRecordPriceAdjustmentWithoutChange() throws Exception {
+
+        Order order = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00));
+        salesRollupService.recordPriceAdjustment(order, 0.00);
+
+        verifyNoInteractions(salesRollupRepository);
+    }
+
+    @Test
+    public void testRebuild() throws Exception {
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        Date morning = dateFormat.parse("2023-05-04 10:15:00");
+        Date noon = dateFormat.parse("2023-05-04 11:20:00");
+        when(orderRepository.streamSales()).thenReturn(Stream.of(new OrderSalesDTO(morning, 20.00, 8.00), new OrderSalesDTO(noon, 30.00, 10.00)));
+        when(productOrderRepository.streamProductSales()).thenReturn(Stream.of(new OrderSalesDTO(morning, 1L, "Drinks", "Beer", 2L, 20.00, 8.00), new OrderSalesDTO(noon, 2L, "Food", "Pizza", 1L, 30.00, 10.00)));
+        when(productOrderRepository.streamCategorySales()).thenReturn(Stream.of(new OrderSalesDTO(morning, 1L, "Drinks", 2L, 20.00, 8.00), new OrderSalesDTO(noon, 2L, "Food", 1L, 30.00, 10.00)));
+        salesRollupService.rebuild();
+
+        ArgumentCaptor<Collection<SalesRollup>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(salesRollupRepository, times(1)).deleteAllInBatch();
+        verify(salesRollupRepository, times(1)).saveAll(captor.capture());
+        verify(orderRepository, never()).findAll();
+        // HORAS: 2 TOTALES + 2 PRODUCTOS + 2 CATEGORIAS, DIA: 1 TOTAL + 2 PRODUCTOS + 2 CATEGORIAS
+        Assertions.assertEquals(11, captor.getValue().size());
+        SalesRollup dailyTotal = find(captor.getValue(), SalesRollup.Granularity.DAY, SalesRollupService.TOTAL_KEY);
+        Assertions.assertEquals(2L, dailyTotal.getOrderCount());
+        Assertions.assertEquals(3L, dailyTotal.getQuantity());
+        Assertions.assertEquals(50.00, dailyTotal.getRevenue());
+        SalesRollup dailyPizza = find(captor.getValue(), SalesRollup.Granularity.DAY, "product:2:Pizza");
+        Assertions.assertEquals("Food", dailyPizza.getCategoryName());
+        Assertions.assertEquals(20.00, dailyPizza.getEarnings());
+    }
+
+    @Test
+    public void testRebuildBucketsLikeTheIncrementalUpdates() throws Exception {
+
+        // CERCA DE MEDIANOCHE, DONDE UNA ZONA DISTINTA CAMBIARIA EL DIA
+        Order late = createOrder("2023-05-04 23:50:00", line("Beer", drinks, 2, 10.00, 4.00), line("Pizza", food, 1, 30.00, 10.00));
+        Order early = createOrder("2023-05-05 00:10:00", line("Beer", drinks, 1, 10.00, 4.00));
+        when(orderRepository.streamSales()).thenReturn(Stream.of(late, early).map(order -> new OrderSalesDTO(order.getDateCreated(), order.getTotalPrice(), order.getTotalCost())));
+        when(productOrderRepository.streamProductSales()).thenReturn(Stream.of(late, early).flatMap(order -> order.getProductOrders().stream().map(productOrder -> new OrderSalesDTO(order.getDateCreated(), productOrder.getCategory().getCategoryId(), productOrder.getCategory().getName(), productOrder.getProductName(), (long) productOrder.getQuantity(), productOrder.getQuantity() * productOrder.getProductUnitPrice(), productOrder.getQuantity() * productOrder.getProductUnitCost()))));
+        when(productOrderRepository.streamCategorySales()).thenReturn(Stream.of(late, early).flatMap(order -> order.getProductOrders().stream().map(productOrder -> new OrderSalesDTO(order.getDateCreated(), productOrder.getCategory().getCategoryId(), productOrder.getCategory().getName(), (long) productOrder.getQuantity(), productOrder.getQuantity() * productOrder.getProductUnitPrice(), productOrder.getQuantity() * productOrder.getProductUnitCost()))));
+        salesRollupService.rebuild();
+
+        ArgumentCaptor<Collection<SalesRollup>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(salesRollupRepository).saveAll(captor.capture());
+        Assertions.assertEquals(summarize(SalesRollupService.aggregate(List.of(late, early))), summarize(captor.getValue()));
+    }
+
+    @Test
+    public void testRebuildWithoutOrders() {
+
+        salesRollupService.rebuild();
+
+        verify(salesRollupRepository, times(1)).deleteAllInBatch();
+        verify(salesRollupRepository, times(1)).saveAll(argThat(rollups -> !rollups.iterator().hasNext()));
+    }
+
+    @Test
+    public void testBackfillOnStartupSkipsWhenRollupsExist() {
+
+        when(salesRollupRepository.count()).thenReturn(10L);
+        when(orderRepository.count()).thenReturn(5L);
+        salesRollupService.backfillOnStartup();
+
+        verify(orderRepository, never()).streamSales();
+    }
+
+    @Test
+    public void testRepairRollupsRebuildsAfterADroppedUpdate() throws Exception {
+
+        Order order = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00));
+        when(salesRollupRepository.increment(any(), any(), any(), any(), any(), any(), any())).thenThrow(new RuntimeException("Connection reset"));
+        salesRollupService.recordNewOrder(order);
+        salesRollupService.repairRollups();
+        salesRollupService.repairRollups();
+
+        verify(orderRepository, times(1)).streamSales();
+        verify(salesRollupRepository, times(1)).deleteAllInBatch();
+    }
+
+    @Test
+    public void testRepairRollupsWithoutDroppedUpdates() throws Exception {
+
+        Order order = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00));
+        when(salesRollupRepository.increment(any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+        salesRollupService.recordNewOrder(order);
+        salesRollupService.repairRollups();
+
+        verify(orderRepository, never()).streamSales();
+        verify(salesRollupRepository, never()).deleteAllInBatch();
+    }
+
+    @Test
+    public void testRepairRollupsRetriesAFailedRebuild() throws Exception {
+
+        Order order = createOrder("2023-05-04 10:15:00", line("Beer", drinks, 2, 10.00, 4.00));
+        when(salesRollupRepository.increment(any(), any(), any(), any(), any(), any(), any())).thenThrow(new RuntimeException("Connection reset"));
+        when(orderRepository.streamSales()).thenThrow(new RuntimeException("Connection reset")).thenReturn(Stream.empty());
+        salesRollupService.recordNewOrder(order);
+        salesRollupService.repairRollups();
+        salesRollupService.repairRollups();
+
+        verify(orderRepository, times(2)).streamSales();
+        verify(salesRollupRepository, times(1)).deleteAllInBatch();
+    }
+
+    private Set<String> summarize(Collection<SalesRollup> rollups) {
+        return rollups.stream().map(rollup -> rollup.getGranularity() + "|" + rollup.getBucketStart() + "|" + rollup.getDimensionKey() + "|" + rollup.getCategoryName() + "|" + rollup.getProductName() + "|" + rollup.getQuantity() + "|" + rollup.getRevenue() + "|" + rollup.getCost() + "|" + rollup.getOrderCount()).collect(Collectors.toSet());
+    }
+
+    private SalesRollup find(Collection<SalesRollup> rollups, SalesRollup.Granularity granularity, String key) {
+        return rollups.stream().filter(rollup -> rollup.getGranularity() == granularity && rollup.getDimensionKey().equals(key)).findFirst().orElseThrow();
+    }
+
+    private Order createOrder(String date, ProductOrder... productOrders) throws Exception {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        double totalPrice = 0.00;
+        double totalCost = 0.00;
+        for (ProductOrder productOrder : productOrders) {
+            totalPrice += productOrder.getProductUnitPrice() * productOrder.getQuantity();
+            totalCost += productOrder.getProductUnitCost() * productOrder.getQuantity();
+        }
+        return Order.builder().dateCreated(dateFormat.parse(date)).productOrders(new ArrayList<>(List.of(productOrders))).totalPrice(totalPrice).totalCost(totalCost).status("Open").build();
+    }
+
+    private ProductOrder line(String productName, Category category, int quantity, double unitPrice, double unitCost) {
+        return new ProductOrder(productName, unitPrice, unitCost, category, quantity);
+    }
+}
@@ -0,0 +1,147 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Entities.*;
+import com.messismo.bar.Repositories.CategoryRepository;
+import com.messismo.bar.Repositories.OrderRepository;
+import com.messismo.bar.Repositories.PointsTransactionRepository;
+import com.messismo.bar.Repositories.ProductOrderRepository;
+import com.messismo.bar.Services.SequenceAlignmentService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SequenceAlignmentServiceTests {
+
+    // MAS DE UN BLOQUE, ASI LAS ORDENES NUEVAS PIDEN VALORES NUEVOS A LA SECUENCIA
+    private static final int NEW_ORDERS = SequenceAlignmentService.ALLOCATION_SIZE + 10;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PointsTransactionRepository pointsTransactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SequenceAlignmentService sequenceAlignmentService;
+
+    private Category category;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        sequenceAlignmentService = new SequenceAlignmentService(entityManager, transactionTemplate);
+        category = categoryRepository.save(Category.builder().name("Drinks").build());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        orderRepository.deleteAll();
+        productOrderRepository.deleteAll();
+        categoryRepository.deleteAll();
+        pointsTransactionRepository.deleteAll();
+    }
+
+    @Test
+    public void testNewOrdersSkipTheIdsOfLegacyRows() {
+
+        Order first = orderRepository.save(newOrder());
+        long firstOrderId = first.getId();
+        long firstProductOrderId = first.getProductOrders().get(0).getProductOrderId();
+        // FILAS CREADAS CON IDENTITY, OCUPAN LOS IDS QUE LA SECUENCIA ENTREGARIA DESPUES DEL BLOQUE ACTUAL
+        Set<Long> legacyOrderIds = seedLegacyRows("INSERT INTO orders (order_id, status, total_price, total_cost, points_used) VALUES (?1, 'Closed', 0, 0, 0)", firstOrderId);
+        Set<Long> legacyProductOrderIds = seedLegacyRows("INSERT INTO product_order (product_order_id, product_name, quantity) VALUES (?1, 'Legacy', 1)", firstProductOrderId);
+
+        sequenceAlignmentService.alignSequences();
+        List<Order> saved = new ArrayList<>();
+        for (int i = 0; i < NEW_ORDERS; i++) {
+            saved.add(orderRepository.save(newOrder()));
+        }
+
+        for (Order order : saved) {
+            Assertions.assertFalse(legacyOrderIds.contains(order.getId()));
+            Assertions.assertFalse(legacyProductOrderIds.contains(order.getProductOrders().get(0).getProductOrderId()));
+        }
+        Assertions.assertEquals(NEW_ORDERS + 1 + legacyOrderIds.size(), orderRepository.count());
+    }
+
+    @Test
+    public void testNewPointsTransactionsSkipTheIdsOfLegacyRows() {
+
+        long firstId = pointsTransactionRepository.save(newPointsTransaction()).getId();
+        Set<Long> legacyIds = seedLegacyRows("INSERT INTO points_transactions (id, client_id, transaction_type, amount, source, created_at) VALUES (?1, '777', 'EARNED', 1, 'ORDER_#1', CURRENT_TIMESTAMP)", firstId);
+
+        sequenceAlignmentService.alignSequences();
+        List<PointsTransaction> saved = new ArrayList<>();
+        for (int i = 0; i < NEW_ORDERS; i++) {
+            saved.add(newPointsTransaction());
+        }
+        pointsTransactionRepository.saveAll(saved);
+
+        Assertions.assertTrue(saved.stream().noneMatch(transaction -> legacyIds.contains(transaction.getId())));
+        Assertions.assertEquals(NEW_ORDERS + 1 + legacyIds.size(), pointsTransactionRepository.count());
+    }
+
+    @Test
+    public void testSequenceAheadOfTheTableIsLeftAlone() {
+
+        long before = orderRepository.save(newOrder()).getId();
+
+        sequenceAlignmentService.alignSequences();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < NEW_ORDERS; i++) {
+            ids.add(orderRepository.save(newOrder()).getId());
+        }
+
+        Assertions.assertTrue(ids.stream().allMatch(id -> id > before));
+        Assertions.assertEquals(NEW_ORDERS, new HashSet<>(ids).size());
+    }
+
+    private Order newOrder() {
+        List<ProductOrder> productOrders = new ArrayList<>(List.of(new ProductOrder("Water", 10.00, 5.00, category, 1)));
+        return new Order(null, new Date(), productOrders, 10.00, 5.00);
+    }
+
+    private PointsTransaction newPointsTransaction() {
+        return new PointsTransaction("777", TransactionType.EARNED, 10.00, "ORDER_#2", "Puntos ganados");
+    }
+
+    private Set<Long> seedLegacyRows(String insert, long after) {
+        Set<Long> ids = new HashSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long id = after + SequenceAlignmentService.ALLOCATION_SIZE; id <= after + 3 * SequenceAlignmentService.ALLOCATION_SIZE; id++) {
+                entityManager.createNativeQuery(insert).setParameter(1, id).executeUpdate();
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+}
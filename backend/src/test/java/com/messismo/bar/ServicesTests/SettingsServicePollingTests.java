@@ -0,0 +1,54 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Repositories.SettingsHistoryRepository;
+import com.messismo.bar.Repositories.SettingsRepository;
+import com.messismo.bar.Services.SettingsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SettingsServicePollingTests {
+
+    @Autowired
+    private SettingsRepository settingsRepository;
+
+    @Autowired
+    private SettingsHistoryRepository settingsHistoryRepository;
+
+    private SettingsService firstInstance;
+
+    private SettingsService secondInstance;
+
+    @BeforeEach
+    public void setup() {
+        firstInstance = new SettingsService(settingsRepository, settingsHistoryRepository);
+        secondInstance = new SettingsService(settingsRepository, settingsHistoryRepository);
+        firstInstance.initializeDefaultSettings();
+        secondInstance.initializeDefaultSettings();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        settingsHistoryRepository.deleteAll();
+        settingsRepository.deleteAll();
+    }
+
+    @Test
+    public void testOtherInstancePicksUpTheChangeOnItsNextPoll() {
+
+        Assertions.assertEquals(1, settingsRepository.count());
+        firstInstance.updatePointsConversionRate(40.00);
+
+        Assertions.assertEquals(40.00, firstInstance.getPointsConversionRate());
+        Assertions.assertEquals(100.00, secondInstance.getPointsConversionRate());
+        secondInstance.refreshSettings();
+        Assertions.assertEquals(40.00, secondInstance.getPointsConversionRate());
+    }
+}
@@ -0,0 +1,106 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Entities.Settings;
+import com.messismo.bar.Entities.SettingsHistory;
+import com.messismo.bar.Repositories.SettingsHistoryRepository;
+import com.messismo.bar.Repositories.SettingsRepository;
+import com.messismo.bar.Services.SettingsService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SettingsServiceTests {
+
+    @InjectMocks
+    private SettingsService settingsService;
+
+    @Mock
+    private SettingsRepository settingsRepository;
+
+    @Mock
+    private SettingsHistoryRepository settingsHistoryRepository;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        when(settingsRepository.save(any(Settings.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testInitializeDefaultSettingsCreatesTheDefaultAndLoadsIt() {
+
+        when(settingsRepository.findByKey(SettingsService.POINTS_CONVERSION_KEY)).thenReturn(Optional.empty());
+        when(settingsRepository.findAll()).thenReturn(List.of(conversionRate("100")));
+
+        settingsService.initializeDefaultSettings();
+
+        verify(settingsRepository).save(any(Settings.class));
+        Assertions.assertEquals(100.00, settingsService.getPointsConversionRate());
+    }
+
+    @Test
+    public void testGetPointsConversionRateDoesNotQueryTheDatabase() {
+
+        when(settingsRepository.findByKey(SettingsService.POINTS_CONVERSION_KEY)).thenReturn(Optional.of(conversionRate("250")));
+        when(settingsRepository.findAll()).thenReturn(List.of(conversionRate("250")));
+        settingsService.initializeDefaultSettings();
+        clearInvocations(settingsRepository);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(250.00, settingsService.getPointsConversionRate());
+        }
+        verifyNoInteractions(settingsRepository);
+    }
+
+    @Test
+    public void testSaveSettingRefreshesTheCachedRate() {
+
+        Settings stored = conversionRate("100");
+        when(settingsRepository.findByKey(SettingsService.POINTS_CONVERSION_KEY)).thenReturn(Optional.of(stored));
+        when(settingsRepository.findAll()).thenReturn(List.of(stored));
+        settingsService.initializeDefaultSettings();
+
+        settingsService.updatePointsConversionRate(50.00);
+
+        Assertions.assertEquals(50.00, settingsService.getPointsConversionRate());
+        verify(settingsHistoryRepository).save(any(SettingsHistory.class));
+    }
+
+    @Test
+    public void testInvalidRateFallsBackToTheDefault() {
+
+        when(settingsRepository.findByKey(SettingsService.POINTS_CONVERSION_KEY)).thenReturn(Optional.of(conversionRate("abc")));
+        when(settingsRepository.findAll()).thenReturn(List.of(conversionRate("abc")));
+
+        settingsService.initializeDefaultSettings();
+
+        Assertions.assertEquals(100.00, settingsService.getPointsConversionRate());
+    }
+
+    @Test
+    public void testRefreshSettingsKeepsThePreviousValueWhenTheDatabaseFails() {
+
+        when(settingsRepository.findByKey(SettingsService.POINTS_CONVERSION_KEY)).thenReturn(Optional.of(conversionRate("80")));
+        when(settingsRepository.findAll()).thenReturn(List.of(conversionRate("80")));
+        settingsService.initializeDefaultSettings();
+        when(settingsRepository.findAll()).thenThrow(new RuntimeException("connection lost"));
+
+        settingsService.refreshSettings();
+
+        Assertions.assertEquals(80.00, settingsService.getPointsConversionRate());
+    }
+
+    private Settings conversionRate(String value) {
+        return new Settings(SettingsService.POINTS_CONVERSION_KEY, value, "Cantidad en pesos necesaria para obtener 1 punto de fidelidad");
+    }
+}
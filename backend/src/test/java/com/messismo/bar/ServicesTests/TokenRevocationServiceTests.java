@@ -0,0 +1,91 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.Token;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Repositories.TokenRepository;
+import com.messismo.bar.Services.JwtService;
+import com.messismo.bar.Services.TokenRevocationService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+
+public class TokenRevocationServiceTests {
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Spy
+    private JwtService jwtService = new JwtService("ee2ecef84938596217bd811c807a4eb225d510874e922e5e2e692d8a6e4464bf", 86400000, 604800000);
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        user = User.builder().id(1L).username("messi").email("messi@mail.com").password("password1").role(Role.EMPLOYEE).build();
+    }
+
+    @Test
+    public void testRevokedTokenIsRejectedAndOthersAreNot() {
+
+        User otherUser = User.builder().id(2L).username("dibu").email("dibu@mail.com").password("password1").role(Role.EMPLOYEE).build();
+        String revoked = jwtService.generateToken(user);
+
+        tokenRevocationService.revoke(revoked);
+
+        Assertions.assertTrue(tokenRevocationService.isRevoked(revoked));
+        Assertions.assertFalse(tokenRevocationService.isRevoked(jwtService.generateToken(otherUser)));
+    }
+
+    @Test
+    public void testLoadRevokedTokensFromTheTable() {
+
+        String revoked = jwtService.generateToken(user);
+        when(tokenRepository.findRevokedTokens()).thenReturn(List.of(revoked, "not-a-jwt"));
+
+        tokenRevocationService.loadRevokedTokens();
+
+        Assertions.assertTrue(tokenRevocationService.isRevoked(revoked));
+        Assertions.assertFalse(tokenRevocationService.isRevoked("not-a-jwt"));
+    }
+
+    @Test
+    public void testExpiredTokensAreNotKept() {
+
+        String expired = Jwts.builder().setSubject("messi@mail.com").setExpiration(new Date(System.currentTimeMillis() - 1000)).signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode("ee2ecef84938596217bd811c807a4eb225d510874e922e5e2e692d8a6e4464bf")), SignatureAlgorithm.HS256).compact();
+
+        tokenRevocationService.revoke(expired);
+        tokenRevocationService.purgeExpiredTokens();
+
+        Assertions.assertFalse(tokenRevocationService.isRevoked(expired));
+    }
+
+    @Test
+    public void testStoredAccessTokenLooksUpTheTable() {
+
+        String stored = jwtService.generateToken(user);
+        when(tokenRepository.findByToken(stored)).thenReturn(Optional.of(Token.builder().token(stored).build()));
+
+        Assertions.assertTrue(tokenRevocationService.isStoredAccessToken(stored));
+        Assertions.assertFalse(tokenRevocationService.isStoredAccessToken(jwtService.generateRefreshToken(user)));
+    }
+}
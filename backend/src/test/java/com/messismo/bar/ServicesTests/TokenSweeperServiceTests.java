@@ -0,0 +1,87 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.DTOs.TokenMetricsDTO;
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.Token;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Repositories.TokenRepository;
+import com.messismo.bar.Services.JwtService;
+import com.messismo.bar.Services.TokenSweeperService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TokenSweeperServiceTests {
+
+    @InjectMocks
+    private TokenSweeperService tokenSweeperService;
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Spy
+    private JwtService jwtService = new JwtService("ee2ecef84938596217bd811c807a4eb225d510874e922e5e2e692d8a6e4464bf", 86400000, 604800000);
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        when(tokenRepository.findByExpiresAtIsNull(any())).thenReturn(List.of());
+    }
+
+    @Test
+    public void testSweepDeletesInBatchesUntilNothingIsLeft() {
+
+        List<Long> fullBatch = LongStream.rangeClosed(1, TokenSweeperService.SWEEP_BATCH_SIZE).boxed().toList();
+        when(tokenRepository.findExpiredIds(any(), any())).thenReturn(fullBatch, List.of(501L, 502L));
+        when(tokenRepository.count()).thenReturn(10L);
+
+        tokenSweeperService.sweepExpiredTokens();
+
+        verify(tokenRepository, times(1)).deleteAllByIdInBatch(fullBatch);
+        verify(tokenRepository, times(1)).deleteAllByIdInBatch(List.of(501L, 502L));
+        TokenMetricsDTO metrics = tokenSweeperService.getMetrics();
+        Assertions.assertEquals(10L, metrics.getStoredTokens());
+        Assertions.assertEquals(502L, metrics.getPurgedLastSweep());
+        Assertions.assertEquals(502L, metrics.getPurgedTotal());
+        Assertions.assertNotNull(metrics.getLastSweep());
+    }
+
+    @Test
+    public void testSweepWithNothingExpired() {
+
+        when(tokenRepository.findExpiredIds(any(), any())).thenReturn(List.of());
+
+        tokenSweeperService.sweepExpiredTokens();
+
+        verify(tokenRepository, never()).deleteAllByIdInBatch(any());
+        Assertions.assertEquals(0L, tokenSweeperService.getMetrics().getPurgedLastSweep());
+    }
+
+    @Test
+    public void testRowsWithoutExpiryTakeItFromTheJwt() {
+
+        User user = User.builder().id(1L).username("messi").email("messi@mail.com").password("password1").role(Role.EMPLOYEE).build();
+        Token valid = Token.builder().id(1L).token(jwtService.generateToken(user)).build();
+        Token unreadable = Token.builder().id(2L).token("not-a-jwt").build();
+        when(tokenRepository.findByExpiresAtIsNull(any())).thenReturn(List.of(valid, unreadable));
+        when(tokenRepository.findExpiredIds(any(), any())).thenReturn(List.of());
+
+        tokenSweeperService.sweepExpiredTokens();
+
+        Assertions.assertTrue(valid.getExpiresAt().after(new Date()));
+        Assertions.assertEquals(new Date(0), unreadable.getExpiresAt());
+        verify(tokenRepository, times(1)).saveAll(List.of(valid, unreadable));
+    }
+}
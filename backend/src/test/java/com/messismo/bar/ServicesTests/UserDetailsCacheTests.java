@@ -0,0 +1,68 @@
+package com.messismo.bar.ServicesTests;
+
+import com.messismo.bar.Entities.Role;
+import com.messismo.bar.Entities.User;
+import com.messismo.bar.Repositories.UserRepository;
+import com.messismo.bar.Services.UserDetailsCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class UserDetailsCacheTests {
+
+    @InjectMocks
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        user = User.builder().id(1L).username("messi").email("messi@mail.com").password("password1").role(Role.EMPLOYEE).build();
+        when(userRepository.findByEmail("messi@mail.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail("ghost@mail.com")).thenReturn(Optional.empty());
+    }
+
+    @Test
+    public void testRepeatedLookupsHitTheDatabaseOnce() {
+
+        Assertions.assertEquals(user, userDetailsCache.get("messi@mail.com"));
+        Assertions.assertEquals(user, userDetailsCache.get("messi@mail.com"));
+
+        verify(userRepository, times(1)).findByEmail("messi@mail.com");
+    }
+
+    @Test
+    public void testEvictReloadsTheUser() {
+
+        userDetailsCache.get("messi@mail.com");
+        userDetailsCache.evict("messi@mail.com");
+        userDetailsCache.get("messi@mail.com");
+
+        verify(userRepository, times(2)).findByEmail("messi@mail.com");
+    }
+
+    @Test
+    public void testUnknownUserIsNotCached() {
+
+        UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
+            userDetailsCache.get("ghost@mail.com");
+        });
+        Assertions.assertEquals("User not found", exception.getMessage());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("ghost@mail.com"));
+        verify(userRepository, times(2)).findByEmail("ghost@mail.com");
+    }
+}
@@ -1,6 +1,10 @@
 package com.messismo.bar.ServicesTests;
 
+import com.messismo.bar.DTOs.ClientFilterDTO;
+import com.messismo.bar.DTOs.ClientPageDTO;
 import com.messismo.bar.DTOs.ClientProfileDTO;
+import com.messismo.bar.DTOs.EmployeeFilterDTO;
+import com.messismo.bar.DTOs.EmployeePageDTO;
 import com.messismo.bar.DTOs.UserDTO;
 import com.messismo.bar.DTOs.UserIdDTO;
 import com.messismo.bar.Entities.Role;
@@ -9,17 +13,24 @@ import com.messismo.bar.Exceptions.CannotUpgradeToManager;
 import com.messismo.bar.Exceptions.CannotUpgradeToValidatedEmployee;
 import com.messismo.bar.Repositories.UserRepository;
 import com.messismo.bar.Services.PointsService;
+import com.messismo.bar.Services.UserDetailsCache;
 import com.messismo.bar.Services.UserService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,6 +49,9 @@ public class UserServiceTests {
     @Mock
     private PointsService pointsService;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     @BeforeEach
     public void setUp() {
 
@@ -132,8 +146,108 @@ public class UserServiceTests {
         users.add(user2);
         users.add(user3);
 
+        when(userRepository.findAllByRoleIn(UserService.EMPLOYEE_ROLES)).thenReturn(users);
+
         Assertions.assertEquals(users, userService.getAllEmployees());
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllByRoleIn(UserService.EMPLOYEE_ROLES);
+        verify(userRepository, never()).findAll();
+
+    }
+
+    @Test
+    public void testUserServiceGetEmployeePageFiltersByRoleAndSearch() throws Exception {
+
+        List<UserDTO> employees = List.of(UserDTO.builder().id(2L).email("messi2@gmail.com").username("messi2").role(Role.EMPLOYEE).build());
+        when(userRepository.findByRoleIn(any(), any(), any())).thenReturn(new SliceImpl<>(employees, PageRequest.of(0, 1), true));
+
+        EmployeePageDTO employeePageDTO = userService.getEmployeePage(EmployeeFilterDTO.builder().search("Messi").role(Role.EMPLOYEE).pageSize(1).build());
+
+        Assertions.assertEquals(employees, employeePageDTO.getEmployees());
+        Assertions.assertEquals(1, employeePageDTO.getNextPage());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(userRepository).findByRoleIn(eq(EnumSet.of(Role.EMPLOYEE)), eq("%messi%"), pageable.capture());
+        Assertions.assertEquals(List.of("username", "id"), pageable.getValue().getSort().stream().map(Sort.Order::getProperty).toList());
+
+    }
+
+    @Test
+    public void testUserServiceGetEmployeePageWithAClientRoleReturnsNothing() throws Exception {
+
+        EmployeePageDTO employeePageDTO = userService.getEmployeePage(EmployeeFilterDTO.builder().role(Role.CLIENT).build());
+
+        Assertions.assertEquals(List.of(), employeePageDTO.getEmployees());
+        Assertions.assertNull(employeePageDTO.getNextPage());
+        verify(userRepository, never()).findByRoleIn(any(), any(), any());
+
+    }
+
+    @Test
+    public void testUserServiceGetEmployeePageDefaultsToEveryEmployeeRole() throws Exception {
+
+        when(userRepository.findByRoleIn(any(), any(), any())).thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, UserService.DEFAULT_EMPLOYEE_PAGE_SIZE), false));
+
+        EmployeePageDTO employeePageDTO = userService.getEmployeePage(new EmployeeFilterDTO());
+
+        Assertions.assertNull(employeePageDTO.getNextPage());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(userRepository).findByRoleIn(eq(UserService.EMPLOYEE_ROLES), isNull(), pageable.capture());
+        Assertions.assertEquals(UserService.DEFAULT_EMPLOYEE_PAGE_SIZE, pageable.getValue().getPageSize());
+
+    }
+
+    @Test
+    public void testUserServiceGetAllClientsUsesTheJoinedQuery() {
+
+        List<UserDTO> clients = List.of(UserDTO.builder().id(4L).username("messi").role(Role.CLIENT).clientId("10000001").currentPoints(30.00).build());
+        when(userRepository.findAllClientsWithPoints()).thenReturn(clients);
+
+        Assertions.assertEquals(clients, userService.getAllClients());
+        verifyNoInteractions(pointsService);
+
+    }
+
+    @Test
+    public void testUserServiceGetClientPageSortsByBalanceAndEscapesTheSearch() throws Exception {
+
+        List<UserDTO> clients = List.of(UserDTO.builder().id(4L).username("messi_10").role(Role.CLIENT).clientId("10000001").currentPoints(30.00).build());
+        when(userRepository.findClientsWithPoints(any(), any())).thenReturn(new SliceImpl<>(clients, PageRequest.of(2, 1), true));
+        ClientFilterDTO clientFilterDTO = ClientFilterDTO.builder().search(" Messi_10% ").sortBy("currentPoints").descending(true).page(2).pageSize(1).build();
+
+        ClientPageDTO clientPageDTO = userService.getClientPage(clientFilterDTO);
+
+        Assertions.assertEquals(clients, clientPageDTO.getClients());
+        Assertions.assertEquals(3, clientPageDTO.getNextPage());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(userRepository).findClientsWithPoints(eq("%messi!_10!%%"), pageable.capture());
+        Assertions.assertEquals(2, pageable.getValue().getPageNumber());
+        Assertions.assertEquals(1, pageable.getValue().getPageSize());
+        Assertions.assertEquals(List.of("COALESCE(p.currentBalance, 0.0)", "id"), pageable.getValue().getSort().stream().map(Sort.Order::getProperty).toList());
+        Assertions.assertTrue(pageable.getValue().getSort().stream().allMatch(Sort.Order::isDescending));
+
+    }
+
+    @Test
+    public void testUserServiceGetClientPageDefaultsAndLastPage() throws Exception {
+
+        when(userRepository.findClientsWithPoints(any(), any())).thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, UserService.DEFAULT_CLIENT_PAGE_SIZE), false));
+
+        ClientPageDTO clientPageDTO = userService.getClientPage(ClientFilterDTO.builder().sortBy("password").pageSize(100000).build());
+
+        Assertions.assertNull(clientPageDTO.getNextPage());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(userRepository).findClientsWithPoints(isNull(), pageable.capture());
+        Assertions.assertEquals(UserService.CLIENT_PAGE_SIZE, pageable.getValue().getPageSize());
+        Assertions.assertEquals(List.of("username", "id"), pageable.getValue().getSort().stream().map(Sort.Order::getProperty).toList());
+
+    }
+
+    @Test
+    public void testUserServiceGetClientPageFails() {
+
+        when(userRepository.findClientsWithPoints(any(), any())).thenThrow(new RuntimeException("connection lost"));
+
+        Exception exception = assertThrows(Exception.class, () -> userService.getClientPage(new ClientFilterDTO()));
+        Assertions.assertEquals("CANNOT get clients at the moment", exception.getMessage());
 
     }
 
@@ -143,6 +257,7 @@ public class UserServiceTests {
         UserIdDTO userIdDTO = new UserIdDTO(2L);
 
         Assertions.assertEquals("User IS NOW a VALIDATED_EMPLOYEE", userService.validateEmployee(userIdDTO));
+        verify(userDetailsCache, times(1)).evict("messi2@gmail.com");
     }
 
     @Test
@@ -187,6 +302,7 @@ public class UserServiceTests {
     public void testUserServiceValidateManager() throws Exception {
 
         Assertions.assertEquals("User IS NOW a MANAGER", userService.validateManager(new UserIdDTO(4L)));
+        verify(userDetailsCache, times(1)).evict("messi4@gmail.com");
 
     }
 
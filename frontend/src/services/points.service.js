@@ -8,8 +8,8 @@ const getCurrentPoints = () => {
   return axios.get(`${API_URL_BASE}/points`, { headers: authHeader() });
 };
 
-const getPointsHistory = () => {
-  return axios.get(`${API_URL_BASE}/points/history`, { headers: authHeader() });
+const getPointsHistory = (params = {}) => {
+  return axios.get(`${API_URL_BASE}/points/history`, { headers: authHeader(), params });
 };
 
 const pointsService = {